@@ -0,0 +1,76 @@
+package ru.obukhov.trader.common.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.support.CronExpression;
+import ru.obukhov.trader.common.util.DateUtils;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of evaluation of balance increment cron at every simulated minute of back test
+ * with consumption of {@link CronHits} precomputed once per back test.
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CronHitsBenchmark}.
+ * Last results are kept in {@code src/jmh/results/CronHitsBenchmark.txt}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CronHitsBenchmark {
+
+    /**
+     * Monthly deposit
+     */
+    @Param({"0 0 0 1 * ?"})
+    private String cron;
+
+    @Param({"5"})
+    private int years;
+
+    private CronExpression expression;
+    private Interval interval;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expression = CronExpression.parse(cron);
+        final OffsetDateTime from = OffsetDateTime.of(2019, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        interval = Interval.of(from, from.plusYears(years));
+    }
+
+    @Benchmark
+    public int getCronHitsEveryMinute() {
+        int hits = 0;
+        final OffsetDateTime to = interval.getTo();
+        for (OffsetDateTime minute = interval.getFrom(); minute.isBefore(to); minute = minute.plusMinutes(1)) {
+            hits += DateUtils.getCronHitsBetweenDates(expression, minute, minute.plusMinutes(1)).size();
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int getPrecomputedCronHits() {
+        int hits = 0;
+        final CronHits.Cursor cursor = CronHits.of(expression, interval).cursor();
+        final OffsetDateTime to = interval.getTo();
+        for (OffsetDateTime minute = interval.getFrom(); minute.isBefore(to); minute = minute.plusMinutes(1)) {
+            hits += cursor.next(minute, minute.plusMinutes(1)).size();
+        }
+        return hits;
+    }
+
+}
@@ -0,0 +1,90 @@
+package ru.obukhov.trader.common.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.config.properties.MovingAverageProperties;
+import ru.obukhov.trader.market.model.MovingAverageType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of {@link BigDecimal} averagers and their {@code double} counterparts over random walk of prices.
+ * Run: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MovingAveragerBenchmark}.
+ * Last results are kept in {@code src/jmh/results/MovingAveragerBenchmark.txt}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovingAveragerBenchmark {
+
+    @Param({"SMA", "LWMA", "EWMA", "SMA_DOUBLE", "LWMA_DOUBLE", "EWMA_DOUBLE"})
+    private String type;
+
+    @Param({"50", "200"})
+    private int window;
+
+    @Param({"100000"})
+    private int size;
+
+    private MovingAverager averager;
+    private List<BigDecimal> values;
+    private double[] doubleValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        averager = createAverager(MovingAverageType.from(type));
+
+        final Random random = new Random(1);
+        values = new ArrayList<>(size);
+        doubleValues = new double[size];
+        double price = 1000;
+        for (int i = 0; i < size; i++) {
+            price = Math.max(1, price * (1 + random.nextGaussian() * 0.002));
+            values.add(DecimalUtils.setDefaultScale(price));
+            doubleValues[i] = values.get(i).doubleValue();
+        }
+    }
+
+    @Benchmark
+    public List<BigDecimal> getAverages() {
+        return averager.getAverages(values, window, 1);
+    }
+
+    @Benchmark
+    public double[] getAveragesOfDoubles() {
+        return averager instanceof DoubleMovingAverager doubleAverager
+                ? doubleAverager.getAverages(doubleValues, window, 1)
+                : null;
+    }
+
+    private static MovingAverager createAverager(final MovingAverageType type) {
+        final MovingAverageProperties properties = new MovingAverageProperties(false);
+        return switch (type) {
+            case SIMPLE -> new SimpleMovingAverager();
+            case LINEAR_WEIGHTED -> new LinearMovingAverager();
+            case EXPONENTIAL_WEIGHTED -> new ExponentialMovingAverager();
+            case SIMPLE_DOUBLE -> new DoubleSimpleMovingAverager(properties);
+            case LINEAR_WEIGHTED_DOUBLE -> new DoubleLinearMovingAverager(properties);
+            case EXPONENTIAL_WEIGHTED_DOUBLE -> new DoubleExponentialMovingAverager(properties);
+        };
+    }
+
+}
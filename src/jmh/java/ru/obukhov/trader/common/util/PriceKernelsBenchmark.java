@@ -0,0 +1,72 @@
+package ru.obukhov.trader.common.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of scalar and vectorized {@link PriceKernels}.
+ * Run: {@code mvn -Pbenchmark,vector test-compile exec:exec -Dbenchmark=PriceKernelsBenchmark}.
+ * Last results are kept in {@code src/jmh/results/PriceKernelsBenchmark.txt}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PriceKernelsBenchmark {
+
+    @Param({"scalar", "vector"})
+    private String kernelsType;
+
+    @Param({"50", "200"})
+    private int window;
+
+    @Param({"100000"})
+    private int size;
+
+    private PriceKernels kernels;
+    private double[] values;
+    private double[] averages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernels = "scalar".equals(kernelsType) ? new ScalarPriceKernels() : PriceKernels.getInstance();
+
+        final Random random = new Random(1);
+        values = new double[size];
+        double price = 1000;
+        for (int i = 0; i < size; i++) {
+            price = Math.max(1, price * (1 + random.nextGaussian() * 0.002));
+            values[i] = price;
+        }
+
+        averages = new double[size];
+    }
+
+    @Benchmark
+    public double[] getSimpleMovingAverages() {
+        kernels.getSimpleMovingAverages(values, window, averages);
+        return averages;
+    }
+
+    @Benchmark
+    public double[] getLinearMovingAverages() {
+        kernels.getLinearMovingAverages(values, window, averages);
+        return averages;
+    }
+
+}
@@ -0,0 +1,16 @@
+package ru.obukhov.trader.common.exception;
+
+import lombok.Getter;
+import ru.obukhov.trader.trading.model.BackTestRejectionReason;
+
+@Getter
+public class BackTestRejectedException extends RuntimeException {
+
+    private final BackTestRejectionReason reason;
+
+    public BackTestRejectedException(final BackTestRejectionReason reason, final String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+}
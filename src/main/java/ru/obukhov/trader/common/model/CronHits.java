@@ -0,0 +1,115 @@
+package ru.obukhov.trader.common.model;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hits of cron expression within interval, calculated once and kept as sorted array of epoch seconds.<br/>
+ * Counting of hits between dates takes binary search instead of repeated {@link CronExpression#next} calls.
+ * Hits are consumed sequentially by {@link Cursor}.<br/>
+ * Immutable, so single instance may be shared between threads. Cursors are not thread-safe
+ */
+public class CronHits {
+
+    public static final CronHits EMPTY = new CronHits(new long[0], ZoneOffset.UTC);
+
+    private final long[] epochSeconds;
+    private final ZoneOffset offset;
+
+    private CronHits(final long[] epochSeconds, final ZoneOffset offset) {
+        this.epochSeconds = epochSeconds;
+        this.offset = offset;
+    }
+
+    /**
+     * @return hits of given {@code expression} within given {@code interval} [from, to).
+     * Hits have offset of {@code interval.getFrom()}. If {@code expression} is null, then {@link #EMPTY}
+     */
+    public static CronHits of(@Nullable final CronExpression expression, final Interval interval) {
+        if (expression == null || !interval.getFrom().isBefore(interval.getTo())) {
+            return EMPTY;
+        }
+
+        long[] hits = new long[16];
+        int size = 0;
+        final OffsetDateTime to = interval.getTo();
+        OffsetDateTime current = expression.next(interval.getFrom().minusNanos(1));
+        while (current != null && current.isBefore(to)) {
+            if (size == hits.length) {
+                hits = Arrays.copyOf(hits, size * 2);
+            }
+            hits[size++] = current.toEpochSecond();
+            current = expression.next(current);
+        }
+
+        return new CronHits(Arrays.copyOf(hits, size), interval.getFrom().getOffset());
+    }
+
+    public int size() {
+        return epochSeconds.length;
+    }
+
+    /**
+     * @return count of hits within [{@code from}, {@code to})
+     */
+    public int count(final OffsetDateTime from, final OffsetDateTime to) {
+        return Math.max(indexOf(to) - indexOf(from), 0);
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * @return index of the first hit not before given {@code dateTime} or {@link #size()} if there is no such hit
+     */
+    private int indexOf(final OffsetDateTime dateTime) {
+        final long key = dateTime.getNano() == 0 ? dateTime.toEpochSecond() : dateTime.toEpochSecond() + 1;
+        final int index = Arrays.binarySearch(epochSeconds, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private OffsetDateTime get(final int index) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds[index]), offset);
+    }
+
+    /**
+     * Position within hits. Every hit is returned by cursor once, so consecutive intervals may be passed to it
+     */
+    public class Cursor {
+
+        private int position;
+
+        private Cursor() {
+            this.position = 0;
+        }
+
+        /**
+         * @return hits within [{@code from}, {@code to}), which were not returned by this cursor before
+         */
+        public List<OffsetDateTime> next(final OffsetDateTime from, final OffsetDateTime to) {
+            final int start = Math.max(position, indexOf(from));
+            final int end = indexOf(to);
+            if (end <= start) {
+                return Collections.emptyList();
+            }
+
+            final List<OffsetDateTime> result = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                result.add(get(i));
+            }
+            position = end;
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package ru.obukhov.trader.common.service.impl;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * Moving average of higher order. Every pushed value is averaged by all stages in order,
+ * so each stage averages output of previous one, same as each pass of batch averaging
+ */
+final class ChainedMovingAverage implements MovingAverage {
+
+    private final MovingAverage[] stages;
+
+    private ChainedMovingAverage(final MovingAverage[] stages) {
+        this.stages = stages;
+    }
+
+    /**
+     * @return single stage created by {@code stageFactory} when {@code order} is 1, otherwise chain of {@code order} stages
+     */
+    static MovingAverage of(final int order, final Supplier<MovingAverage> stageFactory) {
+        if (order == 1) {
+            return stageFactory.get();
+        }
+
+        final MovingAverage[] stages = new MovingAverage[order];
+        for (int i = 0; i < order; i++) {
+            stages[i] = stageFactory.get();
+        }
+        return new ChainedMovingAverage(stages);
+    }
+
+    @Override
+    public BigDecimal push(final BigDecimal value) {
+        BigDecimal average = value;
+        for (final MovingAverage stage : stages) {
+            average = stage.push(average);
+        }
+        return average;
+    }
+
+    @Override
+    public BigDecimal get() {
+        return stages[stages.length - 1].get();
+    }
+
+    @Override
+    public MovingAverage copy() {
+        final MovingAverage[] stagesCopy = new MovingAverage[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            stagesCopy[i] = stages[i].copy();
+        }
+        return new ChainedMovingAverage(stagesCopy);
+    }
+
+}
@@ -0,0 +1,61 @@
+package ru.obukhov.trader.common.service.impl;
+
+import org.springframework.stereotype.Service;
+import ru.obukhov.trader.config.properties.MovingAverageProperties;
+
+/**
+ * {@code double} counterpart of {@link ExponentialMovingAverager}
+ */
+@Service
+public class DoubleExponentialMovingAverager extends DoubleMovingAverager {
+
+    public DoubleExponentialMovingAverager(final MovingAverageProperties movingAverageProperties) {
+        super(new ExponentialMovingAverager(), movingAverageProperties);
+    }
+
+    @Override
+    protected DoubleMovingAverage createPass(final int window) {
+        return new ExponentialMovingAverage(2.0 / (window + 1));
+    }
+
+    /**
+     * Rounding error of every step is multiplied by {@code 1 - weightDecrease} at next step, so errors don't accumulate
+     */
+    private static final class ExponentialMovingAverage implements DoubleMovingAverage {
+
+        private final double weightDecrease;
+        private final double revertedWeightDecrease;
+        private boolean empty = true;
+        private double average;
+
+        private ExponentialMovingAverage(final double weightDecrease) {
+            this.weightDecrease = weightDecrease;
+            this.revertedWeightDecrease = 1.0 - weightDecrease;
+        }
+
+        private ExponentialMovingAverage(final ExponentialMovingAverage source) {
+            this.weightDecrease = source.weightDecrease;
+            this.revertedWeightDecrease = source.revertedWeightDecrease;
+            this.empty = source.empty;
+            this.average = source.average;
+        }
+
+        @Override
+        public double push(final double value) {
+            if (empty) {
+                empty = false;
+                average = value;
+            } else {
+                average = value * weightDecrease + average * revertedWeightDecrease;
+            }
+            return average;
+        }
+
+        @Override
+        public DoubleMovingAverage copy() {
+            return new ExponentialMovingAverage(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package ru.obukhov.trader.common.service.impl;
+
+import org.springframework.stereotype.Service;
+import ru.obukhov.trader.common.util.PriceKernels;
+import ru.obukhov.trader.config.properties.MovingAverageProperties;
+
+/**
+ * {@code double} counterpart of {@link LinearMovingAverager}
+ */
+@Service
+public class DoubleLinearMovingAverager extends DoubleMovingAverager {
+
+    public DoubleLinearMovingAverager(final MovingAverageProperties movingAverageProperties) {
+        super(new LinearMovingAverager(), movingAverageProperties);
+    }
+
+    /**
+     * Calculates batch pass by {@link PriceKernels}
+     */
+    @Override
+    protected void averageInPlace(final double[] values, final int window) {
+        PriceKernels.getInstance().getLinearMovingAverages(values, window, values);
+    }
+
+    @Override
+    protected DoubleMovingAverage createPass(final int window) {
+        return new LinearMovingAverage(window);
+    }
+
+    /**
+     * Keeps last {@code window} values in ring buffer, their sum and their weighted sum.
+     * When window moves, weight of every kept value decreases by 1, so weighted sum decreases by plain sum.
+     * Sums are recalculated from buffer every time buffer is overwritten completely
+     */
+    private static final class LinearMovingAverage implements DoubleMovingAverage {
+
+        private final int window;
+        private final double[] values;
+        private int count;
+        private int index;
+        private double sum;
+        private double weightedSum;
+
+        private LinearMovingAverage(final int window) {
+            this.window = window;
+            this.values = new double[window];
+        }
+
+        private LinearMovingAverage(final LinearMovingAverage source) {
+            this.window = source.window;
+            this.values = source.values.clone();
+            this.count = source.count;
+            this.index = source.index;
+            this.sum = source.sum;
+            this.weightedSum = source.weightedSum;
+        }
+
+        @Override
+        public double push(final double value) {
+            if (count < window) {
+                count++;
+                weightedSum += value * count;
+                sum += value;
+            } else {
+                weightedSum += value * window - sum;
+                sum += value - values[index];
+            }
+
+            values[index] = value;
+            index++;
+            if (index == window) {
+                index = 0;
+                recalculateSums();
+            }
+
+            return weightedSum / (count * (count + 1) / 2.0);
+        }
+
+        @Override
+        public DoubleMovingAverage copy() {
+            return new LinearMovingAverage(this);
+        }
+
+        /**
+         * Buffer is overwritten completely, so its values are in order from oldest to newest
+         */
+        private void recalculateSums() {
+            sum = 0;
+            weightedSum = 0;
+            for (int i = 0; i < window; i++) {
+                sum += values[i];
+                weightedSum += values[i] * (i + 1);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package ru.obukhov.trader.common.service.impl;
+
+/**
+ * Single pass of moving average of stream of {@code double} values. Primitive counterpart of {@link MovingAverage}.<br/>
+ * Not thread-safe
+ */
+interface DoubleMovingAverage {
+
+    /**
+     * Adds given {@code value} to averaged values
+     *
+     * @return current average
+     */
+    double push(final double value);
+
+    /**
+     * @return independent average with the same state
+     */
+    DoubleMovingAverage copy();
+
+}
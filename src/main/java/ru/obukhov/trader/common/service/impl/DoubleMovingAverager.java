@@ -0,0 +1,221 @@
+package ru.obukhov.trader.common.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.Assert;
+import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.common.util.PriceKernels;
+import ru.obukhov.trader.config.properties.MovingAverageProperties;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Moving averager calculating in {@code double} arithmetic instead of {@link BigDecimal}.
+ * Values are converted to {@code double} once at input and averages are converted to {@link BigDecimal}
+ * with default scale once at output, so there are no allocations per arithmetic operation.<br/>
+ * <br/>
+ * Error bound. Every pass keeps sums of values within blocks of {@code window} length, either running sums of
+ * streaming passes recalculated from scratch every {@code window} values or block sums of {@link PriceKernels},
+ * so rounding errors don't accumulate along the series.
+ * Absolute error of every pass doesn't exceed {@code window * 2^-49 * max(|value|)}.
+ * Averages are convex combinations of values, so passes don't amplify errors of previous passes,
+ * and absolute error of result doesn't exceed {@code order * window * 2^-49 * max(|value|)}
+ * plus {@code 0.5 * 10^-9} of final rounding to default scale.
+ * For values below {@code 10^5} and windows up to 200 it is below {@code 4 * 10^-8}.<br/>
+ * {@link BigDecimal} averagers round every intermediate result to default scale, so their results deviate from exact
+ * values too. Simple and exponential ones accumulate this rounding along the series, so divergence between them and
+ * this averager may be greater than error bound, e.g. up to {@code 3 * 10^-8} for {@code 10^5} prices around {@code 5 * 10^4}.<br/>
+ * <br/>
+ * When {@link MovingAverageProperties#validationEnabled()} is true, every batch calculation is repeated
+ * by reference {@link BigDecimal} averager, and every average created by {@link #createAverage} is accompanied by reference one,
+ * which gets the same pushed values. Maximum absolute divergence of results is logged and kept in {@link #getMaxDivergence()}
+ */
+@Slf4j
+public abstract class DoubleMovingAverager implements MovingAverager {
+
+    private static final double SCALE_MULTIPLIER = Math.pow(10, DecimalUtils.DEFAULT_SCALE);
+    private static final double MAX_SCALED_VALUE = Long.MAX_VALUE / SCALE_MULTIPLIER;
+
+    private final MovingAverager referenceAverager;
+    private final boolean validationEnabled;
+    private final DoubleAccumulator maxDivergence = new DoubleAccumulator(Math::max, 0);
+
+    protected DoubleMovingAverager(final MovingAverager referenceAverager, final MovingAverageProperties movingAverageProperties) {
+        this.referenceAverager = referenceAverager;
+        this.validationEnabled = movingAverageProperties.validationEnabled();
+    }
+
+    /**
+     * @return single pass of averaging with given {@code window}
+     */
+    protected abstract DoubleMovingAverage createPass(final int window);
+
+    @Override
+    public List<BigDecimal> getAverages(final List<BigDecimal> values, final int window, final int order) {
+        final double[] doubleValues = new double[values.size()];
+        for (int i = 0; i < doubleValues.length; i++) {
+            doubleValues[i] = values.get(i).doubleValue();
+        }
+
+        final double[] doubleAverages = getAverages(doubleValues, window, order);
+
+        final List<BigDecimal> averages = new ArrayList<>(doubleAverages.length);
+        for (final double average : doubleAverages) {
+            averages.add(toBigDecimal(average));
+        }
+
+        if (validationEnabled) {
+            validate(values, window, order, averages);
+        }
+
+        return averages;
+    }
+
+    /**
+     * Primitive counterpart of {@link #getAverages(List, int, int)}
+     *
+     * @return new array of averages of given {@code values}
+     */
+    public double[] getAverages(final double[] values, final int window, final int order) {
+        Assert.isTrue(window > 0, "window must be positive");
+        Assert.isTrue(order > 0, "order must be positive");
+
+        final double[] averages = values.clone();
+        for (int i = 0; i < order; i++) {
+            averageInPlace(averages, window);
+        }
+
+        return averages;
+    }
+
+    /**
+     * Replaces given {@code values} by single pass of their averages with given {@code window}.
+     * By default, pushes values to pass created by {@link #createPass}
+     */
+    protected void averageInPlace(final double[] values, final int window) {
+        final DoubleMovingAverage pass = createPass(window);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = pass.push(values[i]);
+        }
+    }
+
+    @Override
+    public MovingAverage createAverage(final int window, final int order) {
+        Assert.isTrue(window > 0, "window must be positive");
+        Assert.isTrue(order > 0, "order must be positive");
+
+        final DoubleMovingAverage[] passes = new DoubleMovingAverage[order];
+        for (int i = 0; i < order; i++) {
+            passes[i] = createPass(window);
+        }
+        final MovingAverage referenceAverage = validationEnabled ? referenceAverager.createAverage(window, order) : null;
+        return new ChainedDoubleMovingAverage(passes, referenceAverage, window, order);
+    }
+
+    /**
+     * @return maximum absolute divergence between results of this averager and reference {@link BigDecimal} averager
+     * over all validated calculations
+     */
+    public double getMaxDivergence() {
+        return maxDivergence.get();
+    }
+
+    /**
+     * @return given {@code value} with default scale. Values fitting into {@code long} after scaling are converted
+     * via scaled {@code long}, which is much cheaper than conversion via decimal string
+     */
+    private static BigDecimal toBigDecimal(final double value) {
+        if (Math.abs(value) < MAX_SCALED_VALUE) {
+            return BigDecimal.valueOf(Math.round(value * SCALE_MULTIPLIER), DecimalUtils.DEFAULT_SCALE);
+        }
+        return DecimalUtils.setDefaultScale(value);
+    }
+
+    private void validate(final List<BigDecimal> values, final int window, final int order, final List<BigDecimal> averages) {
+        final List<BigDecimal> referenceAverages = referenceAverager.getAverages(values, window, order);
+
+        double divergence = 0;
+        for (int i = 0; i < averages.size(); i++) {
+            divergence = Math.max(divergence, getDivergence(averages.get(i), referenceAverages.get(i)));
+        }
+        accumulateDivergence(divergence, window, order, values.size());
+    }
+
+    private static double getDivergence(final BigDecimal average, final BigDecimal referenceAverage) {
+        return average.subtract(referenceAverage).abs().doubleValue();
+    }
+
+    private void accumulateDivergence(final double divergence, final int window, final int order, final int valuesCount) {
+        final double previousMaxDivergence = maxDivergence.get();
+        maxDivergence.accumulate(divergence);
+        if (divergence > previousMaxDivergence) {
+            log.info("Max divergence of {} from reference averager increased to {} (window = {}, order = {}, values count = {})",
+                    getClass().getSimpleName(), divergence, window, order, valuesCount);
+        }
+    }
+
+    /**
+     * Chain of passes of streaming averaging. When {@code referenceAverage} is set, it gets the same values
+     * and divergence of every average from reference one is accumulated by averager
+     */
+    private final class ChainedDoubleMovingAverage implements MovingAverage {
+
+        private final DoubleMovingAverage[] passes;
+        @Nullable
+        private final MovingAverage referenceAverage;
+        private final int window;
+        private final int order;
+        private int valuesCount;
+        private BigDecimal average;
+
+        private ChainedDoubleMovingAverage(
+                final DoubleMovingAverage[] passes,
+                @Nullable final MovingAverage referenceAverage,
+                final int window,
+                final int order
+        ) {
+            this.passes = passes;
+            this.referenceAverage = referenceAverage;
+            this.window = window;
+            this.order = order;
+        }
+
+        @Override
+        public BigDecimal push(final BigDecimal value) {
+            double doubleAverage = value.doubleValue();
+            for (final DoubleMovingAverage pass : passes) {
+                doubleAverage = pass.push(doubleAverage);
+            }
+            average = toBigDecimal(doubleAverage);
+            valuesCount++;
+
+            if (referenceAverage != null) {
+                accumulateDivergence(getDivergence(average, referenceAverage.push(value)), window, order, valuesCount);
+            }
+            return average;
+        }
+
+        @Override
+        public BigDecimal get() {
+            return average;
+        }
+
+        @Override
+        public MovingAverage copy() {
+            final DoubleMovingAverage[] passesCopy = new DoubleMovingAverage[passes.length];
+            for (int i = 0; i < passes.length; i++) {
+                passesCopy[i] = passes[i].copy();
+            }
+            final MovingAverage referenceAverageCopy = referenceAverage == null ? null : referenceAverage.copy();
+            final ChainedDoubleMovingAverage copy = new ChainedDoubleMovingAverage(passesCopy, referenceAverageCopy, window, order);
+            copy.valuesCount = valuesCount;
+            copy.average = average;
+            return copy;
+        }
+
+    }
+
+}
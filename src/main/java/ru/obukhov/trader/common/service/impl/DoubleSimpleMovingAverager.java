@@ -0,0 +1,89 @@
+package ru.obukhov.trader.common.service.impl;
+
+import org.springframework.stereotype.Service;
+import ru.obukhov.trader.common.util.PriceKernels;
+import ru.obukhov.trader.config.properties.MovingAverageProperties;
+
+/**
+ * {@code double} counterpart of {@link SimpleMovingAverager}
+ */
+@Service
+public class DoubleSimpleMovingAverager extends DoubleMovingAverager {
+
+    public DoubleSimpleMovingAverager(final MovingAverageProperties movingAverageProperties) {
+        super(new SimpleMovingAverager(), movingAverageProperties);
+    }
+
+    /**
+     * Calculates batch pass by {@link PriceKernels}, which may be vectorized
+     */
+    @Override
+    protected void averageInPlace(final double[] values, final int window) {
+        PriceKernels.getInstance().getSimpleMovingAverages(values, window, values);
+    }
+
+    @Override
+    protected DoubleMovingAverage createPass(final int window) {
+        return new SimpleMovingAverage(window);
+    }
+
+    /**
+     * Keeps last {@code window} values in ring buffer and their sum.
+     * Sum is recalculated from buffer every time buffer is overwritten completely
+     */
+    private static final class SimpleMovingAverage implements DoubleMovingAverage {
+
+        private final int window;
+        private final double[] values;
+        private int count;
+        private int index;
+        private double sum;
+
+        private SimpleMovingAverage(final int window) {
+            this.window = window;
+            this.values = new double[window];
+        }
+
+        private SimpleMovingAverage(final SimpleMovingAverage source) {
+            this.window = source.window;
+            this.values = source.values.clone();
+            this.count = source.count;
+            this.index = source.index;
+            this.sum = source.sum;
+        }
+
+        @Override
+        public double push(final double value) {
+            if (count < window) {
+                count++;
+                sum += value;
+            } else {
+                sum += value - values[index];
+            }
+
+            values[index] = value;
+            index++;
+            if (index == window) {
+                index = 0;
+                sum = getSum();
+            }
+
+            return sum / count;
+        }
+
+        @Override
+        public DoubleMovingAverage copy() {
+            return new SimpleMovingAverage(this);
+        }
+
+        private double getSum() {
+            double result = 0;
+            for (final double value : values) {
+                result += value;
+            }
+            return result;
+        }
+
+    }
+
+}
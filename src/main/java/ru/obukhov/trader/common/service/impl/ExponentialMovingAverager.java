@@ -31,6 +31,18 @@ public class ExponentialMovingAverager implements MovingAverager {
         return averages.stream().map(DecimalUtils::setDefaultScale).toList();
     }
 
+    @Override
+    public MovingAverage createAverage(final int window, final int order) {
+        Assert.isTrue(order > 0, "order must be positive");
+        Assert.isTrue(window > 0, "window must be positive");
+
+        final double weightDecrease = 2.0 / (window + 1);
+        final double revertedWeightDecrease = 1.0 - weightDecrease;
+        final MovingAverage average =
+                ChainedMovingAverage.of(order, () -> new ExponentialMovingAverage(weightDecrease, revertedWeightDecrease));
+        return new ScaledMovingAverage(average);
+    }
+
     private void updateAverages(final List<BigDecimal> averages, final double weightDecrease, final double revertedWeightDecrease) {
         BigDecimal average = averages.getFirst();
         final int size = averages.size();
@@ -52,4 +64,66 @@ public class ExponentialMovingAverager implements MovingAverager {
         return average;
     }
 
-}
\ No newline at end of file
+    /**
+     * Single pass of exponential averaging. Keeps average unscaled, same as batch averaging between passes
+     */
+    private static final class ExponentialMovingAverage implements MovingAverage {
+
+        private final double weightDecrease;
+        private final double revertedWeightDecrease;
+        private BigDecimal average;
+
+        private ExponentialMovingAverage(final double weightDecrease, final double revertedWeightDecrease) {
+            this.weightDecrease = weightDecrease;
+            this.revertedWeightDecrease = revertedWeightDecrease;
+        }
+
+        private ExponentialMovingAverage(final ExponentialMovingAverage source) {
+            this.weightDecrease = source.weightDecrease;
+            this.revertedWeightDecrease = source.revertedWeightDecrease;
+            this.average = source.average;
+        }
+
+        @Override
+        public BigDecimal push(final BigDecimal value) {
+            average = average == null
+                    ? value
+                    : DecimalUtils.multiply(value, weightDecrease).add(DecimalUtils.multiply(average, revertedWeightDecrease));
+            return average;
+        }
+
+        @Override
+        public BigDecimal get() {
+            return average;
+        }
+
+        @Override
+        public MovingAverage copy() {
+            return new ExponentialMovingAverage(this);
+        }
+
+    }
+
+    /**
+     * Sets default scale to result of all passes, same as batch averaging
+     */
+    private record ScaledMovingAverage(MovingAverage delegate) implements MovingAverage {
+
+        @Override
+        public BigDecimal push(final BigDecimal value) {
+            return DecimalUtils.setDefaultScale(delegate.push(value));
+        }
+
+        @Override
+        public BigDecimal get() {
+            return DecimalUtils.setDefaultScale(delegate.get());
+        }
+
+        @Override
+        public MovingAverage copy() {
+            return new ScaledMovingAverage(delegate.copy());
+        }
+
+    }
+
+}
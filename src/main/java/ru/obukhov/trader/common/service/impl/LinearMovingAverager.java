@@ -24,33 +24,88 @@ public class LinearMovingAverager implements MovingAverager {
         return averages;
     }
 
+    @Override
+    public MovingAverage createAverage(final int window, final int order) {
+        Assert.isTrue(window > 0, "window must be positive");
+        Assert.isTrue(order > 0, "order must be positive");
+
+        return ChainedMovingAverage.of(order, () -> new LinearMovingAverage(window));
+    }
+
     private List<BigDecimal> getAveragesInner(final List<BigDecimal> values, final int window) {
+        final LinearMovingAverage movingAverage = new LinearMovingAverage(window);
         final List<BigDecimal> weightedMovingAverages = new ArrayList<>(values.size());
-        int normalizedWindow = Math.min(window, values.size());
-
-        int i;
-        // filling of first {normalizedWindow} averages
-        for (i = 0; i < normalizedWindow; i++) {
-            weightedMovingAverages.add(getAverage(values, i, i + 1));
-        }
-        // filling of the rest averages
-        for (; i < values.size(); i++) {
-            weightedMovingAverages.add(getAverage(values, i, normalizedWindow));
+        for (final BigDecimal value : values) {
+            weightedMovingAverages.add(movingAverage.push(value));
         }
 
         return weightedMovingAverages;
     }
 
-    private BigDecimal getAverage(final List<BigDecimal> values, final int index, final int window) {
-        BigDecimal sum = DecimalUtils.multiply(values.get(index), window);
+    /**
+     * Calculates every average in constant time.
+     * Keeps last {@code window} values in ring buffer, their sum and their weighted sum.
+     * When window moves, weight of every kept value decreases by 1, so weighted sum decreases by plain sum.<br/>
+     * Sums are exact for values with scale not greater than {@link DecimalUtils#DEFAULT_SCALE},
+     * so results are equal to batch averaging
+     */
+    private static final class LinearMovingAverage implements MovingAverage {
+
+        private final int window;
+        private final BigDecimal[] values;
+        private int count;
+        private int index;
+        private BigDecimal sum = DecimalUtils.ZERO;
+        private BigDecimal weightedSum = DecimalUtils.ZERO;
+        private BigDecimal average;
+
+        private LinearMovingAverage(final int window) {
+            this.window = window;
+            this.values = new BigDecimal[window];
+        }
+
+        private LinearMovingAverage(final LinearMovingAverage source) {
+            this.window = source.window;
+            this.values = source.values.clone();
+            this.count = source.count;
+            this.index = source.index;
+            this.sum = source.sum;
+            this.weightedSum = source.weightedSum;
+            this.average = source.average;
+        }
+
+        @Override
+        public BigDecimal push(final BigDecimal value) {
+            final int currentWindow;
+            if (count < window) {
+                count++;
+                currentWindow = count;
+                weightedSum = weightedSum.add(DecimalUtils.multiply(value, currentWindow));
+                sum = sum.add(value);
+            } else {
+                currentWindow = window;
+                weightedSum = weightedSum.subtract(sum).add(DecimalUtils.multiply(value, window));
+                sum = sum.subtract(values[index]).add(value);
+            }
+
+            values[index] = value;
+            index = (index + 1) % window;
+
+            final double divisor = currentWindow * (currentWindow + 1) / 2.0;
+            average = DecimalUtils.divide(weightedSum, divisor);
+            return average;
+        }
+
+        @Override
+        public BigDecimal get() {
+            return average;
+        }
 
-        for (int i = index - 1; i > index - window; i--) {
-            int weight = window - (index - i);
-            sum = sum.add(DecimalUtils.multiply(values.get(i), weight));
+        @Override
+        public MovingAverage copy() {
+            return new LinearMovingAverage(this);
         }
 
-        final double divisor = window * (window + 1) / 2.0;
-        return DecimalUtils.divide(sum, divisor);
     }
 
-}
\ No newline at end of file
+}
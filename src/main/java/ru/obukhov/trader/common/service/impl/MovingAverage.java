@@ -0,0 +1,43 @@
+package ru.obukhov.trader.common.service.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Stateful moving average of stream of values. Streaming counterpart of {@link MovingAverager#getAverages}:
+ * after pushing of values one by one, {@link #get()} returns the same value as the last element of batch averages of these values.
+ * Every push takes constant time regardless of count of pushed values and window.<br/>
+ * Not thread-safe
+ */
+public interface MovingAverage {
+
+    /**
+     * Adds given {@code value} to averaged values
+     *
+     * @return current average
+     */
+    BigDecimal push(final BigDecimal value);
+
+    /**
+     * @return current average or null if no values were pushed
+     */
+    BigDecimal get();
+
+    /**
+     * @return independent average with the same state. Values pushed to copy don't affect this average and vice versa
+     */
+    MovingAverage copy();
+
+    /**
+     * Pushes given {@code values} in order
+     *
+     * @return current average
+     */
+    default BigDecimal pushAll(final List<BigDecimal> values) {
+        for (final BigDecimal value : values) {
+            push(value);
+        }
+        return get();
+    }
+
+}
@@ -1,6 +1,7 @@
 package ru.obukhov.trader.common.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,4 +15,36 @@ public interface MovingAverager {
 
     List<BigDecimal> getAverages(final List<BigDecimal> values, final int window, final int order);
 
+    /**
+     * Calculates averages with every of given {@code windows} within single pass over given {@code values}
+     *
+     * @return list of averages for every window in order of {@code windows}.
+     * Every list is equal to result of {@link #getAverages} with corresponding window and given {@code order}
+     */
+    default List<List<BigDecimal>> getAverages(final List<BigDecimal> values, final List<Integer> windows, final int order) {
+        final MovingAverage[] movingAverages = new MovingAverage[windows.size()];
+        final List<List<BigDecimal>> averages = new ArrayList<>(windows.size());
+        for (int i = 0; i < movingAverages.length; i++) {
+            movingAverages[i] = createAverage(windows.get(i), order);
+            averages.add(new ArrayList<>(values.size()));
+        }
+
+        for (final BigDecimal value : values) {
+            for (int i = 0; i < movingAverages.length; i++) {
+                averages.get(i).add(movingAverages[i].push(value));
+            }
+        }
+
+        return averages;
+    }
+
+    default MovingAverage createAverage(final int window) {
+        return createAverage(window, 1);
+    }
+
+    /**
+     * @return streaming counterpart of {@link #getAverages} with given {@code window} and {@code order}
+     */
+    MovingAverage createAverage(final int window, final int order);
+
 }
\ No newline at end of file
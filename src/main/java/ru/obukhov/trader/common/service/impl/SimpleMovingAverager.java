@@ -24,6 +24,14 @@ public class SimpleMovingAverager implements MovingAverager {
         return averages;
     }
 
+    @Override
+    public MovingAverage createAverage(final int window, final int order) {
+        Assert.isTrue(window > 0, "window must be positive");
+        Assert.isTrue(order > 0, "order must be positive");
+
+        return ChainedMovingAverage.of(order, () -> new SimpleMovingAverage(window));
+    }
+
     private List<BigDecimal> getAveragesInner(final List<BigDecimal> values, final int window) {
         final int size = values.size();
 
@@ -51,4 +59,60 @@ public class SimpleMovingAverager implements MovingAverager {
         return movingAverages;
     }
 
-}
\ No newline at end of file
+    /**
+     * Keeps last {@code window} values in ring buffer. Average is updated with the same arithmetic as in batch averaging,
+     * so results are equal
+     */
+    private static final class SimpleMovingAverage implements MovingAverage {
+
+        private final int window;
+        private final BigDecimal[] values;
+        private int count;
+        private int index;
+        private BigDecimal sum = DecimalUtils.ZERO;
+        private BigDecimal average;
+
+        private SimpleMovingAverage(final int window) {
+            this.window = window;
+            this.values = new BigDecimal[window];
+        }
+
+        private SimpleMovingAverage(final SimpleMovingAverage source) {
+            this.window = source.window;
+            this.values = source.values.clone();
+            this.count = source.count;
+            this.index = source.index;
+            this.sum = source.sum;
+            this.average = source.average;
+        }
+
+        @Override
+        public BigDecimal push(final BigDecimal value) {
+            if (count < window) {
+                sum = sum.add(value);
+                count++;
+                average = DecimalUtils.divide(sum, (double) count);
+            } else {
+                final BigDecimal excludedValue = DecimalUtils.divide(values[index], window);
+                final BigDecimal addedValue = DecimalUtils.divide(value, window);
+                average = average.subtract(excludedValue).add(addedValue);
+            }
+
+            values[index] = value;
+            index = (index + 1) % window;
+            return average;
+        }
+
+        @Override
+        public BigDecimal get() {
+            return average;
+        }
+
+        @Override
+        public MovingAverage copy() {
+            return new SimpleMovingAverage(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Adapts limit of {@link PrioritizedRateLimiter} to actual quota of server, which can differ from the documented one
+ * or be shared with other clients:
+ * <ul>
+ *     <li>limit reported by server is taken as is</li>
+ *     <li>when server rejects the call or reports exhausted quota, granting is paused till reset of quota.
+ *     On rejection limit is halved, if server doesn't report it. Rejections within pause don't halve limit again</li>
+ *     <li>while calls succeed and server doesn't report limit, limit is increased by one after every {@code limit} successful calls,
+ *     but not above the last limit reported by server, or above initial limit of {@code limiter} if server never reported it.
+ *     So lowered limit is recovered, but documented limit is never exceeded by probing</li>
+ * </ul>
+ * Limit is kept within [1, {@code maxLimit}]
+ */
+public class AdaptiveRateLimit {
+
+    private final PrioritizedRateLimiter limiter;
+    private final int maxLimit;
+    private final Duration defaultResetDelay;
+
+    private int limit;
+    /**
+     * Max limit, which can be reached by increases without limit reported by server
+     */
+    private int increaseLimit;
+    private int successesSinceIncrease;
+    private long pausedTill;
+
+    /**
+     * @param defaultResetDelay pause after rejection or exhausted quota, when server doesn't report time till reset of quota
+     */
+    public AdaptiveRateLimit(final PrioritizedRateLimiter limiter, final int maxLimit, final Duration defaultResetDelay) {
+        Assert.isTrue(maxLimit >= limiter.getLimit(), "maxLimit can't be lower than current limit");
+
+        this.limiter = limiter;
+        this.maxLimit = maxLimit;
+        this.defaultResetDelay = defaultResetDelay;
+        this.limit = limiter.getLimit();
+        this.increaseLimit = limit;
+        this.pausedTill = System.nanoTime();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized void onSuccess(final Quota quota) {
+        if (quota.limit() != null) {
+            successesSinceIncrease = 0;
+            setReportedLimit(quota.limit());
+        } else if (limit < increaseLimit && ++successesSinceIncrease >= limit) {
+            successesSinceIncrease = 0;
+            setLimit(limit + 1);
+        }
+
+        if (quota.remaining() != null && quota.remaining() <= 0) {
+            pause(quota);
+        }
+    }
+
+    public synchronized void onRejection(final Quota quota) {
+        successesSinceIncrease = 0;
+        if (quota.limit() != null) {
+            setReportedLimit(quota.limit());
+        } else if (System.nanoTime() - pausedTill >= 0) {
+            setLimit(limit / 2);
+        }
+        pause(quota);
+    }
+
+    private void setReportedLimit(final int reportedLimit) {
+        increaseLimit = Math.clamp(reportedLimit, 1, maxLimit);
+        setLimit(reportedLimit);
+    }
+
+    private void setLimit(final int newLimit) {
+        final int boundedLimit = Math.clamp(newLimit, 1, maxLimit);
+        if (boundedLimit != limit) {
+            limit = boundedLimit;
+            limiter.setLimit(boundedLimit);
+        }
+    }
+
+    private void pause(final Quota quota) {
+        final Duration delay = quota.reset() == null ? defaultResetDelay : quota.reset();
+        final long newPausedTill = System.nanoTime() + delay.toNanos();
+        if (newPausedTill - pausedTill > 0) {
+            pausedTill = newPausedTill;
+            limiter.pause(delay);
+        }
+    }
+
+    /**
+     * Quota of calls reported by server. Every value is null if it is not reported
+     *
+     * @param limit     max count of calls within window
+     * @param remaining count of calls remaining within current window
+     * @param reset     time till start of next window
+     */
+    public record Quota(Integer limit, Integer remaining, Duration reset) {
+
+        public static final Quota UNKNOWN = new Quota(null, null, null);
+
+    }
+
+}
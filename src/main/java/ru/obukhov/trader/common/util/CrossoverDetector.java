@@ -0,0 +1,79 @@
+package ru.obukhov.trader.common.util;
+
+import ru.obukhov.trader.trading.model.Crossover;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Incremental counterpart of {@link TrendUtils#getCrossoverIfLast(java.util.List, java.util.List, int)}.
+ * Consumes pairs of values one by one and keeps only the last run of pairs with equal relation,
+ * index of its start and relation before it.<br/>
+ * Crossover at index is last, when relation at index differs from relation at previous index, none of them is touch
+ * and relation is kept till the end, i.e. index is start of the last run. So every push and every check takes constant time.<br/>
+ * Not thread-safe
+ */
+public class CrossoverDetector {
+
+    private int size;
+    private int lastRunStart;
+    private int lastRunRelation;
+    private int previousRelation;
+
+    public CrossoverDetector() {
+    }
+
+    private CrossoverDetector(final CrossoverDetector source) {
+        this.size = source.size;
+        this.lastRunStart = source.lastRunStart;
+        this.lastRunRelation = source.lastRunRelation;
+        this.previousRelation = source.previousRelation;
+    }
+
+    /**
+     * Adds next pair of values
+     */
+    public void push(final BigDecimal value1, final BigDecimal value2) {
+        final int relation = Integer.signum(value1.compareTo(value2));
+        if (size == 0 || relation != lastRunRelation) {
+            previousRelation = lastRunRelation;
+            lastRunStart = size;
+            lastRunRelation = relation;
+        }
+        size++;
+    }
+
+    /**
+     * @return count of pushed pairs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the same result as {@link TrendUtils#getCrossoverIfLast(java.util.List, java.util.List, int)}
+     * for lists of all pushed values
+     * @throws IndexOutOfBoundsException if at least two pairs are pushed and {@code index} is not within [1, size)
+     */
+    public Crossover getCrossoverIfLast(final int index) {
+        if (size < 2) {
+            return Crossover.NONE;
+        }
+
+        Objects.checkIndex(index - 1, size);
+        Objects.checkIndex(index, size);
+
+        if (index != lastRunStart || lastRunRelation == 0 || previousRelation != -lastRunRelation) {
+            return Crossover.NONE;
+        }
+        return lastRunRelation < 0 ? Crossover.ABOVE : Crossover.BELOW;
+    }
+
+    /**
+     * @return independent detector with the same state
+     */
+    public CrossoverDetector copy() {
+        return new CrossoverDetector(this);
+    }
+
+}
@@ -0,0 +1,126 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+/**
+ * Streaming counterpart of {@link TrendUtils#getLocalExtremes(java.util.List, java.util.Comparator)}
+ * and {@link TrendUtils#getRestraintLines}.
+ * Consumes values one by one and reports every local extremum and restraint line to {@link Listener} as soon as it is known.
+ * Keeps only previous value and last extremum, so memory doesn't depend on count of values.<br/>
+ * Extremum is known when the next value moves away from it. Extremum at the last value is known only after {@link #finish()},
+ * because next values may continue the growth.<br/>
+ * Not thread-safe
+ */
+public class ExtremesDetector {
+
+    private final boolean maxima;
+    private final Listener listener;
+
+    private int size;
+    private boolean isGrowing = true;
+    private double previousValue;
+    private int lastExtremumIndex = -1;
+    private double lastExtremumValue;
+    private boolean finished;
+
+    private ExtremesDetector(final boolean maxima, final Listener listener) {
+        this.maxima = maxima;
+        this.listener = listener;
+    }
+
+    /**
+     * @return detector of local maxima, equivalent to {@link java.util.Comparator#naturalOrder()} in {@link TrendUtils}
+     */
+    public static ExtremesDetector ofMaxima(final Listener listener) {
+        return new ExtremesDetector(true, listener);
+    }
+
+    /**
+     * @return detector of local minima, equivalent to {@link java.util.Comparator#reverseOrder()} in {@link TrendUtils}
+     */
+    public static ExtremesDetector ofMinima(final Listener listener) {
+        return new ExtremesDetector(false, listener);
+    }
+
+    /**
+     * Adds next value. If it moves away from previous value, previous value is reported as extremum
+     *
+     * @throws IllegalStateException if detector is finished
+     */
+    public void push(final double value) {
+        Assert.state(!finished, "detector is finished");
+
+        if (size == 0 || isNotWorse(value, previousValue)) {
+            isGrowing = true;
+        } else if (isGrowing) {
+            onExtremum(size - 1, previousValue);
+            isGrowing = false;
+        }
+        previousValue = value;
+        size++;
+    }
+
+    /**
+     * Reports extremum at the last value, if there is one. No values can be pushed after that
+     *
+     * @throws IllegalStateException if detector is already finished
+     */
+    public void finish() {
+        Assert.state(!finished, "detector is finished");
+
+        finished = true;
+        if (size > 0 && isGrowing) {
+            onExtremum(size - 1, previousValue);
+        }
+    }
+
+    /**
+     * @return count of pushed values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return value of restraint line, built by extremes ({@code x1}, {@code y1}) and ({@code x2}, {@code y2}), at {@code x}.
+     * Same as {@link ru.obukhov.trader.common.model.Line#getValue}, but without {@link java.math.BigDecimal} arithmetic
+     */
+    public static double getLineValue(final int x1, final double y1, final int x2, final double y2, final int x) {
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    private boolean isNotWorse(final double value, final double previous) {
+        return maxima ? value >= previous : value <= previous;
+    }
+
+    private void onExtremum(final int index, final double value) {
+        listener.onExtremum(index, value);
+        if (lastExtremumIndex != -1) {
+            final int endIndex = lastExtremumIndex + (int) ((index - lastExtremumIndex) * TrendUtils.RESTRAINT_DURATION_FACTOR);
+            listener.onRestraintLine(lastExtremumIndex, lastExtremumValue, index, value, endIndex);
+        }
+        lastExtremumIndex = index;
+        lastExtremumValue = value;
+    }
+
+    public interface Listener {
+
+        void onExtremum(final int index, final double value);
+
+        /**
+         * Called for every consecutive pair of extremes right after the second of them.
+         * Line starts at first extremum and lasts till {@code endIndex}, which may be after the last pushed value.
+         * Values of line can be calculated by {@link #getLineValue}
+         */
+        default void onRestraintLine(
+                final int startIndex,
+                final double startValue,
+                final int extremumIndex,
+                final double extremumValue,
+                final int endIndex
+        ) {
+        }
+
+    }
+
+}
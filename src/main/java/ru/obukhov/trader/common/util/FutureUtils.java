@@ -0,0 +1,60 @@
+package ru.obukhov.trader.common.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@UtilityClass
+public class FutureUtils {
+
+    /**
+     * @return future completed by results of given {@code futures} in the same order when all of them are completed,
+     * or completed exceptionally when any of them is completed exceptionally
+     */
+    public static <T> CompletableFuture<List<T>> allOf(final Collection<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    final List<T> result = new ArrayList<>(futures.size());
+                    for (final CompletableFuture<T> future : futures) {
+                        result.add(future.join());
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * @return future completed by map of results of given {@code futures} in order of keys of {@code futures} when all of them
+     * are completed, or completed exceptionally when any of them is completed exceptionally
+     */
+    public static <K, V> CompletableFuture<SequencedMap<K, V>> allOf(final Map<K, CompletableFuture<V>> futures) {
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    final SequencedMap<K, V> result = LinkedHashMap.newLinkedHashMap(futures.size());
+                    futures.forEach((key, future) -> result.put(key, future.join()));
+                    return result;
+                });
+    }
+
+    /**
+     * Same as {@link CompletableFuture#join()}, but rethrows unchecked cause of {@link CompletionException} as is,
+     * so callers of synchronous wrappers get the same exceptions as from synchronous methods
+     */
+    public static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw exception;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * Keeps last {@code capacity} recorded durations to estimate percentiles of recent latency.
+ * Percentiles are exact within the window, and old durations stop affecting them
+ */
+public class LatencyWindow {
+
+    private final long[] nanos;
+    private final int minCount;
+    private int next;
+    private int count;
+
+    /**
+     * @param capacity count of last durations kept
+     * @param minCount min count of recorded durations to estimate percentiles
+     */
+    public LatencyWindow(final int capacity, final int minCount) {
+        Assert.isTrue(capacity > 0, "capacity must be positive");
+        Assert.isTrue(minCount > 0 && minCount <= capacity, "minCount must be positive and not greater than capacity");
+
+        this.nanos = new long[capacity];
+        this.minCount = minCount;
+    }
+
+    public synchronized void record(final long durationNanos) {
+        nanos[next] = durationNanos;
+        next = (next + 1) % nanos.length;
+        if (count < nanos.length) {
+            count++;
+        }
+    }
+
+    /**
+     * @param percentile value in range [0, 1], e.g. 0.95 for 95th percentile
+     * @return duration in nanoseconds, which is not exceeded by given {@code percentile} of kept durations,
+     * or -1 if there are less than {@code minCount} recorded durations
+     */
+    public long getPercentileNanos(final double percentile) {
+        Assert.isTrue(percentile >= 0 && percentile <= 1, "percentile must be in range [0, 1]");
+
+        final long[] sorted;
+        synchronized (this) {
+            if (count < minCount) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(nanos, count);
+        }
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+}
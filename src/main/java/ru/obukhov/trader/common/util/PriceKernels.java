@@ -0,0 +1,30 @@
+package ru.obukhov.trader.common.util;
+
+/**
+ * Element-wise computations over primitive arrays of prices.<br/>
+ * {@link #getInstance()} returns implementation vectorized by Vector API when application is built with {@code vector}
+ * Maven profile and started with {@code --add-modules jdk.incubator.vector}, otherwise returns {@link ScalarPriceKernels}
+ */
+public interface PriceKernels {
+
+    static PriceKernels getInstance() {
+        return PriceKernelsLoader.INSTANCE;
+    }
+
+    /**
+     * Calculates single pass of simple moving average.
+     * Sums are calculated within blocks of {@code window} length, so rounding errors don't accumulate along values
+     *
+     * @param averages array for results. May be the same as {@code values}
+     */
+    void getSimpleMovingAverages(final double[] values, final int window, final double[] averages);
+
+    /**
+     * Calculates single pass of linear weighted moving average.
+     * Sums are calculated within blocks of {@code window} length, so rounding errors don't accumulate along values
+     *
+     * @param averages array for results. May be the same as {@code values}
+     */
+    void getLinearMovingAverages(final double[] values, final int window, final double[] averages);
+
+}
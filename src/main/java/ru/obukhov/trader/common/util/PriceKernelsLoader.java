@@ -0,0 +1,34 @@
+package ru.obukhov.trader.common.util;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chooses implementation of {@link PriceKernels} once per application
+ */
+@Slf4j
+@UtilityClass
+class PriceKernelsLoader {
+
+    private static final String VECTOR_MODULE_NAME = "jdk.incubator.vector";
+    private static final String VECTOR_KERNELS_CLASS_NAME = "ru.obukhov.trader.common.util.VectorPriceKernels";
+
+    static final PriceKernels INSTANCE = load();
+
+    private static PriceKernels load() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE_NAME).isEmpty()) {
+            log.debug("Module {} is not added. Scalar price kernels are used", VECTOR_MODULE_NAME);
+            return new ScalarPriceKernels();
+        }
+
+        try {
+            final PriceKernels kernels = (PriceKernels) Class.forName(VECTOR_KERNELS_CLASS_NAME).getDeclaredConstructor().newInstance();
+            log.info("Vectorized price kernels are used");
+            return kernels;
+        } catch (final ReflectiveOperationException | LinkageError exception) {
+            log.info("Vectorized price kernels are not available. Scalar price kernels are used", exception);
+            return new ScalarPriceKernels();
+        }
+    }
+
+}
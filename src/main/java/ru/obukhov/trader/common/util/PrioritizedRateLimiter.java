@@ -0,0 +1,363 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SlidingWindowRateLimiter} shared by several priority classes. Class 0 has the highest priority.<br/>
+ * Every class has its share of {@code limit}. Calls of class can't hold more permits, than its share allows,
+ * so the rest of permits is reserved for higher classes. Within its share, calls of class wait in FIFO order.<br/>
+ * All permits of shared limiter are taken by single dispatcher one by one and every permit is given to the waiter of the highest class,
+ * so lower classes get only permits left by higher ones.<br/>
+ * Waiting time of every class is measured from the call till permit is granted.<br/>
+ * Limit can be changed by {@link #setLimit} and granting can be paused by {@link #pause}.
+ * Both replace limiters by new ones, which slots are as busy as the busiest slots of replaced limiters,
+ * so calls granted before the change are still taken into account within the next {@code interval}.
+ */
+public class PrioritizedRateLimiter {
+
+    private volatile SlidingWindowRateLimiter sharedLimiter;
+    private final PriorityClass[] classes;
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    /**
+     * Acquisition of shared permit, which dispatcher waits for
+     */
+    private volatile CompletableFuture<SlidingWindowRateLimiter.Permit> pendingAcquisition;
+    private final AtomicLong heldPermits = new AtomicLong();
+
+    /**
+     * @param shares shares of {@code limit} for every priority class, ordered by priority descending.
+     *               Share 1 means that class can take all permits
+     */
+    public PrioritizedRateLimiter(final int limit, final Duration interval, final double... shares) {
+        Assert.isTrue(shares.length > 0, "shares can't be empty");
+
+        this.sharedLimiter = new SlidingWindowRateLimiter(limit, interval);
+        this.classes = new PriorityClass[shares.length];
+        for (int i = 0; i < shares.length; i++) {
+            final double share = shares[i];
+            Assert.isTrue(share > 0 && share <= 1, "share must be within (0, 1]");
+            final SlidingWindowRateLimiter classLimiter = share == 1
+                    ? null
+                    : new SlidingWindowRateLimiter(Math.max(1, (int) (limit * share)), interval);
+            classes[i] = new PriorityClass(share, classLimiter);
+        }
+    }
+
+    /**
+     * Waits for permit as {@link SlidingWindowRateLimiter#acquire()} does
+     *
+     * @return acquired permit
+     */
+    public Permit acquire(final int priority) {
+        final PriorityClass priorityClass = classes[priority];
+        final long start = System.nanoTime();
+        priorityClass.waiting.incrementAndGet();
+        final SlidingWindowRateLimiter classLimiter = priorityClass.limiter;
+        final SlidingWindowRateLimiter.Permit classPermit = classLimiter == null ? null : classLimiter.acquire();
+        final Permit permit = tryGrantImmediately(priorityClass, start, classPermit);
+        return permit == null ? enqueue(priorityClass, start, classPermit).join() : permit;
+    }
+
+    /**
+     * Takes place in queue without blocking of calling thread
+     *
+     * @return future, completed by permit, when it is acquired. Dependent actions must not block
+     */
+    public CompletableFuture<Permit> acquireAsync(final int priority) {
+        final PriorityClass priorityClass = classes[priority];
+        final long start = System.nanoTime();
+        priorityClass.waiting.incrementAndGet();
+        final SlidingWindowRateLimiter classLimiter = priorityClass.limiter;
+        if (classLimiter == null) {
+            return acquireAsync(priorityClass, start, null);
+        }
+        return classLimiter.acquireAsync().thenCompose(classPermit -> acquireAsync(priorityClass, start, classPermit));
+    }
+
+    /**
+     * @return count of permits acquired or waited for, but not yet released
+     */
+    public long getPendingCount() {
+        return heldPermits.get() + getWaitingCount();
+    }
+
+    /**
+     * @return count of permits of shared limiter, which are not available right now
+     * @see SlidingWindowRateLimiter#getUsedCount()
+     */
+    public int getUsedCount() {
+        return sharedLimiter.getUsedCount();
+    }
+
+    public int getLimit() {
+        return sharedLimiter.getLimit();
+    }
+
+    /**
+     * Changes max count of calls within {@code interval}. Shares of priority classes are applied to new limit
+     */
+    public synchronized void setLimit(final int limit) {
+        replaceLimiters(limit, System.nanoTime());
+    }
+
+    /**
+     * Stops granting of permits for given {@code duration} keeping current limit
+     */
+    public synchronized void pause(final Duration duration) {
+        replaceLimiters(getLimit(), System.nanoTime() + duration.toNanos());
+    }
+
+    private void replaceLimiters(final int limit, final long notBefore) {
+        Assert.isTrue(limit > 0, "limit must be positive");
+
+        for (final PriorityClass priorityClass : classes) {
+            if (priorityClass.limiter != null) {
+                final int classLimit = Math.max(1, (int) (limit * priorityClass.share));
+                priorityClass.limiter = priorityClass.limiter.withLimit(classLimit, notBefore);
+            }
+        }
+        sharedLimiter = sharedLimiter.withLimit(limit, notBefore);
+
+        // dispatcher may wait for permit of replaced limiter. If the waiting is cancelled, then dispatching is restarted with new limiter
+        final CompletableFuture<SlidingWindowRateLimiter.Permit> acquisition = pendingAcquisition;
+        if (acquisition != null && acquisition.cancel(false)) {
+            dispatching.set(false);
+            dispatch();
+        }
+    }
+
+    /**
+     * @return count of calls of all priority classes waiting for permit
+     */
+    public int getWaitingCount() {
+        int waitingCount = 0;
+        for (final PriorityClass priorityClass : classes) {
+            waitingCount += priorityClass.waiting.get();
+        }
+        return waitingCount;
+    }
+
+    /**
+     * @return statistics of every priority class, ordered by priority descending
+     */
+    public List<Statistics> getStatistics() {
+        final List<Statistics> statistics = new ArrayList<>(classes.length);
+        for (final PriorityClass priorityClass : classes) {
+            statistics.add(priorityClass.getStatistics());
+        }
+        return statistics;
+    }
+
+    private CompletableFuture<Permit> acquireAsync(
+            final PriorityClass priorityClass,
+            final long start,
+            final SlidingWindowRateLimiter.Permit classPermit
+    ) {
+        final Permit permit = tryGrantImmediately(priorityClass, start, classPermit);
+        return permit == null ? enqueue(priorityClass, start, classPermit) : CompletableFuture.completedFuture(permit);
+    }
+
+    /**
+     * Fast path for the case, when nobody waits and permit of shared limiter is available
+     *
+     * @return granted permit or null if permit is not available immediately
+     */
+    private Permit tryGrantImmediately(
+            final PriorityClass priorityClass,
+            final long start,
+            final SlidingWindowRateLimiter.Permit classPermit
+    ) {
+        if (hasWaiters() || !dispatching.compareAndSet(false, true)) {
+            return null;
+        }
+
+        final SlidingWindowRateLimiter.Permit sharedPermit = sharedLimiter.tryAcquire();
+        dispatching.set(false);
+        // waiters could be added while dispatching was taken
+        dispatch();
+        if (sharedPermit == null) {
+            return null;
+        }
+
+        heldPermits.incrementAndGet();
+        priorityClass.onGranted(System.nanoTime() - start);
+        return new Permit(sharedPermit, classPermit);
+    }
+
+    private CompletableFuture<Permit> enqueue(
+            final PriorityClass priorityClass,
+            final long start,
+            final SlidingWindowRateLimiter.Permit classPermit
+    ) {
+        final Waiter waiter = new Waiter(priorityClass, start, classPermit);
+        priorityClass.queue.add(waiter);
+        dispatch();
+        return waiter.future;
+    }
+
+    /**
+     * Takes permits of shared limiter while there are waiters and permits are available immediately.
+     * If permit is not available, waits for it asynchronously and continues dispatching after that.
+     * Only one thread dispatches at a time, others just leave their waiters in queues
+     */
+    private void dispatch() {
+        while (hasWaiters() && dispatching.compareAndSet(false, true)) {
+            final SlidingWindowRateLimiter limiter = sharedLimiter;
+            final SlidingWindowRateLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                final CompletableFuture<SlidingWindowRateLimiter.Permit> acquisition = limiter.acquireAsync();
+                pendingAcquisition = acquisition;
+                acquisition.thenAccept(acquired -> grantAndDispatch(limiter, acquired));
+                return;
+            }
+            grant(permit);
+        }
+    }
+
+    /**
+     * Grants given {@code permit} if it is acquired from current shared limiter, otherwise just releases it
+     */
+    private void grantAndDispatch(final SlidingWindowRateLimiter limiter, final SlidingWindowRateLimiter.Permit permit) {
+        if (limiter == sharedLimiter) {
+            grant(permit);
+        } else {
+            permit.release();
+            dispatching.set(false);
+        }
+        dispatch();
+    }
+
+    /**
+     * Gives permit to the waiter of the highest class and finishes dispatching.
+     * Waiter is completed after that, so dependent actions don't delay dispatching
+     */
+    private void grant(final SlidingWindowRateLimiter.Permit permit) {
+        final Waiter waiter = pollWaiter();
+        dispatching.set(false);
+        if (waiter == null) {
+            permit.release();
+        } else {
+            heldPermits.incrementAndGet();
+            waiter.grant(new Permit(permit, waiter.classPermit));
+        }
+    }
+
+    private boolean hasWaiters() {
+        for (final PriorityClass priorityClass : classes) {
+            if (!priorityClass.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Waiter pollWaiter() {
+        for (final PriorityClass priorityClass : classes) {
+            final Waiter waiter = priorityClass.queue.poll();
+            if (waiter != null) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param waiting           count of calls waiting for permit
+     * @param granted           count of granted permits
+     * @param averageWaitMillis average time of waiting for permit in milliseconds
+     * @param maxWaitMillis     max time of waiting for permit in milliseconds
+     */
+    public record Statistics(int waiting, long granted, double averageWaitMillis, double maxWaitMillis) {
+    }
+
+    private static final class PriorityClass {
+
+        private static final double NANOS_IN_MILLI = 1_000_000.0;
+
+        private final double share;
+        private volatile SlidingWindowRateLimiter limiter;
+        private final Queue<Waiter> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder granted = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private PriorityClass(final double share, final SlidingWindowRateLimiter limiter) {
+            this.share = share;
+            this.limiter = limiter;
+        }
+
+        private void onGranted(final long waitNanos) {
+            waiting.decrementAndGet();
+            granted.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        private Statistics getStatistics() {
+            final long grantedCount = granted.sum();
+            final double averageWaitMillis = grantedCount == 0 ? 0 : totalWaitNanos.sum() / NANOS_IN_MILLI / grantedCount;
+            return new Statistics(waiting.get(), grantedCount, averageWaitMillis, maxWaitNanos.get() / NANOS_IN_MILLI);
+        }
+
+    }
+
+    private static final class Waiter {
+
+        private final PriorityClass priorityClass;
+        private final long start;
+        private final SlidingWindowRateLimiter.Permit classPermit;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+        private Waiter(final PriorityClass priorityClass, final long start, final SlidingWindowRateLimiter.Permit classPermit) {
+            this.priorityClass = priorityClass;
+            this.start = start;
+            this.classPermit = classPermit;
+        }
+
+        private void grant(final Permit permit) {
+            priorityClass.onGranted(System.nanoTime() - start);
+            future.complete(permit);
+        }
+
+    }
+
+    /**
+     * Permit acquired from limiter. Must be released after the call, which it was acquired for.
+     * Repeated releases are ignored
+     */
+    public final class Permit {
+
+        private final SlidingWindowRateLimiter.Permit sharedPermit;
+        private final SlidingWindowRateLimiter.Permit classPermit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(final SlidingWindowRateLimiter.Permit sharedPermit, final SlidingWindowRateLimiter.Permit classPermit) {
+            this.sharedPermit = sharedPermit;
+            this.classPermit = classPermit;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                heldPermits.decrementAndGet();
+                sharedPermit.release();
+                if (classPermit != null) {
+                    classPermit.release();
+                }
+            }
+        }
+
+    }
+
+}
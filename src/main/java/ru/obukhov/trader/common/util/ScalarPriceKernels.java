@@ -0,0 +1,127 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link PriceKernels} implemented by plain loops. Works everywhere and is base for vectorized implementation,
+ * which overrides hot loops and keeps the rest
+ */
+public class ScalarPriceKernels implements PriceKernels {
+
+    @Override
+    public void getSimpleMovingAverages(final double[] values, final int window, final double[] averages) {
+        validate(values, window, averages);
+
+        final int size = values.length;
+        final double[] sums = new double[size];
+        getBlockSums(values, window, sums);
+
+        final int warmupSize = Math.min(window, size);
+        for (int i = 0; i < warmupSize; i++) {
+            averages[i] = sums[i] / (i + 1);
+        }
+
+        for (int blockStart = window; blockStart < size; blockStart += window) {
+            final int blockEnd = Math.min(blockStart + window, size);
+            combineSimpleSums(sums, window, blockStart, blockEnd, averages);
+        }
+    }
+
+    @Override
+    public void getLinearMovingAverages(final double[] values, final int window, final double[] averages) {
+        validate(values, window, averages);
+
+        final int size = values.length;
+        final double[] sums = new double[size];
+        final double[] weightedSums = new double[size];
+        getBlockSums(values, window, sums);
+        getBlockWeightedSums(values, window, weightedSums);
+
+        final int warmupSize = Math.min(window, size);
+        for (int i = 0; i < warmupSize; i++) {
+            averages[i] = weightedSums[i] / ((i + 1) * (i + 2) / 2.0);
+        }
+
+        for (int blockStart = window; blockStart < size; blockStart += window) {
+            final int blockEnd = Math.min(blockStart + window, size);
+            combineLinearSums(sums, weightedSums, window, blockStart, blockEnd, averages);
+        }
+    }
+
+    /**
+     * Fills {@code sums} with sums of {@code values} from start of block of {@code window} length
+     * containing index to the index inclusive
+     */
+    protected void getBlockSums(final double[] values, final int window, final double[] sums) {
+        for (int blockStart = 0; blockStart < values.length; blockStart += window) {
+            final int blockEnd = Math.min(blockStart + window, values.length);
+            double sum = 0;
+            for (int i = blockStart; i < blockEnd; i++) {
+                sum += values[i];
+                sums[i] = sum;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #getBlockSums}, but every value is multiplied by its offset from start of block plus 1
+     */
+    protected void getBlockWeightedSums(final double[] values, final int window, final double[] weightedSums) {
+        for (int blockStart = 0; blockStart < values.length; blockStart += window) {
+            final int blockEnd = Math.min(blockStart + window, values.length);
+            double sum = 0;
+            for (int i = blockStart; i < blockEnd; i++) {
+                sum += values[i] * (i - blockStart + 1);
+                weightedSums[i] = sum;
+            }
+        }
+    }
+
+    /**
+     * Sum of window ending at index within block is sum of block up to the index
+     * plus sum of previous block after corresponding index
+     */
+    protected void combineSimpleSums(
+            final double[] sums,
+            final int window,
+            final int blockStart,
+            final int blockEnd,
+            final double[] averages
+    ) {
+        final double previousBlockSum = sums[blockStart - 1];
+        for (int i = blockStart; i < blockEnd; i++) {
+            averages[i] = (sums[i] + previousBlockSum - sums[i - window]) / window;
+        }
+    }
+
+    /**
+     * Value at offset {@code j} of current block has weight {@code window - j + offset} within window ending at offset {@code j}.
+     * Value at offset {@code k > j} of previous block has weight {@code k - j}
+     */
+    protected void combineLinearSums(
+            final double[] sums,
+            final double[] weightedSums,
+            final int window,
+            final int blockStart,
+            final int blockEnd,
+            final double[] averages
+    ) {
+        final double previousBlockSum = sums[blockStart - 1];
+        final double previousBlockWeightedSum = weightedSums[blockStart - 1];
+        final double divisor = window * (window + 1) / 2.0;
+        for (int i = blockStart; i < blockEnd; i++) {
+            final int offset = i - blockStart;
+            final double weightedSum = (window - offset - 1) * sums[i]
+                    + weightedSums[i]
+                    + (previousBlockWeightedSum - weightedSums[i - window])
+                    - (offset + 1) * (previousBlockSum - sums[i - window]);
+            averages[i] = weightedSum / divisor;
+        }
+    }
+
+    private static void validate(final double[] values, final int window, final double[] averages) {
+        Assert.isTrue(window > 0, "window must be positive");
+        Assert.isTrue(averages.length >= values.length, "averages must be not shorter than values");
+    }
+
+}
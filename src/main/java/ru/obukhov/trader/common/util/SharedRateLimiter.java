@@ -0,0 +1,189 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limiter of calls shared by all processes of the host, which open the same file.
+ * Any time window of {@code interval} length contains not more than {@code limit} permits granted by all of them.<br/>
+ * File is memory-mapped and contains {@code limit} slots with {@link System#currentTimeMillis()} of the last permit granted by the slot.
+ * Permit is granted by CAS of a slot, which was taken at least {@code interval} ago, so there are no locks and no tickets,
+ * and permits of crashed process just expire. Slots taken in the future (when clock moves backward) are considered free.<br/>
+ * Count of slots is defined by the process, which creates the file, so all processes must use same {@code limit}.<br/>
+ * Acquisition may be limited by share of slots: permit is granted only while count of slots taken within {@code interval}
+ * is lower than the share of {@code limit}, so calls with lower share leave the rest of slots to calls with higher share
+ * of any process. Count is checked before CAS, so concurrent acquisitions may exceed the share by count of them,
+ * but never exceed {@code limit}.<br/>
+ * Unlike {@link SlidingWindowRateLimiter}, permits are not released and processes are not served in FIFO order,
+ * so it is intended to be used behind local limiter, which orders the calls of the process.
+ */
+public class SharedRateLimiter implements Closeable {
+
+    private static final VarHandle SLOTS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer slots;
+    private final int limit;
+    private final long intervalMillis;
+
+    public SharedRateLimiter(final Path file, final int limit, final Duration interval) throws IOException {
+        Assert.isTrue(limit > 0, "limit must be positive");
+        Assert.isTrue(!interval.isNegative(), "interval can't be negative");
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileLock ignored = channel.lock()) {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(limit * Long.BYTES), 0);
+            }
+            this.limit = (int) (channel.size() / Long.BYTES);
+            this.slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) this.limit * Long.BYTES);
+        } catch (final IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+        this.intervalMillis = interval.toMillis();
+    }
+
+    /**
+     * Waits for permit. Waiting is not interrupted. If calling thread is interrupted while waiting,
+     * its interrupted status is restored after acquisition
+     *
+     * @return {@link System#currentTimeMillis()} of granting of permit
+     */
+    public long acquire() {
+        return acquire(1.0);
+    }
+
+    /**
+     * Waits for permit as {@link #acquire()} does, while count of taken slots is not lower than {@code share} of {@code limit}
+     *
+     * @param share max share of slots, which can be taken when permit is granted, within (0, 1]
+     */
+    public long acquire(final double share) {
+        final int maxUsedCount = getMaxUsedCount(share);
+        boolean interrupted = false;
+        long now;
+        while (!tryAcquire(now = System.currentTimeMillis(), maxUsedCount)) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(getDelayMillis(now)));
+            interrupted |= Thread.interrupted();
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return now;
+    }
+
+    /**
+     * Waits for permit without blocking of calling thread
+     *
+     * @return future, completed by {@link System#currentTimeMillis()} of granting of permit.
+     * Completion may happen in {@link CompletableFuture#delayedExecutor} thread, so dependent actions must not block
+     */
+    public CompletableFuture<Long> acquireAsync() {
+        return acquireAsync(1.0);
+    }
+
+    /**
+     * Waits for permit as {@link #acquireAsync()} does, while count of taken slots is not lower than {@code share} of {@code limit}
+     *
+     * @param share max share of slots, which can be taken when permit is granted, within (0, 1]
+     */
+    public CompletableFuture<Long> acquireAsync(final double share) {
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        completeWhenAcquired(future, getMaxUsedCount(share));
+        return future;
+    }
+
+    /**
+     * @return count of permits granted within last {@code interval}
+     */
+    public int getUsedCount() {
+        return getUsedCount(System.currentTimeMillis());
+    }
+
+    private int getUsedCount(final long now) {
+        int usedCount = 0;
+        for (int slot = 0; slot < limit; slot++) {
+            if (!isFree(getTakenAt(slot), now)) {
+                usedCount++;
+            }
+        }
+        return usedCount;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Closes the file. Mapping stays valid until limiter is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int getMaxUsedCount(final double share) {
+        Assert.isTrue(share > 0 && share <= 1, "share must be in range (0, 1]");
+        return Math.max(1, (int) (limit * share));
+    }
+
+    private void completeWhenAcquired(final CompletableFuture<Long> future, final int maxUsedCount) {
+        final long now = System.currentTimeMillis();
+        if (tryAcquire(now, maxUsedCount)) {
+            future.complete(now);
+        } else {
+            CompletableFuture.delayedExecutor(getDelayMillis(now), TimeUnit.MILLISECONDS)
+                    .execute(() -> completeWhenAcquired(future, maxUsedCount));
+        }
+    }
+
+    private boolean tryAcquire(final long now, final int maxUsedCount) {
+        if (maxUsedCount < limit && getUsedCount(now) >= maxUsedCount) {
+            return false;
+        }
+        for (int slot = 0; slot < limit; slot++) {
+            final long takenAt = getTakenAt(slot);
+            if (isFree(takenAt, now) && SLOTS.compareAndSet(slots, slot * Long.BYTES, takenAt, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return time till the earliest taken slot becomes free, but not less than 1 millisecond
+     */
+    private long getDelayMillis(final long now) {
+        long delay = intervalMillis;
+        for (int slot = 0; slot < limit; slot++) {
+            delay = Math.min(delay, getTakenAt(slot) + intervalMillis - now);
+        }
+        return Math.max(1, delay);
+    }
+
+    private long getTakenAt(final int slot) {
+        return (long) SLOTS.getVolatile(slots, slot * Long.BYTES);
+    }
+
+    private boolean isFree(final long takenAt, final long now) {
+        return now - takenAt >= intervalMillis || takenAt - now > intervalMillis;
+    }
+
+}
@@ -0,0 +1,335 @@
+package ru.obukhov.trader.common.util;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limiter of calls, allowing not more than {@code limit} permits, each of which is held from acquiring
+ * till {@code interval} after release. So if every call is done while holding a permit,
+ * then any time window of {@code interval} length intersects not more than {@code limit} calls.<br/>
+ * Every permit occupies one of {@code limit} slots. Free slots are kept in min-heap by time, since which they are available,
+ * and waiters are kept in FIFO queue: the first waiter takes the earliest available slot, whichever permit released it,
+ * so a long-held permit doesn't delay waiters while other slots are free.
+ * State is guarded by monitor of the limiter and is held only for heap and queue operations:
+ * matching of the earliest free slot with the first waiter changes both of them at once, which can't be done by single CAS,
+ * and the monitor is never held while waiting, so it is contended only for a few heap operations per call.
+ * Waiting for time of the slot is done by timed parking of blocking waiter itself, so there are no scheduled tasks per blocking call.
+ * Async waiters, which took a slot not available yet, are completed by single scheduled task per limiter,
+ * which is rescheduled to the earliest of them. Releaser wakes up only the first waiter.<br/>
+ * Every acquired permit must be released, otherwise its slot is never available again.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "rate-limiter-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int limit;
+    private final long intervalNanos;
+
+    /**
+     * {@link System#nanoTime()}, since which free slots are available, the earliest one on the head
+     */
+    private final PriorityQueue<Long> freeSlots;
+    /**
+     * Waiters for free slots in order of calls
+     */
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    /**
+     * Count of slots taken by acquired permits, including the ones waiting for time of the slot
+     */
+    private int acquiredCount;
+    /**
+     * Async waiters, which took slots not available yet, the earliest one on the head
+     */
+    private final PriorityQueue<DelayedWaiter> delayedWaiters =
+            new PriorityQueue<>(Comparator.comparingLong(DelayedWaiter::availableSince));
+    /**
+     * Task completing {@link #delayedWaiters} at {@link #drainTime} or null if there are no delayed waiters
+     */
+    private ScheduledFuture<?> drainTask;
+    private long drainTime;
+
+    public SlidingWindowRateLimiter(final int limit, final Duration interval) {
+        this(limit, interval.toNanos(), new long[0]);
+        Assert.isTrue(!interval.isNegative(), "interval can't be negative");
+    }
+
+    /**
+     * @param slotsAvailableSince {@link System#nanoTime()}, since which slots are available.
+     *                            Slots out of array are available immediately
+     */
+    private SlidingWindowRateLimiter(final int limit, final long intervalNanos, final long[] slotsAvailableSince) {
+        Assert.isTrue(limit > 0, "limit must be positive");
+
+        this.limit = limit;
+        this.intervalNanos = intervalNanos;
+        this.freeSlots = new PriorityQueue<>(limit);
+        final long now = System.nanoTime();
+        for (int slot = 0; slot < limit; slot++) {
+            freeSlots.add(slot < slotsAvailableSince.length ? slotsAvailableSince[slot] : now);
+        }
+    }
+
+    /**
+     * Creates limiter with another limit and same interval to replace this one.
+     * Slots of new limiter become available not earlier than the latest available slots of this limiter,
+     * and not earlier than {@code notBefore}. Slots of acquired or waited permits are considered available {@code interval} after now.
+     * Permits acquired from this limiter must still be released to it
+     *
+     * @param notBefore {@link System#nanoTime()}, before which permits of new limiter are not available
+     */
+    public synchronized SlidingWindowRateLimiter withLimit(final int newLimit, final long notBefore) {
+        final long now = System.nanoTime();
+        final long[] slotsAvailableSince = new long[limit];
+        int index = 0;
+        for (final long availableSince : freeSlots) {
+            slotsAvailableSince[index++] = availableSince;
+        }
+        Arrays.fill(slotsAvailableSince, index, limit, now + intervalNanos);
+        Arrays.sort(slotsAvailableSince);
+
+        // slots of new limiter are the latest available slots of this limiter
+        final long[] newSlotsAvailableSince = new long[newLimit];
+        for (int i = 0; i < newLimit; i++) {
+            final int oldIndex = limit - newLimit + i;
+            final long slotAvailableSince = oldIndex < 0 ? now : slotsAvailableSince[oldIndex];
+            newSlotsAvailableSince[i] = Math.max(slotAvailableSince, notBefore);
+        }
+        return new SlidingWindowRateLimiter(newLimit, intervalNanos, newSlotsAvailableSince);
+    }
+
+    /**
+     * Waits for permit. Waiting is not interrupted: the waiter keeps its place in queue and taken slot can't be abandoned.
+     * If calling thread is interrupted while waiting, its interrupted status is restored after acquisition
+     *
+     * @return acquired permit
+     */
+    public Permit acquire() {
+        final Thread thread = Thread.currentThread();
+        final BlockingWaiter waiter = new BlockingWaiter(thread);
+        enqueue(waiter);
+        boolean interrupted = false;
+
+        while (!waiter.granted) {
+            LockSupport.park(this);
+            interrupted |= Thread.interrupted();
+        }
+
+        long delay;
+        while ((delay = waiter.availableSince - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, delay);
+            interrupted |= Thread.interrupted();
+        }
+
+        if (interrupted) {
+            thread.interrupt();
+        }
+        return new Permit();
+    }
+
+    /**
+     * Acquires permit only if it is available immediately and nobody waits for permit
+     *
+     * @return acquired permit or null if permit is not available
+     */
+    public synchronized Permit tryAcquire() {
+        if (waiters.isEmpty() && !freeSlots.isEmpty() && freeSlots.peek() - System.nanoTime() <= 0) {
+            takeSlot();
+            return new Permit();
+        }
+        return null;
+    }
+
+    /**
+     * Takes place in queue without blocking of calling thread
+     *
+     * @return future, completed by permit, when it is acquired. Completion may happen in thread, releasing previous permit,
+     * or in shared scheduler thread, so dependent actions must not block
+     */
+    public CompletableFuture<Permit> acquireAsync() {
+        final CompletableFuture<Permit> future = new CompletableFuture<>();
+        enqueue(availableSince -> completeWhenAvailable(future, availableSince));
+        return future;
+    }
+
+    /**
+     * @return count of permits acquired or waited for, but not yet released
+     */
+    public synchronized long getPendingCount() {
+        return acquiredCount + waiters.size();
+    }
+
+    /**
+     * @return count of permits, which are not available right now: acquired, waited for or released less than {@code interval} ago
+     */
+    public synchronized int getUsedCount() {
+        final long now = System.nanoTime();
+        int usedCount = acquiredCount;
+        for (final long availableSince : freeSlots) {
+            if (availableSince - now > 0) {
+                usedCount++;
+            }
+        }
+        return usedCount;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Grants the earliest available slot to the waiter if there is a free slot and nobody waits, otherwise queues the waiter
+     */
+    private void enqueue(final Waiter waiter) {
+        final long availableSince;
+        synchronized (this) {
+            if (!waiters.isEmpty() || freeSlots.isEmpty()) {
+                waiters.add(waiter);
+                return;
+            }
+            availableSince = takeSlot();
+        }
+        waiter.grant(availableSince);
+    }
+
+    private void release() {
+        final Waiter waiter;
+        final long availableSince;
+        synchronized (this) {
+            acquiredCount--;
+            freeSlots.add(System.nanoTime() + intervalNanos);
+            waiter = waiters.poll();
+            if (waiter == null) {
+                return;
+            }
+            availableSince = takeSlot();
+        }
+        waiter.grant(availableSince);
+    }
+
+    /**
+     * @return {@link System#nanoTime()}, since which taken slot is available
+     */
+    private long takeSlot() {
+        acquiredCount++;
+        return freeSlots.remove();
+    }
+
+    private void completeWhenAvailable(final CompletableFuture<Permit> future, final long availableSince) {
+        if (availableSince - System.nanoTime() <= 0) {
+            future.complete(new Permit());
+            return;
+        }
+
+        synchronized (this) {
+            delayedWaiters.add(new DelayedWaiter(future, availableSince));
+            if (drainTask == null) {
+                scheduleDrain(availableSince);
+            } else if (availableSince - drainTime < 0) {
+                drainTask.cancel(false);
+                scheduleDrain(availableSince);
+            }
+        }
+    }
+
+    /**
+     * Completes delayed waiters, whose slots are available, and reschedules itself to the earliest of the rest
+     */
+    private void drainDelayedWaiters() {
+        final List<CompletableFuture<Permit>> futures = new ArrayList<>();
+        synchronized (this) {
+            final long now = System.nanoTime();
+            DelayedWaiter waiter;
+            while ((waiter = delayedWaiters.peek()) != null && waiter.availableSince() - now <= 0) {
+                futures.add(delayedWaiters.remove().future());
+            }
+
+            if (waiter == null) {
+                drainTask = null;
+            } else {
+                scheduleDrain(waiter.availableSince());
+            }
+        }
+
+        for (final CompletableFuture<Permit> future : futures) {
+            future.complete(new Permit());
+        }
+    }
+
+    private void scheduleDrain(final long time) {
+        drainTime = time;
+        drainTask = SCHEDULER.schedule(this::drainDelayedWaiters, time - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @FunctionalInterface
+    private interface Waiter {
+
+        /**
+         * Called outside the lock, when slot is taken for the waiter
+         *
+         * @param availableSince {@link System#nanoTime()}, since which taken slot is available
+         */
+        void grant(long availableSince);
+
+    }
+
+    private record DelayedWaiter(CompletableFuture<Permit> future, long availableSince) {
+    }
+
+    private static final class BlockingWaiter implements Waiter {
+
+        private final Thread thread;
+        private long availableSince;
+        private volatile boolean granted;
+
+        private BlockingWaiter(final Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void grant(final long availableSince) {
+            this.availableSince = availableSince;
+            this.granted = true;
+            LockSupport.unpark(thread);
+        }
+
+    }
+
+    /**
+     * Permit acquired from limiter. Must be released after the call, which it was acquired for.
+     * Repeated releases are ignored
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                SlidingWindowRateLimiter.this.release();
+            }
+        }
+
+    }
+
+}
@@ -20,7 +20,7 @@ public class TrendUtils {
      * Factor, that representing the duration of the restriction line
      * in compare to distance between extremes used to build this line
      */
-    private static final double RESTRAINT_DURATION_FACTOR = 2.0;
+    static final double RESTRAINT_DURATION_FACTOR = 2.0;
 
     // region local extremes
 
@@ -0,0 +1,353 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.Status;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.obukhov.trader.common.util.FutureUtils;
+import ru.obukhov.trader.common.util.LatencyWindow;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
+import ru.obukhov.trader.config.model.ApiRetryMetrics;
+import ru.obukhov.trader.config.properties.ApiRetryProperties;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Aspect to retry idempotent TBank API read calls, failed by transient errors, with exponential backoff,
+ * and to hedge slow calls: when the call lasts longer than {@code hedgingPercentile} of recent latencies,
+ * its duplicate is made and the first successful response is taken.<br/>
+ * The aspect wraps {@link ApiCallsThrottling}, so every attempt and every duplicate waits for its own permit
+ * and retrying never exceeds API limits. Count of duplicates is also limited by {@code hedgingMaxRatio} of count of recent calls.
+ * Latencies of calls, which hedge delay is estimated by, don't include waiting for permits of throttling
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@SuppressWarnings("unused")
+public class ApiCallsRetrying {
+
+    static final Set<Status.Code> RETRYABLE_CODES =
+            EnumSet.of(Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED);
+
+    static final int LATENCY_WINDOW_MIN_COUNT = 20;
+    private static final int LATENCY_WINDOW_CAPACITY = 100;
+    private static final int HEDGE_WINDOW_CAPACITY = 100;
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double backoffMultiplier;
+    private final boolean hedging;
+    private final double hedgingPercentile;
+    private final long hedgingMinDelayNanos;
+    private final double hedgingMaxRatio;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final RetriedTarget instrumentService = new RetriedTarget("InstrumentService");
+    private final RetriedTarget marketDataServiceGetCandles = new RetriedTarget("MarketDataService.getCandles*");
+    private final List<RetriedTarget> targets = List.of(instrumentService, marketDataServiceGetCandles);
+
+    public ApiCallsRetrying(final ApiRetryProperties apiRetryProperties) {
+        this.maxAttempts = apiRetryProperties.maxAttempts();
+        this.initialBackoffNanos = apiRetryProperties.initialBackoff().toNanos();
+        this.maxBackoffNanos = apiRetryProperties.maxBackoff().toNanos();
+        this.backoffMultiplier = apiRetryProperties.backoffMultiplier();
+        this.hedging = apiRetryProperties.hedging();
+        this.hedgingPercentile = apiRetryProperties.hedgingPercentile();
+        this.hedgingMinDelayNanos = apiRetryProperties.hedgingMinDelay().toNanos();
+        this.hedgingMaxRatio = apiRetryProperties.hedgingMaxRatio();
+    }
+
+    @Around("execution(* ru.tinkoff.piapi.core.InstrumentsService.get*(..))")
+    public Object retryInstrumentService(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return retry(instrumentService, joinPoint);
+    }
+
+    @Around("execution(* ru.tinkoff.piapi.core.MarketDataService.getCandles*(..))")
+    public Object retryMarketDataServiceGetCandles(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return retry(marketDataServiceGetCandles, joinPoint);
+    }
+
+    /**
+     * @return metrics of retries and duplicates for every retried API methods
+     */
+    public List<ApiRetryMetrics> getMetrics() {
+        return targets.stream().map(this::getMetrics).toList();
+    }
+
+    private ApiRetryMetrics getMetrics(final RetriedTarget target) {
+        final long hedgeDelayNanos = getHedgeDelayNanos(target);
+        return new ApiRetryMetrics(
+                target.name,
+                target.calls.sum(),
+                target.retries.sum(),
+                target.hedges.sum(),
+                target.hedgeWins.sum(),
+                hedgeDelayNanos < 0 ? null : hedgeDelayNanos / NANOS_IN_MILLI
+        );
+    }
+
+    /**
+     * Makes up to {@code maxAttempts} attempts of the call while it fails by transient errors.
+     * Methods returning {@link CompletableFuture} are retried asynchronously: returned future is completed by result of the last attempt.
+     * Attempts are made with priority and timer of API calls, which were current at the moment of the call
+     */
+    private Object retry(final RetriedTarget target, final ProceedingJoinPoint joinPoint) throws Throwable {
+        target.onCall();
+        final CallContext context = new CallContext(joinPoint, ApiCallPriority.current(), ApiCallsTimer.current());
+        if (ApiCallsThrottling.returnsFuture(joinPoint)) {
+            return retryAsync(target, context, 1);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedging
+                        ? FutureUtils.join(hedge(target, context.timer(), timer -> CompletableFuture.supplyAsync(() -> context.proceed(timer), executor)))
+                        : joinPoint.proceed();
+            } catch (final Throwable throwable) {
+                if (!shouldRetry(attempt, throwable)) {
+                    throw throwable;
+                }
+
+                final long backoffNanos = getBackoffNanos(attempt);
+                log.debug("{} attempt {} failed. Retrying in {} ms", target.name, attempt, backoffNanos / NANOS_IN_MILLI, throwable);
+                target.retries.increment();
+                try {
+                    Thread.sleep(Duration.ofNanos(backoffNanos));
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw throwable;
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Object> retryAsync(final RetriedTarget target, final CallContext context, final int attempt) {
+        final CompletableFuture<Object> future = hedging ? hedge(target, context.timer(), context::proceedAsync) : context.proceedAsync(context.timer());
+        return future.exceptionallyCompose(throwable -> {
+            final Throwable error = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            if (!shouldRetry(attempt, error)) {
+                return CompletableFuture.failedFuture(error);
+            }
+
+            final long backoffNanos = getBackoffNanos(attempt);
+            log.debug("{} async attempt {} failed. Retrying in {} ms", target.name, attempt, backoffNanos / NANOS_IN_MILLI, error);
+            target.retries.increment();
+            final Executor delayedExecutor = CompletableFuture.delayedExecutor(backoffNanos, TimeUnit.NANOSECONDS, executor);
+            return CompletableFuture.supplyAsync(() -> null, delayedExecutor)
+                    .thenCompose(ignored -> retryAsync(target, context, attempt + 1));
+        });
+    }
+
+    private boolean shouldRetry(final int attempt, final Throwable throwable) {
+        return attempt < maxAttempts && ApiCallsThrottling.hasStatus(throwable, RETRYABLE_CODES);
+    }
+
+    /**
+     * @return delay before retry after given failed {@code attempt}, growing exponentially up to {@code maxBackoff}.
+     * Delay is randomized within its upper half, so concurrent calls failed by the same outage are not retried all at once
+     */
+    private long getBackoffNanos(final int attempt) {
+        final double backoffNanos = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(backoffMultiplier, attempt - 1));
+        return (long) (backoffNanos / 2 + ThreadLocalRandom.current().nextDouble() * backoffNanos / 2);
+    }
+
+    /**
+     * Starts given {@code attempt} and its duplicate, if the first one is not completed within hedge delay of {@code target}.
+     * Every attempt is made with its own timer of API calls, which adds time to given {@code callTimer},
+     * so waiting of the attempt for permits is excluded from its latency
+     *
+     * @return future completed by the first successful response, or by error of the last failed attempt
+     */
+    private CompletableFuture<Object> hedge(
+            final RetriedTarget target,
+            @Nullable final ApiCallsTimer callTimer,
+            final Function<ApiCallsTimer, CompletableFuture<Object>> attempt
+    ) {
+        final HedgedCall call = new HedgedCall(target, callTimer);
+        call.start(attempt, false);
+
+        final long delayNanos = getHedgeDelayNanos(target);
+        if (delayNanos >= 0 && !call.result.isDone()) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, executor).execute(() -> {
+                if (call.reserveHedge()) {
+                    log.trace("{} call lasts longer than {} ms. Making duplicate", target.name, delayNanos / NANOS_IN_MILLI);
+                    call.start(attempt, true);
+                }
+            });
+        }
+        return call.result;
+    }
+
+    /**
+     * @return delay of duplicate of call of given {@code target} or -1 if there are not enough latencies to estimate it
+     */
+    private long getHedgeDelayNanos(final RetriedTarget target) {
+        final long percentileNanos = target.latencies.getPercentileNanos(hedgingPercentile);
+        return percentileNanos < 0 ? -1 : Math.max(percentileNanos, hedgingMinDelayNanos);
+    }
+
+    private record CallContext(ProceedingJoinPoint joinPoint, ApiCallPriority priority, @Nullable ApiCallsTimer timer) {
+
+        private Object proceed(@Nullable final ApiCallsTimer callTimer) {
+            final Supplier<Object> call = () -> proceed(joinPoint);
+            return priority.get(callTimer == null ? call : () -> callTimer.get(call));
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<Object> proceedAsync(@Nullable final ApiCallsTimer callTimer) {
+            try {
+                final CompletableFuture<Object> future = (CompletableFuture<Object>) proceed(callTimer);
+                return future == null ? CompletableFuture.completedFuture(null) : future;
+            } catch (final Throwable throwable) {
+                return CompletableFuture.failedFuture(throwable);
+            }
+        }
+
+        @SneakyThrows
+        private static Object proceed(final ProceedingJoinPoint joinPoint) {
+            return joinPoint.proceed();
+        }
+
+    }
+
+    private static final class RetriedTarget {
+
+        private final String name;
+        private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW_CAPACITY, LATENCY_WINDOW_MIN_COUNT);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        /**
+         * Count of duplicates made before each of last {@link #HEDGE_WINDOW_CAPACITY} calls
+         */
+        private final long[] hedgesBeforeCalls = new long[HEDGE_WINDOW_CAPACITY];
+        private int nextCall;
+        private int windowCalls;
+
+        private RetriedTarget(final String name) {
+            this.name = name;
+        }
+
+        private synchronized void onCall() {
+            calls.increment();
+            hedgesBeforeCalls[nextCall] = hedges.sum();
+            nextCall = (nextCall + 1) % hedgesBeforeCalls.length;
+            if (windowCalls < hedgesBeforeCalls.length) {
+                windowCalls++;
+            }
+        }
+
+        /**
+         * @return true and counts duplicate if count of duplicates made since the earliest of recent calls
+         * is lower than {@code maxRatio} of count of recent calls
+         */
+        private synchronized boolean tryHedge(final double maxRatio) {
+            final long hedgesCount = hedges.sum();
+            final long windowHedges = windowCalls < hedgesBeforeCalls.length
+                    ? hedgesCount
+                    : hedgesCount - hedgesBeforeCalls[nextCall];
+            if (windowHedges >= windowCalls * maxRatio) {
+                return false;
+            }
+            hedges.increment();
+            return true;
+        }
+
+    }
+
+    /**
+     * Original attempt of the call and its possible duplicate. Result is completed by the first successful attempt,
+     * or by error of the last attempt if all of them failed
+     */
+    private final class HedgedCall {
+
+        private final RetriedTarget target;
+        @Nullable
+        private final ApiCallsTimer callTimer;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private int pendingAttempts = 1;
+        private boolean succeeded;
+
+        private HedgedCall(final RetriedTarget target, @Nullable final ApiCallsTimer callTimer) {
+            this.target = target;
+            this.callTimer = callTimer;
+        }
+
+        /**
+         * Reserves pending duplicate, so failure of the original attempt doesn't complete the call before duplicate is completed
+         *
+         * @return true if duplicate is allowed: no attempt succeeded, not all of attempts failed
+         * and count of recent duplicates is within {@code hedgingMaxRatio}
+         */
+        private synchronized boolean reserveHedge() {
+            if (succeeded || pendingAttempts == 0 || !target.tryHedge(hedgingMaxRatio)) {
+                return false;
+            }
+            pendingAttempts++;
+            return true;
+        }
+
+        private void start(final Function<ApiCallsTimer, CompletableFuture<Object>> attempt, final boolean hedge) {
+            final ApiCallsTimer attemptTimer = new ApiCallsTimer(callTimer);
+            final long start = System.nanoTime();
+            attempt.apply(attemptTimer).whenComplete((value, throwable) -> {
+                final long latencyNanos = System.nanoTime() - start - attemptTimer.getThrottlingNanos();
+                onAttemptCompleted(value, throwable, hedge, latencyNanos);
+            });
+        }
+
+        private void onAttemptCompleted(final Object value, final Throwable throwable, final boolean hedge, final long latencyNanos) {
+            if (throwable == null) {
+                target.latencies.record(latencyNanos);
+            }
+
+            final boolean firstSucceeded;
+            final boolean allAttemptsFailed;
+            synchronized (this) {
+                pendingAttempts--;
+                firstSucceeded = throwable == null && !succeeded;
+                succeeded |= firstSucceeded;
+                allAttemptsFailed = throwable != null && pendingAttempts == 0;
+            }
+            // metrics are updated before completion, so they are actual for the caller
+            if (firstSucceeded) {
+                if (hedge) {
+                    target.hedgeWins.increment();
+                }
+                result.complete(value);
+            }
+            if (allAttemptsFailed) {
+                result.completeExceptionally(throwable);
+            }
+        }
+
+    }
+
+}
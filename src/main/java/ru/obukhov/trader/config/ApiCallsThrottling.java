@@ -1,16 +1,52 @@
 package ru.obukhov.trader.config;
 
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.stereotype.Component;
-import ru.obukhov.trader.common.util.ThrottledCounter;
+import ru.obukhov.trader.common.util.AdaptiveRateLimit;
+import ru.obukhov.trader.common.util.PrioritizedRateLimiter;
+import ru.obukhov.trader.common.util.SharedRateLimiter;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsMetrics;
+import ru.obukhov.trader.config.model.ApiCallsQueueStatistics;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
 import ru.obukhov.trader.config.properties.ApiProperties;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
- * Aspect to limit rate of API calls according to TBank's limits
+ * Aspect to limit rate of API calls according to TBank's limits.
+ * Limits are adapted to actual quota of server by {@link AdaptiveRateLimit}, if responses are reported to {@link #onResponse}.<br/>
+ * Usage of limits, waiting for permits, latency and errors of every throttled target are registered in {@link MeterRegistry}
+ * with tag {@value #TARGET_TAG}
  *
  * @see <a href=https://tinkoff.github.io/investAPI/limits/">Tinkoff documentation</a>
  */
@@ -19,70 +55,220 @@ import ru.obukhov.trader.config.properties.ApiProperties;
 @Component
 @EnableAspectJAutoProxy
 @SuppressWarnings("unused")
-public class ApiCallsThrottling {
+public class ApiCallsThrottling implements DisposableBean {
 
     static final int INSTRUMENT_SERVICE_LIMIT = 200;
     static final int USER_SERVICE_LIMIT = 100;
     static final int OPERATIONS_SERVICE_LIMIT = 200;
     static final int OPERATIONS_SERVICE_BROKER_REPORT_LIMIT = 5;
-    static final int MARKET_DATA_SERVICE_LIMIT = 300;
+    public static final int MARKET_DATA_SERVICE_LIMIT = 300;
     static final int ORDERS_SERVICE_LIMIT = 100;
     static final int ORDERS_SERVICE_GET_ORDERS_LIMIT = 200;
     static final int ORDERS_SERVICE_POST_ORDER_LIMIT = 300;
     static final int ORDERS_SERVICE_CANCEL_ORDER_LIMIT = 100;
 
-    private final long interval;
-    private final ThrottledCounter instrumentServiceCounter;
-    private final ThrottledCounter usersServiceCounter;
-    private final ThrottledCounter operationsServiceCounter;
-    private final ThrottledCounter operationsServiceGetBrokerReportCounter;
-    private final ThrottledCounter marketDataServiceCounter;
-    private final ThrottledCounter ordersServiceCounter;
-    private final ThrottledCounter ordersServiceGetOrdersCounter;
-    private final ThrottledCounter ordersServicePostOrderCounter;
-    private final ThrottledCounter ordersServiceCancelOrderCounter;
-
-    public ApiCallsThrottling(final ApiProperties apiProperties) {
-        interval = apiProperties.throttlingInterval();
-
-        this.instrumentServiceCounter = new ThrottledCounter(INSTRUMENT_SERVICE_LIMIT);
-        this.usersServiceCounter = new ThrottledCounter(USER_SERVICE_LIMIT);
-        this.operationsServiceCounter = new ThrottledCounter(OPERATIONS_SERVICE_LIMIT);
-        this.operationsServiceGetBrokerReportCounter = new ThrottledCounter(OPERATIONS_SERVICE_BROKER_REPORT_LIMIT);
-        this.marketDataServiceCounter = new ThrottledCounter(MARKET_DATA_SERVICE_LIMIT);
-        this.ordersServiceCounter = new ThrottledCounter(ORDERS_SERVICE_LIMIT);
-        this.ordersServiceGetOrdersCounter = new ThrottledCounter(ORDERS_SERVICE_GET_ORDERS_LIMIT);
-        this.ordersServicePostOrderCounter = new ThrottledCounter(ORDERS_SERVICE_POST_ORDER_LIMIT);
-        this.ordersServiceCancelOrderCounter = new ThrottledCounter(ORDERS_SERVICE_CANCEL_ORDER_LIMIT);
+    static final String SHARED_QUOTA_FILE_EXTENSION = ".quota";
+    /**
+     * Share of limit shared by processes, which can be taken only by {@link ApiCallPriority#LIVE} calls
+     */
+    static final double SHARED_LIVE_RESERVE = 0.2;
+
+    static final String TARGET_TAG = "target";
+    private static final Duration[] WAIT_SERVICE_LEVEL_OBJECTIVES = {
+            Duration.ofMillis(1),
+            Duration.ofMillis(10),
+            Duration.ofMillis(100),
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(10)
+    };
+    private static final String INFINITE_BUCKET_NAME = "+Inf";
+
+    private final ThrottledTarget instrumentService;
+    private final ThrottledTarget usersService;
+    private final ThrottledTarget operationsService;
+    private final ThrottledTarget operationsServiceGetBrokerReport;
+    private final ThrottledTarget marketDataService;
+    private final ThrottledTarget ordersService;
+    private final ThrottledTarget ordersServiceGetOrders;
+    private final ThrottledTarget ordersServicePostOrder;
+    private final ThrottledTarget ordersServiceCancelOrder;
+
+    private final List<ThrottledTarget> targets;
+
+    public ApiCallsThrottling(final ApiProperties apiProperties, final MeterRegistry meterRegistry) {
+        final Duration interval = Duration.ofMillis(apiProperties.throttlingInterval());
+        final double maxFactor = apiProperties.adaptiveThrottlingMaxFactor();
+        final Path sharedQuotaDirectory = getSharedQuotaDirectory(apiProperties);
+
+        this.instrumentService = new ThrottledTarget("InstrumentService", INSTRUMENT_SERVICE_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.usersService = new ThrottledTarget("UsersService", USER_SERVICE_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.operationsService = new ThrottledTarget("OperationsService", OPERATIONS_SERVICE_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.operationsServiceGetBrokerReport = new ThrottledTarget("OperationsService.getBrokerReport*", OPERATIONS_SERVICE_BROKER_REPORT_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.marketDataService = new ThrottledTarget("MarketDataService", MARKET_DATA_SERVICE_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.ordersService = new ThrottledTarget("OrdersService", ORDERS_SERVICE_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.ordersServiceGetOrders = new ThrottledTarget("OrdersService.getOrders*", ORDERS_SERVICE_GET_ORDERS_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.ordersServicePostOrder = new ThrottledTarget("OrdersService.postOrder*", ORDERS_SERVICE_POST_ORDER_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+        this.ordersServiceCancelOrder = new ThrottledTarget("OrdersService.cancelOrder*", ORDERS_SERVICE_CANCEL_ORDER_LIMIT, interval, maxFactor, sharedQuotaDirectory, meterRegistry);
+
+        this.targets = List.of(
+                instrumentService,
+                usersService,
+                operationsService,
+                operationsServiceGetBrokerReport,
+                marketDataService,
+                ordersService,
+                ordersServiceGetOrders,
+                ordersServicePostOrder,
+                ordersServiceCancelOrder
+        );
+    }
+
+    /**
+     * Closes limiters shared with other processes
+     */
+    @Override
+    public void destroy() throws IOException {
+        for (final ThrottledTarget target : targets) {
+            target.close();
+        }
+    }
+
+    @Nullable
+    private static Path getSharedQuotaDirectory(final ApiProperties apiProperties) {
+        if (apiProperties.sharedQuotaDirectory() == null) {
+            return null;
+        }
+
+        final Path directory = Path.of(apiProperties.sharedQuotaDirectory());
+        try {
+            return Files.createDirectories(directory);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to create shared quota directory " + directory, exception);
+        }
+    }
+
+    private static PrioritizedRateLimiter newLimiter(final int limit, final Duration interval) {
+        final double[] shares = Stream.of(ApiCallPriority.values()).mapToDouble(ApiCallPriority::getShare).toArray();
+        return new PrioritizedRateLimiter(limit, interval, shares);
+    }
+
+    /**
+     * @return limiter shared with other processes, which use the same {@code directory}, or null if {@code directory} is null
+     */
+    @Nullable
+    private static SharedRateLimiter newSharedLimiter(
+            @Nullable final Path directory,
+            final String name,
+            final int limit,
+            final Duration interval
+    ) {
+        if (directory == null) {
+            return null;
+        }
+
+        final Path file = directory.resolve(name.replace("*", "") + SHARED_QUOTA_FILE_EXTENSION);
+        try {
+            return new SharedRateLimiter(file, limit, interval);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to open shared quota file " + file, exception);
+        }
+    }
+
+    /**
+     * @return max count of calls of given {@code priority} to {@link ru.tinkoff.piapi.core.MarketDataService}
+     * within throttling interval by documented limit
+     */
+    public static int getMarketDataServiceBudget(final ApiCallPriority priority) {
+        return (int) (MARKET_DATA_SERVICE_LIMIT * priority.getShare());
+    }
+
+    /**
+     * @return current limit of calls to {@link ru.tinkoff.piapi.core.MarketDataService} within throttling interval,
+     * adapted to quota of server if adaptive throttling is enabled
+     */
+    public int getMarketDataServiceLimit() {
+        return marketDataService.limiter.getLimit();
+    }
+
+    /**
+     * @return current max count of calls of given {@code priority} to {@link ru.tinkoff.piapi.core.MarketDataService}
+     * within throttling interval. Share of adapted limit is rounded the same way as limit of priority class is
+     */
+    public int getCurrentMarketDataServiceBudget(final ApiCallPriority priority) {
+        return Math.max(1, (int) (getMarketDataServiceLimit() * priority.getShare()));
+    }
+
+    /**
+     * Adapts limit of target of given gRPC method to quota reported by server
+     *
+     * @param fullMethodName gRPC method name, e.g. "tinkoff.public.invest.api.contract.v1.UsersService/GetAccounts".
+     *                       Responses of not throttled methods are ignored
+     * @param rejected       true if the call was rejected by RESOURCE_EXHAUSTED status
+     */
+    public void onResponse(final String fullMethodName, final AdaptiveRateLimit.Quota quota, final boolean rejected) {
+        final ThrottledTarget target = getTarget(fullMethodName);
+        if (target == null) {
+            return;
+        }
+
+        if (rejected) {
+            log.debug("{} call rejected by server. Quota = {}", target.name, quota);
+            target.adaptiveLimit.onRejection(quota);
+        } else {
+            target.adaptiveLimit.onSuccess(quota);
+        }
+    }
+
+    private ThrottledTarget getTarget(final String fullMethodName) {
+        final String serviceName = MethodDescriptor.extractFullServiceName(fullMethodName);
+        if (serviceName == null) {
+            return null;
+        }
+
+        final String service = serviceName.substring(serviceName.lastIndexOf('.') + 1);
+        final String method = MethodDescriptor.extractBareMethodName(fullMethodName);
+        return switch (service) {
+            case "InstrumentsService" -> instrumentService;
+            case "UsersService" -> usersService;
+            case "OperationsService" -> "GetBrokerReport".equals(method) ? operationsServiceGetBrokerReport : operationsService;
+            case "MarketDataService" -> marketDataService;
+            case "OrdersService" -> switch (method) {
+                case "GetOrders" -> ordersServiceGetOrders;
+                case "PostOrder" -> ordersServicePostOrder;
+                case "CancelOrder" -> ordersServiceCancelOrder;
+                default -> ordersService;
+            };
+            default -> null;
+        };
     }
 
     @Around("within(ru.tinkoff.piapi.core.InstrumentsService)")
     public Object throttleInstrumentService(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(instrumentServiceCounter, "InstrumentService", joinPoint);
+        return throttle(instrumentService, joinPoint);
     }
 
     @Around("within(ru.tinkoff.piapi.core.UsersService)")
     public Object throttleUsersService(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(usersServiceCounter, "UsersService", joinPoint);
+        return throttle(usersService, joinPoint);
     }
 
     // region OperationsService throttling
 
     @Around("within(ru.tinkoff.piapi.core.OperationsService) && !execution(* ru.tinkoff.piapi.core.OperationsService.getBrokerReport*(..))")
     public Object throttleOperationsService(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(operationsServiceCounter, "OperationsService", joinPoint);
+        return throttle(operationsService, joinPoint);
     }
 
     @Around("execution(* ru.tinkoff.piapi.core.OperationsService.getBrokerReport*(..))")
     public Object throttleOperationsServiceGetBrokerReport(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(operationsServiceGetBrokerReportCounter, "OperationsService.getBrokerReport*", joinPoint);
+        return throttle(operationsServiceGetBrokerReport, joinPoint);
     }
 
     // endregion
 
     @Around("within(ru.tinkoff.piapi.core.MarketDataService)")
     public Object throttleMarketDataService(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(marketDataServiceCounter, "MarketDataService", joinPoint);
+        return throttle(marketDataService, joinPoint);
     }
 
     // region OrdersService throttling
@@ -93,35 +279,301 @@ public class ApiCallsThrottling {
             + " && !execution(* ru.tinkoff.piapi.core.OrdersService.cancelOrder*(..)))"
     )
     public Object throttleOrdersService(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(ordersServiceCounter, "OrdersService", joinPoint);
+        return throttle(ordersService, joinPoint);
     }
 
     @Around("execution(* ru.tinkoff.piapi.core.OrdersService.getOrders*(..))")
     public Object throttleOrdersServiceGetOrders(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(ordersServiceGetOrdersCounter, "OrdersService.getOrders*", joinPoint);
+        return throttle(ordersServiceGetOrders, joinPoint);
     }
 
     @Around("execution(* ru.tinkoff.piapi.core.OrdersService.postOrder*(..))")
     public Object throttleOrdersServicePostOrder(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(ordersServicePostOrderCounter, "OrdersService.postOrder*", joinPoint);
+        return throttle(ordersServicePostOrder, joinPoint);
     }
 
     @Around("execution(* ru.tinkoff.piapi.core.OrdersService.cancelOrder*(..))")
     public Object throttleOrdersServiceCancelOrder(final ProceedingJoinPoint joinPoint) throws Throwable {
-        return throttle(ordersServiceCancelOrderCounter, "OrdersService.cancelOrder*", joinPoint);
+        return throttle(ordersServiceCancelOrder, joinPoint);
     }
 
     // endregion
 
-    public Object throttle(final ThrottledCounter counter, final String targetName, final ProceedingJoinPoint joinPoint)
-            throws Throwable {
-        log.trace("{} throttling start. Counter = {}", targetName, counter.getValue());
-        counter.increment();
-        log.trace("{} throttling end. Counter = {}. Proceeding", targetName, counter.getValue());
-        final Object result = joinPoint.proceed();
-        log.trace("{} executed. Scheduling of counter decrementing", targetName);
-        counter.scheduleDecrement(interval);
+    /**
+     * Holds permit of limiter of given {@code target} during the call. Priority of the call is {@link ApiCallPriority#current()}.
+     * Methods returning {@link CompletableFuture} hold permit till completion of returned future,
+     * and waiting for permit doesn't block calling thread: returned future is completed by result of the call,
+     * which is made when permit is acquired.<br/>
+     * Time of waiting for permit and time of the call are recorded by meters of {@code target} and added to {@link ApiCallsTimer#current()}
+     */
+    private Object throttle(final ThrottledTarget target, final ProceedingJoinPoint joinPoint) throws Throwable {
+        final ApiCallPriority priority = ApiCallPriority.current();
+        final ApiCallsTimer timer = ApiCallsTimer.current();
+        if (returnsFuture(joinPoint)) {
+            return throttleAsync(target, priority, timer, joinPoint);
+        }
+
+        log.trace("{} throttling start. Priority = {}. Pending calls = {}", target.name, priority, target.limiter.getPendingCount());
+        final PrioritizedRateLimiter.Permit permit = target.acquire(priority, timer);
+        final long callStart = System.nanoTime();
+        log.trace("{} throttling end. Proceeding", target.name);
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (final Throwable throwable) {
+            error = throwable;
+            throw throwable;
+        } finally {
+            log.trace("{} executed. Releasing permit", target.name);
+            permit.release();
+            target.onCallFinished(timer, System.nanoTime() - callStart, error);
+        }
+    }
+
+    /**
+     * @return statistics of waiting for permits for every throttled API methods and every priority class
+     */
+    public List<ApiCallsQueueStatistics> getStatistics() {
+        final ApiCallPriority[] priorities = ApiCallPriority.values();
+        final List<ApiCallsQueueStatistics> result = new ArrayList<>(targets.size() * priorities.length);
+        for (final ThrottledTarget target : targets) {
+            final List<PrioritizedRateLimiter.Statistics> statistics = target.limiter.getStatistics();
+            for (final ApiCallPriority priority : priorities) {
+                final PrioritizedRateLimiter.Statistics priorityStatistics = statistics.get(priority.ordinal());
+                result.add(new ApiCallsQueueStatistics(
+                        target.name,
+                        priority,
+                        priorityStatistics.waiting(),
+                        priorityStatistics.granted(),
+                        priorityStatistics.averageWaitMillis(),
+                        priorityStatistics.maxWaitMillis()
+                ));
+            }
+        }
         return result;
     }
 
-}
\ No newline at end of file
+    /**
+     * @return metrics of usage of limits, waiting for permits, latency and errors for every throttled API methods
+     */
+    public List<ApiCallsMetrics> getMetrics() {
+        return targets.stream().map(ThrottledTarget::getMetrics).toList();
+    }
+
+    static boolean returnsFuture(final ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature() instanceof MethodSignature signature
+                && CompletableFuture.class.isAssignableFrom(signature.getReturnType());
+    }
+
+    private CompletableFuture<?> throttleAsync(
+            final ThrottledTarget target,
+            final ApiCallPriority priority,
+            @Nullable final ApiCallsTimer timer,
+            final ProceedingJoinPoint joinPoint
+    ) {
+        log.trace("{} async throttling start. Priority = {}. Pending calls = {}", target.name, priority, target.limiter.getPendingCount());
+        return target.acquireAsync(priority, timer).thenCompose(permit -> {
+            log.trace("{} async throttling end. Proceeding", target.name);
+            final long callStart = System.nanoTime();
+            final CompletableFuture<?> future;
+            try {
+                future = (CompletableFuture<?>) joinPoint.proceed();
+            } catch (final Throwable throwable) {
+                permit.release();
+                target.onCallFinished(timer, System.nanoTime() - callStart, throwable);
+                return CompletableFuture.failedFuture(throwable);
+            }
+
+            if (future == null) {
+                permit.release();
+                target.onCallFinished(timer, System.nanoTime() - callStart, null);
+                return CompletableFuture.completedFuture(null);
+            }
+            return future.whenComplete((result, throwable) -> {
+                log.trace("{} async call completed. Releasing permit", target.name);
+                permit.release();
+                target.onCallFinished(timer, System.nanoTime() - callStart, throwable);
+            });
+        });
+    }
+
+    /**
+     * @return true if given {@code throwable} or any of its causes is gRPC error with RESOURCE_EXHAUSTED status
+     */
+    static boolean isResourceExhausted(final Throwable throwable) {
+        return hasStatus(throwable, EnumSet.of(Status.Code.RESOURCE_EXHAUSTED));
+    }
+
+    /**
+     * @return true if given {@code throwable} or any of its causes is gRPC error with any of given status {@code codes}.
+     * SDK wraps gRPC errors into {@link ApiRuntimeException}, which keeps original error apart from causes
+     */
+    static boolean hasStatus(final Throwable throwable, final Set<Status.Code> codes) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            final Throwable grpcError = current instanceof ApiRuntimeException apiRuntimeException
+                    ? apiRuntimeException.getThrowable()
+                    : current;
+            if (grpcError != null && codes.contains(Status.fromThrowable(grpcError).getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Throttled API methods with their limiter and meters of calls.
+     * Limit can be adapted up to {@code maxFactor} times of documented one.
+     * If {@code sharedQuotaDirectory} is set, then permit of local limiter is followed by permit of limiter shared
+     * by all processes of the host, so they all together don't exceed documented limit.
+     * Shared permits are not ordered by priority, so {@link #SHARED_LIVE_RESERVE} of shared limit is left to
+     * {@link ApiCallPriority#LIVE} calls to keep live calls of any process from waiting for other calls of other processes
+     */
+    private static final class ThrottledTarget {
+
+        private final String name;
+        private final PrioritizedRateLimiter limiter;
+        private final AdaptiveRateLimit adaptiveLimit;
+        @Nullable
+        private final SharedRateLimiter sharedLimiter;
+        private final Timer waitTimer;
+        private final Timer latencyTimer;
+        private final Counter errors;
+        private final Counter resourceExhaustedErrors;
+
+        private ThrottledTarget(
+                final String name,
+                final int limit,
+                final Duration interval,
+                final double maxFactor,
+                @Nullable final Path sharedQuotaDirectory,
+                final MeterRegistry meterRegistry
+        ) {
+            this.name = name;
+            this.limiter = newLimiter(limit, interval);
+            this.adaptiveLimit = new AdaptiveRateLimit(limiter, (int) (limit * maxFactor), interval);
+            this.sharedLimiter = newSharedLimiter(sharedQuotaDirectory, name, limit, interval);
+
+            Gauge.builder("trader.api.throttling.limit", limiter, PrioritizedRateLimiter::getLimit)
+                    .tag(TARGET_TAG, name)
+                    .description("Max count of calls within throttling interval")
+                    .register(meterRegistry);
+            Gauge.builder("trader.api.throttling.used", limiter, PrioritizedRateLimiter::getUsedCount)
+                    .tag(TARGET_TAG, name)
+                    .description("Count of permits held by calls or released within last throttling interval")
+                    .register(meterRegistry);
+            Gauge.builder("trader.api.throttling.waiting", limiter, PrioritizedRateLimiter::getWaitingCount)
+                    .tag(TARGET_TAG, name)
+                    .description("Count of calls waiting for permit")
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("trader.api.throttling.wait")
+                    .tag(TARGET_TAG, name)
+                    .description("Time of waiting for permit, including permit shared with other processes")
+                    .serviceLevelObjectives(WAIT_SERVICE_LEVEL_OBJECTIVES)
+                    .register(meterRegistry);
+            this.latencyTimer = Timer.builder("trader.api.calls")
+                    .tag(TARGET_TAG, name)
+                    .description("Time of calls, excluding waiting for permit")
+                    .register(meterRegistry);
+            this.errors = Counter.builder("trader.api.calls.errors")
+                    .tag(TARGET_TAG, name)
+                    .description("Count of failed calls")
+                    .register(meterRegistry);
+            this.resourceExhaustedErrors = Counter.builder("trader.api.calls.resource.exhausted")
+                    .tag(TARGET_TAG, name)
+                    .description("Count of calls failed with RESOURCE_EXHAUSTED status")
+                    .register(meterRegistry);
+        }
+
+        private PrioritizedRateLimiter.Permit acquire(final ApiCallPriority priority, @Nullable final ApiCallsTimer timer) {
+            final long start = System.nanoTime();
+            final PrioritizedRateLimiter.Permit permit = limiter.acquire(priority.ordinal());
+            if (sharedLimiter != null) {
+                sharedLimiter.acquire(getSharedShare(priority));
+            }
+            onAcquired(timer, System.nanoTime() - start);
+            return permit;
+        }
+
+        private CompletableFuture<PrioritizedRateLimiter.Permit> acquireAsync(
+                final ApiCallPriority priority,
+                @Nullable final ApiCallsTimer timer
+        ) {
+            final long start = System.nanoTime();
+            final CompletableFuture<PrioritizedRateLimiter.Permit> localFuture = limiter.acquireAsync(priority.ordinal());
+            final CompletableFuture<PrioritizedRateLimiter.Permit> future = sharedLimiter == null
+                    ? localFuture
+                    : localFuture.thenCompose(permit -> sharedLimiter.acquireAsync(getSharedShare(priority)).thenApply(grantedAt -> permit));
+            return future.thenApply(permit -> {
+                onAcquired(timer, System.nanoTime() - start);
+                return permit;
+            });
+        }
+
+        private static double getSharedShare(final ApiCallPriority priority) {
+            return priority == ApiCallPriority.LIVE
+                    ? priority.getShare()
+                    : Math.min(priority.getShare(), 1 - SHARED_LIVE_RESERVE);
+        }
+
+        private void close() throws IOException {
+            if (sharedLimiter != null) {
+                sharedLimiter.close();
+            }
+        }
+
+        private void onAcquired(@Nullable final ApiCallsTimer timer, final long waitNanos) {
+            waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+            if (timer != null) {
+                timer.addThrottlingNanos(waitNanos);
+            }
+        }
+
+        private void onCallFinished(@Nullable final ApiCallsTimer timer, final long callNanos, final Throwable error) {
+            latencyTimer.record(callNanos, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                errors.increment();
+                if (isResourceExhausted(error)) {
+                    resourceExhaustedErrors.increment();
+                }
+            }
+            if (timer != null) {
+                timer.addCallNanos(callNanos);
+            }
+        }
+
+        private ApiCallsMetrics getMetrics() {
+            return new ApiCallsMetrics(
+                    name,
+                    limiter.getLimit(),
+                    limiter.getUsedCount(),
+                    limiter.getWaitingCount(),
+                    getWaitTimeHistogram(),
+                    latencyTimer.count(),
+                    latencyTimer.mean(TimeUnit.MILLISECONDS),
+                    latencyTimer.max(TimeUnit.MILLISECONDS),
+                    (long) errors.count(),
+                    (long) resourceExhaustedErrors.count()
+            );
+        }
+
+        /**
+         * @return counts of waits for permit by upper bounds of buckets in milliseconds, last key is "+Inf".
+         * Unlike counts of {@link HistogramSnapshot}, counts are not cumulative
+         */
+        private SequencedMap<String, Long> getWaitTimeHistogram() {
+            final HistogramSnapshot snapshot = waitTimer.takeSnapshot();
+            final CountAtBucket[] buckets = snapshot.histogramCounts();
+            final SequencedMap<String, Long> result = LinkedHashMap.newLinkedHashMap(buckets.length + 1);
+            long previousCount = 0;
+            for (final CountAtBucket bucket : buckets) {
+                final long count = (long) bucket.count();
+                result.put(String.valueOf((long) bucket.bucket(TimeUnit.MILLISECONDS)), count - previousCount);
+                previousCount = count;
+            }
+            result.put(INFINITE_BUCKET_NAME, snapshot.count() - previousCount);
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.obukhov.trader.common.util.AdaptiveRateLimit;
+
+import java.time.Duration;
+
+/**
+ * Reads quota of calls from headers and trailers of TBank API responses and reports it to {@link ApiCallsThrottling}
+ * together with rejection of the call by RESOURCE_EXHAUSTED status
+ *
+ * @see <a href=https://tinkoff.github.io/investAPI/grpc/">Tinkoff documentation</a>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ApiQuotaInterceptor implements ClientInterceptor {
+
+    static final Metadata.Key<String> LIMIT_KEY = Metadata.Key.of("x-ratelimit-limit", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> REMAINING_KEY = Metadata.Key.of("x-ratelimit-remaining", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> RESET_KEY = Metadata.Key.of("x-ratelimit-reset", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final ApiCallsThrottling apiCallsThrottling;
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            final MethodDescriptor<ReqT, RespT> method,
+            final CallOptions callOptions,
+            final Channel next
+    ) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(final Listener<RespT> responseListener, final Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    private Metadata responseHeaders;
+
+                    @Override
+                    public void onHeaders(final Metadata headers) {
+                        responseHeaders = headers;
+                        super.onHeaders(headers);
+                    }
+
+                    @Override
+                    public void onClose(final Status status, final Metadata trailers) {
+                        onResponse(method.getFullMethodName(), status, responseHeaders, trailers);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private void onResponse(final String fullMethodName, final Status status, final Metadata headers, final Metadata trailers) {
+        try {
+            final AdaptiveRateLimit.Quota quota = new AdaptiveRateLimit.Quota(
+                    parseInt(getValue(LIMIT_KEY, headers, trailers)),
+                    parseInt(getValue(REMAINING_KEY, headers, trailers)),
+                    parseSeconds(getValue(RESET_KEY, headers, trailers))
+            );
+            apiCallsThrottling.onResponse(fullMethodName, quota, status.getCode() == Status.Code.RESOURCE_EXHAUSTED);
+        } catch (final Exception exception) {
+            log.warn("Failed to handle quota of {} response", fullMethodName, exception);
+        }
+    }
+
+    /**
+     * @return value of given {@code key} from trailers or from headers if trailers don't have it
+     */
+    private static String getValue(final Metadata.Key<String> key, final Metadata headers, final Metadata trailers) {
+        final String value = trailers == null ? null : trailers.get(key);
+        if (value != null || headers == null) {
+            return value;
+        }
+        return headers.get(key);
+    }
+
+    /**
+     * @return leading integer of given {@code value}, e.g. 200 for "200, 200;w=60", or null if there is no such
+     */
+    static Integer parseInt(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final String trimmed = value.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isDigit(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? null : Integer.valueOf(trimmed.substring(0, end));
+    }
+
+    static Duration parseSeconds(final String value) {
+        final Integer seconds = parseInt(value);
+        return seconds == null ? null : Duration.ofSeconds(seconds);
+    }
+
+}
@@ -5,12 +5,16 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.grpc.ManagedChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import ru.obukhov.trader.common.model.transform.BigDecimalDeserializer;
 import ru.obukhov.trader.common.model.transform.BigDecimalSerializer;
 import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.config.properties.ApiProperties;
 import ru.obukhov.trader.config.properties.TradingProperties;
 import ru.tinkoff.piapi.core.InstrumentsService;
 import ru.tinkoff.piapi.core.InvestApi;
@@ -21,14 +25,36 @@ import ru.tinkoff.piapi.core.UsersService;
 
 import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @SuppressWarnings("unused")
 public class BeanConfiguration {
 
+    /**
+     * Disposed by {@link InvestApiDisposer}
+     */
+    @Bean(destroyMethod = "")
+    public PooledManagedChannel apiChannel(final TradingProperties tradingProperties, final ApiProperties apiProperties) {
+        final List<ManagedChannel> channels = new ArrayList<>(apiProperties.channelsCount());
+        for (int i = 0; i < apiProperties.channelsCount(); i++) {
+            channels.add((ManagedChannel) InvestApi.defaultChannel(tradingProperties.getToken()));
+        }
+        return new PooledManagedChannel(channels);
+    }
+
     @Bean
-    public InvestApi investApi(final TradingProperties tradingProperties) {
-        return InvestApi.create(tradingProperties.getToken());
+    public InvestApi investApi(
+            final PooledManagedChannel apiChannel,
+            final ApiProperties apiProperties,
+            final ApiCallsThrottling apiCallsThrottling
+    ) {
+        if (!apiProperties.adaptiveThrottling()) {
+            return InvestApi.create(apiChannel);
+        }
+
+        return InvestApi.create(new InterceptedManagedChannel(apiChannel, new ApiQuotaInterceptor(apiCallsThrottling)));
     }
 
     @Bean
@@ -56,6 +82,14 @@ public class BeanConfiguration {
         return investApi.getUserService();
     }
 
+    /**
+     * In-process registry of application metrics. Actuator is not used, so no registry is auto-configured
+     */
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
@@ -0,0 +1,86 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ManagedChannel}, making calls through given interceptors and delegating lifecycle to original channel.
+ * Unlike {@link ClientInterceptors#intercept} result, it can be passed to {@link ru.tinkoff.piapi.core.InvestApi},
+ * which shuts down its channel as {@link ManagedChannel}
+ */
+public class InterceptedManagedChannel extends ManagedChannel {
+
+    private final ManagedChannel delegate;
+    private final Channel intercepted;
+
+    public InterceptedManagedChannel(final ManagedChannel delegate, final ClientInterceptor... interceptors) {
+        this.delegate = delegate;
+        this.intercepted = ClientInterceptors.intercept(delegate, interceptors);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(final MethodDescriptor<ReqT, RespT> method, final CallOptions callOptions) {
+        return intercepted.newCall(method, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return delegate.authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        delegate.shutdown();
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        delegate.shutdownNow();
+        return this;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public ConnectivityState getState(final boolean requestConnection) {
+        return delegate.getState(requestConnection);
+    }
+
+    @Override
+    public void notifyWhenStateChanged(final ConnectivityState source, final Runnable callback) {
+        delegate.notifyWhenStateChanged(source, callback);
+    }
+
+    @Override
+    public void resetConnectBackoff() {
+        delegate.resetConnectBackoff();
+    }
+
+    @Override
+    public void enterIdle() {
+        delegate.enterIdle();
+    }
+
+}
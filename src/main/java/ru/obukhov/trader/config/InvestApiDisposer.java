@@ -1,18 +1,35 @@
 package ru.obukhov.trader.config;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Component;
 import ru.tinkoff.piapi.core.InvestApi;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets calls in progress finish on all channels to API within {@link #GRACEFUL_SHUTDOWN_SECONDS}
+ * and then terminates remaining calls and channels
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 @SuppressWarnings("unused")
 public class InvestApiDisposer implements DisposableBean {
+
+    private static final int GRACEFUL_SHUTDOWN_SECONDS = 10;
+    private static final int TERMINATION_SECONDS = 60;
+
     private final InvestApi investApi;
+    private final PooledManagedChannel apiChannel;
 
-    public void destroy() {
-        investApi.destroy(60);
+    public void destroy() throws InterruptedException {
+        apiChannel.shutdown();
+        if (!apiChannel.awaitTermination(GRACEFUL_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Channels to API are not terminated within {} seconds. Cancelling calls in progress", GRACEFUL_SHUTDOWN_SECONDS);
+        }
+        investApi.destroy(TERMINATION_SECONDS);
     }
 
-}
\ No newline at end of file
+}
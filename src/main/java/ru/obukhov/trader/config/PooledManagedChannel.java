@@ -0,0 +1,215 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import org.springframework.util.Assert;
+import ru.obukhov.trader.config.model.ApiChannelMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ManagedChannel}, spreading calls over several channels, so concurrent calls are not limited by streams
+ * of single HTTP/2 connection and don't wait for each other in it.<br/>
+ * Every call goes to the channel with the least count of calls in progress.
+ * Channels with equal count are taken in round-robin order, so calls are spread evenly when they finish quickly.<br/>
+ * Lifecycle methods are applied to all channels
+ */
+public class PooledManagedChannel extends ManagedChannel {
+
+    private final List<PooledChannel> channels;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    public PooledManagedChannel(final List<ManagedChannel> channels) {
+        Assert.notEmpty(channels, "channels must not be empty");
+
+        this.channels = channels.stream().map(PooledChannel::new).toList();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(final MethodDescriptor<ReqT, RespT> method, final CallOptions callOptions) {
+        final PooledChannel channel = selectChannel();
+        channel.activeCalls.incrementAndGet();
+        return new PooledCall<>(channel, channel.delegate.newCall(method, callOptions));
+    }
+
+    private PooledChannel selectChannel() {
+        final int size = channels.size();
+        final int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+        PooledChannel result = channels.get(start);
+        for (int i = 1; i < size && result.activeCalls.get() > 0; i++) {
+            final PooledChannel channel = channels.get((start + i) % size);
+            if (channel.activeCalls.get() < result.activeCalls.get()) {
+                result = channel;
+            }
+        }
+        return result;
+    }
+
+    public int getSize() {
+        return channels.size();
+    }
+
+    /**
+     * @return metrics of every channel of the pool
+     */
+    public List<ApiChannelMetrics> getMetrics() {
+        final List<ApiChannelMetrics> result = new ArrayList<>(channels.size());
+        for (int i = 0; i < channels.size(); i++) {
+            final PooledChannel channel = channels.get(i);
+            result.add(new ApiChannelMetrics(
+                    i,
+                    channel.delegate.getState(false).name(),
+                    channel.activeCalls.get(),
+                    channel.calls.sum(),
+                    channel.errors.sum()
+            ));
+        }
+        return result;
+    }
+
+    @Override
+    public String authority() {
+        return channels.getFirst().delegate.authority();
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        channels.forEach(channel -> channel.delegate.shutdown());
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return channels.stream().allMatch(channel -> channel.delegate.isShutdown());
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return channels.stream().allMatch(channel -> channel.delegate.isTerminated());
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        channels.forEach(channel -> channel.delegate.shutdownNow());
+        return this;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (final PooledChannel channel : channels) {
+            if (!channel.delegate.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@link ConnectivityState#READY} if any channel is ready, otherwise state of the first channel
+     */
+    @Override
+    public ConnectivityState getState(final boolean requestConnection) {
+        ConnectivityState result = null;
+        for (final PooledChannel channel : channels) {
+            final ConnectivityState state = channel.delegate.getState(requestConnection);
+            if (state == ConnectivityState.READY) {
+                return state;
+            }
+            if (result == null) {
+                result = state;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void resetConnectBackoff() {
+        channels.forEach(channel -> channel.delegate.resetConnectBackoff());
+    }
+
+    @Override
+    public void enterIdle() {
+        channels.forEach(channel -> channel.delegate.enterIdle());
+    }
+
+    private static final class PooledChannel {
+
+        private final ManagedChannel delegate;
+        private final AtomicInteger activeCalls = new AtomicInteger();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private PooledChannel(final ManagedChannel delegate) {
+            this.delegate = delegate;
+        }
+
+    }
+
+    /**
+     * Call, which is counted as active in its channel from creation till closing, or till cancelling if it was not started
+     */
+    private static final class PooledCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+
+        private final PooledChannel channel;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile boolean started;
+
+        private PooledCall(final PooledChannel channel, final ClientCall<ReqT, RespT> delegate) {
+            super(delegate);
+            this.channel = channel;
+        }
+
+        @Override
+        public void start(final Listener<RespT> responseListener, final Metadata headers) {
+            started = true;
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(final Status status, final Metadata trailers) {
+                        finish(status);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (final RuntimeException exception) {
+                finish(Status.fromThrowable(exception));
+                throw exception;
+            }
+        }
+
+        @Override
+        public void cancel(final String message, final Throwable cause) {
+            try {
+                super.cancel(message, cause);
+            } finally {
+                if (!started) {
+                    finish(Status.CANCELLED);
+                }
+            }
+        }
+
+        private void finish(final Status status) {
+            if (finished.compareAndSet(false, true)) {
+                channel.activeCalls.decrementAndGet();
+                channel.calls.increment();
+                if (!status.isOk()) {
+                    channel.errors.increment();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package ru.obukhov.trader.config.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority classes of TBank API calls, ordered by priority descending.
+ * Priority of calls is taken from current thread, calls are {@link #INTERACTIVE} by default
+ */
+@Getter
+@AllArgsConstructor
+public enum ApiCallPriority {
+
+    /**
+     * Calls of running bots: market data and orders
+     */
+    LIVE(1.0),
+    /**
+     * Calls, made on REST requests
+     */
+    INTERACTIVE(1.0),
+    /**
+     * Loading of data for back tests and heavy statistics
+     */
+    BACKGROUND(0.5);
+
+    private static final ThreadLocal<ApiCallPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    /**
+     * Max share of API limit, which can be taken by calls of this priority
+     */
+    private final double share;
+
+    public static ApiCallPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs given {@code runnable} in current thread with API calls of this priority
+     */
+    public void run(final Runnable runnable) {
+        get(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls given {@code supplier} in current thread with API calls of this priority
+     */
+    public <T> T get(final Supplier<T> supplier) {
+        final ApiCallPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package ru.obukhov.trader.config.model;
+
+import java.util.SequencedMap;
+
+/**
+ * Snapshot of meters of throttled API methods, registered in {@link io.micrometer.core.instrument.MeterRegistry}
+ *
+ * @param target                  name of throttled API methods
+ * @param limit                   max count of calls within throttling interval
+ * @param usedPermits             count of permits, which are not available right now: held by calls or released within last interval
+ * @param waiting                 count of calls waiting for permit
+ * @param waitTimeHistogram       counts of waits for permit by upper bounds of waiting time in milliseconds
+ * @param calls                   count of finished calls since application start
+ * @param averageLatencyMillis    average time of call in milliseconds, excluding waiting for permit
+ * @param maxLatencyMillis        max time of recent calls in milliseconds, excluding waiting for permit. Decays to 0 within few minutes without calls
+ * @param errors                  count of failed calls
+ * @param resourceExhaustedErrors count of calls failed with RESOURCE_EXHAUSTED status, i.e. rejected by TBank API limits
+ */
+public record ApiCallsMetrics(
+        String target,
+        int limit,
+        int usedPermits,
+        int waiting,
+        SequencedMap<String, Long> waitTimeHistogram,
+        long calls,
+        double averageLatencyMillis,
+        double maxLatencyMillis,
+        long errors,
+        long resourceExhaustedErrors
+) {
+}
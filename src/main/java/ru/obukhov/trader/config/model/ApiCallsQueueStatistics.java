@@ -0,0 +1,19 @@
+package ru.obukhov.trader.config.model;
+
+/**
+ * @param target            name of throttled API methods
+ * @param priority          priority class of calls
+ * @param waiting           count of calls waiting for permit
+ * @param granted           count of permits granted since application start
+ * @param averageWaitMillis average time of waiting for permit in milliseconds
+ * @param maxWaitMillis     max time of waiting for permit in milliseconds
+ */
+public record ApiCallsQueueStatistics(
+        String target,
+        ApiCallPriority priority,
+        int waiting,
+        long granted,
+        double averageWaitMillis,
+        double maxWaitMillis
+) {
+}
@@ -0,0 +1,101 @@
+package ru.obukhov.trader.config.model;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Accumulator of time of TBank API calls made in threads, where this timer is current:
+ * time of waiting for permit of throttling and time of calls themselves.
+ * Asynchronous calls are accounted by timer, which was current at the moment of the call.
+ * Code, which continues work of current thread in another thread, must take the timer with it by {@link #with},
+ * and code, which makes calls on behalf of other threads, must add time of the calls to their timers explicitly.
+ * Time is also added to {@code parent} timer if it is set
+ */
+public class ApiCallsTimer {
+
+    private static final ThreadLocal<ApiCallsTimer> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder throttlingNanos = new LongAdder();
+    private final LongAdder callsNanos = new LongAdder();
+    @Nullable
+    private final ApiCallsTimer parent;
+
+    public ApiCallsTimer() {
+        this(null);
+    }
+
+    public ApiCallsTimer(@Nullable final ApiCallsTimer parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return timer of current thread or null if there is no timer
+     */
+    public static ApiCallsTimer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs given {@code runnable} in current thread with this timer as current one
+     */
+    public void run(final Runnable runnable) {
+        get(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls given {@code supplier} in current thread with this timer as current one
+     */
+    public <T> T get(final Supplier<T> supplier) {
+        return with(this, supplier);
+    }
+
+    /**
+     * Calls given {@code supplier} in current thread with given {@code timer} as current one, even if it is null.
+     * Used to continue accounting of calls in another thread by timer taken by {@link #current()} in the original thread
+     */
+    public static <T> T with(@Nullable final ApiCallsTimer timer, final Supplier<T> supplier) {
+        final ApiCallsTimer previous = CURRENT.get();
+        CURRENT.set(timer);
+        try {
+            return supplier.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Adds time of calls and of waiting for permits accumulated by given {@code timer} to this one
+     */
+    public void add(final ApiCallsTimer timer) {
+        addThrottlingNanos(timer.getThrottlingNanos());
+        addCallNanos(timer.getCallsNanos());
+    }
+
+    public void addThrottlingNanos(final long nanos) {
+        throttlingNanos.add(nanos);
+        if (parent != null) {
+            parent.addThrottlingNanos(nanos);
+        }
+    }
+
+    public void addCallNanos(final long nanos) {
+        callsNanos.add(nanos);
+        if (parent != null) {
+            parent.addCallNanos(nanos);
+        }
+    }
+
+    public long getThrottlingNanos() {
+        return throttlingNanos.sum();
+    }
+
+    public long getCallsNanos() {
+        return callsNanos.sum();
+    }
+
+}
@@ -0,0 +1,11 @@
+package ru.obukhov.trader.config.model;
+
+/**
+ * @param channel     index of channel in pool of channels to TBank API
+ * @param state       connectivity state of channel
+ * @param activeCalls count of calls in progress
+ * @param calls       count of finished calls since application start
+ * @param errors      count of calls finished with not OK status
+ */
+public record ApiChannelMetrics(int channel, String state, int activeCalls, long calls, long errors) {
+}
@@ -0,0 +1,12 @@
+package ru.obukhov.trader.config.model;
+
+/**
+ * @param target           name of retried API methods
+ * @param calls            count of calls since application start, regardless of count of attempts of every call
+ * @param retries          count of repeated attempts after failures
+ * @param hedges           count of duplicates of slow attempts
+ * @param hedgeWins        count of duplicates, which responded earlier than original attempts
+ * @param hedgeDelayMillis current delay of duplicates in milliseconds, or null if there are not enough latencies to estimate it
+ */
+public record ApiRetryMetrics(String target, long calls, long retries, long hedges, long hedgeWins, Double hedgeDelayMillis) {
+}
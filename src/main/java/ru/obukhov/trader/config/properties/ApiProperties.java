@@ -1,17 +1,46 @@
 package ru.obukhov.trader.config.properties;
 
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import org.apache.commons.lang3.ObjectUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.validation.annotation.Validated;
 
+/**
+ * Properties of TBank API calls
+ *
+ * @param throttlingInterval          window of throttling limits in milliseconds
+ * @param adaptiveThrottling          if true, throttling limits are adapted to quota headers and RESOURCE_EXHAUSTED errors of API
+ * @param adaptiveThrottlingMaxFactor max ratio of adapted limit to documented one. Documented limit is exceeded only
+ *                                    by limit reported by server in quota headers
+ * @param sharedQuotaDirectory        directory of files of throttling limits shared by all trader processes of the host,
+ *                                    which use the same directory. If null, every process throttles calls by its own
+ * @param channelsCount               count of gRPC channels to API. Every channel has its own connection
+ */
 @ConfigurationProperties(prefix = "ru.tbank.invest.openapi")
 @Validated
-public record ApiProperties(Long throttlingInterval) {
+public record ApiProperties(
+        Long throttlingInterval,
+        Boolean adaptiveThrottling,
+        @DecimalMin(value = "1.0", message = "adaptiveThrottlingMaxFactor can't be lower than 1") Double adaptiveThrottlingMaxFactor,
+        String sharedQuotaDirectory,
+        @Min(value = 1, message = "channelsCount must be positive") Integer channelsCount
+) {
 
     @ConstructorBinding
-    public ApiProperties(final Long throttlingInterval) {
+    public ApiProperties(
+            final Long throttlingInterval,
+            final Boolean adaptiveThrottling,
+            final Double adaptiveThrottlingMaxFactor,
+            final String sharedQuotaDirectory,
+            final Integer channelsCount
+    ) {
         this.throttlingInterval = ObjectUtils.defaultIfNull(throttlingInterval, 60000L);
+        this.adaptiveThrottling = ObjectUtils.defaultIfNull(adaptiveThrottling, true);
+        this.adaptiveThrottlingMaxFactor = ObjectUtils.defaultIfNull(adaptiveThrottlingMaxFactor, 2.0);
+        this.sharedQuotaDirectory = sharedQuotaDirectory;
+        this.channelsCount = ObjectUtils.defaultIfNull(channelsCount, 1);
     }
 
-}
\ No newline at end of file
+}
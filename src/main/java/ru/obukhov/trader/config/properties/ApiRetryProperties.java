@@ -0,0 +1,61 @@
+package ru.obukhov.trader.config.properties;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Properties of retrying and hedging of idempotent TBank API read calls: candles, instruments, dividends, trading schedules
+ *
+ * @param maxAttempts       max count of attempts of one call, including the first one. 1 disables retrying
+ * @param initialBackoff    delay before the first retry. Every next delay is {@code backoffMultiplier} times longer
+ * @param maxBackoff        max delay between attempts
+ * @param backoffMultiplier ratio of every next delay between attempts to previous one
+ * @param hedging           if true, duplicate of the call is made when the call lasts longer than {@code hedgingPercentile}
+ *                          of recent latencies, and the first successful response is taken
+ * @param hedgingPercentile percentile of recent latencies, after which duplicate of the call is made
+ * @param hedgingMinDelay   min delay of duplicate of the call
+ * @param hedgingMaxRatio   max ratio of count of duplicates to count of calls
+ */
+@ConfigurationProperties(prefix = "ru.tbank.invest.openapi.retry")
+@Validated
+public record ApiRetryProperties(
+        @Min(value = 1, message = "maxAttempts must be positive") Integer maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        @DecimalMin(value = "1.0", message = "backoffMultiplier can't be lower than 1") Double backoffMultiplier,
+        Boolean hedging,
+        @DecimalMin(value = "0.0", message = "hedgingPercentile must be in range [0, 1]")
+        @DecimalMax(value = "1.0", message = "hedgingPercentile must be in range [0, 1]") Double hedgingPercentile,
+        Duration hedgingMinDelay,
+        @DecimalMin(value = "0.0", message = "hedgingMaxRatio can't be negative") Double hedgingMaxRatio
+) {
+
+    @ConstructorBinding
+    public ApiRetryProperties(
+            final Integer maxAttempts,
+            final Duration initialBackoff,
+            final Duration maxBackoff,
+            final Double backoffMultiplier,
+            final Boolean hedging,
+            final Double hedgingPercentile,
+            final Duration hedgingMinDelay,
+            final Double hedgingMaxRatio
+    ) {
+        this.maxAttempts = ObjectUtils.defaultIfNull(maxAttempts, 3);
+        this.initialBackoff = ObjectUtils.defaultIfNull(initialBackoff, Duration.ofMillis(100));
+        this.maxBackoff = ObjectUtils.defaultIfNull(maxBackoff, Duration.ofSeconds(2));
+        this.backoffMultiplier = ObjectUtils.defaultIfNull(backoffMultiplier, 2.0);
+        this.hedging = ObjectUtils.defaultIfNull(hedging, false);
+        this.hedgingPercentile = ObjectUtils.defaultIfNull(hedgingPercentile, 0.95);
+        this.hedgingMinDelay = ObjectUtils.defaultIfNull(hedgingMinDelay, Duration.ofMillis(50));
+        this.hedgingMaxRatio = ObjectUtils.defaultIfNull(hedgingMaxRatio, 0.1);
+    }
+
+}
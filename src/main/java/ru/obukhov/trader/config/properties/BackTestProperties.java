@@ -12,9 +12,37 @@ import org.springframework.validation.annotation.Validated;
 @Validated
 public class BackTestProperties {
 
+    /**
+     * Count of threads simulating back tests. Simulation mostly uses CPU, so it shouldn't exceed count of CPU cores
+     */
     @Getter
     @NotNull(message = "threadCount is mandatory")
     @Min(value = 1, message = "threadCount must be positive")
     private final Integer threadCount;
 
+    /**
+     * If true, bot configs with same FIGIes and candle interval are back tested within single loop
+     * with single clock and shared market data
+     */
+    @Getter
+    private final boolean sharedClock;
+
+    /**
+     * Max count of bot configs, which market data is loaded concurrently before simulation.
+     * Loading is blocked by TBank API limits, so it is performed on virtual threads and limited by budget of background API calls.
+     * If set, it limits loading concurrency even more. Optional
+     */
+    @Getter
+    @Min(value = 1, message = "loadingConcurrency must be positive")
+    private final Integer loadingConcurrency;
+
+    /**
+     * Max count of bot configs with loaded market data, which are waiting for simulation or being simulated.
+     * Limits memory used by data loaded ahead of simulation
+     */
+    @Getter
+    @NotNull(message = "queueCapacity is mandatory")
+    @Min(value = 1, message = "queueCapacity must be positive")
+    private final Integer queueCapacity;
+
 }
\ No newline at end of file
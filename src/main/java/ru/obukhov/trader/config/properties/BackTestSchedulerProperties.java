@@ -0,0 +1,42 @@
+package ru.obukhov.trader.config.properties;
+
+import jakarta.validation.constraints.Min;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Limits of back test requests admission
+ *
+ * @param cpuBudget      max sum of simulation ticks (minutes of interval multiplied by FIGIes of every bot config)
+ *                       of all running back tests
+ * @param memoryBudget   max sum of candles, which are not cached yet and will be loaded into memory by all running back tests
+ * @param maxQueuedJobs  max count of back tests waiting for budget. New back tests are rejected when queue is full
+ * @param maxWaitTime    max time of waiting for budget. Back test is rejected when it is not started within this time
+ */
+@ConfigurationProperties(prefix = "back-test.scheduler")
+@Validated
+public record BackTestSchedulerProperties(
+        @Min(value = 1, message = "cpuBudget must be positive") Long cpuBudget,
+        @Min(value = 1, message = "memoryBudget must be positive") Long memoryBudget,
+        @Min(value = 0, message = "maxQueuedJobs can't be negative") Integer maxQueuedJobs,
+        Duration maxWaitTime
+) {
+
+    @ConstructorBinding
+    public BackTestSchedulerProperties(
+            final Long cpuBudget,
+            final Long memoryBudget,
+            final Integer maxQueuedJobs,
+            final Duration maxWaitTime
+    ) {
+        this.cpuBudget = ObjectUtils.defaultIfNull(cpuBudget, 100_000_000L);
+        this.memoryBudget = ObjectUtils.defaultIfNull(memoryBudget, 5_000_000L);
+        this.maxQueuedJobs = ObjectUtils.defaultIfNull(maxQueuedJobs, 32);
+        this.maxWaitTime = ObjectUtils.defaultIfNull(maxWaitTime, Duration.ofMinutes(10));
+    }
+
+}
@@ -0,0 +1,48 @@
+package ru.obukhov.trader.config.properties;
+
+import jakarta.validation.constraints.Min;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Properties of back test distributed between worker processes
+ *
+ * @param enabled                if true, back tests are partitioned and sent to {@code workerUrls} instead of being run locally
+ * @param workerUrls             base URLs of worker instances of trader, e.g. {@code http://localhost:8081}
+ * @param partitionSize          max count of bot configs sent to a worker within one request
+ * @param maxAttempts            max count of attempts to back test one partition. Each retry is sent to next free worker
+ * @param candlesStoreDirectory  directory of local candles store shared by coordinator and workers.
+ *                               If empty, candles are not stored
+ */
+@ConfigurationProperties(prefix = "back-test.distributed")
+@Validated
+public record DistributedBackTestProperties(
+        boolean enabled,
+        List<String> workerUrls,
+        @Min(value = 1, message = "partitionSize must be positive") Integer partitionSize,
+        @Min(value = 1, message = "maxAttempts must be positive") Integer maxAttempts,
+        String candlesStoreDirectory
+) {
+
+    @ConstructorBinding
+    public DistributedBackTestProperties(
+            final boolean enabled,
+            final List<String> workerUrls,
+            final Integer partitionSize,
+            final Integer maxAttempts,
+            final String candlesStoreDirectory
+    ) {
+        this.enabled = enabled;
+        this.workerUrls = ObjectUtils.defaultIfNull(workerUrls, Collections.emptyList());
+        this.partitionSize = ObjectUtils.defaultIfNull(partitionSize, 1);
+        this.maxAttempts = ObjectUtils.defaultIfNull(maxAttempts, 3);
+        this.candlesStoreDirectory = StringUtils.hasLength(candlesStoreDirectory) ? candlesStoreDirectory : null;
+    }
+
+}
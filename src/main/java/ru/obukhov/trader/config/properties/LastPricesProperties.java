@@ -0,0 +1,34 @@
+package ru.obukhov.trader.config.properties;
+
+import jakarta.validation.constraints.Min;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Properties of coalescing of last prices requests
+ *
+ * @param batchWindow  time of gathering of concurrent requests before batched call.
+ *                     Requests are gathered while previous batched call is in progress anyway
+ * @param maxBatchSize max count of FIGIs in one batched call. Larger single requests are not split
+ * @param maxStaleness last prices are reused within this time after loading. Zero disables reusing
+ */
+@ConfigurationProperties(prefix = "last-prices")
+@Validated
+public record LastPricesProperties(
+        Duration batchWindow,
+        @Min(value = 1, message = "maxBatchSize must be positive") Integer maxBatchSize,
+        Duration maxStaleness
+) {
+
+    @ConstructorBinding
+    public LastPricesProperties(final Duration batchWindow, final Integer maxBatchSize, final Duration maxStaleness) {
+        this.batchWindow = ObjectUtils.defaultIfNull(batchWindow, Duration.ofMillis(2));
+        this.maxBatchSize = ObjectUtils.defaultIfNull(maxBatchSize, 1000);
+        this.maxStaleness = ObjectUtils.defaultIfNull(maxStaleness, Duration.ofSeconds(1));
+    }
+
+}
@@ -0,0 +1,13 @@
+package ru.obukhov.trader.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties of moving averagers
+ *
+ * @param validationEnabled if true, results of {@code double} averagers are compared with results of
+ *                          corresponding {@link java.math.BigDecimal} averagers and maximum divergence is logged
+ */
+@ConfigurationProperties(prefix = "moving-average")
+public record MovingAverageProperties(boolean validationEnabled) {
+}
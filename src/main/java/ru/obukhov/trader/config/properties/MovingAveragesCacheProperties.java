@@ -0,0 +1,31 @@
+package ru.obukhov.trader.config.properties;
+
+import jakarta.validation.constraints.Min;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Limits of cache of moving averages
+ *
+ * @param maxAverages        max count of averages kept by all cached series.
+ *                           Least recently used series are evicted when count exceeds this limit
+ * @param expireAfterAccess  series is evicted when it is not accessed within this time
+ */
+@ConfigurationProperties(prefix = "moving-average.cache")
+@Validated
+public record MovingAveragesCacheProperties(
+        @Min(value = 0, message = "maxAverages can't be negative") Long maxAverages,
+        Duration expireAfterAccess
+) {
+
+    @ConstructorBinding
+    public MovingAveragesCacheProperties(final Long maxAverages, final Duration expireAfterAccess) {
+        this.maxAverages = ObjectUtils.defaultIfNull(maxAverages, 2_000_000L);
+        this.expireAfterAccess = ObjectUtils.defaultIfNull(expireAfterAccess, Duration.ofHours(3));
+    }
+
+}
@@ -0,0 +1,79 @@
+package ru.obukhov.trader.market.impl;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous access to Spring {@link Cache}, used by asynchronous counterparts of {@code @Cacheable} methods.<br/>
+ * Values are stored by the same keys as {@code @Cacheable} methods do, so synchronous and asynchronous methods share cached values.
+ * Concurrent loads of one key are joined into one load, as {@code @Cacheable(sync = true)} does.
+ * Failed loads are not cached
+ */
+class AsyncCache {
+
+    @Nullable
+    private final Cache cache;
+    private final Map<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * @param cache Spring cache. When null, every call of {@link #get} loads value
+     */
+    AsyncCache(@Nullable final Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return future completed by cached value of given {@code key} if it is present.
+     * Otherwise, future of current load of given {@code key} if it is in progress, or future of new load by given {@code loader}
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> get(final Object key, final Supplier<CompletableFuture<T>> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        final Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) cached.get());
+        }
+
+        final CompletableFuture<Object> load = new CompletableFuture<>();
+        final CompletableFuture<Object> currentLoad = loads.putIfAbsent(key, load);
+        if (currentLoad != null) {
+            return (CompletableFuture<T>) currentLoad.copy();
+        }
+
+        // value could be put by load, which was finished after checking of cache
+        final Cache.ValueWrapper loaded = cache.get(key);
+        if (loaded != null) {
+            loads.remove(key, load);
+            load.complete(loaded.get());
+            return (CompletableFuture<T>) load.copy();
+        }
+
+        CompletableFuture<T> loaderFuture;
+        try {
+            loaderFuture = loader.get();
+        } catch (final RuntimeException exception) {
+            loaderFuture = CompletableFuture.failedFuture(exception);
+        }
+        loaderFuture.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                cache.put(key, value);
+            }
+            loads.remove(key, load);
+            if (throwable == null) {
+                load.complete(value);
+            } else {
+                load.completeExceptionally(throwable);
+            }
+        });
+        return (CompletableFuture<T>) load.copy();
+    }
+
+}
@@ -2,6 +2,7 @@ package ru.obukhov.trader.market.impl;
 
 import org.apache.commons.collections4.ListUtils;
 import org.mapstruct.factory.Mappers;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -10,6 +11,7 @@ import ru.obukhov.trader.common.exception.InstrumentNotFoundException;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.util.Asserter;
 import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.common.util.FutureUtils;
 import ru.obukhov.trader.common.util.SingleItemCollector;
 import ru.obukhov.trader.config.model.WorkSchedule;
 import ru.obukhov.trader.config.properties.MarketProperties;
@@ -38,7 +40,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -55,15 +61,20 @@ public class ExtInstrumentsService {
 
     private final WorkSchedule workSchedule;
     private final InstrumentsService instrumentsService;
+    private final AsyncCache instrumentCache;
+    private final AsyncCache shareCache;
     private final ExtInstrumentsService self;
 
     public ExtInstrumentsService(
             final MarketProperties marketProperties,
             final InstrumentsService instrumentsService,
+            final CacheManager cacheManager,
             @Lazy final ExtInstrumentsService self
     ) {
         this.workSchedule = marketProperties.getWorkSchedule();
         this.instrumentsService = instrumentsService;
+        this.instrumentCache = new AsyncCache(cacheManager.getCache("instrument"));
+        this.shareCache = new AsyncCache(cacheManager.getCache("share"));
         this.self = self;
     }
 
@@ -90,11 +101,25 @@ public class ExtInstrumentsService {
         return INSTRUMENT_MAPPER.map(instrumentsService.getInstrumentByFigiSync(figi));
     }
 
+    /**
+     * Asynchronous counterpart of {@link #getInstrument}. Shares cache with it
+     */
+    public CompletableFuture<Instrument> getInstrumentAsync(final String figi) {
+        return instrumentCache.get(figi, () -> instrumentsService.getInstrumentByFigi(figi).thenApply(INSTRUMENT_MAPPER::map));
+    }
+
     @Cacheable(value = "share", sync = true)
     public Share getShare(final String figi) {
         return SHARE_MAPPER.map(instrumentsService.getShareByFigiSync(figi));
     }
 
+    /**
+     * Asynchronous counterpart of {@link #getShare}. Shares cache with it
+     */
+    public CompletableFuture<Share> getShareAsync(final String figi) {
+        return shareCache.get(figi, () -> instrumentsService.getShareByFigi(figi).thenApply(SHARE_MAPPER::map));
+    }
+
     public List<Share> getShares(final List<String> figies) {
         final Comparator<Share> comparator = Comparator.comparing(share -> figies.indexOf(share.figi()));
         return self.getAllTShares()
@@ -208,8 +233,31 @@ public class ExtInstrumentsService {
     }
 
     public List<Dividend> getDividends(final String figi, final Interval interval) {
-        return instrumentsService.getDividendsSync(figi, interval.getFrom().toInstant(), interval.getTo().toInstant())
-                .stream()
+        return mapDividends(instrumentsService.getDividendsSync(figi, interval.getFrom().toInstant(), interval.getTo().toInstant()));
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #getDividends(String, Interval)}
+     */
+    public CompletableFuture<List<Dividend>> getDividendsAsync(final String figi, final Interval interval) {
+        return instrumentsService.getDividends(figi, interval.getFrom().toInstant(), interval.getTo().toInstant())
+                .thenApply(ExtInstrumentsService::mapDividends);
+    }
+
+    /**
+     * Loads dividends of all given FIGIs concurrently without blocking of calling thread
+     *
+     * @param figiesToIntervals FIGIs and intervals to load dividends within
+     * @return future of dividends by FIGIs in order of {@code figiesToIntervals}
+     */
+    public CompletableFuture<SequencedMap<String, List<Dividend>>> getDividendsAsync(final Map<String, Interval> figiesToIntervals) {
+        final Map<String, CompletableFuture<List<Dividend>>> futures = LinkedHashMap.newLinkedHashMap(figiesToIntervals.size());
+        figiesToIntervals.forEach((figi, interval) -> futures.put(figi, getDividendsAsync(figi, interval)));
+        return FutureUtils.allOf(futures);
+    }
+
+    private static List<Dividend> mapDividends(final List<ru.tinkoff.piapi.contract.v1.Dividend> dividends) {
+        return dividends.stream()
                 .filter(dividend -> !"Cancelled".equals(dividend.getDividendType()))
                 .map(DIVIDEND_MAPPER::map)
                 .toList();
@@ -2,7 +2,9 @@ package ru.obukhov.trader.market.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.mapstruct.factory.Mappers;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -15,7 +17,10 @@ import ru.obukhov.trader.common.util.CollectionsUtils;
 import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.common.util.DecimalUtils;
 import ru.obukhov.trader.common.util.FirstCandleUtils;
+import ru.obukhov.trader.common.util.FutureUtils;
 import ru.obukhov.trader.common.util.SingleItemCollector;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
 import ru.obukhov.trader.market.model.Candle;
 import ru.obukhov.trader.market.model.Currencies;
 import ru.obukhov.trader.market.model.Currency;
@@ -41,6 +46,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -52,15 +58,24 @@ public class ExtMarketDataService {
 
     private final ExtInstrumentsService extInstrumentsService;
     private final MarketDataService marketDataService;
+    private final FileCandlesStore fileCandlesStore;
+    private final LastPricesCoalescer lastPricesCoalescer;
+    private final AsyncCache marketCandlesCache;
     private final ExtMarketDataService self;
 
     public ExtMarketDataService(
             final ExtInstrumentsService extInstrumentsService,
             final MarketDataService marketDataService,
+            final FileCandlesStore fileCandlesStore,
+            final LastPricesCoalescer lastPricesCoalescer,
+            final CacheManager cacheManager,
             @Lazy final ExtMarketDataService self
     ) {
         this.extInstrumentsService = extInstrumentsService;
         this.marketDataService = marketDataService;
+        this.fileCandlesStore = fileCandlesStore;
+        this.lastPricesCoalescer = lastPricesCoalescer;
+        this.marketCandlesCache = new AsyncCache(cacheManager.getCache("marketCandles"));
         this.self = self;
     }
 
@@ -79,6 +94,47 @@ public class ExtMarketDataService {
         return candles;
     }
 
+    /**
+     * Asynchronous counterpart of {@link #getCandles}. Candles of all sub-intervals are loaded concurrently.
+     * Shares cache and candles store with synchronous methods.
+     * Candles are loaded with priority and {@link ApiCallsTimer} of calling thread even when instrument is loaded in another thread
+     */
+    public CompletableFuture<List<Candle>> getCandlesAsync(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        final ApiCallPriority priority = ApiCallPriority.current();
+        final ApiCallsTimer timer = ApiCallsTimer.current();
+        return extInstrumentsService.getInstrumentAsync(figi).thenCompose(instrument -> ApiCallsTimer.with(timer, () -> priority.get(() -> {
+            final Period period = Periods.getPeriodByCandleInterval(candleInterval);
+            final OffsetDateTime adjustedFrom = adjustFrom(interval.getFrom(), instrument, candleInterval);
+            final List<CompletableFuture<List<Candle>>> futures = Interval.of(adjustedFrom, interval.getTo())
+                    .splitIntoIntervals(period)
+                    .stream()
+                    .map(subInterval -> loadCandlesCacheableAsync(instrument.figi(), subInterval, period, candleInterval))
+                    .toList();
+            return FutureUtils.allOf(futures).thenApply(candlesGroups -> {
+                final List<Candle> candles = candlesGroups.stream().flatMap(List::stream).toList();
+                log.info("Loaded {} candles of {} size for FIGI '{}' in interval [{}]", candles.size(), candleInterval, figi, interval.toPrettyString());
+                return candles;
+            });
+        })));
+    }
+
+    /**
+     * Loads candles of all given FIGIs concurrently without blocking of calling thread
+     *
+     * @return future of candles by FIGIs in order of {@code figies}
+     */
+    public CompletableFuture<SequencedMap<String, List<Candle>>> getCandlesAsync(
+            final List<String> figies,
+            final Interval interval,
+            final CandleInterval candleInterval
+    ) {
+        final Map<String, CompletableFuture<List<Candle>>> futures = LinkedHashMap.newLinkedHashMap(figies.size());
+        for (final String figi : figies) {
+            futures.computeIfAbsent(figi, key -> getCandlesAsync(key, interval, candleInterval));
+        }
+        return FutureUtils.allOf(futures);
+    }
+
     private OffsetDateTime adjustFrom(final OffsetDateTime from, final Instrument instrument, final CandleInterval candleInterval) {
         return from == null
                 ? FirstCandleUtils.getFirstCandleDate(instrument.first1MinCandleDate(), instrument.first1DayCandleDate(), candleInterval)
@@ -98,6 +154,19 @@ public class ExtMarketDataService {
         return interval.equals(loadInterval) ? candles : filterCandles(candles, interval);
     }
 
+    private CompletableFuture<List<Candle>> loadCandlesCacheableAsync(
+            final String figi,
+            final Interval interval,
+            final Period period,
+            final CandleInterval candleInterval
+    ) {
+        final Interval loadInterval = interval.extendTo(period);
+        final CompletableFuture<List<Candle>> candles = loadInterval.isAnyPeriod()
+                ? marketCandlesCache.get(new SimpleKey(figi, loadInterval, candleInterval), () -> getMarketCandlesAsync(figi, loadInterval, candleInterval))
+                : getMarketCandlesAsync(figi, loadInterval, candleInterval);
+        return interval.equals(loadInterval) ? candles : candles.thenApply(loaded -> filterCandles(loaded, interval));
+    }
+
     private List<Candle> filterCandles(final List<Candle> candles, final Interval interval) {
         final Candle leftCandle = new Candle().setTime(interval.getFrom());
         final Candle rightCandle = new Candle().setTime(interval.getTo());
@@ -172,7 +241,7 @@ public class ExtMarketDataService {
     }
 
     public SequencedMap<String, BigDecimal> getLastPrices(final List<String> figies) {
-        final List<LastPrice> lastPrices = marketDataService.getLastPricesSync(figies);
+        final List<LastPrice> lastPrices = lastPricesCoalescer.getLastPrices(figies);
         final SequencedMap<String, BigDecimal> result = new LinkedHashMap<>(figies.size(), 1);
 
         for (final String figi : figies) {
@@ -217,7 +286,7 @@ public class ExtMarketDataService {
 
     private Map<String, BigDecimal> getPrices(final List<String> figies, final OffsetDateTime dateTime) {
         final Map<String, BigDecimal> result = new HashMap<>();
-        final List<LastPrice> lastPrices = marketDataService.getLastPricesSync(figies);
+        final List<LastPrice> lastPrices = lastPricesCoalescer.getLastPrices(figies);
         for (final LastPrice lastPrice : lastPrices) {
             final OffsetDateTime lastPriceDateTime = DATE_TIME_MAPPER.timestampToOffsetDateTime(lastPrice.getTime());
             if (lastPriceDateTime.isBefore(dateTime)) {
@@ -233,10 +302,36 @@ public class ExtMarketDataService {
 
     @Cacheable(value = "marketCandles", sync = true)
     List<Candle> getMarketCandles(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        final List<Candle> storedCandles = fileCandlesStore.get(figi, interval, candleInterval);
+        if (storedCandles != null) {
+            return storedCandles;
+        }
+
         final Instant fromInstant = interval.getFrom().toInstant();
         final Instant toInstant = interval.getTo().toInstant();
-        final List<Candle> candles = marketDataService.getCandlesSync(figi, fromInstant, toInstant, candleInterval)
-                .stream()
+        final List<HistoricCandle> historicCandles = marketDataService.getCandlesSync(figi, fromInstant, toInstant, candleInterval);
+        return storeCandles(figi, interval, candleInterval, historicCandles);
+    }
+
+    private CompletableFuture<List<Candle>> getMarketCandlesAsync(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        final List<Candle> storedCandles = fileCandlesStore.get(figi, interval, candleInterval);
+        if (storedCandles != null) {
+            return CompletableFuture.completedFuture(storedCandles);
+        }
+
+        final Instant fromInstant = interval.getFrom().toInstant();
+        final Instant toInstant = interval.getTo().toInstant();
+        return marketDataService.getCandles(figi, fromInstant, toInstant, candleInterval)
+                .thenApply(historicCandles -> storeCandles(figi, interval, candleInterval, historicCandles));
+    }
+
+    private List<Candle> storeCandles(
+            final String figi,
+            final Interval interval,
+            final CandleInterval candleInterval,
+            final List<HistoricCandle> historicCandles
+    ) {
+        final List<Candle> candles = historicCandles.stream()
                 .filter(HistoricCandle::getIsComplete)
                 .map(CANDLE_MAPPER::map)
                 .toList();
@@ -244,6 +339,7 @@ public class ExtMarketDataService {
         if (log.isDebugEnabled()) {
             log.debug("Loaded {} candles of {} size for FIGI '{}' in interval [{}]", candles.size(), candleInterval, figi, interval.toPrettyString());
         }
+        fileCandlesStore.put(figi, interval, candleInterval, candles);
         return candles;
     }
 
@@ -9,6 +9,7 @@ import ru.obukhov.trader.market.model.transform.AccountMapper;
 import ru.tinkoff.piapi.core.UsersService;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @AllArgsConstructor
@@ -23,4 +24,10 @@ public class ExtUsersService {
                 .toList();
     }
 
+    public CompletableFuture<List<Account>> getAccountsAsync() {
+        return usersService.getAccounts().thenApply(accounts -> accounts.stream()
+                .map(ACCOUNT_MAPPER::map)
+                .toList());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package ru.obukhov.trader.market.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.config.properties.DistributedBackTestProperties;
+import ru.obukhov.trader.market.model.Candle;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local file store of historical candles.<br/>
+ * Lets several trader processes on one host (or on several hosts with shared directory) load candles from TBank API once
+ * and read them from the store after that.<br/>
+ * Each stored file contains candles of one FIGI and candle interval within one interval. Only intervals ended in the past
+ * are stored, because candles of such intervals never change.<br/>
+ * Files are written to temporary file and atomically moved in place, so concurrent readers never see partially written files.
+ */
+@Slf4j
+@Component
+public class FileCandlesStore {
+
+    private static final String SEPARATOR = ";";
+    private static final String FILE_EXTENSION = ".csv";
+
+    @Nullable
+    private final Path directory;
+
+    public FileCandlesStore(final DistributedBackTestProperties distributedBackTestProperties) {
+        final String candlesStoreDirectory = distributedBackTestProperties.candlesStoreDirectory();
+        this.directory = candlesStoreDirectory == null ? null : Path.of(candlesStoreDirectory);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * @return stored candles of given {@code figi} and {@code candleInterval} within given {@code interval}
+     * or null if store is disabled or there are no stored candles for given arguments
+     */
+    @Nullable
+    public List<Candle> get(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        if (directory == null) {
+            return null;
+        }
+
+        final Path path = getPath(directory, figi, interval, candleInterval);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try {
+            final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            final List<Candle> candles = new ArrayList<>(lines.size());
+            for (final String line : lines) {
+                candles.add(parseCandle(line));
+            }
+            return candles;
+        } catch (final IOException | RuntimeException exception) {
+            log.warn("Failed to read candles from file {}", path, exception);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if store is enabled and it has candles of given {@code figi} and {@code candleInterval}
+     * within given {@code interval}. Candles are not read
+     */
+    public boolean contains(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        return directory != null && Files.exists(getPath(directory, figi, interval, candleInterval));
+    }
+
+    /**
+     * Stores given {@code candles} when store is enabled and given {@code interval} is ended before now.
+     * Failure of storing is logged and ignored, because store is only a cache of API
+     */
+    public void put(final String figi, final Interval interval, final CandleInterval candleInterval, final List<Candle> candles) {
+        if (directory == null || interval.getTo().isAfter(DateUtils.now())) {
+            return;
+        }
+
+        final Path path = getPath(directory, figi, interval, candleInterval);
+        Path tempPath = null;
+        try {
+            Files.createDirectories(path.getParent());
+            tempPath = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            final List<String> lines = candles.stream().map(FileCandlesStore::formatCandle).toList();
+            Files.write(tempPath, lines, StandardCharsets.UTF_8);
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException exception) {
+            log.warn("Failed to store candles to file {}", path, exception);
+            deleteQuietly(tempPath);
+        }
+    }
+
+    private static void deleteQuietly(@Nullable final Path path) {
+        if (path == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException exception) {
+            log.warn("Failed to delete file {}", path, exception);
+        }
+    }
+
+    private static Path getPath(final Path directory, final String figi, final Interval interval, final CandleInterval candleInterval) {
+        final String fileName = interval.getFrom().toEpochSecond() + "_" + interval.getTo().toEpochSecond() + FILE_EXTENSION;
+        return directory.resolve(figi).resolve(candleInterval.name()).resolve(fileName);
+    }
+
+    private static String formatCandle(final Candle candle) {
+        return candle.getTime().toInstant().toString() + SEPARATOR
+                + candle.getOpen().toPlainString() + SEPARATOR
+                + candle.getClose().toPlainString() + SEPARATOR
+                + candle.getHigh().toPlainString() + SEPARATOR
+                + candle.getLow().toPlainString();
+    }
+
+    private static Candle parseCandle(final String line) {
+        final String[] values = line.split(SEPARATOR);
+        final OffsetDateTime time = OffsetDateTime.ofInstant(Instant.parse(values[0]), DateUtils.DEFAULT_OFFSET);
+        return new Candle(new BigDecimal(values[1]), new BigDecimal(values[2]), new BigDecimal(values[3]), new BigDecimal(values[4]), time);
+    }
+
+}
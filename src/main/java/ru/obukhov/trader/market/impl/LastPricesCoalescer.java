@@ -0,0 +1,219 @@
+package ru.obukhov.trader.market.impl;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+import ru.obukhov.trader.common.util.FutureUtils;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
+import ru.obukhov.trader.config.properties.LastPricesProperties;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
+import ru.tinkoff.piapi.core.MarketDataService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces concurrent requests of last prices into batched calls of {@link MarketDataService#getLastPricesSync}.<br/>
+ * Requests are queued. Thread, which finds no call in progress, becomes leader: it waits for {@code batchWindow},
+ * takes queued requests up to {@code maxBatchSize} FIGIs, makes one call with priority of the most prioritized of them
+ * and completes all of them. Other threads wait for completion of their requests or for end of current call to lead next one,
+ * so requests coming during the call are batched too.
+ * Time of the call is added to {@link ApiCallsTimer} of every batched request, not only to the one of leader.<br/>
+ * Last prices are reused within {@code maxStaleness} after loading. Stale prices are evicted by leader at most once per
+ * {@code maxStaleness}, so prices of FIGIs which are not requested anymore are not kept forever.
+ */
+@Component
+public class LastPricesCoalescer {
+
+    private final MarketDataService marketDataService;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final long maxStalenessNanos;
+
+    private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<CompletableFuture<Void>> currentCall = new AtomicReference<>();
+    private final Map<String, LoadedPrices> loadedPrices = new ConcurrentHashMap<>();
+    private long lastEvictionAt = System.nanoTime();
+
+    public LastPricesCoalescer(final MarketDataService marketDataService, final LastPricesProperties lastPricesProperties) {
+        this.marketDataService = marketDataService;
+        this.batchWindowNanos = lastPricesProperties.batchWindow().toNanos();
+        this.maxBatchSize = lastPricesProperties.maxBatchSize();
+        this.maxStalenessNanos = lastPricesProperties.maxStaleness().toNanos();
+    }
+
+    /**
+     * @return last prices of given {@code figies} in order of {@code figies}.
+     * As {@link MarketDataService#getLastPricesSync} does, returns nothing for unknown FIGIs and everything API returned for the rest
+     */
+    public List<LastPrice> getLastPrices(final List<String> figies) {
+        final long now = System.nanoTime();
+        final Set<String> distinctFigies = new LinkedHashSet<>(figies);
+        final Map<String, List<LastPrice>> prices = new HashMap<>(distinctFigies.size(), 1);
+        final List<String> figiesToLoad = new ArrayList<>(distinctFigies.size());
+        for (final String figi : distinctFigies) {
+            final LoadedPrices loaded = maxStalenessNanos > 0 ? loadedPrices.get(figi) : null;
+            if (loaded != null && now - loaded.loadedAt() < maxStalenessNanos) {
+                prices.put(figi, loaded.prices());
+            } else {
+                figiesToLoad.add(figi);
+            }
+        }
+
+        if (!figiesToLoad.isEmpty()) {
+            final Map<String, List<LastPrice>> loaded = load(new Request(figiesToLoad, ApiCallPriority.current(), ApiCallsTimer.current()));
+            for (final String figi : figiesToLoad) {
+                prices.put(figi, loaded.get(figi));
+            }
+        }
+
+        final List<LastPrice> result = new ArrayList<>(distinctFigies.size());
+        for (final String figi : distinctFigies) {
+            result.addAll(prices.get(figi));
+        }
+        return result;
+    }
+
+    private Map<String, List<LastPrice>> load(final Request request) {
+        queue.add(request);
+        while (!request.future().isDone()) {
+            final CompletableFuture<Void> call = new CompletableFuture<>();
+            if (currentCall.compareAndSet(null, call)) {
+                try {
+                    callBatch();
+                } finally {
+                    currentCall.set(null);
+                    call.complete(null);
+                }
+            } else {
+                final CompletableFuture<Void> current = currentCall.get();
+                if (current != null) {
+                    current.join();
+                }
+            }
+        }
+
+        return FutureUtils.join(request.future());
+    }
+
+    /**
+     * Makes one call for queued requests and completes them. Called by leader only
+     */
+    private void callBatch() {
+        if (batchWindowNanos > 0) {
+            LockSupport.parkNanos(this, batchWindowNanos);
+        }
+
+        final List<Request> batch = new ArrayList<>();
+        final Set<String> figies = new LinkedHashSet<>();
+        Request request;
+        while ((request = queue.peek()) != null) {
+            if (!batch.isEmpty() && figies.size() + request.figies().size() > maxBatchSize) {
+                break;
+            }
+            queue.poll();
+            batch.add(request);
+            figies.addAll(request.figies());
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final ApiCallPriority priority = batch.stream()
+                .map(Request::priority)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        final ApiCallsTimer batchTimer = new ApiCallsTimer();
+        try {
+            final List<LastPrice> lastPrices;
+            try {
+                lastPrices = batchTimer.get(() -> priority.get(() -> marketDataService.getLastPricesSync(List.copyOf(figies))));
+            } finally {
+                addTime(batch, batchTimer);
+            }
+            final Map<String, List<LastPrice>> pricesByFigi = groupByFigi(figies, lastPrices);
+            if (maxStalenessNanos > 0) {
+                final long loadedAt = System.nanoTime();
+                pricesByFigi.forEach((figi, prices) -> loadedPrices.put(figi, new LoadedPrices(prices, loadedAt)));
+                evictStalePrices(loadedAt);
+            }
+            for (final Request batchRequest : batch) {
+                batchRequest.future().complete(pricesByFigi);
+            }
+        } catch (final Throwable throwable) {
+            // Error must fail the requests too, otherwise their threads wait for completion forever
+            for (final Request batchRequest : batch) {
+                batchRequest.future().completeExceptionally(throwable);
+            }
+        }
+    }
+
+    /**
+     * Adds time of the call, accumulated by given {@code batchTimer}, to timers of all requests of given {@code batch},
+     * because their threads waited for the call. Must be called before completion of the requests
+     */
+    private static void addTime(final List<Request> batch, final ApiCallsTimer batchTimer) {
+        for (final Request request : batch) {
+            if (request.timer() != null) {
+                request.timer().add(batchTimer);
+            }
+        }
+    }
+
+    /**
+     * Removes prices loaded {@code maxStaleness} or more ago. Called by leader only
+     */
+    private void evictStalePrices(final long now) {
+        if (now - lastEvictionAt < maxStalenessNanos) {
+            return;
+        }
+        loadedPrices.values().removeIf(loaded -> now - loaded.loadedAt() >= maxStalenessNanos);
+        lastEvictionAt = now;
+    }
+
+    int getLoadedPricesCount() {
+        return loadedPrices.size();
+    }
+
+    private static Map<String, List<LastPrice>> groupByFigi(final Set<String> figies, final List<LastPrice> lastPrices) {
+        final Map<String, List<LastPrice>> result = new HashMap<>(figies.size(), 1);
+        for (final String figi : figies) {
+            result.put(figi, new ArrayList<>(1));
+        }
+        for (final LastPrice lastPrice : lastPrices) {
+            final List<LastPrice> prices = result.get(lastPrice.getFigi());
+            if (prices != null) {
+                prices.add(lastPrice);
+            }
+        }
+        return result;
+    }
+
+    private record Request(
+            List<String> figies,
+            ApiCallPriority priority,
+            @Nullable ApiCallsTimer timer,
+            CompletableFuture<Map<String, List<LastPrice>>> future
+    ) {
+
+        private Request(final List<String> figies, final ApiCallPriority priority, @Nullable final ApiCallsTimer timer) {
+            this(figies, priority, timer, new CompletableFuture<>());
+        }
+
+    }
+
+    private record LoadedPrices(List<LastPrice> prices, long loadedAt) {
+    }
+
+}
@@ -0,0 +1,327 @@
+package ru.obukhov.trader.market.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Service;
+import ru.obukhov.trader.common.service.impl.MovingAverage;
+import ru.obukhov.trader.common.service.impl.MovingAverager;
+import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.config.properties.MovingAveragesCacheProperties;
+import ru.obukhov.trader.market.model.Candle;
+import ru.obukhov.trader.market.model.MovingAveragesCacheStatistics;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of moving averages of open prices of candles, shared by all consumers of the same averages:
+ * bots trading the same FIGI, back tests of bot configs differing in parameters not affecting averages,
+ * repeated statistics requests.<br/>
+ * Series of averages is kept for every FIGI, candle interval, averager, window, order and time of first candle,
+ * because every average depends on all previous values, so every request gets averages equal to batch averages of its candles.
+ * When candles of next request start with the same candle and continue cached ones, only averages of new candles are calculated.
+ * When interval of live request slides, series of new first candle is calculated once and reused till the next slide.<br/>
+ * Only averages of closed candles are cached. Averages of not closed candles are calculated on every request
+ * by copy of streaming average of cached series.<br/>
+ * Series are evicted when count of candles of all series exceeds limit or when series is not accessed for configured time.<br/>
+ * Thread-safe. Requests of already cached averages don't block each other.
+ */
+@Service
+public class MovingAveragesCache {
+
+    /**
+     * Memory of cached candle in bytes: {@link OffsetDateTime} of candle with its date and time, {@link BigDecimal} open price,
+     * {@link BigDecimal} average and references to them. Measured by heap usage of series of million minute candles
+     * with exponential, simple and linear averagers, which all took 187-188 bytes per candle
+     */
+    public static final int CANDLE_MEMORY = 188;
+
+    private final Cache<SeriesKey, Series> cache;
+
+    private final LongAdder reusedAverages = new LongAdder();
+    private final LongAdder calculatedAverages = new LongAdder();
+
+    public MovingAveragesCache(final MovingAveragesCacheProperties movingAveragesCacheProperties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(movingAveragesCacheProperties.maxAverages())
+                .weigher((SeriesKey key, Series series) -> series.snapshot.size)
+                .expireAfterAccess(movingAveragesCacheProperties.expireAfterAccess())
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return list equal to result of {@link MovingAverager#getAverages} of given {@code averager}
+     * for open prices of given {@code candles} with given {@code window} and {@code order}.
+     * Returned list must not be modified
+     */
+    public List<BigDecimal> getAverages(
+            final MovingAverager averager,
+            final String figi,
+            final CandleInterval candleInterval,
+            final List<Candle> candles,
+            final int window,
+            final int order
+    ) {
+        if (candles.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final int closedCount = getClosedCount(candles, candleInterval, DateUtils.now());
+        if (closedCount == 0) {
+            return calculateAverages(averager, candles, window, order);
+        }
+
+        final SeriesKey key = new SeriesKey(figi, candleInterval, averager, window, order, candles.getFirst().getTime());
+        final Series series = cache.get(key, k -> new Series(averager, window, order));
+
+        final Snapshot snapshot = series.snapshot;
+        if (snapshot.getMatchingCount(candles, closedCount) == closedCount) {
+            reusedAverages.add(closedCount);
+            return getAverages(series, snapshot, candles, closedCount);
+        }
+
+        final Snapshot extendedSnapshot = series.extend(candles, closedCount);
+        // weight of series is updated on put only
+        cache.asMap().replace(key, series, series);
+        return getAverages(series, extendedSnapshot, candles, closedCount);
+    }
+
+    public MovingAveragesCacheStatistics getStatistics() {
+        cache.cleanUp();
+        final long cachedAverages = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+        final long reused = reusedAverages.sum();
+        final long calculated = calculatedAverages.sum();
+        final long total = reused + calculated;
+        final double hitRate = total == 0 ? 0 : (double) reused / total;
+        final CacheStats stats = cache.stats();
+        return new MovingAveragesCacheStatistics(
+                cache.estimatedSize(),
+                cachedAverages,
+                cachedAverages * CANDLE_MEMORY,
+                reused,
+                calculated,
+                hitRate,
+                stats.evictionCount()
+        );
+    }
+
+    /**
+     * Candles are ordered by time, so closed candles are prefix of them. Usually only last candle is not closed
+     */
+    private static int getClosedCount(final List<Candle> candles, final CandleInterval candleInterval, final OffsetDateTime now) {
+        int count = candles.size();
+        while (count > 0 && DateUtils.getCandleEndTime(candles.get(count - 1).getTime(), candleInterval).isAfter(now)) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * @return cached averages of first {@code closedCount} candles of {@code snapshot}, followed by averages of not closed candles
+     */
+    private List<BigDecimal> getAverages(
+            final Series series,
+            final Snapshot snapshot,
+            final List<Candle> candles,
+            final int closedCount
+    ) {
+        final List<BigDecimal> closedAverages = snapshot.getAverages(closedCount);
+        if (closedCount == candles.size()) {
+            return closedAverages;
+        }
+
+        final MovingAverage average = series.copyAverage(snapshot, closedCount);
+        if (average == null) {
+            return calculateAverages(series.averager, candles, series.window, series.order);
+        }
+
+        final BigDecimal[] notClosedAverages = new BigDecimal[candles.size() - closedCount];
+        for (int i = 0; i < notClosedAverages.length; i++) {
+            notClosedAverages[i] = average.push(candles.get(closedCount + i).getOpen());
+        }
+        calculatedAverages.add(notClosedAverages.length);
+        return new AppendedList(closedAverages, notClosedAverages);
+    }
+
+    /**
+     * Fallback for rare cases, when there are no closed candles
+     * or state of cached series doesn't correspond to last closed candle of request
+     */
+    private List<BigDecimal> calculateAverages(
+            final MovingAverager averager,
+            final List<Candle> candles,
+            final int window,
+            final int order
+    ) {
+        final List<BigDecimal> values = candles.stream().map(Candle::getOpen).toList();
+        calculatedAverages.add(values.size());
+        return Collections.unmodifiableList(averager.getAverages(values, window, order));
+    }
+
+    /**
+     * Unmodifiable view of cached averages followed by averages of not closed candles.
+     * Cached averages are not copied, so live requests take time proportional to count of new candles only
+     */
+    private static final class AppendedList extends AbstractList<BigDecimal> implements RandomAccess {
+
+        private final List<BigDecimal> head;
+        private final BigDecimal[] tail;
+
+        private AppendedList(final List<BigDecimal> head, final BigDecimal[] tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+
+        @Override
+        public BigDecimal get(final int index) {
+            final int headSize = head.size();
+            if (index < headSize) {
+                return head.get(index);
+            }
+            Objects.checkIndex(index, size());
+            return tail[index - headSize];
+        }
+
+        @Override
+        public int size() {
+            return head.size() + tail.length;
+        }
+
+    }
+
+    private record SeriesKey(
+            String figi,
+            CandleInterval candleInterval,
+            MovingAverager averager,
+            int window,
+            int order,
+            OffsetDateTime firstCandleTime
+    ) {
+    }
+
+    /**
+     * Cached averages of closed candles and streaming average, to which all these candles are pushed.
+     * Snapshot is replaced on every extension, so readers get consistent averages without locking
+     */
+    private final class Series {
+
+        private final MovingAverager averager;
+        private final int window;
+        private final int order;
+
+        // guarded by this
+        private MovingAverage average;
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+        private Series(final MovingAverager averager, final int window, final int order) {
+            this.averager = averager;
+            this.window = window;
+            this.order = order;
+        }
+
+        /**
+         * Makes series contain averages of first {@code closedCount} of given {@code candles}.
+         * If cached candles differ from given ones, series is recalculated from scratch
+         */
+        private synchronized Snapshot extend(final List<Candle> candles, final int closedCount) {
+            Snapshot current = snapshot;
+            final int matchingCount = current.getMatchingCount(candles, closedCount);
+            if (matchingCount == closedCount) {
+                reusedAverages.add(closedCount);
+                return current;
+            }
+
+            if (matchingCount < current.size) {
+                current = Snapshot.EMPTY;
+                average = null;
+            }
+            if (average == null) {
+                average = averager.createAverage(window, order);
+            }
+
+            final int cachedCount = current.size;
+            reusedAverages.add(cachedCount);
+            calculatedAverages.add(closedCount - cachedCount);
+            final Snapshot extended = current.extend(candles, closedCount, average);
+            snapshot = extended;
+            return extended;
+        }
+
+        /**
+         * @return copy of streaming average, when it contains exactly {@code count} candles of given {@code snapshot},
+         * otherwise null
+         */
+        private synchronized MovingAverage copyAverage(final Snapshot snapshot, final int count) {
+            return snapshot == this.snapshot && snapshot.size == count && average != null
+                    ? average.copy()
+                    : null;
+        }
+
+    }
+
+    /**
+     * Immutable view of averages. Arrays are shared between consecutive snapshots:
+     * extension only writes elements after size of previous snapshot, which are invisible for it
+     */
+    private record Snapshot(OffsetDateTime[] times, BigDecimal[] values, BigDecimal[] averages, int size) {
+
+        private static final Snapshot EMPTY = new Snapshot(new OffsetDateTime[0], new BigDecimal[0], new BigDecimal[0], 0);
+
+        /**
+         * @return count of first of given {@code candles} equal to cached ones by time and open price,
+         * not greater than {@code closedCount}
+         */
+        private int getMatchingCount(final List<Candle> candles, final int closedCount) {
+            final int count = Math.min(size, closedCount);
+            for (int i = 0; i < count; i++) {
+                final Candle candle = candles.get(i);
+                if (!times[i].equals(candle.getTime()) || values[i].compareTo(candle.getOpen()) != 0) {
+                    return i;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @return snapshot containing first {@code newSize} of given {@code candles}
+         */
+        private Snapshot extend(final List<Candle> candles, final int newSize, final MovingAverage average) {
+            OffsetDateTime[] newTimes = times;
+            BigDecimal[] newValues = values;
+            BigDecimal[] newAverages = averages;
+            if (newSize > times.length) {
+                final int capacity = Math.max(newSize, times.length + (times.length >> 1));
+                newTimes = Arrays.copyOf(times, capacity);
+                newValues = Arrays.copyOf(values, capacity);
+                newAverages = Arrays.copyOf(averages, capacity);
+            }
+
+            for (int i = size; i < newSize; i++) {
+                final Candle candle = candles.get(i);
+                newTimes[i] = candle.getTime();
+                newValues[i] = candle.getOpen();
+                newAverages[i] = average.push(candle.getOpen());
+            }
+            return new Snapshot(newTimes, newValues, newAverages, newSize);
+        }
+
+        private List<BigDecimal> getAverages(final int count) {
+            return Collections.unmodifiableList(Arrays.asList(averages).subList(0, count));
+        }
+
+    }
+
+}
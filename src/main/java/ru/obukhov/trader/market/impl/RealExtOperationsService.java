@@ -7,11 +7,13 @@ import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.market.interfaces.ExtOperationsService;
 import ru.tinkoff.piapi.contract.v1.Operation;
 import ru.tinkoff.piapi.core.OperationsService;
+import ru.tinkoff.piapi.core.models.Portfolio;
 import ru.tinkoff.piapi.core.models.Position;
 import ru.tinkoff.piapi.core.models.WithdrawLimits;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -37,5 +39,21 @@ public class RealExtOperationsService implements ExtOperationsService {
         return operationsService.getWithdrawLimitsSync(accountId);
     }
 
+    @Override
+    public CompletableFuture<List<Operation>> getOperationsAsync(final String accountId, final Interval interval, final String figi) {
+        final Instant from = interval.getFrom().toInstant();
+        final Instant to = interval.getTo().toInstant();
+        return operationsService.getAllOperations(accountId, from, to, figi);
+    }
+
+    @Override
+    public CompletableFuture<List<Position>> getPositionsAsync(final String accountId) {
+        return operationsService.getPortfolio(accountId).thenApply(Portfolio::getPositions);
+    }
+
+    @Override
+    public CompletableFuture<WithdrawLimits> getWithdrawLimitsAsync(final String accountId) {
+        return operationsService.getWithdrawLimits(accountId);
+    }
 
 }
\ No newline at end of file
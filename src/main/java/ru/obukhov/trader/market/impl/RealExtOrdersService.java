@@ -15,6 +15,7 @@ import ru.tinkoff.piapi.core.OrdersService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @AllArgsConstructor
@@ -39,6 +40,21 @@ public class RealExtOrdersService implements ExtOrdersService {
                 .toList();
     }
 
+    @Override
+    public CompletableFuture<List<OrderState>> getOrdersAsync(final String accountId, final String figi) {
+        return ordersService.getOrders(accountId).thenApply(orders -> orders.stream()
+                .filter(order -> figi.equals(order.getFigi()))
+                .map(ORDER_STATE_MAPPER::map)
+                .toList());
+    }
+
+    @Override
+    public CompletableFuture<List<OrderState>> getOrdersAsync(final String accountId) {
+        return ordersService.getOrders(accountId).thenApply(orders -> orders.stream()
+                .map(ORDER_STATE_MAPPER::map)
+                .toList());
+    }
+
     @Override
     public PostOrderResponse postOrder(
             final String accountId,
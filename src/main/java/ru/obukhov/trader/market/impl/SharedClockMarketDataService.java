@@ -0,0 +1,104 @@
+package ru.obukhov.trader.market.impl;
+
+import org.springframework.cache.support.NoOpCacheManager;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.market.model.Candle;
+import ru.obukhov.trader.market.model.Currency;
+import ru.obukhov.trader.market.model.Share;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+import ru.tinkoff.piapi.contract.v1.SecurityTradingStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Market data service for bots, which are back tested with single shared clock.<br/>
+ * Memoizes prices of current tick and candles of historical intervals,
+ * so every bot gets them without repeated loading by the same tick.<br/>
+ * All other calls are delegated as is.<br/>
+ * Not thread-safe. Intended to be used by single back test thread.
+ */
+public class SharedClockMarketDataService extends ExtMarketDataService {
+
+    private final ExtMarketDataService delegate;
+
+    private final Map<PriceKey, BigDecimal> prices = new HashMap<>();
+    private final Map<CandlesKey, List<Candle>> candles = new HashMap<>();
+
+    public SharedClockMarketDataService(final ExtMarketDataService delegate) {
+        super(null, null, null, null, new NoOpCacheManager(), delegate);
+
+        this.delegate = delegate;
+    }
+
+    /**
+     * Clears prices memoized for previous tick. Must be called every time shared clock moves
+     */
+    public void nextTick() {
+        prices.clear();
+    }
+
+    @Override
+    public List<Candle> getCandles(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        final CandlesKey key = new CandlesKey(figi, interval, candleInterval);
+        return candles.computeIfAbsent(key, k -> delegate.getCandles(figi, interval, candleInterval));
+    }
+
+    @Override
+    public CompletableFuture<List<Candle>> getCandlesAsync(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        return delegate.getCandlesAsync(figi, interval, candleInterval);
+    }
+
+    @Override
+    public BigDecimal getPrice(final String figi, final OffsetDateTime dateTime) {
+        final PriceKey key = new PriceKey(figi, dateTime);
+        return prices.computeIfAbsent(key, k -> delegate.getPrice(figi, dateTime));
+    }
+
+    @Override
+    public BigDecimal getPrice(final Currency currency, final OffsetDateTime dateTime) {
+        return delegate.getPrice(currency, dateTime);
+    }
+
+    @Override
+    public SequencedMap<String, BigDecimal> getLastPrices(final List<String> figies) {
+        return delegate.getLastPrices(figies);
+    }
+
+    @Override
+    public Map<String, BigDecimal> getSharesPrices(final List<Share> shares, final OffsetDateTime dateTime) {
+        return delegate.getSharesPrices(shares, dateTime);
+    }
+
+    @Override
+    public SecurityTradingStatus getTradingStatus(final String id) {
+        return delegate.getTradingStatus(id);
+    }
+
+    @Override
+    public BigDecimal convertCurrency(final String sourceCurrencyIsoName, final String targetCurrencyIsoName, final BigDecimal sourceValue) {
+        return delegate.convertCurrency(sourceCurrencyIsoName, targetCurrencyIsoName, sourceValue);
+    }
+
+    @Override
+    public BigDecimal convertCurrency(
+            final String sourceCurrencyIsoName,
+            final String targetCurrencyIsoName,
+            final BigDecimal sourceValue,
+            final OffsetDateTime dateTime
+    ) {
+        return delegate.convertCurrency(sourceCurrencyIsoName, targetCurrencyIsoName, sourceValue, dateTime);
+    }
+
+    private record PriceKey(String figi, OffsetDateTime dateTime) {
+    }
+
+    private record CandlesKey(String figi, Interval interval, CandleInterval candleInterval) {
+    }
+
+}
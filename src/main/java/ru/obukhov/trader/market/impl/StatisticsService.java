@@ -11,8 +11,10 @@ import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.service.impl.MovingAverager;
 import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.common.util.FutureUtils;
 import ru.obukhov.trader.common.util.MapUtils;
 import ru.obukhov.trader.common.util.MoneyUtils;
+import ru.obukhov.trader.config.model.ApiCallPriority;
 import ru.obukhov.trader.config.properties.TradingProperties;
 import ru.obukhov.trader.market.interfaces.ExtOperationsService;
 import ru.obukhov.trader.market.model.Candle;
@@ -57,6 +59,7 @@ public class StatisticsService {
     private final ExtInstrumentsService extInstrumentsService;
     private final ExtOperationsService extOperationsService;
     private final ApplicationContext applicationContext;
+    private final MovingAveragesCache movingAveragesCache;
     private final TradingProperties tradingProperties;
 
     public GetCandlesResponse getExtendedCandles(
@@ -71,9 +74,8 @@ public class StatisticsService {
         final List<Candle> candles = extMarketDataService.getCandles(figi, innerInterval, candleInterval);
 
         final MovingAverager averager = applicationContext.getBean(movingAverageType.getAveragerName(), MovingAverager.class);
-        final List<BigDecimal> opens = candles.stream().map(Candle::getOpen).toList();
-        final List<BigDecimal> shortAverages = averager.getAverages(opens, smallWindow, ORDER);
-        final List<BigDecimal> longAverages = averager.getAverages(opens, bigWindow, ORDER);
+        final List<BigDecimal> shortAverages = movingAveragesCache.getAverages(averager, figi, candleInterval, candles, smallWindow, ORDER);
+        final List<BigDecimal> longAverages = movingAveragesCache.getAverages(averager, figi, candleInterval, candles, bigWindow, ORDER);
 
         return new GetCandlesResponse(candles, shortAverages, longAverages);
     }
@@ -212,7 +214,14 @@ public class StatisticsService {
         return Optional.of(position);
     }
 
+    /**
+     * Loads data of all shares, so API calls are made with background priority
+     */
     public SequencedMap<InstrumentMarker, Double> getMostProfitableShares(final SharesFiltrationOptions filtrationOptions) {
+        return ApiCallPriority.BACKGROUND.get(() -> findMostProfitableShares(filtrationOptions));
+    }
+
+    private SequencedMap<InstrumentMarker, Double> findMostProfitableShares(final SharesFiltrationOptions filtrationOptions) {
         List<Share> shares = extInstrumentsService.getAllShares();
 
         log.info("Found {} shares total", shares.size());
@@ -325,14 +334,20 @@ public class StatisticsService {
         return from != null && ChronoUnit.DAYS.between(from, to) > minTradingDays;
     }
 
+    /**
+     * Loads dividends of all shares concurrently
+     *
+     * @return dividends by shares uids
+     */
     private Map<String, List<Dividend>> getDividends(final List<Share> shares, final OffsetDateTime now) {
-        return shares.stream().collect(Collectors.toMap(Share::uid, share -> getDividends(share, now)));
-    }
+        final Map<String, Interval> figiesToIntervals = LinkedHashMap.newLinkedHashMap(shares.size());
+        for (final Share share : shares) {
+            final OffsetDateTime from = ObjectUtils.defaultIfNull(share.first1DayCandleDate(), tradingProperties.getTradesStart());
+            figiesToIntervals.put(share.figi(), Interval.of(from, now));
+        }
 
-    private List<Dividend> getDividends(final Share share, final OffsetDateTime now) {
-        final OffsetDateTime from = ObjectUtils.defaultIfNull(share.first1DayCandleDate(), tradingProperties.getTradesStart());
-        final Interval interval = Interval.of(from, now);
-        return extInstrumentsService.getDividends(share.figi(), interval);
+        final Map<String, List<Dividend>> dividends = FutureUtils.join(extInstrumentsService.getDividendsAsync(figiesToIntervals));
+        return shares.stream().collect(Collectors.toMap(Share::uid, share -> dividends.get(share.figi())));
     }
 
     private static List<Share> filterByHavingDividendsWithinDays(
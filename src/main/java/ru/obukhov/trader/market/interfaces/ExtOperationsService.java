@@ -11,6 +11,7 @@ import ru.tinkoff.piapi.core.models.WithdrawLimits;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public interface ExtOperationsService {
@@ -21,6 +22,22 @@ public interface ExtOperationsService {
 
     WithdrawLimits getWithdrawLimits(String accountId);
 
+    // region asynchronous counterparts. Implementations without remote calls may keep synchronous defaults
+
+    default CompletableFuture<List<Operation>> getOperationsAsync(final String accountId, final Interval interval, final String figi) {
+        return CompletableFuture.completedFuture(getOperations(accountId, interval, figi));
+    }
+
+    default CompletableFuture<List<Position>> getPositionsAsync(final String accountId) {
+        return CompletableFuture.completedFuture(getPositions(accountId));
+    }
+
+    default CompletableFuture<WithdrawLimits> getWithdrawLimitsAsync(final String accountId) {
+        return CompletableFuture.completedFuture(getWithdrawLimits(accountId));
+    }
+
+    // endregion
+
     default Position getSecurity(final String accountId, final String figi) {
         final List<Position> allPositions = getPositions(accountId);
         return allPositions.stream()
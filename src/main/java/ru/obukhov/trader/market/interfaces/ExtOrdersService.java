@@ -7,6 +7,7 @@ import ru.tinkoff.piapi.contract.v1.PostOrderResponse;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ExtOrdersService {
     List<OrderState> getOrders(String accountId, String figi);
@@ -24,4 +25,16 @@ public interface ExtOrdersService {
     );
 
     void cancelOrder(String accountId, String orderId);
+
+    // region asynchronous counterparts
+
+    default CompletableFuture<List<OrderState>> getOrdersAsync(final String accountId, final String figi) {
+        return CompletableFuture.completedFuture(getOrders(accountId, figi));
+    }
+
+    default CompletableFuture<List<OrderState>> getOrdersAsync(final String accountId) {
+        return CompletableFuture.completedFuture(getOrders(accountId));
+    }
+
+    // endregion
 }
\ No newline at end of file
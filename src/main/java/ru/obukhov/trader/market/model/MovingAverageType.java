@@ -14,7 +14,10 @@ public enum MovingAverageType {
 
     SIMPLE("SMA", "simpleMovingAverager"),
     LINEAR_WEIGHTED("LWMA", "linearMovingAverager"),
-    EXPONENTIAL_WEIGHTED("EWMA", "exponentialMovingAverager");
+    EXPONENTIAL_WEIGHTED("EWMA", "exponentialMovingAverager"),
+    SIMPLE_DOUBLE("SMA_DOUBLE", "doubleSimpleMovingAverager"),
+    LINEAR_WEIGHTED_DOUBLE("LWMA_DOUBLE", "doubleLinearMovingAverager"),
+    EXPONENTIAL_WEIGHTED_DOUBLE("EWMA_DOUBLE", "doubleExponentialMovingAverager");
 
     private static final Map<String, MovingAverageType> LOOKUP = Stream.of(MovingAverageType.values())
             .collect(Collectors.toUnmodifiableMap(MovingAverageType::getValue, movingAverage -> movingAverage));
@@ -0,0 +1,21 @@
+package ru.obukhov.trader.market.model;
+
+/**
+ * @param series              count of cached series of averages
+ * @param cachedAverages      count of averages kept by all cached series
+ * @param estimatedMemory     estimated size of cached candles and their averages in bytes
+ * @param reusedAverages      count of averages returned from cache since application start
+ * @param calculatedAverages  count of averages calculated since application start
+ * @param hitRate             share of reused averages among all returned ones
+ * @param evictedSeries       count of series evicted since application start
+ */
+public record MovingAveragesCacheStatistics(
+        long series,
+        long cachedAverages,
+        long estimatedMemory,
+        long reusedAverages,
+        long calculatedAverages,
+        double hitRate,
+        long evictedSeries
+) {
+}
@@ -0,0 +1,212 @@
+package ru.obukhov.trader.trading.backtest.impl;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.model.Periods;
+import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.common.util.FirstCandleUtils;
+import ru.obukhov.trader.config.ApiCallsThrottling;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.properties.ApiProperties;
+import ru.obukhov.trader.market.impl.FileCandlesStore;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
+import ru.obukhov.trader.market.model.Instrument;
+import ru.obukhov.trader.trading.model.BackTestCost;
+import ru.obukhov.trader.trading.model.BackTestCostEstimate;
+import ru.obukhov.trader.web.model.BotConfig;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Estimates cost of back test before its start. Nothing is loaded during estimation,
+ * only "marketCandles" and "instrument" caches and candles store are checked.<br/>
+ * CPU cost is count of simulation ticks: back test moves minute by minute through the interval for every bot config.<br/>
+ * Memory cost is count of candles of distinct FIGIes and candle intervals, which are not in "marketCandles" cache yet.
+ * Cached candles are already in memory, so they are not counted
+ */
+@Component
+public class BackTestCostEstimator {
+
+    static final String MARKET_CANDLES_CACHE_NAME = "marketCandles";
+    static final String INSTRUMENT_CACHE_NAME = "instrument";
+
+    @Nullable
+    private final Cache marketCandlesCache;
+    @Nullable
+    private final Cache instrumentCache;
+    private final FileCandlesStore fileCandlesStore;
+    private final long throttlingInterval;
+    private final ApiCallsThrottling apiCallsThrottling;
+
+    public BackTestCostEstimator(
+            final CacheManager cacheManager,
+            final FileCandlesStore fileCandlesStore,
+            final ApiProperties apiProperties,
+            final ApiCallsThrottling apiCallsThrottling
+    ) {
+        this.marketCandlesCache = cacheManager.getCache(MARKET_CANDLES_CACHE_NAME);
+        this.instrumentCache = cacheManager.getCache(INSTRUMENT_CACHE_NAME);
+        this.fileCandlesStore = fileCandlesStore;
+        this.throttlingInterval = apiProperties.throttlingInterval();
+        this.apiCallsThrottling = apiCallsThrottling;
+    }
+
+    public BackTestCost estimate(final List<BotConfig> botConfigs, final Interval interval) {
+        final Interval finiteInterval = interval.limitByNowIfNull(DateUtils.now());
+        final long minutes = getMinutes(finiteInterval);
+
+        long cpu = 0;
+        final Set<CandlesKey> candlesKeys = new LinkedHashSet<>();
+        for (final BotConfig botConfig : botConfigs) {
+            cpu += minutes * botConfig.figies().size();
+            for (final String figi : botConfig.figies()) {
+                candlesKeys.add(new CandlesKey(figi, botConfig.candleInterval()));
+            }
+        }
+
+        long memory = 0;
+        for (final CandlesKey candlesKey : candlesKeys) {
+            memory += getCandlesLoad(candlesKey.figi(), finiteInterval, candlesKey.candleInterval()).notCachedCandles;
+        }
+
+        return new BackTestCost(cpu, memory);
+    }
+
+    /**
+     * Estimates every bot config separately, so candles shared between bot configs are counted in each of them
+     *
+     * @return estimates in order of given {@code botConfigs}
+     */
+    public List<BackTestCostEstimate> estimateBotConfigs(final List<BotConfig> botConfigs, final Interval interval) {
+        final Interval finiteInterval = interval.limitByNowIfNull(DateUtils.now());
+        return botConfigs.stream()
+                .map(botConfig -> estimateBotConfig(botConfig, finiteInterval))
+                .toList();
+    }
+
+    private BackTestCostEstimate estimateBotConfig(final BotConfig botConfig, final Interval interval) {
+        final Interval effectiveInterval = getEffectiveInterval(botConfig, interval);
+
+        final CandlesLoad candlesLoad = new CandlesLoad();
+        for (final String figi : botConfig.figies()) {
+            candlesLoad.add(getCandlesLoad(figi, effectiveInterval, botConfig.candleInterval()));
+        }
+
+        return new BackTestCostEstimate(
+                botConfig,
+                effectiveInterval,
+                candlesLoad.apiCalls,
+                candlesLoad.cachedCalls,
+                candlesLoad.storedCalls,
+                getFetchDuration(candlesLoad.apiCalls),
+                getMinutes(effectiveInterval),
+                candlesLoad.candles,
+                candlesLoad.candles * MovingAveragesCache.CANDLE_MEMORY
+        );
+    }
+
+    /**
+     * Same as effective interval of {@link BackTesterImpl}, but only cached instruments are taken into account
+     */
+    private Interval getEffectiveInterval(final BotConfig botConfig, final Interval interval) {
+        Interval result = null;
+        for (final String figi : botConfig.figies()) {
+            final Interval figiInterval = getEffectiveInterval(figi, botConfig.candleInterval(), interval);
+            result = result == null ? figiInterval : result.unite(figiInterval);
+        }
+        return result == null ? interval : result;
+    }
+
+    private Interval getEffectiveInterval(final String figi, final CandleInterval candleInterval, final Interval interval) {
+        final Instrument instrument = instrumentCache == null ? null : instrumentCache.get(figi, Instrument.class);
+        if (instrument == null) {
+            return interval;
+        }
+
+        final OffsetDateTime firstCandleDate =
+                FirstCandleUtils.getFirstCandleDate(instrument.first1MinCandleDate(), instrument.first1DayCandleDate(), candleInterval);
+        return interval.getFrom().isBefore(firstCandleDate) ? Interval.of(firstCandleDate, interval.getTo()) : interval;
+    }
+
+    /**
+     * Candles are loaded by {@link ru.obukhov.trader.market.impl.ExtMarketDataService} for whole periods
+     * of {@link Periods#getPeriodByCandleInterval}, so interval is split the same way and every period is checked
+     * in cache and in candles store
+     */
+    private CandlesLoad getCandlesLoad(final String figi, final Interval interval, final CandleInterval candleInterval) {
+        final CandlesLoad candlesLoad = new CandlesLoad();
+        if (!interval.getFrom().isBefore(interval.getTo())) {
+            return candlesLoad;
+        }
+
+        final Duration candleDuration = Duration.between(interval.getFrom(), DateUtils.getCandleEndTime(interval.getFrom(), candleInterval));
+        final Period period = Periods.getPeriodByCandleInterval(candleInterval);
+
+        for (final Interval subInterval : interval.splitIntoIntervals(period)) {
+            final Interval loadInterval = subInterval.extendTo(period);
+            final long candles = subInterval.toDuration().dividedBy(candleDuration);
+            candlesLoad.candles += candles;
+            if (isCached(figi, loadInterval, candleInterval)) {
+                candlesLoad.cachedCalls++;
+            } else {
+                candlesLoad.notCachedCandles += candles;
+                if (fileCandlesStore.contains(figi, loadInterval, candleInterval)) {
+                    candlesLoad.storedCalls++;
+                } else {
+                    candlesLoad.apiCalls++;
+                }
+            }
+        }
+        return candlesLoad;
+    }
+
+    private boolean isCached(final String figi, final Interval loadInterval, final CandleInterval candleInterval) {
+        return marketCandlesCache != null
+                && loadInterval.isAnyPeriod()
+                && marketCandlesCache.get(new SimpleKey(figi, loadInterval, candleInterval)) != null;
+    }
+
+    /**
+     * Candles of back test are loaded by {@link ApiCallPriority#BACKGROUND} calls, so first budget of background calls
+     * is sent at once and every next bunch of calls waits for throttling interval
+     */
+    private Duration getFetchDuration(final int apiCalls) {
+        final int budget = apiCallsThrottling.getCurrentMarketDataServiceBudget(ApiCallPriority.BACKGROUND);
+        final long waits = apiCalls == 0 ? 0 : (apiCalls - 1) / budget;
+        return Duration.ofMillis(waits * throttlingInterval);
+    }
+
+    private static long getMinutes(final Interval interval) {
+        return Math.max(interval.toDuration().toMinutes(), 0);
+    }
+
+    private record CandlesKey(String figi, CandleInterval candleInterval) {
+    }
+
+    private static class CandlesLoad {
+        private int apiCalls;
+        private int cachedCalls;
+        private int storedCalls;
+        private long candles;
+        private long notCachedCandles;
+
+        private void add(final CandlesLoad other) {
+            apiCalls += other.apiCalls;
+            cachedCalls += other.cachedCalls;
+            storedCalls += other.storedCalls;
+            candles += other.candles;
+            notCachedCandles += other.notCachedCandles;
+        }
+    }
+
+}
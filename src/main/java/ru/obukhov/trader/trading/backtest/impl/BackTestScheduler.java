@@ -0,0 +1,229 @@
+package ru.obukhov.trader.trading.backtest.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.obukhov.trader.common.exception.BackTestRejectedException;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.config.properties.BackTestSchedulerProperties;
+import ru.obukhov.trader.trading.backtest.interfaces.BackTester;
+import ru.obukhov.trader.trading.model.BackTestCost;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
+import ru.obukhov.trader.trading.model.BackTestRejectionReason;
+import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestSchedulerStatistics;
+import ru.obukhov.trader.web.model.BalanceConfig;
+import ru.obukhov.trader.web.model.BotConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control of back test requests.<br/>
+ * Cost of every back test is estimated by {@link BackTestCostEstimator} before start.
+ * Back test starts only when its cost fits budget left by running back tests, otherwise it waits in queue of its caller.<br/>
+ * Queues of callers are served in round-robin order, so one caller can't starve others.
+ * Within queue of one caller back tests are ordered by cost, and any back test fitting left budget may start,
+ * so small back tests pass large ones.<br/>
+ * Back test is rejected with {@link BackTestRejectedException} when it can't fit budget at all,
+ * when queue is full or when it waited for budget too long.
+ */
+@Slf4j
+@Service
+public class BackTestScheduler {
+
+    private static final Comparator<Job> JOB_COMPARATOR = Comparator
+            .comparingLong((Job job) -> job.cost().cpu())
+            .thenComparingLong(job -> job.cost().memory());
+
+    private final BackTester backTester;
+    private final BackTestCostEstimator costEstimator;
+    private final BackTestCost budget;
+    private final int maxQueuedJobs;
+    private final Duration maxWaitTime;
+
+    // guarded by this
+    private final Map<String, List<Job>> queues = new LinkedHashMap<>();
+    private BackTestCost usedBudget = BackTestCost.ZERO;
+    private int runningJobs;
+    private int queuedJobs;
+
+    private final AtomicLong admittedJobs = new AtomicLong();
+    private final Map<BackTestRejectionReason, AtomicLong> rejectedJobs = new EnumMap<>(BackTestRejectionReason.class);
+
+    public BackTestScheduler(
+            final BackTester backTester,
+            final BackTestCostEstimator costEstimator,
+            final BackTestSchedulerProperties backTestSchedulerProperties
+    ) {
+        this.backTester = backTester;
+        this.costEstimator = costEstimator;
+        this.budget = new BackTestCost(backTestSchedulerProperties.cpuBudget(), backTestSchedulerProperties.memoryBudget());
+        this.maxQueuedJobs = backTestSchedulerProperties.maxQueuedJobs();
+        this.maxWaitTime = backTestSchedulerProperties.maxWaitTime();
+
+        for (final BackTestRejectionReason reason : BackTestRejectionReason.values()) {
+            rejectedJobs.put(reason, new AtomicLong());
+        }
+    }
+
+    /**
+     * Waits for budget and back tests given {@code botConfigs} by {@link BackTester}
+     *
+     * @param callerId identifier of caller, whose queue the back test is put to
+     * @throws BackTestRejectedException when back test is rejected
+     */
+    public List<BackTestResult> test(
+            final String callerId,
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final boolean saveToFiles,
+            final BackTestDetailLevel detailLevel
+    ) {
+        final BackTestCost cost = costEstimator.estimate(botConfigs, interval);
+        final Job job = enqueue(callerId, cost);
+        awaitAdmission(job);
+        try {
+            return backTester.test(botConfigs, balanceConfig, interval, saveToFiles, detailLevel);
+        } finally {
+            release(job);
+        }
+    }
+
+    public synchronized BackTestSchedulerStatistics getStatistics() {
+        final Map<BackTestRejectionReason, Long> rejectedJobsCounts = new EnumMap<>(BackTestRejectionReason.class);
+        for (final Map.Entry<BackTestRejectionReason, AtomicLong> entry : rejectedJobs.entrySet()) {
+            rejectedJobsCounts.put(entry.getKey(), entry.getValue().get());
+        }
+        return new BackTestSchedulerStatistics(budget, usedBudget, runningJobs, queuedJobs, admittedJobs.get(), rejectedJobsCounts);
+    }
+
+    private synchronized Job enqueue(final String callerId, final BackTestCost cost) {
+        if (!cost.fits(budget)) {
+            final String message = String.format("Back test cost %s exceeds budget %s", cost, budget);
+            throw reject(BackTestRejectionReason.COST_EXCEEDS_BUDGET, message);
+        }
+        if (queuedJobs >= maxQueuedJobs && !cost.fits(budget.minus(usedBudget))) {
+            final String message = String.format("Back test queue is full. %s back tests are waiting for budget", queuedJobs);
+            throw reject(BackTestRejectionReason.QUEUE_IS_FULL, message);
+        }
+
+        final Job job = new Job(callerId, cost, new CompletableFuture<>());
+        final List<Job> queue = queues.computeIfAbsent(callerId, key -> new ArrayList<>());
+        queue.add(job);
+        queue.sort(JOB_COMPARATOR);
+        queuedJobs++;
+
+        dispatch();
+        return job;
+    }
+
+    private void awaitAdmission(final Job job) {
+        try {
+            job.admission().get(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException exception) {
+            if (cancel(job)) {
+                final String message = String.format("Back test with cost %s didn't get budget within %s", job.cost(), maxWaitTime);
+                throw reject(BackTestRejectionReason.WAIT_TIMEOUT, message);
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            if (!cancel(job)) {
+                release(job);
+            }
+            throw new IllegalStateException("Interrupted while waiting for back test budget", exception);
+        } catch (final ExecutionException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Removes given {@code job} from queue
+     *
+     * @return true if job was removed, false if it was admitted before cancellation
+     */
+    private synchronized boolean cancel(final Job job) {
+        final List<Job> queue = queues.get(job.callerId());
+        if (queue == null || !queue.remove(job)) {
+            return false;
+        }
+
+        if (queue.isEmpty()) {
+            queues.remove(job.callerId());
+        }
+        queuedJobs--;
+        return true;
+    }
+
+    private synchronized void release(final Job job) {
+        usedBudget = usedBudget.minus(job.cost());
+        runningJobs--;
+        dispatch();
+    }
+
+    /**
+     * Starts queued jobs fitting left budget. Callers are visited in round-robin order,
+     * caller whose job was started is moved to the end of callers order
+     */
+    private void dispatch() {
+        boolean started = true;
+        while (started) {
+            started = false;
+            final BackTestCost leftBudget = budget.minus(usedBudget);
+            final Iterator<Map.Entry<String, List<Job>>> iterator = queues.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, List<Job>> entry = iterator.next();
+                final Job job = findFittingJob(entry.getValue(), leftBudget);
+                if (job != null) {
+                    iterator.remove();
+                    entry.getValue().remove(job);
+                    if (!entry.getValue().isEmpty()) {
+                        queues.put(entry.getKey(), entry.getValue());
+                    }
+                    start(job);
+                    started = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static Job findFittingJob(final List<Job> queue, final BackTestCost leftBudget) {
+        for (final Job job : queue) {
+            if (job.cost().fits(leftBudget)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private void start(final Job job) {
+        usedBudget = usedBudget.plus(job.cost());
+        queuedJobs--;
+        runningJobs++;
+        admittedJobs.incrementAndGet();
+        log.info("Back test of caller '{}' with cost {} started", job.callerId(), job.cost());
+        job.admission().complete(null);
+    }
+
+    private BackTestRejectedException reject(final BackTestRejectionReason reason, final String message) {
+        rejectedJobs.get(reason).incrementAndGet();
+        log.warn("Back test rejected: {}", message);
+        return new BackTestRejectedException(reason, message);
+    }
+
+    private record Job(String callerId, BackTestCost cost, CompletableFuture<Void> admission) {
+    }
+
+}
@@ -3,9 +3,10 @@ package ru.obukhov.trader.trading.backtest.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.springframework.scheduling.support.CronExpression;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import ru.obukhov.trader.common.model.CronHits;
 import ru.obukhov.trader.common.model.ExecutionResult;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.service.interfaces.ExcelService;
@@ -15,9 +16,13 @@ import ru.obukhov.trader.common.util.ExecutionUtils;
 import ru.obukhov.trader.common.util.FinUtils;
 import ru.obukhov.trader.common.util.FirstCandleUtils;
 import ru.obukhov.trader.common.util.MathUtils;
+import ru.obukhov.trader.config.ApiCallsThrottling;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
 import ru.obukhov.trader.config.properties.BackTestProperties;
 import ru.obukhov.trader.market.impl.ExtInstrumentsService;
 import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.SharedClockMarketDataService;
 import ru.obukhov.trader.market.model.Candle;
 import ru.obukhov.trader.market.model.Instrument;
 import ru.obukhov.trader.market.model.PositionUtils;
@@ -26,7 +31,9 @@ import ru.obukhov.trader.market.model.TradingDay;
 import ru.obukhov.trader.trading.backtest.interfaces.BackTester;
 import ru.obukhov.trader.trading.bots.FakeBot;
 import ru.obukhov.trader.trading.bots.FakeBotFactory;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
 import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestTimes;
 import ru.obukhov.trader.trading.model.Balances;
 import ru.obukhov.trader.trading.model.Profits;
 import ru.obukhov.trader.web.model.BalanceConfig;
@@ -36,28 +43,55 @@ import ru.tinkoff.piapi.contract.v1.Operation;
 import ru.tinkoff.piapi.core.models.Position;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Back tester running every bot config (or group of bot configs with shared clock) through two stages:
+ * <ol>
+ *     <li>loading of market data on virtual threads. Loading mostly waits for TBank API,
+ *     so its concurrency is limited by budget of background API calls only (see {@link #getLoadingConcurrency})</li>
+ *     <li>simulation on work-stealing pool of {@link BackTestProperties#getThreadCount()} threads.
+ *     Simulation reads loaded data from caches and mostly uses CPU</li>
+ * </ol>
+ * Count of bot configs between start of loading and end of simulation is limited by {@link BackTestProperties#getQueueCapacity()},
+ * so loading doesn't run too far ahead of simulation
+ */
 @Slf4j
 @Service
-public class BackTesterImpl implements BackTester {
+public class BackTesterImpl implements BackTester, DisposableBean {
 
     private final ExcelService excelService;
     private final ExtInstrumentsService extInstrumentsService;
     private final ExtMarketDataService extMarketDataService;
     private final FakeBotFactory fakeBotFactory;
-    private final ExecutorService executor;
+    private final boolean sharedClock;
+    private final int simulationThreadCount;
+    private final int loadingConcurrency;
+    private final Semaphore loadingPermits;
+    private final Semaphore queuePermits;
+    private final ExecutorService loadingExecutor;
+    private final ExecutorService simulationExecutor;
 
     public BackTesterImpl(
             final ExcelService excelService,
@@ -70,7 +104,31 @@ public class BackTesterImpl implements BackTester {
         this.extInstrumentsService = extInstrumentsService;
         this.extMarketDataService = extMarketDataService;
         this.fakeBotFactory = fakeBotFactory;
-        this.executor = Executors.newFixedThreadPool(backTestProperties.getThreadCount());
+        this.sharedClock = backTestProperties.isSharedClock();
+        this.simulationThreadCount = backTestProperties.getThreadCount();
+        this.loadingConcurrency = getLoadingConcurrency(backTestProperties);
+        this.loadingPermits = new Semaphore(loadingConcurrency);
+        this.queuePermits = new Semaphore(backTestProperties.getQueueCapacity());
+        this.loadingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.simulationExecutor = Executors.newWorkStealingPool(simulationThreadCount);
+    }
+
+    /**
+     * @return count of bot configs, which market data can be loaded concurrently.
+     * More concurrent loadings than background calls of {@link ru.tinkoff.piapi.core.MarketDataService} allowed within
+     * throttling interval would only wait for permits, so configured value is limited by this budget,
+     * and the budget itself is used when loading concurrency is not configured
+     */
+    static int getLoadingConcurrency(final BackTestProperties backTestProperties) {
+        final int budget = ApiCallsThrottling.getMarketDataServiceBudget(ApiCallPriority.BACKGROUND);
+        final Integer loadingConcurrency = backTestProperties.getLoadingConcurrency();
+        return loadingConcurrency == null ? budget : Math.min(loadingConcurrency, budget);
+    }
+
+    @Override
+    public void destroy() {
+        loadingExecutor.shutdownNow();
+        simulationExecutor.shutdownNow();
     }
 
     @Override
@@ -78,49 +136,172 @@ public class BackTesterImpl implements BackTester {
             final List<BotConfig> botConfigs,
             final BalanceConfig balanceConfig,
             final Interval interval,
-            final boolean saveToFiles
+            final boolean saveToFiles,
+            final BackTestDetailLevel detailLevel
     ) {
         log.info("Back test started");
 
-        ExecutionResult<List<BackTestResult>> executionResult = ExecutionUtils.get(() -> test(botConfigs, balanceConfig, interval));
+        final BackTestContext context = new BackTestContext(saveToFiles, detailLevel, loadingConcurrency, simulationThreadCount);
+        ExecutionResult<List<BackTestResult>> executionResult =
+                ExecutionUtils.get(() -> test(botConfigs, balanceConfig, interval, context));
 
-        final String backTestDurationString = DurationFormatUtils.formatDurationHMS(executionResult.duration().toMillis());
+        final Duration duration = executionResult.duration();
+        final String backTestDurationString = DurationFormatUtils.formatDurationHMS(duration.toMillis());
         log.info("Back test ended within {}", backTestDurationString);
-
-        if (saveToFiles) {
-            saveBackTestResultsSafe(executionResult.result());
-        }
+        log.info(
+                "Utilization of loading stage: {}, utilization of simulation stage: {}",
+                context.loadingStatistics().getUtilizationString(duration),
+                context.simulationStatistics().getUtilizationString(duration)
+        );
 
         return executionResult.result();
     }
 
-    private List<BackTestResult> test(final List<BotConfig> botConfigs, final BalanceConfig balanceConfig, final Interval interval) {
+    private List<BackTestResult> test(
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final BackTestContext context
+    ) {
         final OffsetDateTime now = DateUtils.now();
         DateUtils.assertDateTimeNotFuture(interval.getFrom(), now, "from");
         DateUtils.assertDateTimeNotFuture(interval.getTo(), now, "to");
         Assert.isTrue(interval.toDays() >= 1, "interval can't be shorter than 1 day");
 
         final Interval finiteInterval = interval.limitByNowIfNull(now);
+        final BackTestContext intervalContext = context.withBalanceIncrementTimes(getBalanceIncrementTimes(balanceConfig, finiteInterval));
+
+        if (sharedClock) {
+            return testWithSharedClock(botConfigs, balanceConfig, finiteInterval, intervalContext);
+        }
 
         return botConfigs.stream()
-                .map(botConfig -> startBackTest(botConfig, balanceConfig, finiteInterval))
+                .map(botConfig -> startBackTest(botConfig, balanceConfig, finiteInterval, intervalContext))
                 .toList().stream()
                 .map(CompletableFuture::join)
                 .toList();
     }
 
+    /**
+     * Calculates all balance increment times within back test once, so back test loops don't evaluate cron every tick
+     */
+    private static CronHits getBalanceIncrementTimes(final BalanceConfig balanceConfig, final Interval interval) {
+        return MapUtils.isEmpty(balanceConfig.getBalanceIncrements())
+                ? CronHits.EMPTY
+                : CronHits.of(balanceConfig.getBalanceIncrementCron(), interval);
+    }
+
     private CompletableFuture<BackTestResult> startBackTest(
             final BotConfig botConfig,
             final BalanceConfig balanceConfig,
-            final Interval interval
+            final Interval interval,
+            final BackTestContext context
     ) {
-        return CompletableFuture.supplyAsync(() -> backTestSafe(botConfig, balanceConfig, interval), executor);
+        final Supplier<List<BackTestResult>> simulation = () -> List.of(backTestSafe(botConfig, balanceConfig, interval, context));
+        return runStages(botConfig, interval, context, simulation).thenApply(List::getFirst);
     }
 
-    private BackTestResult backTestSafe(final BotConfig botConfig, final BalanceConfig balanceConfig, final Interval interval) {
+    // region stages
+
+    /**
+     * Runs loading of market data for given {@code botConfig} and then given {@code simulation}.
+     * Place in queue is taken before loading and released on completion of both stages, whatever the result is
+     */
+    private CompletableFuture<List<BackTestResult>> runStages(
+            final BotConfig botConfig,
+            final Interval interval,
+            final BackTestContext context,
+            final Supplier<List<BackTestResult>> simulation
+    ) {
+        final ApiCallsTimer timer = new ApiCallsTimer();
+        final AtomicBoolean queued = new AtomicBoolean();
+        return CompletableFuture
+                .runAsync(() -> {
+                    acquire(queuePermits);
+                    queued.set(true);
+                    loadSafe(botConfig, interval, context, timer);
+                }, loadingExecutor)
+                .thenApplyAsync(nothing -> simulate(simulation, timer, context), simulationExecutor)
+                .whenComplete((results, throwable) -> {
+                    if (queued.get()) {
+                        queuePermits.release();
+                    }
+                });
+    }
+
+    /**
+     * Loads market data needed for back test of given {@code botConfig} into caches with background priority of API calls,
+     * so simulation doesn't wait for TBank API. Time of API calls is accumulated by given {@code timer}.
+     * Loading errors are only logged, because simulation loads the same data again and reports errors in back test result
+     */
+    private void loadSafe(final BotConfig botConfig, final Interval interval, final BackTestContext context, final ApiCallsTimer timer) {
+        acquire(loadingPermits);
+        try {
+            final Runnable loading = () -> load(botConfig, interval, context);
+            context.loadingStatistics().run(() -> ApiCallPriority.BACKGROUND.run(() -> timer.run(loading)));
+        } catch (final Exception exception) {
+            log.warn("Failed to load market data for back test for '{}'", botConfig, exception);
+        } finally {
+            loadingPermits.release();
+        }
+    }
+
+    private void load(final BotConfig botConfig, final Interval interval, final BackTestContext context) {
+        final Interval effectiveInterval = getEffectiveInterval(extInstrumentsService, botConfig, interval);
+        if (context.isCandlesNeeded()) {
+            getCandles(botConfig.figies(), effectiveInterval, botConfig.candleInterval(), context);
+        } else {
+            for (final String figi : botConfig.figies()) {
+                extMarketDataService.getCandles(figi, effectiveInterval, botConfig.candleInterval());
+            }
+        }
+    }
+
+    /**
+     * Runs given {@code simulation} with background priority of API calls and completes its results with times of back test.
+     * Given {@code timer} already contains time of API calls of loading stage
+     */
+    private List<BackTestResult> simulate(
+            final Supplier<List<BackTestResult>> simulation,
+            final ApiCallsTimer timer,
+            final BackTestContext context
+    ) {
+        return context.simulationStatistics().get(() -> {
+            final long start = System.nanoTime();
+            final long loadingApiNanos = timer.getThrottlingNanos() + timer.getCallsNanos();
+            final List<BackTestResult> results = ApiCallPriority.BACKGROUND.get(() -> timer.get(simulation));
+            final long duration = System.nanoTime() - start;
+
+            final long throttlingNanos = timer.getThrottlingNanos();
+            final long callsNanos = timer.getCallsNanos();
+            final long simulationApiNanos = throttlingNanos + callsNanos - loadingApiNanos;
+            final BackTestTimes times = BackTestTimes.ofNanos(throttlingNanos, callsNanos, Math.max(0, duration - simulationApiNanos));
+            return results.stream()
+                    .map(result -> completeResult(result.withTimes(times), context))
+                    .toList();
+        });
+    }
+
+    private static void acquire(final Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for back test stage", exception);
+        }
+    }
+
+    // endregion
+
+    private BackTestResult backTestSafe(
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final BackTestContext context
+    ) {
         log.info("Starting back test for '{}'", botConfig);
 
-        ExecutionResult<BackTestResult> executionResult = ExecutionUtils.getSafe(() -> test(botConfig, balanceConfig, interval));
+        ExecutionResult<BackTestResult> executionResult = ExecutionUtils.getSafe(() -> test(botConfig, balanceConfig, interval, context));
 
         final String backTestDurationString = DurationFormatUtils.formatDurationHMS(executionResult.duration().toMillis());
 
@@ -128,40 +309,305 @@ public class BackTesterImpl implements BackTester {
             log.info("Back test for '{}' succeed within {}", botConfig, backTestDurationString);
             return executionResult.result();
         } else {
-            final String message = String.format(
-                    "Back test for '%s' failed within %s with error: %s",
-                    botConfig, backTestDurationString, executionResult.exception().getMessage()
-            );
-            log.error(message, executionResult.exception());
-            return createFailedBackTestResult(botConfig, balanceConfig.getInitialBalances(), interval, message);
+            return createFailedBackTestResult(botConfig, balanceConfig, interval, executionResult.duration(), executionResult.exception());
         }
     }
 
-    private BackTestResult test(final BotConfig botConfig, final BalanceConfig balanceConfig, final Interval interval) {
-        final Interval effectiveInterval = getEffectiveInterval(botConfig, interval);
-        final FakeBot fakeBot = fakeBotFactory.createBot(botConfig, balanceConfig, effectiveInterval.getFrom());
+    private BackTestResult test(
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final BackTestContext context
+    ) {
+        final Interval effectiveInterval = getEffectiveInterval(extInstrumentsService, botConfig, interval);
+        final FakeBot fakeBot = fakeBotFactory.createBot(botConfig, balanceConfig, effectiveInterval.getFrom(), context.balanceIncrementTimes());
+        final CronHits.Cursor balanceIncrementTimes = context.balanceIncrementTimes().cursor();
 
-        final CandleInterval candleInterval = botConfig.candleInterval();
-        final Map<String, List<Candle>> candles = botConfig.figies().stream()
-                .collect(Collectors.toMap(Function.identity(), figi -> extMarketDataService.getCandles(figi, effectiveInterval, candleInterval)));
+        final Map<String, List<Candle>> candles = getCandles(botConfig.figies(), effectiveInterval, botConfig.candleInterval(), context);
+
+        if (fakeBot.isAlwaysWaiting(botConfig, effectiveInterval) && fakeBot.getCurrentDateTime().isBefore(effectiveInterval.getTo())) {
+            log.debug("Strategy of '{}' never trades within {}. Only balance increments are applied", botConfig, effectiveInterval);
+            applyBalanceIncrements(botConfig.accountId(), balanceConfig, balanceIncrementTimes, fakeBot, effectiveInterval.getTo());
+        } else {
+            do {
+                fakeBot.processBotConfig(botConfig, effectiveInterval);
+
+                moveToNextMinuteAndApplyBalanceIncrement(
+                        botConfig.accountId(),
+                        botConfig.figies(),
+                        balanceConfig,
+                        balanceIncrementTimes,
+                        fakeBot,
+                        effectiveInterval.getTo()
+                );
+            } while (fakeBot.getCurrentDateTime() != null && fakeBot.getCurrentDateTime().isBefore(effectiveInterval.getTo()));
+        }
+
+        return createSucceedBackTestResult(botConfig, effectiveInterval, candles, fakeBot);
+    }
+
+    /**
+     * Applies all balance increments from current date time of bot till {@code to} without processing of bot config.
+     * Gives same balances and investments as minute-by-minute loop, because bot which never trades changes nothing else
+     */
+    private void applyBalanceIncrements(
+            final String accountId,
+            final BalanceConfig balanceConfig,
+            final CronHits.Cursor balanceIncrementTimes,
+            final FakeBot fakeBot,
+            final OffsetDateTime to
+    ) {
+        if (MapUtils.isEmpty(balanceConfig.getBalanceIncrements())) {
+            return;
+        }
+
+        final List<OffsetDateTime> investmentsTimes = balanceIncrementTimes.next(fakeBot.getCurrentDateTime(), to);
+        for (final OffsetDateTime investmentTime : investmentsTimes) {
+            fakeBot.addInvestments(accountId, investmentTime, balanceConfig.getBalanceIncrements());
+        }
+    }
+
+    // region shared clock
+
+    /**
+     * Back tests given {@code botConfigs} grouping them by FIGIes and candle interval.
+     * All bots of one group are processed within single loop with single clock,
+     * so trading schedule, candles and prices are loaded once per tick for the whole group
+     *
+     * @return back test results in same order as corresponding {@code botConfigs}
+     */
+    private List<BackTestResult> testWithSharedClock(
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final BackTestContext context
+    ) {
+        final Map<SharedClockKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < botConfigs.size(); i++) {
+            final BotConfig botConfig = botConfigs.get(i);
+            final SharedClockKey key = new SharedClockKey(botConfig.figies(), botConfig.candleInterval());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        final List<CompletableFuture<List<BackTestResult>>> futures = groups.values().stream()
+                .map(indices -> indices.stream().map(botConfigs::get).toList())
+                .map(group -> {
+                    final Supplier<List<BackTestResult>> simulation = () -> testWithSharedClockSafe(group, balanceConfig, interval, context);
+                    return runStages(group.getFirst(), interval, context, simulation);
+                })
+                .toList();
+
+        final BackTestResult[] results = new BackTestResult[botConfigs.size()];
+        final Iterator<List<Integer>> indicesIterator = groups.values().iterator();
+        for (final CompletableFuture<List<BackTestResult>> future : futures) {
+            final List<Integer> indices = indicesIterator.next();
+            final List<BackTestResult> groupResults = future.join();
+            for (int i = 0; i < indices.size(); i++) {
+                results[indices.get(i)] = groupResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<BackTestResult> testWithSharedClockSafe(
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final BackTestContext context
+    ) {
+        log.info("Starting shared clock back test for {} bot configs with FIGIes {}", botConfigs.size(), botConfigs.getFirst().figies());
+
+        final long start = System.nanoTime();
+        final BackTestResult[] results = new BackTestResult[botConfigs.size()];
+        final List<SharedClockBot> bots = new ArrayList<>(botConfigs.size());
+        try {
+            final BotConfig commonBotConfig = botConfigs.getFirst();
+            final Interval effectiveInterval = getEffectiveInterval(extInstrumentsService, commonBotConfig, interval);
+            final Map<String, List<Candle>> candles =
+                    getCandles(commonBotConfig.figies(), effectiveInterval, commonBotConfig.candleInterval(), context);
+
+            final SharedClockMarketDataService marketDataService = new SharedClockMarketDataService(extMarketDataService);
+            for (int i = 0; i < botConfigs.size(); i++) {
+                final BotConfig botConfig = botConfigs.get(i);
+                try {
+                    final FakeBot fakeBot = fakeBotFactory.createBot(
+                            botConfig,
+                            balanceConfig,
+                            effectiveInterval.getFrom(),
+                            context.balanceIncrementTimes(),
+                            marketDataService
+                    );
+                    final boolean alwaysWaiting = fakeBot.isAlwaysWaiting(botConfig, effectiveInterval);
+                    bots.add(new SharedClockBot(i, botConfig, fakeBot, alwaysWaiting));
+                } catch (final Exception exception) {
+                    results[i] = createFailedBackTestResult(botConfig, balanceConfig, interval, getDurationSince(start), exception);
+                }
+            }
+
+            testWithSharedClock(bots, balanceConfig, interval, effectiveInterval, context.balanceIncrementTimes(), marketDataService, start, results);
+
+            for (final SharedClockBot bot : bots) {
+                results[bot.index()] = createSucceedBackTestResult(bot.botConfig(), effectiveInterval, candles, bot.fakeBot());
+                final String durationString = DurationFormatUtils.formatDurationHMS(getDurationSince(start).toMillis());
+                log.info("Back test for '{}' succeed within {}", bot.botConfig(), durationString);
+            }
+        } catch (final Exception exception) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    results[i] = createFailedBackTestResult(botConfigs.get(i), balanceConfig, interval, getDurationSince(start), exception);
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Runs back test loop for all given {@code bots} until the end of {@code effectiveInterval}.
+     * Bots failed during processing are removed from {@code bots} and get failed result in {@code results}
+     */
+    private void testWithSharedClock(
+            final List<SharedClockBot> bots,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final Interval effectiveInterval,
+            final CronHits balanceIncrementTimes,
+            final SharedClockMarketDataService marketDataService,
+            final long start,
+            final BackTestResult[] results
+    ) {
+        if (bots.isEmpty()) {
+            return;
+        }
+
+        final CronHits.Cursor balanceIncrementTimesCursor = balanceIncrementTimes.cursor();
 
+        final List<String> figies = bots.getFirst().botConfig().figies();
+        final OffsetDateTime to = effectiveInterval.getTo();
+        OffsetDateTime currentDateTime;
         do {
-            fakeBot.processBotConfig(botConfig, effectiveInterval);
+            final Iterator<SharedClockBot> iterator = bots.iterator();
+            while (iterator.hasNext()) {
+                final SharedClockBot bot = iterator.next();
+                if (bot.alwaysWaiting()) {
+                    continue;
+                }
+                try {
+                    bot.fakeBot().processBotConfig(bot.botConfig(), effectiveInterval);
+                } catch (final Exception exception) {
+                    results[bot.index()] = createFailedBackTestResult(bot.botConfig(), balanceConfig, interval, getDurationSince(start), exception);
+                    iterator.remove();
+                }
+            }
+            if (bots.isEmpty()) {
+                return;
+            }
+
+            currentDateTime = moveToNextMinuteAndApplyBalanceIncrement(figies, balanceConfig, balanceIncrementTimesCursor, bots, to);
+            marketDataService.nextTick();
+        } while (currentDateTime != null && currentDateTime.isBefore(to));
+    }
 
-            moveToNextMinuteAndApplyBalanceIncrement(botConfig.accountId(), botConfig.figies(), balanceConfig, fakeBot, effectiveInterval.getTo());
-        } while (fakeBot.getCurrentDateTime() != null && fakeBot.getCurrentDateTime().isBefore(effectiveInterval.getTo()));
+    /**
+     * Moves clocks of all {@code bots} to next schedule minute and applies balance increments to all of them.
+     * Trading schedule and balance increment times are read once for all bots.
+     *
+     * @return new current date time of bots
+     */
+    private OffsetDateTime moveToNextMinuteAndApplyBalanceIncrement(
+            final List<String> figies,
+            final BalanceConfig balanceConfig,
+            final CronHits.Cursor balanceIncrementTimes,
+            final List<SharedClockBot> bots,
+            final OffsetDateTime to
+    ) {
+        final OffsetDateTime previousDate = bots.getFirst().fakeBot().getCurrentDateTime();
+        final boolean withBalanceIncrements = MapUtils.isNotEmpty(balanceConfig.getBalanceIncrements());
+        if (withBalanceIncrements && !previousDate.isBefore(to)) {
+            return previousDate;
+        }
 
-        return createSucceedBackTestResult(botConfig, effectiveInterval, candles, fakeBot);
+        final Interval interval = Interval.of(previousDate, to);
+        final List<TradingDay> tradingSchedule = extInstrumentsService.getTradingScheduleByFigies(figies, interval);
+        OffsetDateTime nextScheduleMinute = null;
+        for (final SharedClockBot bot : bots) {
+            nextScheduleMinute = bot.fakeBot().nextScheduleMinute(tradingSchedule);
+        }
+
+        if (withBalanceIncrements) {
+            final OffsetDateTime nextDate = DateUtils.getEarliestDateTime(nextScheduleMinute, to);
+            final List<OffsetDateTime> investmentsTimes = balanceIncrementTimes.next(previousDate, nextDate);
+            for (final SharedClockBot bot : bots) {
+                for (final OffsetDateTime investmentTime : investmentsTimes) {
+                    bot.fakeBot().addInvestments(bot.botConfig().accountId(), investmentTime, balanceConfig.getBalanceIncrements());
+                }
+            }
+        }
+
+        return nextScheduleMinute;
+    }
+
+    private static Duration getDurationSince(final long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Bot configs having equal key can be back tested with shared clock
+     */
+    private record SharedClockKey(List<String> figies, CandleInterval candleInterval) {
+    }
+
+    /**
+     * @param alwaysWaiting if true, bot config is not processed, bot only moves with shared clock and gets balance increments
+     */
+    private record SharedClockBot(int index, BotConfig botConfig, FakeBot fakeBot, boolean alwaysWaiting) {
     }
 
-    private Interval getEffectiveInterval(final BotConfig botConfig, final Interval interval) {
+    // endregion
+
+    /**
+     * @return candles of given {@code figies} for back test result or empty map if result doesn't need candles.
+     * Candles are shared between all results of the back test with same FIGI, interval and candle interval
+     */
+    private Map<String, List<Candle>> getCandles(
+            final List<String> figies,
+            final Interval interval,
+            final CandleInterval candleInterval,
+            final BackTestContext context
+    ) {
+        if (!context.isCandlesNeeded()) {
+            return Collections.emptyMap();
+        }
+
+        return figies.stream().collect(Collectors.toMap(
+                Function.identity(),
+                figi -> context.getCandles(
+                        new CandlesKey(figi, interval, candleInterval),
+                        () -> extMarketDataService.getCandles(figi, interval, candleInterval)
+                )
+        ));
+    }
+
+    /**
+     * @return given {@code interval} limited by the earliest first candle date of FIGIes of given {@code botConfig}
+     */
+    static Interval getEffectiveInterval(
+            final ExtInstrumentsService extInstrumentsService,
+            final BotConfig botConfig,
+            final Interval interval
+    ) {
         return botConfig.figies().stream()
-                .map(figi -> getEffectiveInterval(figi, botConfig.candleInterval(), interval))
+                .map(figi -> getEffectiveInterval(extInstrumentsService, figi, botConfig.candleInterval(), interval))
                 .reduce(Interval::unite)
                 .orElseThrow();
     }
 
-    private Interval getEffectiveInterval(final String figi, final CandleInterval candleInterval, final Interval interval) {
+    private static Interval getEffectiveInterval(
+            final ExtInstrumentsService extInstrumentsService,
+            final String figi,
+            final CandleInterval candleInterval,
+            final Interval interval
+    ) {
         final Instrument instrument = extInstrumentsService.getInstrument(figi);
         final OffsetDateTime firstCandleDate = getFirstCandleDate(candleInterval, instrument);
         if (interval.getFrom().isBefore(firstCandleDate)) {
@@ -186,6 +632,7 @@ public class BackTesterImpl implements BackTester {
             final String accountId,
             final List<String> figies,
             final BalanceConfig balanceConfig,
+            final CronHits.Cursor balanceIncrementTimes,
             final FakeBot fakeBot,
             final OffsetDateTime to
     ) {
@@ -206,8 +653,7 @@ public class BackTesterImpl implements BackTester {
         final OffsetDateTime nextScheduleMinute = fakeBot.nextScheduleMinute(tradingSchedule);
         final OffsetDateTime nextDate = DateUtils.getEarliestDateTime(nextScheduleMinute, to);
 
-        final CronExpression balanceIncrementCron = balanceConfig.getBalanceIncrementCron();
-        final List<OffsetDateTime> investmentsTimes = DateUtils.getCronHitsBetweenDates(balanceIncrementCron, previousDate, nextDate);
+        final List<OffsetDateTime> investmentsTimes = balanceIncrementTimes.next(previousDate, nextDate);
         for (final OffsetDateTime investmentTime : investmentsTimes) {
             fakeBot.addInvestments(accountId, investmentTime, balanceConfig.getBalanceIncrements());
         }
@@ -235,11 +681,28 @@ public class BackTesterImpl implements BackTester {
                 positions,
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 null
         );
     }
 
     private BackTestResult createFailedBackTestResult(
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final Duration duration,
+            final Exception exception
+    ) {
+        final String backTestDurationString = DurationFormatUtils.formatDurationHMS(duration.toMillis());
+        final String message = String.format(
+                "Back test for '%s' failed within %s with error: %s",
+                botConfig, backTestDurationString, exception.getMessage()
+        );
+        log.error(message, exception);
+        return createFailedBackTestResult(botConfig, balanceConfig.getInitialBalances(), interval, message);
+    }
+
+    static BackTestResult createFailedBackTestResult(
             final BotConfig botConfig,
             final Map<String, BigDecimal> initialBalances,
             final Interval interval,
@@ -269,6 +732,7 @@ public class BackTesterImpl implements BackTester {
                 Collections.emptyList(),
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 message
         );
     }
@@ -354,13 +818,120 @@ public class BackTesterImpl implements BackTester {
         return new Profits(absolute, relative, relativeAnnual);
     }
 
-    private void saveBackTestResultsSafe(final List<BackTestResult> backTestResults) {
+    /**
+     * Saves given {@code result} to file if needed and keeps in it only details of required detail level,
+     * so details of finished back tests are not held in memory till the end of whole back test
+     */
+    private BackTestResult completeResult(final BackTestResult result, final BackTestContext context) {
+        if (context.saveToFiles()) {
+            saveBackTestResultSafe(result);
+        }
+        return result.withDetailLevel(context.detailLevel());
+    }
+
+    private void saveBackTestResultSafe(final BackTestResult backTestResult) {
         try {
             log.debug("Saving back test result to file");
-            excelService.saveBackTestResults(backTestResults);
+            excelService.saveBackTestResults(List.of(backTestResult));
         } catch (Exception ex) {
             log.error("Failed to save back test result to file", ex);
         }
     }
 
-}
\ No newline at end of file
+    private record CandlesKey(String figi, Interval interval, CandleInterval candleInterval) {
+    }
+
+    /**
+     * Settings, candles and statistics shared by all bot configs of one back test
+     *
+     * @param candles candles loaded within back test. Result of every bot config refers to them instead of own copy
+     */
+    private record BackTestContext(
+            boolean saveToFiles,
+            BackTestDetailLevel detailLevel,
+            Map<CandlesKey, List<Candle>> candles,
+            StageStatistics loadingStatistics,
+            StageStatistics simulationStatistics,
+            CronHits balanceIncrementTimes
+    ) {
+
+        BackTestContext(
+                final boolean saveToFiles,
+                final BackTestDetailLevel detailLevel,
+                final int loadingConcurrency,
+                final int simulationThreadCount
+        ) {
+            this(
+                    saveToFiles,
+                    detailLevel,
+                    new ConcurrentHashMap<>(),
+                    new StageStatistics(loadingConcurrency),
+                    new StageStatistics(simulationThreadCount),
+                    CronHits.EMPTY
+            );
+        }
+
+        /**
+         * @return copy of this context sharing candles and statistics with it
+         */
+        BackTestContext withBalanceIncrementTimes(final CronHits balanceIncrementTimes) {
+            return new BackTestContext(saveToFiles, detailLevel, candles, loadingStatistics, simulationStatistics, balanceIncrementTimes);
+        }
+
+        boolean isCandlesNeeded() {
+            return saveToFiles || detailLevel == BackTestDetailLevel.FULL;
+        }
+
+        List<Candle> getCandles(final CandlesKey key, final Supplier<List<Candle>> candlesLoader) {
+            final List<Candle> cachedCandles = candles.get(key);
+            if (cachedCandles != null) {
+                return cachedCandles;
+            }
+
+            // candles are loaded outside of map lock, so loading of other keys is not blocked
+            final List<Candle> loadedCandles = candlesLoader.get();
+            final List<Candle> previousCandles = candles.putIfAbsent(key, loadedCandles);
+            return previousCandles == null ? loadedCandles : previousCandles;
+        }
+
+    }
+
+    /**
+     * Busy time of back test stage. Utilization is busy time divided by available time of all {@code parallelism} slots
+     */
+    private static final class StageStatistics {
+
+        private final int parallelism;
+        private final LongAdder busyNanos = new LongAdder();
+
+        StageStatistics(final int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        void run(final Runnable task) {
+            final long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+            }
+        }
+
+        <T> T get(final Supplier<T> task) {
+            final long start = System.nanoTime();
+            try {
+                return task.get();
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+            }
+        }
+
+        String getUtilizationString(final Duration duration) {
+            final long availableNanos = duration.toNanos() * parallelism;
+            final double utilization = availableNanos == 0 ? 0 : (double) busyNanos.sum() / availableNanos;
+            return String.format("%.2f%%", utilization * 100);
+        }
+
+    }
+
+}
@@ -0,0 +1,310 @@
+package ru.obukhov.trader.trading.backtest.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClient;
+import ru.obukhov.trader.common.model.ExecutionResult;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.common.util.ExecutionUtils;
+import ru.obukhov.trader.config.properties.DistributedBackTestProperties;
+import ru.obukhov.trader.market.impl.ExtInstrumentsService;
+import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.FileCandlesStore;
+import ru.obukhov.trader.trading.backtest.interfaces.BackTester;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
+import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestTimes;
+import ru.obukhov.trader.trading.model.Balances;
+import ru.obukhov.trader.trading.model.Profits;
+import ru.obukhov.trader.web.model.BalanceConfig;
+import ru.obukhov.trader.web.model.BotConfig;
+import ru.obukhov.trader.web.model.exchange.BackTestRequest;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Coordinator of back test distributed between worker instances of trader.<br/>
+ * Splits bot configs into partitions and sends them to free workers. Failed partitions are retried on next free worker,
+ * which didn't fail the partition yet, or on any free worker if all workers failed it.
+ * Results are merged in order of bot configs. Positions, operations and candles are not transferred from workers,
+ * so results always have {@link BackTestDetailLevel#SUMMARY} detail level.<br/>
+ * Before sending partitions, loads candles of all used FIGIes into {@link FileCandlesStore} within the same effective intervals,
+ * which workers use, so workers sharing the store read candles from it instead of loading them from TBank API.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "back-test.distributed", name = "enabled", havingValue = "true")
+public class DistributedBackTester implements BackTester, DisposableBean {
+
+    static final String PARTITION_PATH = "/trader/bot/back-test/partition";
+
+    private static final ParameterizedTypeReference<List<BackTestSummary>> SUMMARIES_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final ExtInstrumentsService extInstrumentsService;
+    private final ExtMarketDataService extMarketDataService;
+    private final FileCandlesStore fileCandlesStore;
+    private final RestClient restClient;
+    private final int partitionSize;
+    private final int maxAttempts;
+    private final List<String> workerUrls;
+    /**
+     * Free workers in order of release. Guarded by itself
+     */
+    private final Deque<String> freeWorkers;
+    private final ExecutorService executor;
+
+    public DistributedBackTester(
+            final ExtInstrumentsService extInstrumentsService,
+            final ExtMarketDataService extMarketDataService,
+            final FileCandlesStore fileCandlesStore,
+            final RestClient.Builder restClientBuilder,
+            final DistributedBackTestProperties distributedBackTestProperties
+    ) {
+        final List<String> workerUrls = distributedBackTestProperties.workerUrls();
+        Assert.notEmpty(workerUrls, "workerUrls are mandatory for distributed back test");
+
+        this.extInstrumentsService = extInstrumentsService;
+        this.extMarketDataService = extMarketDataService;
+        this.fileCandlesStore = fileCandlesStore;
+        this.restClient = restClientBuilder.build();
+        this.partitionSize = distributedBackTestProperties.partitionSize();
+        this.maxAttempts = distributedBackTestProperties.maxAttempts();
+        this.workerUrls = List.copyOf(workerUrls);
+        this.freeWorkers = new ArrayDeque<>(workerUrls);
+        this.executor = Executors.newFixedThreadPool(workerUrls.size());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public List<BackTestResult> test(
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final boolean saveToFiles,
+            final BackTestDetailLevel detailLevel
+    ) {
+        log.info("Distributed back test started");
+
+        final ExecutionResult<List<BackTestResult>> executionResult =
+                ExecutionUtils.get(() -> test(botConfigs, balanceConfig, interval, saveToFiles, DateUtils.now()));
+
+        final String backTestDurationString = DurationFormatUtils.formatDurationHMS(executionResult.duration().toMillis());
+        log.info("Distributed back test ended within {}", backTestDurationString);
+
+        return executionResult.result();
+    }
+
+    private List<BackTestResult> test(
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final boolean saveToFiles,
+            final OffsetDateTime now
+    ) {
+        DateUtils.assertDateTimeNotFuture(interval.getFrom(), now, "from");
+        DateUtils.assertDateTimeNotFuture(interval.getTo(), now, "to");
+        Assert.isTrue(interval.toDays() >= 1, "interval can't be shorter than 1 day");
+
+        final Interval finiteInterval = interval.limitByNowIfNull(now);
+
+        prepareCandles(botConfigs, finiteInterval);
+
+        return ListUtils.partition(botConfigs, partitionSize).stream()
+                .map(partition -> CompletableFuture.supplyAsync(
+                        () -> testPartitionSafe(partition, balanceConfig, finiteInterval, saveToFiles),
+                        executor
+                ))
+                .toList().stream()
+                .map(CompletableFuture::join)
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * Loads candles of all FIGIes of given {@code botConfigs} into candles store.
+     * Candles of every bot config are loaded within its effective interval, as workers load them
+     */
+    private void prepareCandles(final List<BotConfig> botConfigs, final Interval interval) {
+        if (!fileCandlesStore.isEnabled()) {
+            return;
+        }
+
+        final Set<CandlesKey> keys = new LinkedHashSet<>();
+        for (final BotConfig botConfig : botConfigs) {
+            final Interval effectiveInterval = BackTesterImpl.getEffectiveInterval(extInstrumentsService, botConfig, interval);
+            for (final String figi : botConfig.figies()) {
+                keys.add(new CandlesKey(figi, effectiveInterval, botConfig.candleInterval()));
+            }
+        }
+
+        for (final CandlesKey key : keys) {
+            extMarketDataService.getCandles(key.figi(), key.interval(), key.candleInterval());
+        }
+    }
+
+    private List<BackTestResult> testPartitionSafe(
+            final List<BotConfig> partition,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final boolean saveToFiles
+    ) {
+        final Set<String> failedWorkers = new HashSet<>();
+        Exception lastException = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            final String workerUrl = takeFreeWorker(failedWorkers);
+            try {
+                final List<BackTestSummary> summaries = testPartition(workerUrl, partition, balanceConfig, interval, saveToFiles);
+                Assert.isTrue(
+                        summaries != null && summaries.size() == partition.size(),
+                        () -> "Worker returned " + (summaries == null ? null : summaries.size()) + " results for " + partition.size() + " bot configs"
+                );
+                return IntStream.range(0, partition.size())
+                        .mapToObj(i -> summaries.get(i).toBackTestResult(partition.get(i)))
+                        .toList();
+            } catch (final Exception exception) {
+                log.warn("Attempt {} to back test partition of {} bot configs on worker {} failed", attempt, partition.size(), workerUrl, exception);
+                lastException = exception;
+                failedWorkers.add(workerUrl);
+            } finally {
+                releaseWorker(workerUrl);
+            }
+        }
+
+        final String errorMessage = Objects.requireNonNull(lastException).getMessage();
+        return partition.stream()
+                .map(botConfig -> createFailedBackTestResult(botConfig, balanceConfig, interval, errorMessage))
+                .toList();
+    }
+
+    private List<BackTestSummary> testPartition(
+            final String workerUrl,
+            final List<BotConfig> partition,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final boolean saveToFiles
+    ) {
+        final BackTestRequest request = new BackTestRequest();
+        request.setFrom(interval.getFrom());
+        request.setTo(interval.getTo());
+        request.setBalanceConfig(balanceConfig);
+        request.setSaveToFiles(saveToFiles);
+        request.setDetailLevel(BackTestDetailLevel.SUMMARY);
+        request.setBotConfigs(partition);
+
+        return restClient.post()
+                .uri(workerUrl + PARTITION_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .retrieve()
+                .body(SUMMARIES_TYPE);
+    }
+
+    /**
+     * Waits for free worker, which is not one of given {@code failedWorkers}, unless all workers failed
+     */
+    private String takeFreeWorker(final Set<String> failedWorkers) {
+        final boolean anyWorker = failedWorkers.containsAll(workerUrls);
+        synchronized (freeWorkers) {
+            while (true) {
+                for (final Iterator<String> iterator = freeWorkers.iterator(); iterator.hasNext(); ) {
+                    final String workerUrl = iterator.next();
+                    if (anyWorker || !failedWorkers.contains(workerUrl)) {
+                        iterator.remove();
+                        return workerUrl;
+                    }
+                }
+
+                try {
+                    freeWorkers.wait();
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for free worker", exception);
+                }
+            }
+        }
+    }
+
+    private void releaseWorker(final String workerUrl) {
+        synchronized (freeWorkers) {
+            freeWorkers.add(workerUrl);
+            freeWorkers.notifyAll();
+        }
+    }
+
+    private BackTestResult createFailedBackTestResult(
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final String errorMessage
+    ) {
+        final String message = String.format(
+                "Back test for '%s' failed within %s attempts with error: %s",
+                botConfig, maxAttempts, errorMessage
+        );
+        log.error(message);
+        return BackTesterImpl.createFailedBackTestResult(botConfig, balanceConfig.getInitialBalances(), interval, message);
+    }
+
+    private record CandlesKey(String figi, Interval interval, CandleInterval candleInterval) {
+    }
+
+    /**
+     * Serialized part of {@link BackTestResult} returned by worker.
+     * Bot config is not deserialized to keep the one sent to worker as is
+     */
+    private record BackTestSummary(
+            Interval interval,
+            Map<String, Balances> balances,
+            Map<String, Profits> profits,
+            BackTestTimes times,
+            String error
+    ) {
+
+        BackTestResult toBackTestResult(final BotConfig botConfig) {
+            return new BackTestResult(
+                    botConfig,
+                    interval,
+                    balances,
+                    profits,
+                    Collections.emptyList(),
+                    Collections.emptyMap(),
+                    Collections.emptyMap(),
+                    ObjectUtils.defaultIfNull(times, BackTestTimes.ZERO),
+                    error
+            );
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package ru.obukhov.trader.trading.backtest.interfaces;
 
 import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
 import ru.obukhov.trader.trading.model.BackTestResult;
 import ru.obukhov.trader.web.model.BalanceConfig;
 import ru.obukhov.trader.web.model.BotConfig;
@@ -9,11 +10,26 @@ import java.util.List;
 
 public interface BackTester {
 
-    List<BackTestResult> test(
+    default List<BackTestResult> test(
             final List<BotConfig> botConfigs,
             final BalanceConfig balanceConfig,
             final Interval interval,
             final boolean saveToFiles
+    ) {
+        return test(botConfigs, balanceConfig, interval, saveToFiles, BackTestDetailLevel.FULL);
+    }
+
+    /**
+     * Back tests given {@code botConfigs}.
+     * When {@code saveToFiles} is true, every result is saved to file with all details right after its back test,
+     * and only details of given {@code detailLevel} are kept in returned results
+     */
+    List<BackTestResult> test(
+            final List<BotConfig> botConfigs,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final boolean saveToFiles,
+            final BackTestDetailLevel detailLevel
     );
 
-}
\ No newline at end of file
+}
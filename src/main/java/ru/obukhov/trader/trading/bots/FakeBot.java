@@ -11,6 +11,7 @@ import ru.obukhov.trader.market.interfaces.ExtOperationsService;
 import ru.obukhov.trader.market.interfaces.ExtOrdersService;
 import ru.obukhov.trader.market.model.TradingDay;
 import ru.obukhov.trader.trading.strategy.interfaces.TradingStrategy;
+import ru.obukhov.trader.web.model.BotConfig;
 import ru.tinkoff.piapi.contract.v1.Operation;
 import ru.tinkoff.piapi.core.models.Position;
 
@@ -54,6 +55,13 @@ public class FakeBot extends Bot {
         return extOperationsService.getPositions(accountId);
     }
 
+    /**
+     * @return true if strategy of bot makes no decisions except WAIT for given {@code botConfig} within given {@code interval}
+     */
+    public boolean isAlwaysWaiting(final BotConfig botConfig, final Interval interval) {
+        return strategy.isAlwaysWaiting(botConfig, interval);
+    }
+
     // region FakeContext proxy
 
     public OffsetDateTime getCurrentDateTime() {
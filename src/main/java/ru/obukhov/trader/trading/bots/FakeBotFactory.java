@@ -2,12 +2,11 @@ package ru.obukhov.trader.trading.bots;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationContext;
-import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Service;
 import ru.obukhov.trader.common.exception.InstrumentNotFoundException;
+import ru.obukhov.trader.common.model.CronHits;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.util.Asserter;
-import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.common.util.DecimalUtils;
 import ru.obukhov.trader.common.util.TradingDayUtils;
 import ru.obukhov.trader.market.impl.ExtInstrumentsService;
@@ -45,19 +44,53 @@ public class FakeBotFactory {
     private final ExtUsersService extUsersService;
     private final ApplicationContext applicationContext;
 
-    public FakeBot createBot(final BotConfig botConfig, final BalanceConfig balanceConfig, final OffsetDateTime currentDateTime) {
-        final FakeContext fakeContext = createFakeContext(botConfig, balanceConfig, currentDateTime);
+    /**
+     * @param balanceIncrementTimes hits of {@link BalanceConfig#getBalanceIncrementCron()} within back test interval.
+     *                              Calculated once per back test and shared between bots
+     */
+    public FakeBot createBot(
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final OffsetDateTime currentDateTime,
+            final CronHits balanceIncrementTimes
+    ) {
+        final FakeContext fakeContext = createFakeContext(botConfig, balanceConfig, currentDateTime, balanceIncrementTimes);
+        final AbstractTradingStrategy strategy = strategyFactory.createStrategy(botConfig);
+        return createBot(botConfig, fakeContext, extMarketDataService, strategy);
+    }
+
+    /**
+     * Creates bot, which gets market data from given {@code marketDataService} instead of default one.
+     * Used to share market data between several bots
+     */
+    public FakeBot createBot(
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final OffsetDateTime currentDateTime,
+            final CronHits balanceIncrementTimes,
+            final ExtMarketDataService marketDataService
+    ) {
+        final FakeContext fakeContext = createFakeContext(botConfig, balanceConfig, currentDateTime, balanceIncrementTimes);
+        final AbstractTradingStrategy strategy = strategyFactory.createStrategy(botConfig, marketDataService);
+        return createBot(botConfig, fakeContext, marketDataService, strategy);
+    }
+
+    private FakeBot createBot(
+            final BotConfig botConfig,
+            final FakeContext fakeContext,
+            final ExtMarketDataService marketDataService,
+            final AbstractTradingStrategy strategy
+    ) {
         final ExtOperationsService fakeOperationsService = new FakeExtOperationsService(fakeContext);
         final FakeExtOrdersService fakeOrdersService = new FakeExtOrdersService(
                 fakeContext,
                 extInstrumentsService,
-                extMarketDataService,
+                marketDataService,
                 botConfig.commission()
         );
-        final AbstractTradingStrategy strategy = strategyFactory.createStrategy(botConfig);
 
         return new FakeBot(
-                extMarketDataService,
+                marketDataService,
                 extInstrumentsService,
                 fakeOperationsService,
                 fakeOrdersService,
@@ -70,7 +103,8 @@ public class FakeBotFactory {
     private FakeContext createFakeContext(
             final BotConfig botConfig,
             final BalanceConfig balanceConfig,
-            final OffsetDateTime currentDateTime
+            final OffsetDateTime currentDateTime,
+            final CronHits balanceIncrementTimes
     ) {
         final List<String> figies = botConfig.figies();
         final OffsetDateTime ceilingWorkDateTime = getCeilingWorkDateTime(figies, currentDateTime);
@@ -79,7 +113,7 @@ public class FakeBotFactory {
                 .filter(figi -> shares.stream().noneMatch(share -> share.figi().equals(figi)))
                 .toList();
         Asserter.isTrue(notFoundFigies.isEmpty(), () -> new InstrumentNotFoundException(notFoundFigies));
-        final Map<String, BigDecimal> initialBalances = getInitialBalances(currentDateTime, ceilingWorkDateTime, balanceConfig);
+        final Map<String, BigDecimal> initialBalances = getInitialBalances(currentDateTime, ceilingWorkDateTime, balanceConfig, balanceIncrementTimes);
 
         return (FakeContext) applicationContext.getBean("fakeContext", botConfig.accountId(), ceilingWorkDateTime, initialBalances);
     }
@@ -96,15 +130,14 @@ public class FakeBotFactory {
     private Map<String, BigDecimal> getInitialBalances(
             final OffsetDateTime currentDateTime,
             final OffsetDateTime ceilingWorkDateTime,
-            final BalanceConfig balanceConfig
+            final BalanceConfig balanceConfig,
+            final CronHits balanceIncrementTimes
     ) {
         final Map<String, BigDecimal> initialBalances = balanceConfig.getInitialBalances();
 
         // adding balance increments which were skipped by moving to ceiling work time above
-        final CronExpression balanceIncrementCron = balanceConfig.getBalanceIncrementCron();
         if (balanceConfig.getBalanceIncrements() != null && !currentDateTime.isEqual(ceilingWorkDateTime)) {
-            final int incrementsCount = DateUtils.getCronHitsBetweenDates(balanceIncrementCron, currentDateTime, ceilingWorkDateTime)
-                    .size();
+            final int incrementsCount = balanceIncrementTimes.count(currentDateTime, ceilingWorkDateTime);
             for (final Map.Entry<String, BigDecimal> entry : balanceConfig.getBalanceIncrements().entrySet()) {
                 final String currency = entry.getKey();
                 final BigDecimal totalBalanceIncrement = DecimalUtils.multiply(entry.getValue(), incrementsCount);
@@ -5,6 +5,7 @@ import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.model.Periods;
 import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.common.util.MapUtils;
+import ru.obukhov.trader.config.model.ApiCallPriority;
 import ru.obukhov.trader.config.properties.SchedulingProperties;
 import ru.obukhov.trader.market.impl.ServicesContainer;
 import ru.obukhov.trader.market.interfaces.Context;
@@ -42,6 +43,10 @@ public class RunnableBot extends Bot implements Runnable {
             return;
         }
 
+        ApiCallPriority.LIVE.run(this::tick);
+    }
+
+    private void tick() {
         if (checkTradingStatuses()) {
             final Interval interval = getInterval();
 
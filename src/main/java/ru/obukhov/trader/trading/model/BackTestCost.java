@@ -0,0 +1,28 @@
+package ru.obukhov.trader.trading.model;
+
+/**
+ * Estimated cost of back test
+ *
+ * @param cpu    count of simulation ticks of all bot configs
+ * @param memory count of candles, which are not cached yet and will be loaded into memory
+ */
+public record BackTestCost(long cpu, long memory) {
+
+    public static final BackTestCost ZERO = new BackTestCost(0, 0);
+
+    public BackTestCost plus(final BackTestCost other) {
+        return new BackTestCost(cpu + other.cpu, memory + other.memory);
+    }
+
+    public BackTestCost minus(final BackTestCost other) {
+        return new BackTestCost(cpu - other.cpu, memory - other.memory);
+    }
+
+    /**
+     * @return true if both components of this cost are not greater than corresponding components of given {@code limit}
+     */
+    public boolean fits(final BackTestCost limit) {
+        return cpu <= limit.cpu && memory <= limit.memory;
+    }
+
+}
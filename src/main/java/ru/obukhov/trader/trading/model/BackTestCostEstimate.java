@@ -0,0 +1,32 @@
+package ru.obukhov.trader.trading.model;
+
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.web.model.BotConfig;
+
+import java.time.Duration;
+
+/**
+ * Cost of back test of single bot config estimated without loading of any data
+ *
+ * @param botConfig     estimated bot config
+ * @param interval      interval of back test. Limited by first candle date of FIGIes, when instruments are cached
+ * @param apiCalls      count of candles requests, which will be sent to TBank API
+ * @param cachedCalls   count of candles requests, which will be served by "marketCandles" cache
+ * @param storedCalls   count of candles requests, which will be served by candles store
+ * @param fetchDuration minimal duration of {@code apiCalls} according to MarketDataService throttling of background calls
+ * @param ticks         max count of simulation ticks. Ticks are minutes of interval, trading schedule is not taken into account
+ * @param candles       max count of candles loaded for back test
+ * @param memoryBytes   rough size of loaded candles in memory, the same per candle as in moving averages cache
+ */
+public record BackTestCostEstimate(
+        BotConfig botConfig,
+        Interval interval,
+        int apiCalls,
+        int cachedCalls,
+        int storedCalls,
+        Duration fetchDuration,
+        long ticks,
+        long candles,
+        long memoryBytes
+) {
+}
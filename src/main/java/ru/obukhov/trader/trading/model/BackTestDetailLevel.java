@@ -0,0 +1,12 @@
+package ru.obukhov.trader.trading.model;
+
+/**
+ * Set of details kept in {@link BackTestResult} after back test
+ */
+public enum BackTestDetailLevel {
+
+    SUMMARY, // balances and profits only
+    TRADES, // summary, positions and operations
+    FULL // trades and candles
+
+}
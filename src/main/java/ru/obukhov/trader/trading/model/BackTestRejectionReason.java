@@ -0,0 +1,9 @@
+package ru.obukhov.trader.trading.model;
+
+public enum BackTestRejectionReason {
+
+    COST_EXCEEDS_BUDGET, // back test can't fit budget even when nothing else is running
+    QUEUE_IS_FULL, // too many back tests are waiting for budget
+    WAIT_TIMEOUT // back test waited for budget too long
+
+}
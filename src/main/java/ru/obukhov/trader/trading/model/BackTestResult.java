@@ -7,6 +7,7 @@ import ru.obukhov.trader.web.model.BotConfig;
 import ru.tinkoff.piapi.contract.v1.Operation;
 import ru.tinkoff.piapi.core.models.Position;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +19,43 @@ public record BackTestResult(
         @JsonIgnore List<Position> positions, // positions after back test
         @JsonIgnore Map<String, List<Operation>> operations, // operations made during back test
         @JsonIgnore Map<String, List<Candle>> candles, // all candles in back test interval
+        BackTestTimes times, // time of throttling, API calls and simulation
         String error
 ) {
-}
\ No newline at end of file
+
+    /**
+     * @return result without details, which are not included in given {@code detailLevel}
+     */
+    public BackTestResult withDetailLevel(final BackTestDetailLevel detailLevel) {
+        return switch (detailLevel) {
+            case SUMMARY -> new BackTestResult(
+                    botConfig,
+                    interval,
+                    balances,
+                    profits,
+                    Collections.emptyList(),
+                    Collections.emptyMap(),
+                    Collections.emptyMap(),
+                    times,
+                    error
+            );
+            case TRADES -> new BackTestResult(
+                    botConfig,
+                    interval,
+                    balances,
+                    profits,
+                    positions,
+                    operations,
+                    Collections.emptyMap(),
+                    times,
+                    error
+            );
+            case FULL -> this;
+        };
+    }
+
+    public BackTestResult withTimes(final BackTestTimes times) {
+        return new BackTestResult(botConfig, interval, balances, profits, positions, operations, candles, times, error);
+    }
+
+}
@@ -0,0 +1,21 @@
+package ru.obukhov.trader.trading.model;
+
+import java.util.Map;
+
+/**
+ * @param budget        total budget of running back tests
+ * @param usedBudget    budget used by running back tests
+ * @param runningJobs   count of running back tests
+ * @param queuedJobs    count of back tests waiting for budget
+ * @param admittedJobs  count of back tests started since application start
+ * @param rejectedJobs  count of back tests rejected since application start by reasons
+ */
+public record BackTestSchedulerStatistics(
+        BackTestCost budget,
+        BackTestCost usedBudget,
+        int runningJobs,
+        int queuedJobs,
+        long admittedJobs,
+        Map<BackTestRejectionReason, Long> rejectedJobs
+) {
+}
@@ -0,0 +1,24 @@
+package ru.obukhov.trader.trading.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where time of back test went. Results of bot configs tested with shared clock share times of the whole group
+ *
+ * @param throttlingMillis time of waiting for permits of TBank API calls throttling in loading and simulation stages
+ * @param apiCallsMillis   time of TBank API calls in loading and simulation stages
+ * @param simulationMillis time of simulation stage except of waiting for throttling and API calls
+ */
+public record BackTestTimes(long throttlingMillis, long apiCallsMillis, long simulationMillis) {
+
+    public static final BackTestTimes ZERO = new BackTestTimes(0, 0, 0);
+
+    public static BackTestTimes ofNanos(final long throttlingNanos, final long apiCallsNanos, final long simulationNanos) {
+        return new BackTestTimes(
+                TimeUnit.NANOSECONDS.toMillis(throttlingNanos),
+                TimeUnit.NANOSECONDS.toMillis(apiCallsNanos),
+                TimeUnit.NANOSECONDS.toMillis(simulationNanos)
+        );
+    }
+
+}
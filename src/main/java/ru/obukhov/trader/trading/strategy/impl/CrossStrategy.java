@@ -4,8 +4,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.Assert;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.service.impl.MovingAverager;
-import ru.obukhov.trader.common.util.TrendUtils;
+import ru.obukhov.trader.common.util.CrossoverDetector;
 import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
 import ru.obukhov.trader.market.model.Candle;
 import ru.obukhov.trader.trading.model.CrossStrategyParams;
 import ru.obukhov.trader.trading.model.Crossover;
@@ -14,8 +15,10 @@ import ru.obukhov.trader.trading.model.DecisionAction;
 import ru.obukhov.trader.trading.model.DecisionData;
 import ru.obukhov.trader.trading.model.DecisionsData;
 import ru.obukhov.trader.web.model.BotConfig;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,19 +35,38 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CrossStrategy extends AbstractTradingStrategy {
 
+    private static final int ORDER = 1;
+
     private final ExtMarketDataService extMarketDataService;
     private final MovingAverager averager;
+    private final MovingAveragesCache movingAveragesCache;
+
+    /**
+     * Signal calculated at last call of {@link #decide}.
+     * Back test calls {@link #decide} with same interval at every minute, so signal is calculated once per back test
+     */
+    private Signal lastSignal;
+
+    /**
+     * Crossover detectors of series of candles, kept between calls of {@link #decide}.
+     * When candles of next call start with the same candle and contain the last pushed candle,
+     * only averages of new candles are pushed to detector. When interval slides, averages of all candles change,
+     * so detector is filled again
+     */
+    private final Map<CrossoverKey, CrossoverSeries> crossoverSeries = new HashMap<>();
 
     protected CrossStrategy(
             final String name,
             final CrossStrategyParams params,
             final ExtMarketDataService extMarketDataService,
-            final MovingAverager averager
+            final MovingAverager averager,
+            final MovingAveragesCache movingAveragesCache
     ) {
         super(name, params);
 
         this.extMarketDataService = extMarketDataService;
         this.averager = averager;
+        this.movingAveragesCache = movingAveragesCache;
     }
 
     @Override
@@ -66,23 +88,71 @@ public class CrossStrategy extends AbstractTradingStrategy {
                 return Map.of(figi, decision);
             }
 
-            final Map<String, List<Candle>> figiesToCandles = getCandles(botConfig, interval);
-            final List<BigDecimal> values = figiesToCandles
-                    .get(figi)
-                    .stream()
-                    .map(Candle::getOpen)
-                    .toList();
-            final CrossStrategyParams crossStrategyParams = (CrossStrategyParams) params;
-            final List<BigDecimal> shortAverages = averager.getAverages(values, crossStrategyParams.getSmallWindow());
-            final List<BigDecimal> longAverages = averager.getAverages(values, crossStrategyParams.getBigWindow());
-
-            final int index = (int) (crossStrategyParams.getIndexCoefficient() * (values.size() - 1));
-            final Crossover crossover = TrendUtils.getCrossoverIfLast(shortAverages, longAverages, index);
-            final Decision decision = decide(decisionData, data.getCommission(), crossover, figiesToCandles);
+            final Signal signal = getSignal(botConfig, interval);
+            final Decision decision = decide(decisionData, data.getCommission(), signal.crossover(), signal.figiesToCandles());
             return Map.of(figi, decision);
         }
     }
 
+    /**
+     * @return true if there is no crossover at expected position within given {@code interval},
+     * so strategy returns WAIT decision for every state of bot
+     */
+    @Override
+    public boolean isAlwaysWaiting(final BotConfig botConfig, final Interval interval) {
+        if (botConfig.figies().size() != 1) {
+            return false;
+        }
+
+        try {
+            return getSignal(botConfig, interval).crossover() == Crossover.NONE;
+        } catch (final RuntimeException exception) {
+            log.debug("Failed to calculate signal for '{}' within {}", botConfig, interval, exception);
+            return false;
+        }
+    }
+
+    private Signal getSignal(final BotConfig botConfig, final Interval interval) {
+        final Signal signal = lastSignal;
+        if (signal != null && signal.matches(botConfig, interval)) {
+            return signal;
+        }
+
+        final Signal newSignal = calculateSignal(botConfig, interval);
+        lastSignal = newSignal;
+        return newSignal;
+    }
+
+    private Signal calculateSignal(final BotConfig botConfig, final Interval interval) {
+        final Map<String, List<Candle>> figiesToCandles = getCandles(botConfig, interval);
+        final String figi = botConfig.figies().getFirst();
+        final List<Candle> candles = figiesToCandles.get(figi);
+        final CrossStrategyParams crossStrategyParams = (CrossStrategyParams) params;
+        final List<BigDecimal> shortAverages = getAverages(figi, botConfig.candleInterval(), candles, crossStrategyParams.getSmallWindow());
+        final List<BigDecimal> longAverages = getAverages(figi, botConfig.candleInterval(), candles, crossStrategyParams.getBigWindow());
+
+        final CrossoverKey key = new CrossoverKey(figi, botConfig.candleInterval());
+        final CrossoverSeries series = crossoverSeries.computeIfAbsent(key, k -> new CrossoverSeries());
+        final CrossoverDetector detector = series.update(candles, shortAverages, longAverages);
+
+        final int index = (int) (crossStrategyParams.getIndexCoefficient() * (candles.size() - 1));
+        final Crossover crossover = detector.getCrossoverIfLast(index);
+        return new Signal(botConfig.figies(), botConfig.candleInterval(), interval, figiesToCandles, crossover);
+    }
+
+    /**
+     * Averages are shared with other strategies through {@link MovingAveragesCache}.
+     * When candles of next call continue candles of previous one, only averages of new candles are calculated
+     */
+    private List<BigDecimal> getAverages(
+            final String figi,
+            final CandleInterval candleInterval,
+            final List<Candle> candles,
+            final int window
+    ) {
+        return movingAveragesCache.getAverages(averager, figi, candleInterval, candles, window, ORDER);
+    }
+
     private Map<String, List<Candle>> getCandles(final BotConfig botConfig, final Interval interval) {
         final Map<String, List<Candle>> candlesByFigies = new HashMap<>(botConfig.figies().size(), 1);
         for (final String figi : botConfig.figies()) {
@@ -131,4 +201,79 @@ public class CrossStrategy extends AbstractTradingStrategy {
         return decision;
     }
 
+    private record CrossoverKey(String figi, CandleInterval candleInterval) {
+    }
+
+    /**
+     * Crossover detector of all candles of series except last one. Last candle may be not closed yet,
+     * so its averages may change till next call and they are pushed to copy of detector only.<br/>
+     * Series is identified by the first candle and by the last pushed candle and its averages.
+     * Averages are equal to batch averages of given candles, so detector finds the same crossovers as
+     * {@link ru.obukhov.trader.common.util.TrendUtils#getCrossoverIfLast} for them
+     */
+    private static final class CrossoverSeries {
+
+        private CrossoverDetector detector = new CrossoverDetector();
+        private OffsetDateTime firstCandleTime;
+        private BigDecimal lastShortAverage;
+        private BigDecimal lastLongAverage;
+
+        /**
+         * @return detector of all given averages
+         */
+        CrossoverDetector update(final List<Candle> candles, final List<BigDecimal> shortAverages, final List<BigDecimal> longAverages) {
+            if (!continues(candles, shortAverages, longAverages)) {
+                detector = new CrossoverDetector();
+                firstCandleTime = candles.isEmpty() ? null : candles.getFirst().getTime();
+            }
+
+            final int lastIndex = candles.size() - 1;
+            for (int i = detector.size(); i < lastIndex; i++) {
+                detector.push(shortAverages.get(i), longAverages.get(i));
+            }
+            if (lastIndex < 0) {
+                return detector;
+            }
+
+            if (lastIndex > 0) {
+                lastShortAverage = shortAverages.get(lastIndex - 1);
+                lastLongAverage = longAverages.get(lastIndex - 1);
+            }
+
+            final CrossoverDetector result = detector.copy();
+            result.push(shortAverages.get(lastIndex), longAverages.get(lastIndex));
+            return result;
+        }
+
+        /**
+         * @return true if given {@code candles} start with the first candle of series
+         * and contain the last pushed candle with same averages, besides the last given candle
+         */
+        private boolean continues(final List<Candle> candles, final List<BigDecimal> shortAverages, final List<BigDecimal> longAverages) {
+            final int lastPushedIndex = detector.size() - 1;
+            return lastPushedIndex >= 0
+                    && lastPushedIndex < candles.size() - 1
+                    && candles.getFirst().getTime().equals(firstCandleTime)
+                    && shortAverages.get(lastPushedIndex).compareTo(lastShortAverage) == 0
+                    && longAverages.get(lastPushedIndex).compareTo(lastLongAverage) == 0;
+        }
+
+    }
+
+    private record Signal(
+            List<String> figies,
+            CandleInterval candleInterval,
+            Interval interval,
+            Map<String, List<Candle>> figiesToCandles,
+            Crossover crossover
+    ) {
+
+        boolean matches(final BotConfig botConfig, final Interval interval) {
+            return this.interval.equals(interval)
+                    && figies.equals(botConfig.figies())
+                    && candleInterval == botConfig.candleInterval();
+        }
+
+    }
+
 }
\ No newline at end of file
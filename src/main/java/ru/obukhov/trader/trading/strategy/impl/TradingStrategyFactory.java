@@ -12,6 +12,7 @@ import org.springframework.util.Assert;
 import ru.obukhov.trader.common.service.impl.MovingAverager;
 import ru.obukhov.trader.common.util.Asserter;
 import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
 import ru.obukhov.trader.market.model.MovingAverageType;
 import ru.obukhov.trader.trading.model.CrossStrategyParams;
 import ru.obukhov.trader.trading.model.StrategyType;
@@ -28,21 +29,33 @@ public class TradingStrategyFactory {
     private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     private final ApplicationContext applicationContext;
     private final ExtMarketDataService extMarketDataService;
+    private final MovingAveragesCache movingAveragesCache;
 
     public AbstractTradingStrategy createStrategy(final BotConfig botConfig) {
+        return createStrategy(botConfig, extMarketDataService);
+    }
+
+    /**
+     * Creates strategy, which gets market data from given {@code marketDataService} instead of default one
+     */
+    public AbstractTradingStrategy createStrategy(final BotConfig botConfig, final ExtMarketDataService marketDataService) {
         final StrategyType strategyType = botConfig.strategyType();
         return switch (strategyType) {
             case CONSERVATIVE -> new ConservativeStrategy(strategyType.name());
-            case CROSS -> createCrossStrategy(strategyType.name(), botConfig.strategyParams());
+            case CROSS -> createCrossStrategy(strategyType.name(), botConfig.strategyParams(), marketDataService);
         };
     }
 
-    private CrossStrategy createCrossStrategy(final String name, final Map<String, Object> strategyParams) {
+    private CrossStrategy createCrossStrategy(
+            final String name,
+            final Map<String, Object> strategyParams,
+            final ExtMarketDataService marketDataService
+    ) {
         final CrossStrategyParams crossStrategyParams = getStrategyParams(strategyParams, CrossStrategyParams.class);
         final MovingAverageType movingAverageType = getMovingAverageType(strategyParams);
         final MovingAverager averager = applicationContext.getBean(movingAverageType.getAveragerName(), MovingAverager.class);
         final String fullName = name + " " + movingAverageType;
-        return new CrossStrategy(fullName, crossStrategyParams, extMarketDataService, averager);
+        return new CrossStrategy(fullName, crossStrategyParams, marketDataService, averager, movingAveragesCache);
     }
 
     private MovingAverageType getMovingAverageType(final Map<String, Object> strategyParams) {
@@ -13,4 +13,12 @@ public interface TradingStrategy {
 
     Map<String, Decision> decide(final DecisionsData data, final BotConfig botConfig, final Interval interval);
 
+    /**
+     * @return true if strategy makes no decisions except WAIT for given {@code botConfig} within given {@code interval}
+     * regardless of state of bot, so back test can skip calling {@link #decide} at all. False if it is unknown
+     */
+    default boolean isAlwaysWaiting(final BotConfig botConfig, final Interval interval) {
+        return false;
+    }
+
 }
\ No newline at end of file
@@ -11,8 +11,10 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import ru.obukhov.trader.common.exception.BackTestRejectedException;
 import ru.obukhov.trader.common.exception.InstrumentNotFoundException;
 import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.trading.model.BackTestRejectionReason;
 
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -66,6 +68,19 @@ public class TraderExceptionHandler {
                 .body(createResponseMap(exception));
     }
 
+    @SuppressWarnings("unused")
+    @ExceptionHandler(BackTestRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleException(final BackTestRejectedException exception) {
+        final HttpStatus status = exception.getReason() == BackTestRejectionReason.COST_EXCEEDS_BUDGET
+                ? HttpStatus.BAD_REQUEST
+                : HttpStatus.TOO_MANY_REQUESTS;
+        final Map<String, Object> responseMap = createResponseMap(exception);
+        responseMap.put("reason", exception.getReason());
+        return ResponseEntity
+                .status(status)
+                .body(responseMap);
+    }
+
     private Map<String, Object> createResponseMap(final MethodArgumentNotValidException exception) {
         final List<String> errors = exception.getBindingResult().getAllErrors().stream()
                 .map(ObjectError::getDefaultMessage)
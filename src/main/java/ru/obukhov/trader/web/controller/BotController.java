@@ -1,18 +1,28 @@
 package ru.obukhov.trader.web.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.config.properties.SchedulingProperties;
-import ru.obukhov.trader.trading.backtest.interfaces.BackTester;
+import ru.obukhov.trader.trading.backtest.impl.BackTestCostEstimator;
+import ru.obukhov.trader.trading.backtest.impl.BackTestScheduler;
+import ru.obukhov.trader.trading.backtest.impl.BackTesterImpl;
+import ru.obukhov.trader.trading.model.BackTestCostEstimate;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
 import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestSchedulerStatistics;
 import ru.obukhov.trader.web.model.exchange.BackTestRequest;
 
 import java.util.List;
@@ -24,15 +34,58 @@ import java.util.List;
 @SuppressWarnings("unused")
 public class BotController {
 
-    private final BackTester backTester;
+    static final String CALLER_ID_HEADER = "X-Caller-Id";
+
+    private final BackTestScheduler backTestScheduler;
+    private final BackTestCostEstimator backTestCostEstimator;
+    private final BackTesterImpl localBackTester;
     private final SchedulingProperties schedulingProperties;
 
+    /**
+     * Back tests bot configs from given {@code request} when {@link BackTestScheduler} admits it.
+     * Positions, operations and candles are not returned in response, so results keep only summary by default
+     *
+     * @param callerId identifier of caller for fair queuing of back tests. If null, remote address is used
+     */
     @PostMapping("/back-test")
-    public List<BackTestResult> backTest(@Valid @RequestBody final BackTestRequest request) {
+    public List<BackTestResult> backTest(
+            @Valid @RequestBody final BackTestRequest request,
+            @RequestHeader(name = CALLER_ID_HEADER, required = false) final String callerId,
+            final HttpServletRequest httpServletRequest
+    ) {
+        final Interval interval = DateUtils.getIntervalWithDefaultOffsets(request.getFrom(), request.getTo());
+        final boolean saveToFiles = BooleanUtils.isTrue(request.getSaveToFiles());
+        final BackTestDetailLevel detailLevel = ObjectUtils.defaultIfNull(request.getDetailLevel(), BackTestDetailLevel.SUMMARY);
+        final String effectiveCallerId = StringUtils.hasText(callerId) ? callerId : httpServletRequest.getRemoteAddr();
+
+        return backTestScheduler.test(effectiveCallerId, request.getBotConfigs(), request.getBalanceConfig(), interval, saveToFiles, detailLevel);
+    }
+
+    /**
+     * Estimates cost of back test of every bot config from given {@code request} without back testing and loading of any data
+     */
+    @PostMapping("/back-test/dry-run")
+    public List<BackTestCostEstimate> backTestDryRun(@Valid @RequestBody final BackTestRequest request) {
+        final Interval interval = DateUtils.getIntervalWithDefaultOffsets(request.getFrom(), request.getTo());
+
+        return backTestCostEstimator.estimateBotConfigs(request.getBotConfigs(), interval);
+    }
+
+    @GetMapping("/back-test/scheduler")
+    public BackTestSchedulerStatistics getBackTestSchedulerStatistics() {
+        return backTestScheduler.getStatistics();
+    }
+
+    /**
+     * Back tests bot configs within current process regardless of distributed back test settings.
+     * Called by coordinator of distributed back test
+     */
+    @PostMapping("/back-test/partition")
+    public List<BackTestResult> backTestPartition(@Valid @RequestBody final BackTestRequest request) {
         final Interval interval = DateUtils.getIntervalWithDefaultOffsets(request.getFrom(), request.getTo());
         final boolean saveToFiles = BooleanUtils.isTrue(request.getSaveToFiles());
 
-        return backTester.test(request.getBotConfigs(), request.getBalanceConfig(), interval, saveToFiles);
+        return localBackTester.test(request.getBotConfigs(), request.getBalanceConfig(), interval, saveToFiles, BackTestDetailLevel.SUMMARY);
     }
 
     @PostMapping("/enable-scheduling")
@@ -13,9 +13,18 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.service.interfaces.ExcelService;
+import ru.obukhov.trader.config.ApiCallsRetrying;
+import ru.obukhov.trader.config.ApiCallsThrottling;
+import ru.obukhov.trader.config.PooledManagedChannel;
+import ru.obukhov.trader.config.model.ApiCallsMetrics;
+import ru.obukhov.trader.config.model.ApiChannelMetrics;
+import ru.obukhov.trader.config.model.ApiCallsQueueStatistics;
+import ru.obukhov.trader.config.model.ApiRetryMetrics;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
 import ru.obukhov.trader.market.impl.StatisticsService;
 import ru.obukhov.trader.market.model.InstrumentMarker;
 import ru.obukhov.trader.market.model.MovingAverageType;
+import ru.obukhov.trader.market.model.MovingAveragesCacheStatistics;
 import ru.obukhov.trader.web.model.SharesFiltrationOptions;
 import ru.obukhov.trader.web.model.exchange.FigiesListRequest;
 import ru.obukhov.trader.web.model.exchange.GetCandlesResponse;
@@ -37,6 +46,10 @@ public class StatisticsController {
 
     private final StatisticsService statisticsService;
     private final ExcelService excelService;
+    private final MovingAveragesCache movingAveragesCache;
+    private final ApiCallsThrottling apiCallsThrottling;
+    private final ApiCallsRetrying apiCallsRetrying;
+    private final PooledManagedChannel apiChannel;
 
     @GetMapping("/candles")
     public GetCandlesResponse getCandles(
@@ -74,6 +87,31 @@ public class StatisticsController {
         }
     }
 
+    @GetMapping("/moving-averages-cache")
+    public MovingAveragesCacheStatistics getMovingAveragesCacheStatistics() {
+        return movingAveragesCache.getStatistics();
+    }
+
+    @GetMapping("/api-calls-queues")
+    public List<ApiCallsQueueStatistics> getApiCallsQueuesStatistics() {
+        return apiCallsThrottling.getStatistics();
+    }
+
+    @GetMapping("/api-calls")
+    public List<ApiCallsMetrics> getApiCallsMetrics() {
+        return apiCallsThrottling.getMetrics();
+    }
+
+    @GetMapping("/api-channels")
+    public List<ApiChannelMetrics> getApiChannelsMetrics() {
+        return apiChannel.getMetrics();
+    }
+
+    @GetMapping("/api-retries")
+    public List<ApiRetryMetrics> getApiRetriesMetrics() {
+        return apiCallsRetrying.getMetrics();
+    }
+
     @GetMapping("/capitalization-weights")
     public Map<String, BigDecimal> getCapitalizationWeights(@Valid @RequestBody final FigiesListRequest figiesListRequest) {
         return statisticsService.getCapitalizationWeights(figiesListRequest.getFigies());
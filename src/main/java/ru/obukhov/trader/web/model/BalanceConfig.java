@@ -2,6 +2,8 @@ package ru.obukhov.trader.web.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
@@ -28,6 +30,7 @@ public class BalanceConfig {
     private Map<String, BigDecimal> balanceIncrements;
 
     @Nullable
+    @JsonSerialize(using = ToStringSerializer.class)
     private CronExpression balanceIncrementCron;
 
     @JsonCreator
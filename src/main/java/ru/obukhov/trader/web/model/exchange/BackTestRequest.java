@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
 import ru.obukhov.trader.web.model.BalanceConfig;
 import ru.obukhov.trader.web.model.BotConfig;
 
@@ -23,6 +24,8 @@ public class BackTestRequest {
 
     private Boolean saveToFiles;
 
+    private BackTestDetailLevel detailLevel;
+
     @Valid
     @NotEmpty(message = "botConfigs is mandatory")
     private List<BotConfig> botConfigs;
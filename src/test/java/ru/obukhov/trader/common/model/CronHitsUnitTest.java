@@ -0,0 +1,94 @@
+package ru.obukhov.trader.common.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.scheduling.support.CronExpression;
+import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class CronHitsUnitTest {
+
+    private static final CronExpression MONTHLY = CronExpression.parse("0 0 0 1 * ?");
+
+    // region of tests
+
+    @Test
+    void of_returnsEmpty_whenExpressionIsNull() {
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2021, 1, 1), DateTimeTestData.newDateTime(2022, 1, 1));
+
+        final CronHits hits = CronHits.of(null, interval);
+
+        Assertions.assertSame(CronHits.EMPTY, hits);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0 0 0 1 * ?", "0 0 12 * * MON-FRI", "0 30 * * * ?"})
+    void of_returnsSameHitsAsDateUtils(final String expression) {
+        final CronExpression cronExpression = CronExpression.parse(expression);
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2019, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2024, 1, 1);
+
+        final CronHits hits = CronHits.of(cronExpression, Interval.of(from, to));
+
+        final List<OffsetDateTime> expectedHits = DateUtils.getCronHitsBetweenDates(cronExpression, from, to);
+        Assertions.assertEquals(expectedHits.size(), hits.size());
+        AssertUtils.assertEquals(expectedHits, hits.cursor().next(from, to));
+    }
+
+    // endregion
+
+    @Test
+    void count_returnsHitsWithinInterval_includingFromAndExcludingTo() {
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final CronHits hits = CronHits.of(MONTHLY, Interval.of(from, DateTimeTestData.newDateTime(2022, 1, 1)));
+
+        Assertions.assertEquals(12, hits.size());
+        Assertions.assertEquals(1, hits.count(from, from.plusNanos(1)));
+        Assertions.assertEquals(0, hits.count(from.plusNanos(1), DateTimeTestData.newDateTime(2021, 2, 1)));
+        Assertions.assertEquals(1, hits.count(from.plusNanos(1), DateTimeTestData.newDateTime(2021, 2, 1, 0, 0, 0, 1)));
+        Assertions.assertEquals(3, hits.count(DateTimeTestData.newDateTime(2021, 3, 1), DateTimeTestData.newDateTime(2021, 5, 15)));
+        Assertions.assertEquals(12, hits.count(DateTimeTestData.newDateTime(2020, 1, 1), DateTimeTestData.newDateTime(2023, 1, 1)));
+        Assertions.assertEquals(0, hits.count(DateTimeTestData.newDateTime(2021, 5, 15), DateTimeTestData.newDateTime(2021, 3, 1)));
+    }
+
+    @Test
+    void cursor_returnsEveryHitOnce() {
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2022, 1, 1);
+        final CronHits hits = CronHits.of(MONTHLY, Interval.of(from, to));
+
+        final CronHits.Cursor cursor = hits.cursor();
+        final List<OffsetDateTime> consumedHits = new ArrayList<>();
+        OffsetDateTime previousDateTime = DateTimeTestData.newDateTime(2021, 1, 1, 10);
+        for (OffsetDateTime dateTime = from.plusDays(1); dateTime.isBefore(to); dateTime = dateTime.plusDays(1)) {
+            consumedHits.addAll(cursor.next(previousDateTime, dateTime));
+            previousDateTime = dateTime;
+        }
+        consumedHits.addAll(cursor.next(previousDateTime, to));
+
+        final List<OffsetDateTime> expectedHits = DateUtils.getCronHitsBetweenDates(MONTHLY, DateTimeTestData.newDateTime(2021, 2, 1), to);
+        AssertUtils.assertEquals(expectedHits, consumedHits);
+        Assertions.assertTrue(cursor.next(from, to.plusYears(1)).isEmpty());
+    }
+
+    @Test
+    void cursor_returnsEmptyList_whenToIsNotAfterFrom() {
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final CronHits hits = CronHits.of(MONTHLY, Interval.of(from, DateTimeTestData.newDateTime(2022, 1, 1)));
+
+        final CronHits.Cursor cursor = hits.cursor();
+        final OffsetDateTime june = DateTimeTestData.newDateTime(2021, 6, 1);
+
+        Assertions.assertTrue(cursor.next(june, DateTimeTestData.newDateTime(2021, 3, 1)).isEmpty());
+        Assertions.assertTrue(cursor.next(june, june).isEmpty());
+        AssertUtils.assertEquals(List.of(june), cursor.next(june, june.plusDays(1)));
+    }
+
+}
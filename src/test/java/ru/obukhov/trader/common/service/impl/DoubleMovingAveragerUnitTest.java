@@ -0,0 +1,204 @@
+package ru.obukhov.trader.common.service.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.obukhov.trader.config.properties.MovingAverageProperties;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.model.TestData;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+class DoubleMovingAveragerUnitTest {
+
+    private static final MovingAverageProperties VALIDATION_ENABLED = new MovingAverageProperties(true);
+    private static final MovingAverageProperties VALIDATION_DISABLED = new MovingAverageProperties(false);
+
+    private static Stream<Arguments> getData_forAveragers() {
+        return Stream.of(
+                Arguments.of(
+                        (Function<MovingAverageProperties, DoubleMovingAverager>) DoubleSimpleMovingAverager::new,
+                        new SimpleMovingAverager()
+                ),
+                Arguments.of(
+                        (Function<MovingAverageProperties, DoubleMovingAverager>) DoubleLinearMovingAverager::new,
+                        new LinearMovingAverager()
+                ),
+                Arguments.of(
+                        (Function<MovingAverageProperties, DoubleMovingAverager>) DoubleExponentialMovingAverager::new,
+                        new ExponentialMovingAverager()
+                )
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getAverages_throwsIllegalArgumentException_whenWindowIsNotPositive(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager ignored
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+        final List<BigDecimal> values = TestData.newBigDecimalList(1, 2, 3);
+
+        final Executable executable = () -> averager.getAverages(values, 0, 1);
+        AssertUtils.assertThrowsWithMessage(IllegalArgumentException.class, executable, "window must be positive");
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getAverages_throwsIllegalArgumentException_whenOrderIsNotPositive(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager ignored
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+
+        final Executable executable = () -> averager.createAverage(1, 0);
+        AssertUtils.assertThrowsWithMessage(IllegalArgumentException.class, executable, "order must be positive");
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getAverages_returnsEmptyList_whenValuesAreEmpty(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager ignored
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+
+        Assertions.assertEquals(Collections.emptyList(), averager.getAverages(Collections.emptyList(), 3, 2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getAverages_divergesFromReferenceAveragerWithinErrorBound(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager referenceAverager
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(5000, 1, 100000);
+
+        for (final int window : new int[]{1, 2, 7, 50, 200}) {
+            for (int order = 1; order <= 3; order++) {
+                final List<BigDecimal> expectedAverages = referenceAverager.getAverages(values, window, order);
+                final List<BigDecimal> averages = averager.getAverages(values, window, order);
+
+                Assertions.assertEquals(expectedAverages.size(), averages.size());
+                for (int i = 0; i < averages.size(); i++) {
+                    final double divergence = averages.get(i).subtract(expectedAverages.get(i)).abs().doubleValue();
+                    Assertions.assertTrue(
+                            divergence < 1e-6,
+                            "Divergence " + divergence + " at index " + i + " with window " + window + " and order " + order
+                    );
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void createAverage_returnsSameAveragesAsBatch(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager ignored
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(300, 50, 150);
+
+        final List<BigDecimal> expectedAverages = averager.getAverages(values, 20, 2);
+
+        final MovingAverage average = averager.createAverage(20, 2);
+        final List<BigDecimal> averages = new ArrayList<>(values.size());
+        for (final BigDecimal value : values) {
+            averages.add(average.push(value));
+        }
+
+        // batch passes of simple and linear averagers sum values in different order, so last digit may differ
+        for (int i = 0; i < averages.size(); i++) {
+            Assertions.assertEquals(expectedAverages.get(i).doubleValue(), averages.get(i).doubleValue(), 1e-8);
+        }
+        Assertions.assertSame(averages.getLast(), average.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void createAverage_copy_continuesIndependently(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager ignored
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(300, 50, 150);
+        final List<BigDecimal> otherValues = TestData.newRandomBigDecimalList(100, 50, 150);
+
+        final MovingAverage average = averager.createAverage(20, 2);
+        average.pushAll(values.subList(0, 200));
+        final MovingAverage copy = average.copy();
+        copy.pushAll(otherValues);
+        average.pushAll(values.subList(200, 300));
+
+        final MovingAverage expectedAverage = averager.createAverage(20, 2);
+        Assertions.assertEquals(expectedAverage.pushAll(values), average.get());
+        final MovingAverage expectedCopy = averager.createAverage(20, 2);
+        expectedCopy.pushAll(values.subList(0, 200));
+        Assertions.assertEquals(expectedCopy.pushAll(otherValues), copy.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getMaxDivergence_returnsDivergence_whenValidationEnabled(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager referenceAverager
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_ENABLED);
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(1000, 1, 1000);
+
+        final List<BigDecimal> averages = averager.getAverages(values, 10, 1);
+
+        final List<BigDecimal> expectedAverages = referenceAverager.getAverages(values, 10, 1);
+        double expectedDivergence = 0;
+        for (int i = 0; i < averages.size(); i++) {
+            expectedDivergence = Math.max(expectedDivergence, averages.get(i).subtract(expectedAverages.get(i)).abs().doubleValue());
+        }
+        Assertions.assertEquals(expectedDivergence, averager.getMaxDivergence());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getMaxDivergence_returnsDivergenceOfCreatedAverage_whenValidationEnabled(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager referenceAverager
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_ENABLED);
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(1000, 1, 1000);
+
+        final MovingAverage average = averager.createAverage(10, 2);
+        final MovingAverage expectedAverage = referenceAverager.createAverage(10, 2);
+        double expectedDivergence = 0;
+        for (final BigDecimal value : values) {
+            final BigDecimal divergence = average.push(value).subtract(expectedAverage.push(value)).abs();
+            expectedDivergence = Math.max(expectedDivergence, divergence.doubleValue());
+        }
+
+        Assertions.assertEquals(expectedDivergence, averager.getMaxDivergence());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forAveragers")
+    void getMaxDivergence_returnsZero_whenValidationDisabled(
+            final Function<MovingAverageProperties, DoubleMovingAverager> averagerFactory,
+            final MovingAverager ignored
+    ) {
+        final DoubleMovingAverager averager = averagerFactory.apply(VALIDATION_DISABLED);
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(1000, 1, 1000);
+
+        averager.getAverages(values, 10, 1);
+        averager.createAverage(10, 1).pushAll(values);
+
+        Assertions.assertEquals(0, averager.getMaxDivergence());
+    }
+
+}
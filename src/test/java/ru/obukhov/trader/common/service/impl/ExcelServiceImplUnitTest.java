@@ -35,6 +35,7 @@ import ru.obukhov.trader.test.utils.model.account.TestAccounts;
 import ru.obukhov.trader.test.utils.model.share.TestShare;
 import ru.obukhov.trader.test.utils.model.share.TestShares;
 import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestTimes;
 import ru.obukhov.trader.trading.model.Balances;
 import ru.obukhov.trader.trading.model.Profits;
 import ru.obukhov.trader.trading.model.StrategyType;
@@ -448,6 +449,7 @@ class ExcelServiceImplUnitTest {
                 positions,
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 error
         );
     }
@@ -466,6 +468,7 @@ class ExcelServiceImplUnitTest {
                 positions,
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 null
         );
     }
@@ -485,6 +488,7 @@ class ExcelServiceImplUnitTest {
                 positions,
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 null
         );
     }
@@ -503,6 +507,7 @@ class ExcelServiceImplUnitTest {
                 Collections.emptyList(),
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 null
         );
     }
@@ -523,6 +528,7 @@ class ExcelServiceImplUnitTest {
                 positions,
                 operations,
                 candles,
+                BackTestTimes.ZERO,
                 null
         );
     }
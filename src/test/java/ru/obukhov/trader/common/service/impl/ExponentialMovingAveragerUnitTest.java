@@ -1,15 +1,18 @@
 package ru.obukhov.trader.common.service.impl;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import ru.obukhov.trader.common.util.DecimalUtils;
 import ru.obukhov.trader.test.utils.AssertUtils;
 import ru.obukhov.trader.test.utils.model.TestData;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
@@ -247,4 +250,87 @@ class ExponentialMovingAveragerUnitTest {
 
     // endregion
 
-}
\ No newline at end of file
+    // region createAverage tests
+
+    @ParameterizedTest
+    @CsvSource({"-1, 1, window must be positive", "0, 1, window must be positive", "1, 0, order must be positive", "1, -1, order must be positive"})
+    void createAverage_throwsIllegalArgumentException(final int window, final int order, final String expectedMessage) {
+        final Executable executable = () -> averager.createAverage(window, order);
+        AssertUtils.assertThrowsWithMessage(IllegalArgumentException.class, executable, expectedMessage);
+    }
+
+    @Test
+    void createAverage_returnsNull_whenNoValuesPushed() {
+        Assertions.assertNull(averager.createAverage(3, 2).get());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "2, 1", "5, 1", "20, 1", "1, 2", "3, 2", "7, 3", "50, 2"})
+    void createAverage_returnsSameAveragesAsBatch(final int window, final int order) {
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(200, 50, 150);
+
+        final List<BigDecimal> expectedAverages = averager.getAverages(values, window, order);
+
+        final MovingAverage average = averager.createAverage(window, order);
+        for (int i = 0; i < values.size(); i++) {
+            final BigDecimal pushResult = average.push(values.get(i));
+            AssertUtils.assertEquals(expectedAverages.get(i), pushResult);
+            AssertUtils.assertEquals(expectedAverages.get(i), average.get());
+        }
+    }
+
+    @Test
+    void createAverage_pushAll_returnsLastBatchAverage() {
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(30, 50, 150);
+
+        final BigDecimal average = averager.createAverage(4).pushAll(values);
+
+        AssertUtils.assertEquals(averager.getAverages(values, 4).getLast(), average);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "3"})
+    void createAverage_copy_continuesIndependently(final int order) {
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(30, 50, 150);
+        final List<BigDecimal> otherValues = TestData.newRandomBigDecimalList(10, 50, 150);
+
+        final MovingAverage average = averager.createAverage(4, order);
+        average.pushAll(values.subList(0, 20));
+        final MovingAverage copy = average.copy();
+        copy.pushAll(otherValues);
+        average.pushAll(values.subList(20, 30));
+
+        AssertUtils.assertEquals(averager.getAverages(values, 4, order).getLast(), average.get());
+        final List<BigDecimal> copyValues = new ArrayList<>(values.subList(0, 20));
+        copyValues.addAll(otherValues);
+        AssertUtils.assertEquals(averager.getAverages(copyValues, 4, order).getLast(), copy.get());
+    }
+
+    // endregion
+
+    // region getAverages with multiple windows tests
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "3"})
+    void getAverages_withMultipleWindows_returnsSameAveragesAsSingleWindow(final int order) {
+        final List<BigDecimal> values = TestData.newRandomBigDecimalList(100, 50, 150);
+        final List<Integer> windows = List.of(3, 1, 20, 150);
+
+        final List<List<BigDecimal>> averages = averager.getAverages(values, windows, order);
+
+        Assertions.assertEquals(windows.size(), averages.size());
+        for (int i = 0; i < windows.size(); i++) {
+            AssertUtils.assertEquals(averager.getAverages(values, windows.get(i), order), averages.get(i));
+        }
+    }
+
+    @Test
+    void getAverages_withMultipleWindows_returnsEmptyLists_whenValuesAreEmpty() {
+        final List<List<BigDecimal>> averages = averager.getAverages(Collections.emptyList(), List.of(3, 5), 1);
+
+        Assertions.assertEquals(List.of(Collections.emptyList(), Collections.emptyList()), averages);
+    }
+
+    // endregion
+
+}
@@ -0,0 +1,183 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.time.Duration;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveRateLimitUnitTest {
+
+    private static final Duration DEFAULT_RESET_DELAY = Duration.ofSeconds(60);
+
+    @Mock
+    private PrioritizedRateLimiter limiter;
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenMaxLimitIsLowerThanLimit() {
+        Mockito.when(limiter.getLimit()).thenReturn(10);
+
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> new AdaptiveRateLimit(limiter, 9, DEFAULT_RESET_DELAY),
+                "maxLimit can't be lower than current limit"
+        );
+    }
+
+    // region onSuccess tests
+
+    @Test
+    void onSuccess_setsLimitReportedByServer() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(10, 20);
+
+        adaptiveLimit.onSuccess(new AdaptiveRateLimit.Quota(5, 4, Duration.ofSeconds(30)));
+
+        Mockito.verify(limiter).setLimit(5);
+        Mockito.verify(limiter, Mockito.never()).pause(Mockito.any());
+        Assertions.assertEquals(5, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onSuccess_boundsLimitReportedByServer_byMaxLimit() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(10, 20);
+
+        adaptiveLimit.onSuccess(new AdaptiveRateLimit.Quota(100, null, null));
+
+        Mockito.verify(limiter).setLimit(20);
+        Assertions.assertEquals(20, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onSuccess_increasesLimitByOne_afterLimitSuccessfulCalls() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(6, 20);
+        adaptiveLimit.onRejection(AdaptiveRateLimit.Quota.UNKNOWN);
+        Mockito.verify(limiter).setLimit(3);
+
+        for (int i = 0; i < 2; i++) {
+            adaptiveLimit.onSuccess(AdaptiveRateLimit.Quota.UNKNOWN);
+        }
+        Mockito.verify(limiter, Mockito.never()).setLimit(4);
+
+        adaptiveLimit.onSuccess(AdaptiveRateLimit.Quota.UNKNOWN);
+        Mockito.verify(limiter).setLimit(4);
+
+        for (int i = 0; i < 4; i++) {
+            adaptiveLimit.onSuccess(AdaptiveRateLimit.Quota.UNKNOWN);
+        }
+        Mockito.verify(limiter).setLimit(5);
+        Assertions.assertEquals(5, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onSuccess_doesNotIncreaseLimit_aboveInitialLimit_whenServerDoesNotReportLimit() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(2, 20);
+
+        for (int i = 0; i < 10; i++) {
+            adaptiveLimit.onSuccess(AdaptiveRateLimit.Quota.UNKNOWN);
+        }
+
+        Mockito.verify(limiter, Mockito.never()).setLimit(Mockito.anyInt());
+        Assertions.assertEquals(2, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onSuccess_doesNotIncreaseLimit_aboveLimitReportedByServer() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(4, 20);
+        adaptiveLimit.onSuccess(new AdaptiveRateLimit.Quota(6, null, null));
+        Mockito.verify(limiter).setLimit(6);
+
+        for (int i = 0; i < 100; i++) {
+            adaptiveLimit.onSuccess(AdaptiveRateLimit.Quota.UNKNOWN);
+        }
+
+        Mockito.verify(limiter, Mockito.never()).setLimit(7);
+        Assertions.assertEquals(6, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onSuccess_doesNotIncreaseLimit_aboveMaxLimit() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(2, 2);
+
+        for (int i = 0; i < 10; i++) {
+            adaptiveLimit.onSuccess(AdaptiveRateLimit.Quota.UNKNOWN);
+        }
+
+        Mockito.verify(limiter, Mockito.never()).setLimit(Mockito.anyInt());
+        Assertions.assertEquals(2, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onSuccess_pausesTillReset_whenQuotaIsExhausted() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(10, 20);
+        final Duration reset = Duration.ofSeconds(3);
+
+        adaptiveLimit.onSuccess(new AdaptiveRateLimit.Quota(null, 0, reset));
+
+        Mockito.verify(limiter).pause(reset);
+        Assertions.assertEquals(10, adaptiveLimit.getLimit());
+    }
+
+    // endregion
+
+    // region onRejection tests
+
+    @Test
+    void onRejection_halvesLimitAndPausesForDefaultDelay_whenServerDoesNotReportQuota() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(10, 20);
+
+        adaptiveLimit.onRejection(AdaptiveRateLimit.Quota.UNKNOWN);
+
+        Mockito.verify(limiter).setLimit(5);
+        Mockito.verify(limiter).pause(DEFAULT_RESET_DELAY);
+        Assertions.assertEquals(5, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onRejection_setsLimitAndPausesTillReset_reportedByServer() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(10, 20);
+        final Duration reset = Duration.ofSeconds(7);
+
+        adaptiveLimit.onRejection(new AdaptiveRateLimit.Quota(8, 0, reset));
+
+        Mockito.verify(limiter).setLimit(8);
+        Mockito.verify(limiter).pause(reset);
+        Assertions.assertEquals(8, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onRejection_doesNotHalveLimitAgain_withinPause() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(10, 20);
+
+        adaptiveLimit.onRejection(AdaptiveRateLimit.Quota.UNKNOWN);
+        adaptiveLimit.onRejection(AdaptiveRateLimit.Quota.UNKNOWN);
+        adaptiveLimit.onRejection(AdaptiveRateLimit.Quota.UNKNOWN);
+
+        Mockito.verify(limiter).setLimit(5);
+        Mockito.verify(limiter, Mockito.never()).setLimit(2);
+        Assertions.assertEquals(5, adaptiveLimit.getLimit());
+    }
+
+    @Test
+    void onRejection_keepsLimitPositive() {
+        final AdaptiveRateLimit adaptiveLimit = newAdaptiveLimit(1, 20);
+
+        adaptiveLimit.onRejection(AdaptiveRateLimit.Quota.UNKNOWN);
+
+        Mockito.verify(limiter, Mockito.never()).setLimit(Mockito.anyInt());
+        Mockito.verify(limiter).pause(DEFAULT_RESET_DELAY);
+        Assertions.assertEquals(1, adaptiveLimit.getLimit());
+    }
+
+    // endregion
+
+    private AdaptiveRateLimit newAdaptiveLimit(final int limit, final int maxLimit) {
+        Mockito.when(limiter.getLimit()).thenReturn(limit);
+        return new AdaptiveRateLimit(limiter, maxLimit, DEFAULT_RESET_DELAY);
+    }
+
+}
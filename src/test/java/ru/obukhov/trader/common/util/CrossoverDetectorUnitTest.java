@@ -0,0 +1,113 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.obukhov.trader.trading.model.Crossover;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class CrossoverDetectorUnitTest {
+
+    @Test
+    void getCrossoverIfLast_returnsNone_whenLessThanTwoPairsPushed() {
+        final CrossoverDetector detector = new CrossoverDetector();
+
+        Assertions.assertEquals(Crossover.NONE, detector.getCrossoverIfLast(2));
+
+        detector.push(BigDecimal.ONE, BigDecimal.TEN);
+
+        Assertions.assertEquals(Crossover.NONE, detector.getCrossoverIfLast(2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "5"})
+    void getCrossoverIfLast_throwsIndexOutOfBoundsException_whenIndexIsOutOfRange(final int index) {
+        final CrossoverDetector detector = new CrossoverDetector();
+        for (int i = 0; i < 5; i++) {
+            detector.push(BigDecimal.valueOf(i), BigDecimal.valueOf(5 - i));
+        }
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> detector.getCrossoverIfLast(index));
+    }
+
+    @Test
+    void getCrossoverIfLast_returnsAbove_whenCrossoverFromAboveIsLast() {
+        final CrossoverDetector detector = newDetector(List.of(1, 2, 3, 4, 5), List.of(0, 1, 4, 5, 7));
+
+        Assertions.assertEquals(Crossover.ABOVE, detector.getCrossoverIfLast(2));
+        Assertions.assertEquals(Crossover.NONE, detector.getCrossoverIfLast(3));
+    }
+
+    @Test
+    void getCrossoverIfLast_returnsBelow_whenCrossoverFromBelowIsLast() {
+        final CrossoverDetector detector = newDetector(List.of(0, 1, 4, 5, 7), List.of(1, 2, 3, 4, 5));
+
+        Assertions.assertEquals(Crossover.BELOW, detector.getCrossoverIfLast(2));
+        Assertions.assertEquals(Crossover.NONE, detector.getCrossoverIfLast(1));
+    }
+
+    @Test
+    void getCrossoverIfLast_returnsNone_whenTouchFollowsCrossover() {
+        final CrossoverDetector detector = newDetector(List.of(1, 2, 3, 4, 5), List.of(0, 1, 4, 4, 7));
+
+        Assertions.assertEquals(Crossover.NONE, detector.getCrossoverIfLast(2));
+    }
+
+    @Test
+    void getCrossoverIfLast_returnsNone_whenCrossoverFollowsTouch() {
+        final CrossoverDetector detector = newDetector(List.of(1, 2, 3, 4, 5), List.of(0, 2, 4, 5, 7));
+
+        Assertions.assertEquals(Crossover.NONE, detector.getCrossoverIfLast(2));
+    }
+
+    @Test
+    void getCrossoverIfLast_returnsSameResultAsFullRescan_forEveryIndexAndSize() {
+        final Random random = new Random(42);
+        for (int attempt = 0; attempt < 100; attempt++) {
+            final List<BigDecimal> values1 = new ArrayList<>();
+            final List<BigDecimal> values2 = new ArrayList<>();
+            final CrossoverDetector detector = new CrossoverDetector();
+            for (int size = 1; size <= 30; size++) {
+                // small values give a lot of touches and crossovers
+                final BigDecimal value1 = BigDecimal.valueOf(random.nextInt(4));
+                final BigDecimal value2 = BigDecimal.valueOf(random.nextInt(4));
+                values1.add(value1);
+                values2.add(value2);
+                detector.push(value1, value2);
+
+                for (int index = 1; index < size; index++) {
+                    final Crossover expectedCrossover = TrendUtils.getCrossoverIfLast(values1, values2, index);
+                    Assertions.assertEquals(expectedCrossover, detector.getCrossoverIfLast(index), values1 + " " + values2 + " " + index);
+                }
+            }
+        }
+    }
+
+    @Test
+    void copy_continuesIndependently() {
+        final CrossoverDetector detector = newDetector(List.of(1, 2, 3), List.of(0, 1, 4));
+
+        final CrossoverDetector copy = detector.copy();
+        copy.push(BigDecimal.valueOf(5), BigDecimal.valueOf(4));
+        detector.push(BigDecimal.valueOf(4), BigDecimal.valueOf(5));
+
+        Assertions.assertEquals(4, copy.size());
+        Assertions.assertEquals(4, detector.size());
+        Assertions.assertEquals(Crossover.BELOW, copy.getCrossoverIfLast(3));
+        Assertions.assertEquals(Crossover.ABOVE, detector.getCrossoverIfLast(2));
+    }
+
+    private static CrossoverDetector newDetector(final List<Integer> values1, final List<Integer> values2) {
+        final CrossoverDetector detector = new CrossoverDetector();
+        for (int i = 0; i < values1.size(); i++) {
+            detector.push(BigDecimal.valueOf(values1.get(i)), BigDecimal.valueOf(values2.get(i)));
+        }
+        return detector;
+    }
+
+}
@@ -0,0 +1,175 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.obukhov.trader.common.model.Point;
+import ru.obukhov.trader.test.utils.model.TestData;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+class ExtremesDetectorUnitTest {
+
+    @Test
+    void push_reportsExtremum_whenNextValueMovesAwayFromIt() {
+        final List<Integer> extremes = new ArrayList<>();
+        final ExtremesDetector detector = ExtremesDetector.ofMaxima((index, value) -> extremes.add(index));
+
+        detector.push(10);
+        detector.push(30);
+        detector.push(30);
+        Assertions.assertEquals(List.of(), extremes);
+
+        detector.push(20);
+        Assertions.assertEquals(List.of(2), extremes);
+
+        detector.push(15);
+        Assertions.assertEquals(List.of(2), extremes);
+        Assertions.assertEquals(5, detector.size());
+    }
+
+    @Test
+    void finish_reportsExtremumAtLastValue_whenValuesAreGrowing() {
+        final List<Integer> extremes = new ArrayList<>();
+        final ExtremesDetector detector = ExtremesDetector.ofMinima((index, value) -> extremes.add(index));
+
+        detector.push(30);
+        detector.push(10);
+        detector.push(20);
+        detector.push(5);
+        Assertions.assertEquals(List.of(1), extremes);
+
+        detector.finish();
+        Assertions.assertEquals(List.of(1, 3), extremes);
+    }
+
+    @Test
+    void finish_reportsNothing_whenNoValuesPushed() {
+        final List<Integer> extremes = new ArrayList<>();
+        final ExtremesDetector detector = ExtremesDetector.ofMaxima((index, value) -> extremes.add(index));
+
+        detector.finish();
+
+        Assertions.assertEquals(List.of(), extremes);
+    }
+
+    @Test
+    void push_throwsIllegalStateException_whenFinished() {
+        final ExtremesDetector detector = ExtremesDetector.ofMaxima((index, value) -> {
+        });
+        detector.finish();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> detector.push(1));
+        Assertions.assertThrows(IllegalStateException.class, detector::finish);
+    }
+
+    @Test
+    void listener_receivesRestraintLines() {
+        final List<List<Double>> lines = new ArrayList<>();
+        final ExtremesDetector detector = ExtremesDetector.ofMinima(new ExtremesDetector.Listener() {
+            @Override
+            public void onExtremum(final int index, final double value) {
+            }
+
+            @Override
+            public void onRestraintLine(
+                    final int startIndex,
+                    final double startValue,
+                    final int extremumIndex,
+                    final double extremumValue,
+                    final int endIndex
+            ) {
+                lines.add(List.of((double) startIndex, startValue, (double) extremumIndex, extremumValue, (double) endIndex));
+            }
+        });
+
+        for (final double value : new double[]{10.0, 15.0, 14.0, 11.0, 12.0, 13.0, 14.0, 14.0, 12.0, 16.0}) {
+            detector.push(value);
+        }
+        detector.finish();
+
+        final List<List<Double>> expectedLines = List.of(
+                List.of(0.0, 10.0, 3.0, 11.0, 6.0),
+                List.of(3.0, 11.0, 8.0, 12.0, 13.0)
+        );
+        Assertions.assertEquals(expectedLines, lines);
+    }
+
+    @Test
+    void getLineValue() {
+        Assertions.assertEquals(10.0, ExtremesDetector.getLineValue(0, 10, 3, 11, 0));
+        Assertions.assertEquals(11.0, ExtremesDetector.getLineValue(0, 10, 3, 11, 3));
+        Assertions.assertEquals(12.0, ExtremesDetector.getLineValue(0, 10, 3, 11, 6));
+        Assertions.assertEquals(11.4, ExtremesDetector.getLineValue(3, 11, 8, 12, 5), 1e-9);
+    }
+
+    @Test
+    void extremesAndLines_areSameAsTrendUtils_forRandomValues() {
+        final Random random = new Random(42);
+        final OffsetDateTime startTime = OffsetDateTime.now();
+        for (int attempt = 0; attempt < 200; attempt++) {
+            final int size = random.nextInt(40);
+            final double[] values = new double[size];
+            final List<OffsetDateTime> times = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                // small values give a lot of equal neighbours
+                values[i] = random.nextInt(5);
+                times.add(startTime.plusMinutes(i));
+            }
+            final List<BigDecimal> bigDecimalValues = TestData.newBigDecimalList(Arrays.stream(values).boxed().toList());
+
+            final boolean maxima = random.nextBoolean();
+            final Comparator<BigDecimal> comparator = maxima ? Comparator.naturalOrder() : Comparator.reverseOrder();
+            final List<Integer> expectedExtremes = TrendUtils.getLocalExtremes(bigDecimalValues, comparator);
+            final List<List<Point>> expectedLines = TrendUtils.getRestraintLines(times, bigDecimalValues, expectedExtremes);
+
+            final List<Integer> extremes = new ArrayList<>();
+            final List<List<Point>> lines = new ArrayList<>();
+            final ExtremesDetector.Listener listener = new ExtremesDetector.Listener() {
+                @Override
+                public void onExtremum(final int index, final double value) {
+                    extremes.add(index);
+                }
+
+                @Override
+                public void onRestraintLine(
+                        final int startIndex,
+                        final double startValue,
+                        final int extremumIndex,
+                        final double extremumValue,
+                        final int endIndex
+                ) {
+                    final List<Point> points = new ArrayList<>();
+                    for (int x = startIndex; x <= Math.min(endIndex, size - 1); x++) {
+                        final double value = ExtremesDetector.getLineValue(startIndex, startValue, extremumIndex, extremumValue, x);
+                        points.add(Point.of(times.get(x), value));
+                    }
+                    lines.add(points);
+                }
+            };
+            final ExtremesDetector detector = maxima ? ExtremesDetector.ofMaxima(listener) : ExtremesDetector.ofMinima(listener);
+            for (final double value : values) {
+                detector.push(value);
+            }
+            detector.finish();
+
+            Assertions.assertEquals(expectedExtremes, extremes);
+            Assertions.assertEquals(expectedLines.size(), lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                final List<Point> expectedLine = expectedLines.get(i);
+                final List<Point> line = lines.get(i);
+                Assertions.assertEquals(expectedLine.size(), line.size());
+                for (int j = 0; j < line.size(); j++) {
+                    Assertions.assertEquals(expectedLine.get(j).getTime(), line.get(j).getTime());
+                    Assertions.assertEquals(expectedLine.get(j).getValue().doubleValue(), line.get(j).getValue().doubleValue(), 1e-6);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+class FutureUtilsUnitTest {
+
+    // region allOf tests
+
+    @Test
+    void allOf_list_returnsResultsInOrderOfFutures() {
+        final CompletableFuture<Integer> future1 = new CompletableFuture<>();
+        final CompletableFuture<Integer> future2 = new CompletableFuture<>();
+
+        final CompletableFuture<List<Integer>> result = FutureUtils.allOf(List.of(future1, future2));
+
+        Assertions.assertFalse(result.isDone());
+        future2.complete(2);
+        Assertions.assertFalse(result.isDone());
+        future1.complete(1);
+        Assertions.assertEquals(List.of(1, 2), result.join());
+    }
+
+    @Test
+    void allOf_list_completesExceptionally_whenAnyFutureFailed() {
+        final IllegalStateException exception = new IllegalStateException("test");
+        final List<CompletableFuture<Integer>> futures = List.of(
+                CompletableFuture.completedFuture(1),
+                CompletableFuture.failedFuture(exception)
+        );
+
+        final CompletableFuture<List<Integer>> result = FutureUtils.allOf(futures);
+
+        final CompletionException actualException = Assertions.assertThrows(CompletionException.class, result::join);
+        Assertions.assertSame(exception, actualException.getCause());
+    }
+
+    @Test
+    void allOf_map_returnsResultsInOrderOfKeys() {
+        final Map<String, CompletableFuture<Integer>> futures = new LinkedHashMap<>();
+        futures.put("b", CompletableFuture.completedFuture(2));
+        futures.put("a", CompletableFuture.completedFuture(1));
+
+        final SequencedMap<String, Integer> result = FutureUtils.allOf(futures).join();
+
+        Assertions.assertEquals(List.of("b", "a"), List.copyOf(result.keySet()));
+        Assertions.assertEquals(2, result.get("b"));
+        Assertions.assertEquals(1, result.get("a"));
+    }
+
+    @Test
+    void allOf_map_returnsEmptyMap_whenNoFutures() {
+        final SequencedMap<String, Integer> result = FutureUtils.allOf(Map.<String, CompletableFuture<Integer>>of()).join();
+
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    // endregion
+
+    // region join tests
+
+    @Test
+    void join_rethrowsRuntimeCause() {
+        final IllegalStateException exception = new IllegalStateException("test");
+        final CompletableFuture<Integer> future = CompletableFuture.failedFuture(exception);
+
+        final IllegalStateException actualException = Assertions.assertThrows(IllegalStateException.class, () -> FutureUtils.join(future));
+        Assertions.assertSame(exception, actualException);
+    }
+
+    @Test
+    void join_throwsCompletionException_whenCauseIsChecked() {
+        final IOException exception = new IOException("test");
+        final CompletableFuture<Integer> future = CompletableFuture.failedFuture(exception);
+
+        final CompletionException actualException = Assertions.assertThrows(CompletionException.class, () -> FutureUtils.join(future));
+        Assertions.assertSame(exception, actualException.getCause());
+    }
+
+    // endregion
+
+}
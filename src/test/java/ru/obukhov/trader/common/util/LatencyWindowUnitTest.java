@@ -0,0 +1,67 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+class LatencyWindowUnitTest {
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenMinCountIsGreaterThanCapacity() {
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> new LatencyWindow(10, 11),
+                "minCount must be positive and not greater than capacity"
+        );
+    }
+
+    @Test
+    void getPercentileNanos_returnsMinusOne_whenNotEnoughDurationsRecorded() {
+        final LatencyWindow window = new LatencyWindow(10, 3);
+
+        window.record(100);
+        window.record(200);
+
+        Assertions.assertEquals(-1, window.getPercentileNanos(0.95));
+    }
+
+    @Test
+    void getPercentileNanos_returnsPercentileOfRecordedDurations() {
+        final LatencyWindow window = new LatencyWindow(100, 1);
+
+        for (int i = 100; i > 0; i--) {
+            window.record(i);
+        }
+
+        Assertions.assertEquals(95, window.getPercentileNanos(0.95));
+        Assertions.assertEquals(50, window.getPercentileNanos(0.5));
+        Assertions.assertEquals(100, window.getPercentileNanos(1));
+        Assertions.assertEquals(1, window.getPercentileNanos(0));
+    }
+
+    @Test
+    void getPercentileNanos_forgetsDurationsOutOfWindow() {
+        final LatencyWindow window = new LatencyWindow(3, 3);
+
+        window.record(1000);
+        window.record(1000);
+        window.record(1000);
+        window.record(10);
+        window.record(20);
+        window.record(30);
+
+        Assertions.assertEquals(30, window.getPercentileNanos(1));
+    }
+
+    @Test
+    void getPercentileNanos_throwsIllegalArgumentException_whenPercentileIsOutOfRange() {
+        final LatencyWindow window = new LatencyWindow(3, 1);
+
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> window.getPercentileNanos(1.5),
+                "percentile must be in range [0, 1]"
+        );
+    }
+
+}
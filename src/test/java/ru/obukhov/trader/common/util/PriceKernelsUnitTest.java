@@ -0,0 +1,141 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.model.TestData;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Tests both scalar kernels and kernels returned by {@link PriceKernels#getInstance()},
+ * which are vectorized when tests are run with {@code vector} Maven profile
+ */
+class PriceKernelsUnitTest {
+
+    /**
+     * Error bound of kernels for values below 150 and windows up to 2000 is below {@code 2000 * 2^-49 * 150 < 10^-9}
+     */
+    private static final double MAX_ERROR = 1e-9;
+
+    static Stream<Arguments> getData_forKernels() {
+        return Stream.of(
+                Arguments.of(new ScalarPriceKernels()),
+                Arguments.of(PriceKernels.getInstance())
+        );
+    }
+
+    static Stream<Arguments> getData_forKernelsAndWindows() {
+        return getData_forKernels()
+                .flatMap(arguments -> Stream.of(1, 2, 3, 4, 5, 7, 8, 16, 17, 50, 1000, 2000)
+                        .map(window -> Arguments.of(arguments.get()[0], window)));
+    }
+
+    // region getSimpleMovingAverages tests
+
+    @ParameterizedTest
+    @MethodSource("getData_forKernelsAndWindows")
+    void getSimpleMovingAverages_returnsExactAveragesWithinErrorBound(final PriceKernels kernels, final int window) {
+        assertAveragesEqual(window, false, (values, averages) -> kernels.getSimpleMovingAverages(values, window, averages));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forKernels")
+    void getSimpleMovingAverages_calculatesInPlace(final PriceKernels kernels) {
+        final double[] values = newRandomValues(100);
+        final double[] expectedAverages = new double[values.length];
+        kernels.getSimpleMovingAverages(values, 10, expectedAverages);
+
+        kernels.getSimpleMovingAverages(values, 10, values);
+
+        Assertions.assertArrayEquals(expectedAverages, values);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forKernels")
+    void getSimpleMovingAverages_throwsIllegalArgumentException_whenWindowIsNotPositive(final PriceKernels kernels) {
+        final Executable executable = () -> kernels.getSimpleMovingAverages(new double[3], 0, new double[3]);
+        AssertUtils.assertThrowsWithMessage(IllegalArgumentException.class, executable, "window must be positive");
+    }
+
+    // endregion
+
+    // region getLinearMovingAverages tests
+
+    @ParameterizedTest
+    @MethodSource("getData_forKernelsAndWindows")
+    void getLinearMovingAverages_returnsExactAveragesWithinErrorBound(final PriceKernels kernels, final int window) {
+        assertAveragesEqual(window, true, (values, averages) -> kernels.getLinearMovingAverages(values, window, averages));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forKernels")
+    void getLinearMovingAverages_calculatesInPlace(final PriceKernels kernels) {
+        final double[] values = newRandomValues(100);
+        final double[] expectedAverages = new double[values.length];
+        kernels.getLinearMovingAverages(values, 10, expectedAverages);
+
+        kernels.getLinearMovingAverages(values, 10, values);
+
+        Assertions.assertArrayEquals(expectedAverages, values);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getData_forKernels")
+    void getLinearMovingAverages_throwsIllegalArgumentException_whenAveragesAreShorterThanValues(final PriceKernels kernels) {
+        final Executable executable = () -> kernels.getLinearMovingAverages(new double[3], 1, new double[2]);
+        AssertUtils.assertThrowsWithMessage(IllegalArgumentException.class, executable, "averages must be not shorter than values");
+    }
+
+    // endregion
+
+    // region getInstance tests
+
+    @Test
+    void getInstance_returnsSameInstance() {
+        Assertions.assertSame(PriceKernels.getInstance(), PriceKernels.getInstance());
+    }
+
+    // endregion
+
+    private static void assertAveragesEqual(final int window, final boolean weighted, final BiConsumer<double[], double[]> kernel) {
+        final double[] values = newRandomValues(1500);
+
+        final double[] averages = new double[values.length];
+        kernel.accept(values, averages);
+
+        for (int i = 0; i < values.length; i++) {
+            final double error = Math.abs(getExactAverage(values, i, window, weighted) - averages[i]);
+            Assertions.assertTrue(error < MAX_ERROR, "Error " + error + " at index " + i);
+        }
+    }
+
+    /**
+     * @return average of window ending at given {@code index} calculated without rounding of intermediate results
+     */
+    private static double getExactAverage(final double[] values, final int index, final int window, final boolean weighted) {
+        final int count = Math.min(window, index + 1);
+        BigDecimal sum = BigDecimal.ZERO;
+        long divisor = 0;
+        for (int i = 0; i < count; i++) {
+            final int weight = weighted ? count - i : 1;
+            sum = sum.add(new BigDecimal(values[index - i]).multiply(BigDecimal.valueOf(weight)));
+            divisor += weight;
+        }
+        return sum.divide(BigDecimal.valueOf(divisor), MathContext.DECIMAL128).doubleValue();
+    }
+
+    private static double[] newRandomValues(final int size) {
+        return TestData.newRandomBigDecimalList(size, 50, 150).stream()
+                .mapToDouble(BigDecimal::doubleValue)
+                .toArray();
+    }
+
+}
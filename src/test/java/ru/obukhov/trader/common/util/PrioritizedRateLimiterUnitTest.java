@@ -0,0 +1,246 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class PrioritizedRateLimiterUnitTest {
+
+    private static final int LIVE = 0;
+    private static final int INTERACTIVE = 1;
+    private static final int BACKGROUND = 2;
+
+    // region constructor tests
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenSharesAreEmpty() {
+        final Duration interval = Duration.ZERO;
+
+        final IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new PrioritizedRateLimiter(1, interval)
+        );
+
+        Assertions.assertEquals("shares can't be empty", exception.getMessage());
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenShareIsGreaterThanOne() {
+        final Duration interval = Duration.ZERO;
+
+        final IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new PrioritizedRateLimiter(1, interval, 1.0, 1.1)
+        );
+
+        Assertions.assertEquals("share must be within (0, 1]", exception.getMessage());
+    }
+
+    // endregion
+
+    @Test
+    void acquire_returnsImmediately_whilePermitsAreAvailable() {
+        final PrioritizedRateLimiter limiter = newLimiter(3, Duration.ofSeconds(10));
+
+        final Duration elapsed = ExecutionUtils.run(() -> limiter.acquire(INTERACTIVE), 3);
+
+        Assertions.assertTrue(elapsed.toMillis() < 50, "elapsed " + elapsed);
+        Assertions.assertEquals(3, limiter.getPendingCount());
+    }
+
+    @Test
+    void acquire_grantsPermitsInPriorityOrder() throws Exception {
+        final PrioritizedRateLimiter limiter = newLimiter(1, Duration.ZERO);
+        final PrioritizedRateLimiter.Permit permit = limiter.acquire(LIVE);
+        final List<Integer> order = new ArrayList<>();
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (final int priority : new int[]{BACKGROUND, INTERACTIVE, BACKGROUND, LIVE, INTERACTIVE}) {
+            futures.add(limiter.acquireAsync(priority).thenAccept(acquired -> {
+                synchronized (order) {
+                    order.add(priority);
+                }
+                acquired.release();
+            }));
+        }
+
+        permit.release();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of(LIVE, INTERACTIVE, INTERACTIVE, BACKGROUND, BACKGROUND), order);
+    }
+
+    @Test
+    void acquire_keepsRestOfLimitForHigherPriorities_whenShareOfLowerPriorityIsExhausted() {
+        final PrioritizedRateLimiter limiter = newLimiter(4, Duration.ofSeconds(10));
+
+        limiter.acquire(BACKGROUND);
+        limiter.acquire(BACKGROUND);
+        final CompletableFuture<PrioritizedRateLimiter.Permit> background = limiter.acquireAsync(BACKGROUND);
+
+        Assertions.assertFalse(background.isDone());
+        Assertions.assertTrue(limiter.acquireAsync(LIVE).isDone());
+        Assertions.assertTrue(limiter.acquireAsync(INTERACTIVE).isDone());
+        Assertions.assertFalse(limiter.acquireAsync(LIVE).isDone());
+    }
+
+    @Test
+    void acquire_waitsForIntervalAfterRelease() {
+        final long interval = 300;
+        final PrioritizedRateLimiter limiter = newLimiter(1, Duration.ofMillis(interval));
+        limiter.acquire(LIVE).release();
+
+        final Duration elapsed = ExecutionUtils.run(() -> limiter.acquire(LIVE));
+
+        Assertions.assertTrue(elapsed.toMillis() >= interval - 20, "elapsed " + elapsed);
+        final PrioritizedRateLimiter.Statistics statistics = limiter.getStatistics().get(LIVE);
+        Assertions.assertEquals(0, statistics.waiting());
+        Assertions.assertEquals(2, statistics.granted());
+        Assertions.assertTrue(statistics.maxWaitMillis() >= interval - 20, "maxWaitMillis " + statistics.maxWaitMillis());
+        Assertions.assertTrue(statistics.averageWaitMillis() <= statistics.maxWaitMillis());
+    }
+
+    @Test
+    void getStatistics_returnsWaitingCalls() {
+        final PrioritizedRateLimiter limiter = newLimiter(1, Duration.ofSeconds(10));
+        limiter.acquire(LIVE);
+        limiter.acquireAsync(INTERACTIVE);
+        limiter.acquireAsync(INTERACTIVE);
+
+        final List<PrioritizedRateLimiter.Statistics> statistics = limiter.getStatistics();
+
+        Assertions.assertEquals(3, statistics.size());
+        Assertions.assertEquals(0, statistics.get(LIVE).waiting());
+        Assertions.assertEquals(1, statistics.get(LIVE).granted());
+        Assertions.assertEquals(2, statistics.get(INTERACTIVE).waiting());
+        Assertions.assertEquals(0, statistics.get(INTERACTIVE).granted());
+        Assertions.assertEquals(0, statistics.get(BACKGROUND).waiting());
+        Assertions.assertEquals(3, limiter.getPendingCount());
+        Assertions.assertEquals(2, limiter.getWaitingCount());
+        Assertions.assertEquals(1, limiter.getUsedCount());
+    }
+
+    // region setLimit tests
+
+    @Test
+    void setLimit_throwsIllegalArgumentException_whenLimitIsNotPositive() {
+        final PrioritizedRateLimiter limiter = newLimiter(1, Duration.ofSeconds(10));
+
+        final IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class, () -> limiter.setLimit(0));
+
+        Assertions.assertEquals("limit must be positive", exception.getMessage());
+    }
+
+    @Test
+    void setLimit_grantsPermitToWaitingCall_whenLimitIsIncreased() throws Exception {
+        final PrioritizedRateLimiter limiter = newLimiter(1, Duration.ofSeconds(10));
+        limiter.acquire(LIVE);
+        final CompletableFuture<PrioritizedRateLimiter.Permit> future = limiter.acquireAsync(LIVE);
+        Assertions.assertFalse(future.isDone());
+
+        limiter.setLimit(2);
+
+        Assertions.assertNotNull(future.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, limiter.getLimit());
+        Assertions.assertFalse(limiter.acquireAsync(LIVE).isDone());
+    }
+
+    @Test
+    void setLimit_keepsAcquiredPermits_whenLimitIsDecreased() {
+        final PrioritizedRateLimiter limiter = newLimiter(3, Duration.ofSeconds(10));
+        limiter.acquire(LIVE);
+
+        limiter.setLimit(1);
+
+        Assertions.assertEquals(1, limiter.getLimit());
+        Assertions.assertEquals(1, limiter.getUsedCount());
+        Assertions.assertFalse(limiter.acquireAsync(LIVE).isDone());
+    }
+
+    @Test
+    void setLimit_appliesSharesToNewLimit() {
+        final PrioritizedRateLimiter limiter = newLimiter(2, Duration.ofSeconds(10));
+
+        limiter.setLimit(4);
+
+        Assertions.assertTrue(limiter.acquireAsync(BACKGROUND).isDone());
+        Assertions.assertTrue(limiter.acquireAsync(BACKGROUND).isDone());
+        Assertions.assertFalse(limiter.acquireAsync(BACKGROUND).isDone());
+        Assertions.assertTrue(limiter.acquireAsync(LIVE).isDone());
+    }
+
+    // endregion
+
+    @Test
+    void pause_delaysGrantingOfPermits() {
+        final long pause = 300;
+        final PrioritizedRateLimiter limiter = newLimiter(2, Duration.ZERO);
+
+        limiter.pause(Duration.ofMillis(pause));
+
+        Assertions.assertFalse(limiter.acquireAsync(BACKGROUND).isDone());
+        final Duration elapsed = ExecutionUtils.run(() -> limiter.acquire(LIVE));
+        Assertions.assertTrue(elapsed.toMillis() >= pause - 50, "elapsed " + elapsed);
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void acquire_keepsLimit_forManyConcurrentCallersOfAllPriorities() throws Exception {
+        final int limit = 8;
+        final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        final int threadsCount = 64;
+        final int callsPerThread = 10;
+        final PrioritizedRateLimiter limiter = newLimiter(limit, Duration.ofNanos(intervalNanos));
+        final ConcurrentLinkedQueue<long[]> calls = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try (final ExecutorService executor = Executors.newFixedThreadPool(threadsCount)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadsCount; i++) {
+                final int priority = i % 3;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < callsPerThread; j++) {
+                        final PrioritizedRateLimiter.Permit permit = limiter.acquire(priority);
+                        final long acquiredAt = System.nanoTime();
+                        final long releasedAt = System.nanoTime();
+                        calls.add(new long[]{acquiredAt, releasedAt + intervalNanos});
+                        permit.release();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        Assertions.assertEquals(threadsCount * callsPerThread, calls.size());
+        Assertions.assertEquals(0, limiter.getPendingCount());
+        final long granted = limiter.getStatistics().stream().mapToLong(PrioritizedRateLimiter.Statistics::granted).sum();
+        Assertions.assertEquals(threadsCount * callsPerThread, granted);
+        final List<long[]> callsList = new ArrayList<>(calls);
+        for (final long[] call : callsList) {
+            final long holders = callsList.stream()
+                    .filter(other -> other[0] <= call[0] && call[0] < other[1])
+                    .count();
+            Assertions.assertTrue(holders <= limit, "permit is held by " + holders + " calls");
+        }
+    }
+
+    private static PrioritizedRateLimiter newLimiter(final int limit, final Duration interval) {
+        return new PrioritizedRateLimiter(limit, interval, 1.0, 1.0, 0.5);
+    }
+
+}
@@ -0,0 +1,189 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class SharedRateLimiterUnitTest {
+
+    @TempDir
+    private Path directory;
+
+    // region constructor tests
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenLimitIsNotPositive() {
+        final Path file = directory.resolve("test.quota");
+        final Duration interval = Duration.ofSeconds(1);
+
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> new SharedRateLimiter(file, 0, interval),
+                "limit must be positive"
+        );
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenIntervalIsNegative() {
+        final Path file = directory.resolve("test.quota");
+        final Duration interval = Duration.ofSeconds(-1);
+
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> new SharedRateLimiter(file, 1, interval),
+                "interval can't be negative"
+        );
+    }
+
+    @Test
+    void constructor_takesLimitFromExistingFile() throws IOException {
+        final Path file = directory.resolve("test.quota");
+
+        try (SharedRateLimiter ignored = new SharedRateLimiter(file, 2, Duration.ofSeconds(10));
+             SharedRateLimiter limiter = new SharedRateLimiter(file, 5, Duration.ofSeconds(10))) {
+            Assertions.assertEquals(2, limiter.getLimit());
+        }
+    }
+
+    // endregion
+
+    @Test
+    void acquire_returnsImmediately_whilePermitsAreAvailable() throws IOException {
+        try (SharedRateLimiter limiter = new SharedRateLimiter(directory.resolve("test.quota"), 3, Duration.ofSeconds(10))) {
+            final Duration elapsed = ExecutionUtils.run(limiter::acquire, 3);
+
+            Assertions.assertTrue(elapsed.toMillis() < 50, "elapsed " + elapsed);
+            Assertions.assertEquals(3, limiter.getUsedCount());
+        }
+    }
+
+    @Test
+    void acquire_waitsForInterval_whenAllPermitsAreUsed() throws IOException {
+        final long interval = 300;
+        try (SharedRateLimiter limiter = new SharedRateLimiter(directory.resolve("test.quota"), 1, Duration.ofMillis(interval))) {
+            final long firstGrantedAt = limiter.acquire();
+            final long secondGrantedAt = limiter.acquire();
+
+            Assertions.assertTrue(secondGrantedAt - firstGrantedAt >= interval, "granted after " + (secondGrantedAt - firstGrantedAt));
+        }
+    }
+
+    @Test
+    void acquire_throwsIllegalArgumentException_whenShareIsNotPositive() throws IOException {
+        try (SharedRateLimiter limiter = new SharedRateLimiter(directory.resolve("test.quota"), 2, Duration.ofSeconds(10))) {
+            AssertUtils.assertThrowsWithMessage(
+                    IllegalArgumentException.class,
+                    () -> limiter.acquire(0),
+                    "share must be in range (0, 1]"
+            );
+        }
+    }
+
+    @Test
+    void acquireAsync_waits_whenShareOfPermitsIsUsed_andLeavesRestOfPermitsToGreaterShare() throws Exception {
+        final Path file = directory.resolve("test.quota");
+        final long interval = 300;
+        try (SharedRateLimiter limiter1 = new SharedRateLimiter(file, 2, Duration.ofMillis(interval));
+             SharedRateLimiter limiter2 = new SharedRateLimiter(file, 2, Duration.ofMillis(interval))) {
+            final long firstGrantedAt = limiter1.acquire(0.5);
+
+            final CompletableFuture<Long> future = limiter1.acquireAsync(0.5);
+
+            Assertions.assertFalse(future.isDone());
+            final long fullShareGrantedAt = limiter2.acquire();
+            Assertions.assertTrue(fullShareGrantedAt - firstGrantedAt < interval, "granted after " + (fullShareGrantedAt - firstGrantedAt));
+            final long secondGrantedAt = future.get(1, TimeUnit.SECONDS);
+            Assertions.assertTrue(secondGrantedAt - firstGrantedAt >= interval, "granted after " + (secondGrantedAt - firstGrantedAt));
+        }
+    }
+
+    @Test
+    void acquireAsync_completesFuture_whenPermitIsUsedByAnotherLimiterOfSameFile() throws Exception {
+        final Path file = directory.resolve("test.quota");
+        final long interval = 300;
+        try (SharedRateLimiter limiter1 = new SharedRateLimiter(file, 1, Duration.ofMillis(interval));
+             SharedRateLimiter limiter2 = new SharedRateLimiter(file, 1, Duration.ofMillis(interval))) {
+            final long firstGrantedAt = limiter1.acquire();
+
+            final CompletableFuture<Long> future = limiter2.acquireAsync();
+
+            Assertions.assertFalse(future.isDone());
+            Assertions.assertEquals(1, limiter2.getUsedCount());
+            final long secondGrantedAt = future.get(1, TimeUnit.SECONDS);
+            Assertions.assertTrue(secondGrantedAt - firstGrantedAt >= interval, "granted after " + (secondGrantedAt - firstGrantedAt));
+        }
+    }
+
+    @Test
+    void acquire_keepsLimit_forSeveralProcesses() throws Exception {
+        final Path file = directory.resolve("test.quota");
+        final int limit = 5;
+        final long interval = 500;
+        final int processesCount = 3;
+        final int callsPerProcess = 6;
+
+        final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        final List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < processesCount; i++) {
+            processes.add(new ProcessBuilder(
+                    java,
+                    "-cp", System.getProperty("java.class.path"),
+                    Worker.class.getName(),
+                    file.toString(),
+                    String.valueOf(limit),
+                    String.valueOf(interval),
+                    String.valueOf(callsPerProcess)
+            ).redirectErrorStream(true).start());
+        }
+
+        final List<Long> grantTimes = new ArrayList<>();
+        for (final Process process : processes) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                final List<String> lines = reader.lines().toList();
+                Assertions.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+                Assertions.assertEquals(0, process.exitValue(), String.join("\n", lines));
+                lines.forEach(line -> grantTimes.add(Long.parseLong(line)));
+            }
+        }
+
+        Assertions.assertEquals(processesCount * callsPerProcess, grantTimes.size());
+        for (final long grantTime : grantTimes) {
+            final long grantsWithinInterval = grantTimes.stream()
+                    .filter(other -> grantTime <= other && other < grantTime + interval)
+                    .count();
+            Assertions.assertTrue(grantsWithinInterval <= limit, grantsWithinInterval + " permits granted within interval");
+        }
+    }
+
+    /**
+     * Process, which acquires permits of shared limiter and prints times of granting
+     */
+    public static final class Worker {
+
+        public static void main(final String[] args) throws IOException {
+            final Path file = Path.of(args[0]);
+            final int limit = Integer.parseInt(args[1]);
+            final Duration interval = Duration.ofMillis(Long.parseLong(args[2]));
+            final int callsCount = Integer.parseInt(args[3]);
+            try (SharedRateLimiter limiter = new SharedRateLimiter(file, limit, interval)) {
+                for (int i = 0; i < callsCount; i++) {
+                    System.out.println(limiter.acquire());
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,420 @@
+package ru.obukhov.trader.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class SlidingWindowRateLimiterUnitTest {
+
+    // region constructor tests
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenLimitIsNotPositive() {
+        final Duration interval = Duration.ofMillis(100);
+
+        final IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new SlidingWindowRateLimiter(0, interval)
+        );
+
+        Assertions.assertEquals("limit must be positive", exception.getMessage());
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenIntervalIsNegative() {
+        final Duration interval = Duration.ofMillis(-1);
+
+        final IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new SlidingWindowRateLimiter(1, interval)
+        );
+
+        Assertions.assertEquals("interval can't be negative", exception.getMessage());
+    }
+
+    // endregion
+
+    // region acquire tests
+
+    @Test
+    void acquire_returnsImmediately_whilePermitsAreAvailable() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, Duration.ofSeconds(10));
+
+        final Duration elapsed = ExecutionUtils.run(limiter::acquire, 3);
+
+        Assertions.assertTrue(elapsed.toMillis() < 50, "elapsed " + elapsed);
+        Assertions.assertEquals(3, limiter.getPendingCount());
+    }
+
+    @Test
+    void acquire_waitsForIntervalAfterRelease() {
+        final long interval = 300;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ofMillis(interval));
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+        limiter.acquire();
+
+        permit.release();
+        final Duration elapsed = ExecutionUtils.run(limiter::acquire);
+
+        AssertUtils.assertRangeInclusive(interval - 20, interval + 100, elapsed.toMillis());
+    }
+
+    @Test
+    void acquire_takesEarliestAvailableSlot_whenAnotherPermitIsHeld() throws Exception {
+        final long interval = 100;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ofMillis(interval));
+        limiter.acquire();
+        limiter.acquire().release();
+        limiter.acquire().release();
+
+        final CompletableFuture<Duration> elapsed = CompletableFuture.supplyAsync(() -> ExecutionUtils.run(limiter::acquire));
+
+        AssertUtils.assertRangeInclusive(interval - 20, interval + 100, elapsed.get(1, TimeUnit.SECONDS).toMillis());
+    }
+
+    @Test
+    void acquire_waitsForRelease() throws Exception {
+        final long interval = 100;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofMillis(interval));
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+
+        try (final ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            final Future<SlidingWindowRateLimiter.Permit> future = executor.submit(limiter::acquire);
+
+            TimeUnit.MILLISECONDS.sleep(200);
+            Assertions.assertFalse(future.isDone());
+
+            final long releaseTime = System.nanoTime();
+            permit.release();
+            future.get(1, TimeUnit.SECONDS);
+            final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - releaseTime);
+
+            AssertUtils.assertRangeInclusive(interval - 20, interval + 100, elapsed);
+        }
+    }
+
+    @Test
+    void acquire_grantsPermitsInOrderOfCalls() throws Exception {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ZERO);
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+        final List<Integer> order = new ArrayList<>();
+
+        try (final ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                final int number = i;
+                futures.add(executor.submit(() -> {
+                    final SlidingWindowRateLimiter.Permit acquired = limiter.acquire();
+                    synchronized (order) {
+                        order.add(number);
+                    }
+                    acquired.release();
+                }));
+                TimeUnit.MILLISECONDS.sleep(50); // to make calls ordered
+            }
+
+            permit.release();
+            for (final Future<?> future : futures) {
+                future.get(1, TimeUnit.SECONDS);
+            }
+        }
+
+        Assertions.assertEquals(List.of(0, 1, 2), order);
+    }
+
+    @Test
+    void acquire_restoresInterruptedStatus_whenInterruptedWhileWaiting() throws Exception {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ZERO);
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+
+        final CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        final Thread thread = new Thread(() -> {
+            limiter.acquire();
+            interrupted.complete(Thread.currentThread().isInterrupted());
+        });
+        thread.start();
+        TimeUnit.MILLISECONDS.sleep(50);
+        thread.interrupt();
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        Assertions.assertFalse(interrupted.isDone());
+
+        permit.release();
+
+        Assertions.assertTrue(interrupted.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void acquire_keepsLimit_forManyConcurrentCallers() throws Exception {
+        final int limit = 8;
+        final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        final int threadsCount = 64;
+        final int callsPerThread = 10;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(limit, Duration.ofNanos(intervalNanos));
+        final ConcurrentLinkedQueue<long[]> calls = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try (final ExecutorService executor = Executors.newFixedThreadPool(threadsCount)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadsCount; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < callsPerThread; j++) {
+                        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+                        final long acquiredAt = System.nanoTime();
+                        final long releasedAt = System.nanoTime();
+                        calls.add(new long[]{acquiredAt, releasedAt + intervalNanos});
+                        permit.release();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        Assertions.assertEquals(threadsCount * callsPerThread, calls.size());
+        Assertions.assertEquals(0, limiter.getPendingCount());
+        // every call holds permit from acquiring till interval after release, so not more than limit calls can hold it simultaneously
+        final List<long[]> callsList = new ArrayList<>(calls);
+        for (final long[] call : callsList) {
+            final long holders = callsList.stream()
+                    .filter(other -> other[0] <= call[0] && call[0] < other[1])
+                    .count();
+            Assertions.assertTrue(holders <= limit, "permit is held by " + holders + " calls");
+        }
+    }
+
+    // endregion
+
+    // region tryAcquire tests
+
+    @Test
+    void tryAcquire_returnsPermit_whenPermitIsAvailable() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofSeconds(10));
+
+        Assertions.assertNotNull(limiter.tryAcquire());
+        Assertions.assertEquals(1, limiter.getPendingCount());
+    }
+
+    @Test
+    void tryAcquire_returnsNull_whenAllPermitsAreAcquired() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofSeconds(10));
+        limiter.acquire();
+
+        Assertions.assertNull(limiter.tryAcquire());
+        Assertions.assertEquals(1, limiter.getPendingCount());
+    }
+
+    @Test
+    void tryAcquire_returnsNull_whenIntervalAfterReleaseIsNotPassed() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofSeconds(10));
+        limiter.acquire().release();
+
+        Assertions.assertNull(limiter.tryAcquire());
+        Assertions.assertEquals(0, limiter.getPendingCount());
+    }
+
+    @Test
+    void tryAcquire_returnsNull_whenSomebodyWaits() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ZERO);
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+        final CompletableFuture<SlidingWindowRateLimiter.Permit> waiting = limiter.acquireAsync();
+
+        permit.release();
+
+        Assertions.assertNull(limiter.tryAcquire());
+        Assertions.assertTrue(waiting.isDone());
+    }
+
+    // endregion
+
+    // region acquireAsync tests
+
+    @Test
+    void acquireAsync_returnsCompletedFuture_whenPermitIsAvailable() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofSeconds(10));
+
+        final CompletableFuture<SlidingWindowRateLimiter.Permit> future = limiter.acquireAsync();
+
+        Assertions.assertTrue(future.isDone());
+    }
+
+    @Test
+    void acquireAsync_completesFuture_whenIntervalAfterReleasePassed() throws Exception {
+        final long interval = 200;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofMillis(interval));
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+
+        final CompletableFuture<SlidingWindowRateLimiter.Permit> future = limiter.acquireAsync();
+        Assertions.assertFalse(future.isDone());
+        Assertions.assertEquals(2, limiter.getPendingCount());
+
+        final long releaseTime = System.nanoTime();
+        permit.release();
+        Assertions.assertFalse(future.isDone());
+        future.get(1, TimeUnit.SECONDS);
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - releaseTime);
+
+        AssertUtils.assertRangeInclusive(interval - 20, interval + 100, elapsed);
+        Assertions.assertEquals(1, limiter.getPendingCount());
+    }
+
+    @Test
+    void acquireAsync_completesDelayedFutures_whenTheirSlotsAreAvailable() throws Exception {
+        final long interval = 200;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ofMillis(interval));
+        final SlidingWindowRateLimiter.Permit permit1 = limiter.acquire();
+        final SlidingWindowRateLimiter.Permit permit2 = limiter.acquire();
+        final CompletableFuture<SlidingWindowRateLimiter.Permit> future1 = limiter.acquireAsync();
+        final CompletableFuture<SlidingWindowRateLimiter.Permit> future2 = limiter.acquireAsync();
+
+        final long releaseTime = System.nanoTime();
+        permit2.release();
+        Thread.sleep(interval / 2);
+        permit1.release();
+
+        future1.get(1, TimeUnit.SECONDS);
+        final long elapsed1 = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - releaseTime);
+        Assertions.assertFalse(future2.isDone());
+        future2.get(1, TimeUnit.SECONDS);
+        final long elapsed2 = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - releaseTime);
+
+        AssertUtils.assertRangeInclusive(interval - 20, interval + 40, elapsed1);
+        AssertUtils.assertRangeInclusive(interval * 3 / 2 - 20, interval * 3 / 2 + 100, elapsed2);
+    }
+
+    @Test
+    void acquireAsync_completesAllFutures_forManyCalls() throws Exception {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, Duration.ofMillis(1));
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            futures.add(limiter.acquireAsync().thenAccept(SlidingWindowRateLimiter.Permit::release));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(0, limiter.getPendingCount());
+    }
+
+    // endregion
+
+    // region getUsedCount tests
+
+    @Test
+    void getUsedCount_returnsZero_whenNoPermitsAreAcquired() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, Duration.ofSeconds(10));
+
+        Assertions.assertEquals(0, limiter.getUsedCount());
+        Assertions.assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void getUsedCount_countsAcquiredAndRecentlyReleasedPermits() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, Duration.ofSeconds(10));
+
+        limiter.acquire();
+        limiter.acquire().release();
+
+        Assertions.assertEquals(2, limiter.getUsedCount());
+        Assertions.assertEquals(1, limiter.getPendingCount());
+    }
+
+    @Test
+    void getUsedCount_doesNotCountPermits_releasedMoreThanIntervalAgo() throws Exception {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, Duration.ofMillis(50));
+
+        limiter.acquire();
+        limiter.acquire().release();
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        Assertions.assertEquals(1, limiter.getUsedCount());
+    }
+
+    @Test
+    void getUsedCount_returnsLimit_whenSomebodyWaits() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ofSeconds(10));
+
+        limiter.acquire();
+        limiter.acquireAsync();
+        limiter.acquireAsync();
+
+        Assertions.assertEquals(2, limiter.getUsedCount());
+    }
+
+    // endregion
+
+    // region withLimit tests
+
+    @Test
+    void withLimit_keepsBusySlots_whenLimitIsIncreased() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ofSeconds(10));
+        limiter.acquire();
+        limiter.acquire().release();
+
+        final SlidingWindowRateLimiter newLimiter = limiter.withLimit(4, System.nanoTime());
+
+        Assertions.assertEquals(4, newLimiter.getLimit());
+        Assertions.assertEquals(2, newLimiter.getUsedCount());
+        Assertions.assertNotNull(newLimiter.tryAcquire());
+        Assertions.assertNotNull(newLimiter.tryAcquire());
+        Assertions.assertNull(newLimiter.tryAcquire());
+    }
+
+    @Test
+    void withLimit_keepsLatestBusySlots_whenLimitIsDecreased() throws Exception {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, Duration.ofMillis(100));
+        limiter.acquire().release();
+        TimeUnit.MILLISECONDS.sleep(150);
+        limiter.acquire();
+
+        final SlidingWindowRateLimiter newLimiter = limiter.withLimit(2, System.nanoTime());
+
+        Assertions.assertEquals(1, newLimiter.getUsedCount());
+        Assertions.assertNotNull(newLimiter.tryAcquire());
+        Assertions.assertNull(newLimiter.tryAcquire());
+    }
+
+    @Test
+    void withLimit_makesAllSlotsBusy_tillNotBefore() {
+        final long pause = 200;
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, Duration.ZERO);
+
+        final SlidingWindowRateLimiter newLimiter = limiter.withLimit(2, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pause));
+
+        Assertions.assertEquals(2, newLimiter.getUsedCount());
+        Assertions.assertNull(newLimiter.tryAcquire());
+        final Duration elapsed = ExecutionUtils.run(newLimiter::acquire);
+        Assertions.assertTrue(elapsed.toMillis() >= pause - 50, "elapsed " + elapsed);
+    }
+
+    // endregion
+
+    @Test
+    void release_isIgnored_whenRepeated() {
+        final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ZERO);
+        final SlidingWindowRateLimiter.Permit permit = limiter.acquire();
+        permit.release();
+        final SlidingWindowRateLimiter.Permit nextPermit = limiter.acquire();
+
+        permit.release();
+
+        Assertions.assertNull(limiter.tryAcquire());
+        nextPermit.release();
+        Assertions.assertNotNull(limiter.tryAcquire());
+    }
+
+}
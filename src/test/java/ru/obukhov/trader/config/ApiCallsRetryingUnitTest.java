@@ -0,0 +1,455 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsMetrics;
+import ru.obukhov.trader.config.model.ApiCallsQueueStatistics;
+import ru.obukhov.trader.config.model.ApiRetryMetrics;
+import ru.obukhov.trader.config.properties.ApiProperties;
+import ru.obukhov.trader.config.properties.ApiRetryProperties;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+import ru.tinkoff.piapi.contract.v1.GetCandlesRequest;
+import ru.tinkoff.piapi.contract.v1.GetCandlesResponse;
+import ru.tinkoff.piapi.contract.v1.GetLastPricesRequest;
+import ru.tinkoff.piapi.contract.v1.GetLastPricesResponse;
+import ru.tinkoff.piapi.contract.v1.HistoricCandle;
+import ru.tinkoff.piapi.contract.v1.Instrument;
+import ru.tinkoff.piapi.contract.v1.InstrumentRequest;
+import ru.tinkoff.piapi.contract.v1.InstrumentResponse;
+import ru.tinkoff.piapi.contract.v1.InstrumentsServiceGrpc;
+import ru.tinkoff.piapi.contract.v1.MarketDataServiceGrpc;
+import ru.tinkoff.piapi.core.InstrumentsService;
+import ru.tinkoff.piapi.core.InvestApi;
+import ru.tinkoff.piapi.core.MarketDataService;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests retrying and hedging of API calls against local gRPC server, which injects faults and delays into responses
+ */
+class ApiCallsRetryingUnitTest {
+
+    private static final String FIGI = "BBG000B9XRY4";
+    private static final Instant TO = Instant.parse("2024-03-01T10:00:00Z");
+    private static final Instant FROM = TO.minus(1, ChronoUnit.HOURS);
+
+    private final MarketDataServiceStandIn marketDataServiceStandIn = new MarketDataServiceStandIn();
+    private final InstrumentsServiceStandIn instrumentsServiceStandIn = new InstrumentsServiceStandIn();
+
+    private Server server;
+    private ManagedChannel channel;
+    private ApiCallsRetrying apiCallsRetrying;
+    private ApiCallsThrottling apiCallsThrottling;
+    private MarketDataService marketDataService;
+    private InstrumentsService instrumentsService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    // region retrying tests
+
+    @Test
+    void getCandlesSync_retriesTransientErrors() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+        marketDataServiceStandIn.faults.add(Status.DEADLINE_EXCEEDED);
+
+        final List<HistoricCandle> candles = marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        Assertions.assertEquals(1, candles.size());
+        Assertions.assertEquals(3, marketDataServiceStandIn.calls.get());
+        final ApiRetryMetrics metrics = getRetryMetrics("MarketDataService.getCandles*");
+        Assertions.assertEquals(1, metrics.calls());
+        Assertions.assertEquals(2, metrics.retries());
+        Assertions.assertEquals(0, metrics.hedges());
+    }
+
+    @Test
+    void getCandlesSync_takesThrottlingPermitForEveryAttempt() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.RESOURCE_EXHAUSTED);
+
+        marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        final ApiCallsMetrics throttlingMetrics = apiCallsThrottling.getMetrics().stream()
+                .filter(metrics -> "MarketDataService".equals(metrics.target()))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(2, throttlingMetrics.calls());
+        Assertions.assertEquals(2, throttlingMetrics.usedPermits());
+        Assertions.assertEquals(1, throttlingMetrics.errors());
+    }
+
+    @Test
+    void getCandlesSync_throwsLastError_whenAttemptsAreExhausted() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+        marketDataServiceStandIn.faults.add(Status.DEADLINE_EXCEEDED);
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        final ApiRuntimeException exception = Assertions.assertThrows(
+                ApiRuntimeException.class,
+                () -> marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN)
+        );
+
+        Assertions.assertEquals(Status.Code.DEADLINE_EXCEEDED, Status.fromThrowable(exception.getThrowable()).getCode());
+        Assertions.assertEquals(3, marketDataServiceStandIn.calls.get());
+        Assertions.assertEquals(2, getRetryMetrics("MarketDataService.getCandles*").retries());
+    }
+
+    @Test
+    void getCandlesSync_doesNotRetryNotTransientErrors() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.INVALID_ARGUMENT);
+
+        Assertions.assertThrows(
+                ApiRuntimeException.class,
+                () -> marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN)
+        );
+
+        Assertions.assertEquals(1, marketDataServiceStandIn.calls.get());
+        Assertions.assertEquals(0, getRetryMetrics("MarketDataService.getCandles*").retries());
+    }
+
+    @Test
+    void getCandlesSync_waitsExponentialBackoffBetweenAttempts() throws IOException {
+        final ApiRetryProperties properties = new ApiRetryProperties(
+                3, Duration.ofMillis(40), Duration.ofSeconds(1), 2.0, false, null, null, null
+        );
+        start(properties);
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        final long start = System.nanoTime();
+        marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // backoffs are randomized within their upper halves: [20, 40] ms and [40, 80] ms
+        Assertions.assertTrue(elapsedMillis >= 60, "Expected at least 60 ms, got " + elapsedMillis);
+    }
+
+    @Test
+    void getCandles_retriesTransientErrorsAsynchronously() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        final List<HistoricCandle> candles = marketDataService.getCandles(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN).join();
+
+        Assertions.assertEquals(1, candles.size());
+        Assertions.assertEquals(2, marketDataServiceStandIn.calls.get());
+        Assertions.assertEquals(1, getRetryMetrics("MarketDataService.getCandles*").retries());
+    }
+
+    @Test
+    void getCandles_retriesWithPriorityOfCall() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        ApiCallPriority.BACKGROUND.get(() -> marketDataService.getCandles(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN))
+                .join();
+
+        final ApiCallsQueueStatistics statistics = apiCallsThrottling.getStatistics().stream()
+                .filter(queue -> "MarketDataService".equals(queue.target()) && queue.priority() == ApiCallPriority.BACKGROUND)
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(2, statistics.granted());
+    }
+
+    @Test
+    void getCandles_completesExceptionally_whenAttemptsAreExhausted() throws IOException {
+        start(retryProperties(2, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        final CompletableFuture<List<HistoricCandle>> future =
+                marketDataService.getCandles(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        final Throwable throwable = Assertions.assertThrows(Exception.class, future::join);
+        Assertions.assertTrue(ApiCallsThrottling.hasStatus(throwable, ApiCallsRetrying.RETRYABLE_CODES));
+        Assertions.assertEquals(2, marketDataServiceStandIn.calls.get());
+    }
+
+    @Test
+    void getInstrumentByFigiSync_retriesTransientErrors() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        instrumentsServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        final Instrument instrument = instrumentsService.getInstrumentByFigiSync(FIGI);
+
+        Assertions.assertEquals(FIGI, instrument.getFigi());
+        Assertions.assertEquals(2, instrumentsServiceStandIn.calls.get());
+        Assertions.assertEquals(1, getRetryMetrics("InstrumentService").retries());
+    }
+
+    @Test
+    void getLastPricesSync_isNotRetried() throws IOException {
+        start(retryProperties(3, false, 1.0));
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+
+        Assertions.assertThrows(ApiRuntimeException.class, () -> marketDataService.getLastPricesSync(List.of(FIGI)));
+
+        Assertions.assertEquals(1, marketDataServiceStandIn.calls.get());
+    }
+
+    // endregion
+
+    // region hedging tests
+
+    @Test
+    void getCandlesSync_takesResponseOfDuplicate_whenCallIsSlow() throws IOException {
+        start(retryProperties(1, true, 1.0));
+        warmUp();
+
+        marketDataServiceStandIn.holdNextCall.set(true);
+        final List<HistoricCandle> candles = marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        Assertions.assertEquals(1, candles.size());
+        Assertions.assertEquals(ApiCallsRetrying.LATENCY_WINDOW_MIN_COUNT + 2, marketDataServiceStandIn.calls.get());
+        final ApiRetryMetrics metrics = getRetryMetrics("MarketDataService.getCandles*");
+        Assertions.assertEquals(1, metrics.hedges());
+        Assertions.assertEquals(1, metrics.hedgeWins());
+        Assertions.assertNotNull(metrics.hedgeDelayMillis());
+    }
+
+    @Test
+    void getCandles_takesResponseOfDuplicate_whenCallIsSlow() throws IOException {
+        start(retryProperties(1, true, 1.0));
+        warmUp();
+
+        marketDataServiceStandIn.holdNextCall.set(true);
+        final List<HistoricCandle> candles = marketDataService.getCandles(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN).join();
+
+        Assertions.assertEquals(1, candles.size());
+        final ApiRetryMetrics metrics = getRetryMetrics("MarketDataService.getCandles*");
+        Assertions.assertEquals(1, metrics.hedges());
+        Assertions.assertEquals(1, metrics.hedgeWins());
+    }
+
+    @Test
+    void getCandles_takesResponseOfOriginalCall_whenDuplicateFails() throws IOException {
+        start(retryProperties(1, true, 1.0));
+        warmUp();
+
+        marketDataServiceStandIn.holdNextCall.set(true);
+        marketDataServiceStandIn.faults.add(Status.UNAVAILABLE);
+        final CompletableFuture<List<HistoricCandle>> future =
+                marketDataService.getCandles(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        awaitCalls(ApiCallsRetrying.LATENCY_WINDOW_MIN_COUNT + 2);
+
+        Assertions.assertFalse(future.isDone());
+        marketDataServiceStandIn.releaseHeldCall();
+
+        Assertions.assertEquals(1, future.join().size());
+        final ApiRetryMetrics metrics = getRetryMetrics("MarketDataService.getCandles*");
+        Assertions.assertEquals(1, metrics.hedges());
+        Assertions.assertEquals(0, metrics.hedgeWins());
+    }
+
+    @Test
+    void getCandles_doesNotHedge_whenRatioOfDuplicatesIsExceeded() throws IOException, InterruptedException {
+        start(retryProperties(1, true, 0.0));
+        warmUp();
+
+        marketDataServiceStandIn.holdNextCall.set(true);
+        final CompletableFuture<List<HistoricCandle>> future =
+                marketDataService.getCandles(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        Assertions.assertFalse(future.isDone());
+        Assertions.assertEquals(ApiCallsRetrying.LATENCY_WINDOW_MIN_COUNT + 1, marketDataServiceStandIn.calls.get());
+        marketDataServiceStandIn.releaseHeldCall();
+        Assertions.assertEquals(1, future.join().size());
+        Assertions.assertEquals(0, getRetryMetrics("MarketDataService.getCandles*").hedges());
+    }
+
+    @Test
+    void getCandlesSync_hedgesAgain_whenPreviousDuplicateIsOutOfWindowOfRecentCalls() throws IOException {
+        start(retryProperties(1, true, 0.005));
+        warmUp();
+
+        marketDataServiceStandIn.holdNextCall.set(true);
+        marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        for (int i = 0; i < 100; i++) {
+            marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        }
+        marketDataServiceStandIn.holdNextCall.set(true);
+        final List<HistoricCandle> candles = marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        Assertions.assertEquals(1, candles.size());
+        final ApiRetryMetrics metrics = getRetryMetrics("MarketDataService.getCandles*");
+        Assertions.assertEquals(2, metrics.hedges());
+        Assertions.assertEquals(2, metrics.hedgeWins());
+    }
+
+    @Test
+    void getMetrics_returnsNoHedgeDelay_whenNotEnoughLatencies() throws IOException {
+        start(retryProperties(1, true, 1.0));
+
+        marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        final ApiRetryMetrics metrics = getRetryMetrics("MarketDataService.getCandles*");
+        Assertions.assertEquals(1, metrics.calls());
+        Assertions.assertNull(metrics.hedgeDelayMillis());
+    }
+
+    // endregion
+
+    private static ApiRetryProperties retryProperties(final int maxAttempts, final boolean hedging, final double hedgingMaxRatio) {
+        return new ApiRetryProperties(
+                maxAttempts,
+                Duration.ofMillis(1),
+                Duration.ofMillis(10),
+                2.0,
+                hedging,
+                0.95,
+                Duration.ofMillis(20),
+                hedgingMaxRatio
+        );
+    }
+
+    private void start(final ApiRetryProperties retryProperties) throws IOException {
+        final String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(marketDataServiceStandIn)
+                .addService(instrumentsServiceStandIn)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        final InvestApi investApi = InvestApi.create(channel);
+
+        apiCallsRetrying = new ApiCallsRetrying(retryProperties);
+        apiCallsThrottling = new ApiCallsThrottling(new ApiProperties(60000L, false, 1.0, null, 1), new SimpleMeterRegistry());
+        marketDataService = advise(investApi.getMarketDataService());
+        instrumentsService = advise(investApi.getInstrumentsService());
+    }
+
+    /**
+     * @return proxy of given {@code target} with retrying aspect wrapping throttling one, as in application context
+     */
+    private <T> T advise(final T target) {
+        final AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(apiCallsRetrying);
+        proxyFactory.addAspect(apiCallsThrottling);
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Makes enough calls to estimate hedge delay
+     */
+    private void warmUp() {
+        for (int i = 0; i < ApiCallsRetrying.LATENCY_WINDOW_MIN_COUNT; i++) {
+            marketDataService.getCandlesSync(FIGI, FROM, TO, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        }
+    }
+
+    private void awaitCalls(final int calls) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (marketDataServiceStandIn.calls.get() < calls) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timeout of waiting for " + calls + " calls");
+            Thread.onSpinWait();
+        }
+    }
+
+    private ApiRetryMetrics getRetryMetrics(final String target) {
+        return apiCallsRetrying.getMetrics().stream()
+                .filter(metrics -> target.equals(metrics.target()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Responds to calls by statuses of {@code faults} while they are not empty, then by one candle.
+     * Holds the next call till {@link #releaseHeldCall()} if {@code holdNextCall} is set
+     */
+    private static final class MarketDataServiceStandIn extends MarketDataServiceGrpc.MarketDataServiceImplBase {
+
+        private final Queue<Status> faults = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicBoolean holdNextCall = new AtomicBoolean();
+        private volatile Runnable heldCall;
+
+        @Override
+        public void getCandles(final GetCandlesRequest request, final StreamObserver<GetCandlesResponse> responseObserver) {
+            calls.incrementAndGet();
+            final GetCandlesResponse response = GetCandlesResponse.newBuilder()
+                    .addCandles(HistoricCandle.newBuilder().setVolume(1).build())
+                    .build();
+            if (holdNextCall.compareAndSet(true, false)) {
+                heldCall = () -> respond(responseObserver, response, null);
+            } else {
+                respond(responseObserver, response, faults.poll());
+            }
+        }
+
+        @Override
+        public void getLastPrices(final GetLastPricesRequest request, final StreamObserver<GetLastPricesResponse> responseObserver) {
+            calls.incrementAndGet();
+            respond(responseObserver, GetLastPricesResponse.getDefaultInstance(), faults.poll());
+        }
+
+        private void releaseHeldCall() {
+            heldCall.run();
+        }
+
+    }
+
+    /**
+     * Responds to calls by statuses of {@code faults} while they are not empty, then by instrument of requested FIGI
+     */
+    private static final class InstrumentsServiceStandIn extends InstrumentsServiceGrpc.InstrumentsServiceImplBase {
+
+        private final Queue<Status> faults = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void getInstrumentBy(final InstrumentRequest request, final StreamObserver<InstrumentResponse> responseObserver) {
+            calls.incrementAndGet();
+            final InstrumentResponse response = InstrumentResponse.newBuilder()
+                    .setInstrument(Instrument.newBuilder().setFigi(request.getId()).build())
+                    .build();
+            respond(responseObserver, response, faults.poll());
+        }
+
+    }
+
+    private static <T> void respond(final StreamObserver<T> responseObserver, final T response, final Status fault) {
+        if (fault == null) {
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } else {
+            responseObserver.onError(fault.asRuntimeException());
+        }
+    }
+
+}
@@ -1,5 +1,9 @@
 package ru.obukhov.trader.config;
 
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -12,6 +16,8 @@ import org.springframework.test.context.ActiveProfiles;
 import ru.obukhov.trader.TokenValidationStartupListener;
 import ru.obukhov.trader.common.model.ExecutionResult;
 import ru.obukhov.trader.common.util.ExecutionUtils;
+import ru.obukhov.trader.config.model.ApiCallsMetrics;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
 import ru.obukhov.trader.config.properties.ApiProperties;
 import ru.obukhov.trader.test.utils.AssertUtils;
 import ru.obukhov.trader.test.utils.model.account.TestAccounts;
@@ -21,6 +27,7 @@ import ru.tinkoff.piapi.contract.v1.Account;
 import ru.tinkoff.piapi.contract.v1.BrokerReportResponse;
 import ru.tinkoff.piapi.contract.v1.GetTradingStatusResponse;
 import ru.tinkoff.piapi.contract.v1.Instrument;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
 import ru.tinkoff.piapi.contract.v1.OrderDirection;
 import ru.tinkoff.piapi.contract.v1.OrderState;
 import ru.tinkoff.piapi.contract.v1.OrderType;
@@ -32,11 +39,15 @@ import ru.tinkoff.piapi.core.MarketDataService;
 import ru.tinkoff.piapi.core.OperationsService;
 import ru.tinkoff.piapi.core.OrdersService;
 import ru.tinkoff.piapi.core.UsersService;
+import ru.tinkoff.piapi.core.exception.ApiRuntimeException;
 import ru.tinkoff.piapi.core.models.Positions;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 @Slf4j
@@ -46,6 +57,10 @@ public class ApiCallsThrottlingIntegrationTest {
 
     @Autowired
     private ApiProperties apiProperties;
+    @Autowired
+    private ApiCallsThrottling apiCallsThrottling;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @SpyBean
     public static InstrumentsService instrumentsService;
@@ -84,6 +99,42 @@ public class ApiCallsThrottlingIntegrationTest {
         testThrottling(() -> usersService.getAccountsSync(), 100, accounts);
     }
 
+    @Test
+    void usersService_collectsMetricsOfCalls() throws InterruptedException {
+        final List<Account> accounts = List.of(TestAccounts.IIS.tAccount());
+        final StatusRuntimeException grpcError = new StatusRuntimeException(Status.RESOURCE_EXHAUSTED);
+        final ApiRuntimeException apiError = new ApiRuntimeException("limit exceeded", "80002", "trackingId", grpcError, new Metadata());
+        Mockito.doReturn(accounts)
+                .doThrow(apiError)
+                .doThrow(new IllegalStateException())
+                .when(usersService).getAccountsSync();
+
+        waitForThrottlingCounters();
+
+        final ApiCallsMetrics metricsBefore = getUsersServiceMetrics();
+        final ApiCallsTimer timer = new ApiCallsTimer();
+        timer.run(() -> {
+            usersService.getAccountsSync();
+            Assertions.assertThrows(ApiRuntimeException.class, () -> usersService.getAccountsSync());
+            Assertions.assertThrows(IllegalStateException.class, () -> usersService.getAccountsSync());
+        });
+        final ApiCallsMetrics metricsAfter = getUsersServiceMetrics();
+
+        Assertions.assertEquals(ApiCallsThrottling.USER_SERVICE_LIMIT, metricsAfter.limit());
+        Assertions.assertEquals(3, metricsAfter.usedPermits());
+        Assertions.assertEquals(0, metricsAfter.waiting());
+        Assertions.assertEquals(3, metricsAfter.calls() - metricsBefore.calls());
+        Assertions.assertEquals(2, metricsAfter.errors() - metricsBefore.errors());
+        Assertions.assertEquals(1, metricsAfter.resourceExhaustedErrors() - metricsBefore.resourceExhaustedErrors());
+        final long waitsBefore = metricsBefore.waitTimeHistogram().values().stream().mapToLong(Long::longValue).sum();
+        final long waitsAfter = metricsAfter.waitTimeHistogram().values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(3, waitsAfter - waitsBefore);
+        final double registeredCalls = meterRegistry.get("trader.api.calls").tag(ApiCallsThrottling.TARGET_TAG, "UsersService").timer().count();
+        Assertions.assertEquals(metricsAfter.calls(), registeredCalls);
+        Assertions.assertTrue(timer.getCallsNanos() > 0);
+        Assertions.assertTrue(timer.getThrottlingNanos() > 0);
+    }
+
     // region operationsService tests
 
     @Test
@@ -138,6 +189,36 @@ public class ApiCallsThrottlingIntegrationTest {
         testThrottling(() -> marketDataService.getTradingStatusSync(instrumentId), ApiCallsThrottling.MARKET_DATA_SERVICE_LIMIT, response);
     }
 
+    @Test
+    void marketDataService_holdsPermitsTillCompletionOfAsyncCalls() throws Exception {
+        final List<String> instrumentIds = List.of(TestInstruments.APPLE.getFigi());
+        final CompletableFuture<List<LastPrice>> response = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+        Mockito.doAnswer(invocation -> {
+            calls.incrementAndGet();
+            return response;
+        }).when(marketDataService).getLastPrices(instrumentIds);
+
+        waitForThrottlingCounters();
+
+        final int limit = ApiCallsThrottling.MARKET_DATA_SERVICE_LIMIT;
+        final Duration elapsed = ExecutionUtils.run(() -> marketDataService.getLastPrices(instrumentIds), limit);
+        final CompletableFuture<List<LastPrice>> extraCall = marketDataService.getLastPrices(instrumentIds);
+
+        Assertions.assertTrue(elapsed.toMillis() < 100, "Execution expected to take less than 100 ms, but took " + elapsed.toMillis() + " ms");
+        Assertions.assertEquals(limit, calls.get());
+        Assertions.assertFalse(extraCall.isDone());
+
+        final long start = System.currentTimeMillis();
+        response.complete(List.of());
+        Assertions.assertSame(response.get(), extraCall.get(2, TimeUnit.SECONDS));
+        final long duration = System.currentTimeMillis() - start;
+
+        final long interval = apiProperties.throttlingInterval();
+        AssertUtils.assertRangeInclusive(interval - 20, (int) (interval * 1.25), duration);
+        Assertions.assertEquals(limit + 1, calls.get());
+    }
+
     // region ordersService tests
 
     @Test
@@ -230,6 +311,13 @@ public class ApiCallsThrottlingIntegrationTest {
         Assertions.assertSame(expectedResult, result.result());
     }
 
+    private ApiCallsMetrics getUsersServiceMetrics() {
+        return apiCallsThrottling.getMetrics().stream()
+                .filter(metrics -> metrics.target().equals("UsersService"))
+                .findFirst()
+                .orElseThrow();
+    }
+
     // used to finish all throttling counters triggered by mocks and previous tests
     private void waitForThrottlingCounters() throws InterruptedException {
         TimeUnit.MILLISECONDS.sleep(apiProperties.throttlingInterval());
@@ -0,0 +1,200 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.obukhov.trader.common.util.AdaptiveRateLimit;
+import ru.obukhov.trader.config.model.ApiCallsMetrics;
+import ru.obukhov.trader.config.properties.ApiProperties;
+import ru.tinkoff.piapi.contract.v1.GetAccountsRequest;
+import ru.tinkoff.piapi.contract.v1.GetAccountsResponse;
+import ru.tinkoff.piapi.contract.v1.UsersServiceGrpc;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests adaptation of throttling to quota of local gRPC server, simulating quota behaviour of TBank API
+ */
+class ApiQuotaInterceptorUnitTest {
+
+    private final ApiCallsThrottling apiCallsThrottling = new ApiCallsThrottling(new ApiProperties(1000L, true, 2.0, null, 1), new SimpleMeterRegistry());
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void limitIsSetToQuotaReportedByServer() throws IOException {
+        final UsersServiceGrpc.UsersServiceBlockingStub stub = startServer(new QuotaInterceptor(3, true));
+
+        stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+
+        Assertions.assertEquals(3, getUsersServiceMetrics().limit());
+    }
+
+    @Test
+    void limitIsHalved_whenServerRejectsCallWithoutQuotaHeaders() throws IOException {
+        final UsersServiceGrpc.UsersServiceBlockingStub stub = startServer(new QuotaInterceptor(2, false));
+        final int initialLimit = getUsersServiceMetrics().limit();
+
+        stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+        stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+        final StatusRuntimeException exception = Assertions.assertThrows(
+                StatusRuntimeException.class,
+                () -> stub.getAccounts(GetAccountsRequest.getDefaultInstance())
+        );
+
+        Assertions.assertEquals(Status.Code.RESOURCE_EXHAUSTED, exception.getStatus().getCode());
+        Assertions.assertEquals(initialLimit / 2, getUsersServiceMetrics().limit());
+        Assertions.assertTrue(getUsersServiceMetrics().usedPermits() > 0);
+    }
+
+    @Test
+    void limitIsNotIncreasedAboveDocumentedOne_whileServerAcceptsCallsWithoutQuotaHeaders() throws IOException {
+        final UsersServiceGrpc.UsersServiceBlockingStub stub = startServer(new QuotaInterceptor(Integer.MAX_VALUE, false));
+        final int initialLimit = getUsersServiceMetrics().limit();
+
+        for (int i = 0; i < initialLimit; i++) {
+            stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+        }
+
+        Assertions.assertEquals(ApiCallsThrottling.USER_SERVICE_LIMIT, initialLimit);
+        Assertions.assertEquals(initialLimit, getUsersServiceMetrics().limit());
+    }
+
+    @Test
+    void notThrottledMethodsAreIgnored() {
+        final int initialLimit = getUsersServiceMetrics().limit();
+
+        final AdaptiveRateLimit.Quota quota = new AdaptiveRateLimit.Quota(1, 0, Duration.ofSeconds(1));
+        apiCallsThrottling.onResponse("tinkoff.public.invest.api.contract.v1.SandboxService/GetSandboxAccounts", quota, true);
+        apiCallsThrottling.onResponse("UsersService", quota, true);
+
+        Assertions.assertEquals(initialLimit, getUsersServiceMetrics().limit());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "null, null",
+            "'', null",
+            "abc, null",
+            "200, 200",
+            "' 200, 200;w=60', 200",
+    }, nullValues = "null")
+    void parseInt(final String value, final Integer expectedResult) {
+        Assertions.assertEquals(expectedResult, ApiQuotaInterceptor.parseInt(value));
+    }
+
+    @Test
+    void parseSeconds() {
+        Assertions.assertEquals(Duration.ofSeconds(42), ApiQuotaInterceptor.parseSeconds("42"));
+        Assertions.assertNull(ApiQuotaInterceptor.parseSeconds(null));
+    }
+
+    private UsersServiceGrpc.UsersServiceBlockingStub startServer(final QuotaInterceptor quotaInterceptor) throws IOException {
+        final String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(new UsersServiceStandIn(), quotaInterceptor))
+                .build()
+                .start();
+        final ManagedChannel inProcessChannel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        channel = new InterceptedManagedChannel(inProcessChannel, new ApiQuotaInterceptor(apiCallsThrottling));
+        return UsersServiceGrpc.newBlockingStub(channel);
+    }
+
+    private ApiCallsMetrics getUsersServiceMetrics() {
+        return apiCallsThrottling.getMetrics().stream()
+                .filter(metrics -> "UsersService".equals(metrics.target()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static final class UsersServiceStandIn extends UsersServiceGrpc.UsersServiceImplBase {
+
+        @Override
+        public void getAccounts(final GetAccountsRequest request, final StreamObserver<GetAccountsResponse> responseObserver) {
+            responseObserver.onNext(GetAccountsResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
+
+    }
+
+    /**
+     * Simulates quota of TBank API: accepts not more than {@code limit} calls and rejects the rest by RESOURCE_EXHAUSTED status.
+     * If {@code reportQuota} is true, then every response has quota headers
+     */
+    private static final class QuotaInterceptor implements ServerInterceptor {
+
+        private final int limit;
+        private final boolean reportQuota;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private QuotaInterceptor(final int limit, final boolean reportQuota) {
+            this.limit = limit;
+            this.reportQuota = reportQuota;
+        }
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                final ServerCall<ReqT, RespT> call,
+                final Metadata headers,
+                final ServerCallHandler<ReqT, RespT> next
+        ) {
+            final int remaining = limit - calls.incrementAndGet();
+            if (remaining < 0) {
+                call.close(Status.RESOURCE_EXHAUSTED, getQuotaMetadata(0));
+                return new ServerCall.Listener<>() {
+                };
+            }
+
+            return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+                @Override
+                public void sendHeaders(final Metadata responseHeaders) {
+                    responseHeaders.merge(getQuotaMetadata(remaining));
+                    super.sendHeaders(responseHeaders);
+                }
+            }, headers);
+        }
+
+        private Metadata getQuotaMetadata(final int remaining) {
+            final Metadata metadata = new Metadata();
+            if (reportQuota) {
+                metadata.put(ApiQuotaInterceptor.LIMIT_KEY, limit + ", " + limit + ";w=60");
+                metadata.put(ApiQuotaInterceptor.REMAINING_KEY, String.valueOf(remaining));
+                metadata.put(ApiQuotaInterceptor.RESET_KEY, "1");
+            }
+            return metadata;
+        }
+
+    }
+
+}
@@ -0,0 +1,216 @@
+package ru.obukhov.trader.config;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.obukhov.trader.config.model.ApiChannelMetrics;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.tinkoff.piapi.contract.v1.GetAccountsRequest;
+import ru.tinkoff.piapi.contract.v1.GetAccountsResponse;
+import ru.tinkoff.piapi.contract.v1.UsersServiceGrpc;
+import ru.tinkoff.piapi.core.InvestApi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests pool of channels against local gRPC server
+ */
+class PooledManagedChannelUnitTest {
+
+    private final UsersServiceStandIn usersService = new UsersServiceStandIn();
+
+    private Server server;
+    private PooledManagedChannel channel;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenNoChannels() {
+        final List<ManagedChannel> channels = Collections.emptyList();
+
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> new PooledManagedChannel(channels),
+                "channels must not be empty"
+        );
+    }
+
+    @Test
+    void newCall_spreadsFinishedCallsInRoundRobinOrder() throws IOException {
+        startServer(3);
+        final UsersServiceGrpc.UsersServiceBlockingStub stub = UsersServiceGrpc.newBlockingStub(channel);
+
+        for (int i = 0; i < 6; i++) {
+            stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+        }
+
+        for (final ApiChannelMetrics metrics : channel.getMetrics()) {
+            Assertions.assertEquals(2, metrics.calls());
+            Assertions.assertEquals(0, metrics.activeCalls());
+        }
+    }
+
+    @Test
+    void newCall_selectsLeastLoadedChannel() throws IOException {
+        startServer(2);
+        final UsersServiceGrpc.UsersServiceStub asyncStub = UsersServiceGrpc.newStub(channel);
+        final UsersServiceGrpc.UsersServiceBlockingStub stub = UsersServiceGrpc.newBlockingStub(channel);
+
+        usersService.holdResponses = true;
+        asyncStub.getAccounts(GetAccountsRequest.getDefaultInstance(), new NoOpObserver());
+        usersService.holdResponses = false;
+
+        // the first channel is next in round-robin order, but it has call in progress
+        stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+        stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+
+        final List<ApiChannelMetrics> metrics = channel.getMetrics();
+        Assertions.assertEquals(1, metrics.get(0).activeCalls());
+        Assertions.assertEquals(0, metrics.get(0).calls());
+        Assertions.assertEquals(0, metrics.get(1).activeCalls());
+        Assertions.assertEquals(2, metrics.get(1).calls());
+
+        usersService.releaseResponses();
+
+        Assertions.assertEquals(0, channel.getMetrics().get(0).activeCalls());
+        Assertions.assertEquals(1, channel.getMetrics().get(0).calls());
+    }
+
+    @Test
+    void getMetrics_countsErrors() throws IOException {
+        startServer(1);
+        final UsersServiceGrpc.UsersServiceBlockingStub stub = UsersServiceGrpc.newBlockingStub(channel);
+
+        usersService.error = Status.UNAVAILABLE;
+        Assertions.assertThrows(StatusRuntimeException.class, () -> stub.getAccounts(GetAccountsRequest.getDefaultInstance()));
+        usersService.error = null;
+        stub.getAccounts(GetAccountsRequest.getDefaultInstance());
+
+        final ApiChannelMetrics metrics = channel.getMetrics().getFirst();
+        Assertions.assertEquals(2, metrics.calls());
+        Assertions.assertEquals(1, metrics.errors());
+        Assertions.assertEquals(0, metrics.activeCalls());
+    }
+
+    @Test
+    void getMetrics_doesNotCountCancelledNotStartedCallAsActive() throws IOException {
+        startServer(1);
+
+        channel.newCall(UsersServiceGrpc.getGetAccountsMethod(), CallOptions.DEFAULT).cancel("test", null);
+
+        Assertions.assertEquals(0, channel.getMetrics().getFirst().activeCalls());
+    }
+
+    @Test
+    void investApi_makesCallsThroughPool() throws IOException {
+        startServer(2);
+        final InvestApi investApi = InvestApi.create(channel);
+
+        investApi.getUserService().getAccountsSync();
+        investApi.getUserService().getAccountsSync();
+
+        for (final ApiChannelMetrics metrics : channel.getMetrics()) {
+            Assertions.assertEquals(1, metrics.calls());
+        }
+    }
+
+    @Test
+    void shutdown_shutsDownAllChannels() throws IOException, InterruptedException {
+        startServer(3);
+
+        channel.shutdown();
+
+        Assertions.assertTrue(channel.isShutdown());
+        Assertions.assertTrue(channel.awaitTermination(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(channel.isTerminated());
+    }
+
+    private void startServer(final int channelsCount) throws IOException {
+        final String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(usersService)
+                .build()
+                .start();
+        final List<ManagedChannel> channels = new ArrayList<>(channelsCount);
+        for (int i = 0; i < channelsCount; i++) {
+            channels.add(InProcessChannelBuilder.forName(name).directExecutor().build());
+        }
+        channel = new PooledManagedChannel(channels);
+    }
+
+    /**
+     * Responds immediately by empty response or {@code error}, or holds responses till {@link #releaseResponses()}
+     */
+    private static final class UsersServiceStandIn extends UsersServiceGrpc.UsersServiceImplBase {
+
+        private final Queue<StreamObserver<GetAccountsResponse>> heldResponses = new ConcurrentLinkedQueue<>();
+        private volatile boolean holdResponses;
+        private volatile Status error;
+
+        @Override
+        public void getAccounts(final GetAccountsRequest request, final StreamObserver<GetAccountsResponse> responseObserver) {
+            if (holdResponses) {
+                heldResponses.add(responseObserver);
+            } else {
+                respond(responseObserver);
+            }
+        }
+
+        private void releaseResponses() {
+            StreamObserver<GetAccountsResponse> responseObserver;
+            while ((responseObserver = heldResponses.poll()) != null) {
+                respond(responseObserver);
+            }
+        }
+
+        private void respond(final StreamObserver<GetAccountsResponse> responseObserver) {
+            if (error == null) {
+                responseObserver.onNext(GetAccountsResponse.getDefaultInstance());
+                responseObserver.onCompleted();
+            } else {
+                responseObserver.onError(error.asRuntimeException());
+            }
+        }
+
+    }
+
+    private static final class NoOpObserver implements StreamObserver<GetAccountsResponse> {
+
+        @Override
+        public void onNext(final GetAccountsResponse value) {
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package ru.obukhov.trader.config.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+class ApiCallPriorityUnitTest {
+
+    @Test
+    void current_returnsInteractive_byDefault() throws Exception {
+        final ApiCallPriority priority = CompletableFuture.supplyAsync(ApiCallPriority::current).get();
+
+        Assertions.assertEquals(ApiCallPriority.INTERACTIVE, priority);
+    }
+
+    @Test
+    void get_setsPriorityWithinSupplierAndRestoresPrevious() {
+        final ApiCallPriority inner = ApiCallPriority.LIVE.get(() -> ApiCallPriority.BACKGROUND.get(ApiCallPriority::current));
+        final ApiCallPriority outer = ApiCallPriority.LIVE.get(() -> {
+            ApiCallPriority.BACKGROUND.run(() -> {
+            });
+            return ApiCallPriority.current();
+        });
+
+        Assertions.assertEquals(ApiCallPriority.BACKGROUND, inner);
+        Assertions.assertEquals(ApiCallPriority.LIVE, outer);
+        Assertions.assertEquals(ApiCallPriority.INTERACTIVE, ApiCallPriority.current());
+    }
+
+    @Test
+    void run_restoresPreviousPriority_whenRunnableThrowsException() {
+        final Runnable runnable = () -> {
+            throw new IllegalStateException();
+        };
+
+        Assertions.assertThrows(IllegalStateException.class, () -> ApiCallPriority.BACKGROUND.run(runnable));
+        Assertions.assertEquals(ApiCallPriority.INTERACTIVE, ApiCallPriority.current());
+    }
+
+}
@@ -0,0 +1,96 @@
+package ru.obukhov.trader.config.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+class ApiCallsTimerUnitTest {
+
+    @Test
+    void current_returnsNull_byDefault() throws Exception {
+        final ApiCallsTimer timer = CompletableFuture.supplyAsync(ApiCallsTimer::current).get();
+
+        Assertions.assertNull(timer);
+    }
+
+    @Test
+    void get_setsTimerWithinSupplierAndRestoresPrevious() {
+        final ApiCallsTimer outerTimer = new ApiCallsTimer();
+        final ApiCallsTimer innerTimer = new ApiCallsTimer();
+
+        final ApiCallsTimer inner = outerTimer.get(() -> innerTimer.get(ApiCallsTimer::current));
+        final ApiCallsTimer outer = outerTimer.get(() -> {
+            innerTimer.run(() -> {
+            });
+            return ApiCallsTimer.current();
+        });
+
+        Assertions.assertSame(innerTimer, inner);
+        Assertions.assertSame(outerTimer, outer);
+        Assertions.assertNull(ApiCallsTimer.current());
+    }
+
+    @Test
+    void run_restoresPreviousTimer_whenRunnableThrowsException() {
+        final ApiCallsTimer timer = new ApiCallsTimer();
+        final Runnable runnable = () -> {
+            throw new IllegalStateException();
+        };
+
+        Assertions.assertThrows(IllegalStateException.class, () -> timer.run(runnable));
+        Assertions.assertNull(ApiCallsTimer.current());
+    }
+
+    @Test
+    void with_setsGivenTimerWithinSupplierAndRestoresPrevious_whenGivenTimerIsNull() {
+        final ApiCallsTimer timer = new ApiCallsTimer();
+
+        final ApiCallsTimer current = timer.get(() -> ApiCallsTimer.with(null, ApiCallsTimer::current));
+
+        Assertions.assertNull(current);
+        Assertions.assertNull(ApiCallsTimer.current());
+    }
+
+    @Test
+    void with_continuesAccountingInAnotherThread() throws Exception {
+        final ApiCallsTimer timer = new ApiCallsTimer();
+
+        final ApiCallsTimer current = timer.get(() -> {
+            final ApiCallsTimer callingThreadTimer = ApiCallsTimer.current();
+            return CompletableFuture.supplyAsync(() -> ApiCallsTimer.with(callingThreadTimer, ApiCallsTimer::current)).join();
+        });
+
+        Assertions.assertSame(timer, current);
+    }
+
+    @Test
+    void add_addsTimeOfGivenTimerToThisAndParent() {
+        final ApiCallsTimer parent = new ApiCallsTimer();
+        final ApiCallsTimer timer = new ApiCallsTimer(parent);
+        final ApiCallsTimer other = new ApiCallsTimer();
+        other.addThrottlingNanos(10);
+        other.addCallNanos(100);
+
+        timer.add(other);
+
+        Assertions.assertEquals(10, timer.getThrottlingNanos());
+        Assertions.assertEquals(100, timer.getCallsNanos());
+        Assertions.assertEquals(10, parent.getThrottlingNanos());
+        Assertions.assertEquals(100, parent.getCallsNanos());
+    }
+
+    @Test
+    void addNanos_accumulatesThrottlingAndCallsTimeSeparately() {
+        final ApiCallsTimer timer = new ApiCallsTimer();
+
+        timer.addThrottlingNanos(10);
+        timer.addCallNanos(100);
+        timer.addThrottlingNanos(20);
+        timer.addCallNanos(200);
+
+        Assertions.assertEquals(30, timer.getThrottlingNanos());
+        Assertions.assertEquals(300, timer.getCallsNanos());
+    }
+
+}
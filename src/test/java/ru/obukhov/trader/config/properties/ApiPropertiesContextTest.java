@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.obukhov.trader.test.utils.AssertUtils;
 
 class ApiPropertiesContextTest {
 
@@ -22,6 +23,9 @@ class ApiPropertiesContextTest {
                     final ApiProperties apiProperties = context.getBean(ApiProperties.class);
 
                     Assertions.assertEquals(1000, apiProperties.throttlingInterval());
+                    Assertions.assertFalse(apiProperties.adaptiveThrottling());
+                    Assertions.assertEquals(3.0, apiProperties.adaptiveThrottlingMaxFactor());
+                    Assertions.assertEquals(2, apiProperties.channelsCount());
                 });
     }
 
@@ -33,9 +37,46 @@ class ApiPropertiesContextTest {
             final ApiProperties apiProperties = context.getBean(ApiProperties.class);
 
             Assertions.assertEquals(60000, apiProperties.throttlingInterval());
+            Assertions.assertTrue(apiProperties.adaptiveThrottling());
+            Assertions.assertEquals(2.0, apiProperties.adaptiveThrottlingMaxFactor());
+            Assertions.assertNull(apiProperties.sharedQuotaDirectory());
+            Assertions.assertEquals(1, apiProperties.channelsCount());
         });
     }
 
+    @Test
+    void sharedQuotaDirectoryIsFilled() {
+        contextRunner
+                .withPropertyValues("ru.tbank.invest.openapi.shared-quota-directory: /tmp/quota")
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final ApiProperties apiProperties = context.getBean(ApiProperties.class);
+
+                    Assertions.assertEquals("/tmp/quota", apiProperties.sharedQuotaDirectory());
+                });
+    }
+
+    @Test
+    void beanCreationFails_whenAdaptiveThrottlingMaxFactorIsLowerThanOne() {
+        contextRunner
+                .withPropertyValues("ru.tbank.invest.openapi.adaptive-throttling-max-factor=0.5")
+                .run(context -> AssertUtils.assertContextStartupFailed(
+                        context,
+                        "adaptiveThrottlingMaxFactor can't be lower than 1"
+                ));
+    }
+
+    @Test
+    void beanCreationFails_whenChannelsCountIsNotPositive() {
+        contextRunner
+                .withPropertyValues("ru.tbank.invest.openapi.channels-count=0")
+                .run(context -> AssertUtils.assertContextStartupFailed(
+                        context,
+                        "channelsCount must be positive"
+                ));
+    }
+
     @EnableConfigurationProperties(ApiProperties.class)
     private static class EnableConfigurationPropertiesConfiguration {
     }
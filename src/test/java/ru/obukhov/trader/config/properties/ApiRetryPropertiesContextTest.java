@@ -0,0 +1,81 @@
+package ru.obukhov.trader.config.properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.time.Duration;
+
+class ApiRetryPropertiesContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EnableConfigurationPropertiesConfiguration.class);
+
+    @Test
+    void beanCreating_whenPropertiesFilled() {
+        this.contextRunner
+                .withInitializer(applicationContext -> applicationContext.getEnvironment().setActiveProfiles("test"))
+                .withInitializer(new ConfigDataApplicationContextInitializer())
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final ApiRetryProperties apiRetryProperties = context.getBean(ApiRetryProperties.class);
+
+                    Assertions.assertEquals(4, apiRetryProperties.maxAttempts());
+                    Assertions.assertEquals(Duration.ofMillis(10), apiRetryProperties.initialBackoff());
+                    Assertions.assertEquals(Duration.ofMillis(100), apiRetryProperties.maxBackoff());
+                    Assertions.assertEquals(3.0, apiRetryProperties.backoffMultiplier());
+                    Assertions.assertFalse(apiRetryProperties.hedging());
+                    Assertions.assertEquals(0.9, apiRetryProperties.hedgingPercentile());
+                    Assertions.assertEquals(Duration.ofMillis(20), apiRetryProperties.hedgingMinDelay());
+                    Assertions.assertEquals(0.2, apiRetryProperties.hedgingMaxRatio());
+                });
+    }
+
+    @Test
+    void beanCreating_initializesDefaultValues_whenPropertiesAreNotFilled() {
+        contextRunner.run(context -> {
+            Assertions.assertNull(context.getStartupFailure());
+
+            final ApiRetryProperties apiRetryProperties = context.getBean(ApiRetryProperties.class);
+
+            Assertions.assertEquals(3, apiRetryProperties.maxAttempts());
+            Assertions.assertEquals(Duration.ofMillis(100), apiRetryProperties.initialBackoff());
+            Assertions.assertEquals(Duration.ofSeconds(2), apiRetryProperties.maxBackoff());
+            Assertions.assertEquals(2.0, apiRetryProperties.backoffMultiplier());
+            Assertions.assertFalse(apiRetryProperties.hedging());
+            Assertions.assertEquals(0.95, apiRetryProperties.hedgingPercentile());
+            Assertions.assertEquals(Duration.ofMillis(50), apiRetryProperties.hedgingMinDelay());
+            Assertions.assertEquals(0.1, apiRetryProperties.hedgingMaxRatio());
+        });
+    }
+
+    @Test
+    void beanCreationFails_whenMaxAttemptsIsNotPositive() {
+        contextRunner
+                .withPropertyValues("ru.tbank.invest.openapi.retry.max-attempts=0")
+                .run(context -> AssertUtils.assertContextStartupFailed(context, "maxAttempts must be positive"));
+    }
+
+    @Test
+    void beanCreationFails_whenBackoffMultiplierIsLowerThanOne() {
+        contextRunner
+                .withPropertyValues("ru.tbank.invest.openapi.retry.backoff-multiplier=0.5")
+                .run(context -> AssertUtils.assertContextStartupFailed(context, "backoffMultiplier can't be lower than 1"));
+    }
+
+    @Test
+    void beanCreationFails_whenHedgingPercentileIsGreaterThanOne() {
+        contextRunner
+                .withPropertyValues("ru.tbank.invest.openapi.retry.hedging-percentile=1.5")
+                .run(context -> AssertUtils.assertContextStartupFailed(context, "hedgingPercentile must be in range [0, 1]"));
+    }
+
+    @EnableConfigurationProperties(ApiRetryProperties.class)
+    private static class EnableConfigurationPropertiesConfiguration {
+    }
+
+}
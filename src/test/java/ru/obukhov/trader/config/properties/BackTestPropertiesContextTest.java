@@ -16,13 +16,15 @@ class BackTestPropertiesContextTest {
 
     @Test
     void beanCreated_andValueInitialized_whenPropertiesFilled() {
-        contextRunner.withPropertyValues("back-test.thread-count: 7")
+        contextRunner.withPropertyValues("back-test.thread-count: 7", "back-test.loading-concurrency: 3", "back-test.queue-capacity: 5")
                 .run(context -> {
                     Assertions.assertNull(context.getStartupFailure());
 
                     final BackTestProperties backTestProperties = context.getBean(BackTestProperties.class);
 
                     Assertions.assertEquals(7, backTestProperties.getThreadCount());
+                    Assertions.assertEquals(3, backTestProperties.getLoadingConcurrency());
+                    Assertions.assertEquals(5, backTestProperties.getQueueCapacity());
                 });
     }
 
@@ -50,6 +52,41 @@ class BackTestPropertiesContextTest {
                 .run(AssertUtils.createBindValidationExceptionAssertConsumer("threadCount must be positive"));
     }
 
+    @Test
+    void beanCreated_withNullLoadingConcurrency_whenLoadingConcurrencyIsNotFilled() {
+        contextRunner.run(context -> {
+            Assertions.assertNull(context.getStartupFailure());
+
+            final BackTestProperties backTestProperties = context.getBean(BackTestProperties.class);
+
+            Assertions.assertNull(backTestProperties.getLoadingConcurrency());
+        });
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenLoadingConcurrencyIsZero() {
+        contextRunner.withPropertyValues("back-test.loading-concurrency: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("loadingConcurrency must be positive"));
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenQueueCapacityIsNull() {
+        contextRunner.withPropertyValues("back-test.queue-capacity:")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("queueCapacity is mandatory"));
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenQueueCapacityIsZero() {
+        contextRunner.withPropertyValues("back-test.queue-capacity: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("queueCapacity must be positive"));
+    }
+
     @EnableConfigurationProperties(BackTestProperties.class)
     private static class EnableConfigurationPropertiesConfiguration {
     }
@@ -0,0 +1,80 @@
+package ru.obukhov.trader.config.properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.time.Duration;
+
+class BackTestSchedulerPropertiesContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EnableConfigurationPropertiesConfiguration.class);
+
+    @Test
+    void beanCreating_whenPropertiesFilled() {
+        contextRunner
+                .withPropertyValues(
+                        "back-test.scheduler.cpu-budget: 1000",
+                        "back-test.scheduler.memory-budget: 2000",
+                        "back-test.scheduler.max-queued-jobs: 3",
+                        "back-test.scheduler.max-wait-time: 5s"
+                )
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final BackTestSchedulerProperties properties = context.getBean(BackTestSchedulerProperties.class);
+
+                    Assertions.assertEquals(1000, properties.cpuBudget());
+                    Assertions.assertEquals(2000, properties.memoryBudget());
+                    Assertions.assertEquals(3, properties.maxQueuedJobs());
+                    Assertions.assertEquals(Duration.ofSeconds(5), properties.maxWaitTime());
+                });
+    }
+
+    @Test
+    void propertiesInitializedWithDefaultValues_whenNull() {
+        contextRunner
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final BackTestSchedulerProperties properties = context.getBean(BackTestSchedulerProperties.class);
+
+                    Assertions.assertEquals(100_000_000L, properties.cpuBudget());
+                    Assertions.assertEquals(5_000_000L, properties.memoryBudget());
+                    Assertions.assertEquals(32, properties.maxQueuedJobs());
+                    Assertions.assertEquals(Duration.ofMinutes(10), properties.maxWaitTime());
+                });
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenCpuBudgetIsZero() {
+        contextRunner.withPropertyValues("back-test.scheduler.cpu-budget: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("cpuBudget must be positive"));
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenMemoryBudgetIsZero() {
+        contextRunner.withPropertyValues("back-test.scheduler.memory-budget: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("memoryBudget must be positive"));
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenMaxQueuedJobsIsNegative() {
+        contextRunner.withPropertyValues("back-test.scheduler.max-queued-jobs: -1")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("maxQueuedJobs can't be negative"));
+    }
+
+    @EnableConfigurationProperties(BackTestSchedulerProperties.class)
+    private static class EnableConfigurationPropertiesConfiguration {
+    }
+
+}
@@ -0,0 +1,76 @@
+package ru.obukhov.trader.config.properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.util.List;
+
+class DistributedBackTestPropertiesContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EnableConfigurationPropertiesConfiguration.class);
+
+    @Test
+    void beanCreating_whenPropertiesFilled() {
+        contextRunner
+                .withPropertyValues(
+                        "back-test.distributed.enabled: true",
+                        "back-test.distributed.worker-urls: http://localhost:8081, http://localhost:8082",
+                        "back-test.distributed.partition-size: 5",
+                        "back-test.distributed.max-attempts: 2",
+                        "back-test.distributed.candles-store-directory: /tmp/candles"
+                )
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final DistributedBackTestProperties properties = context.getBean(DistributedBackTestProperties.class);
+
+                    Assertions.assertTrue(properties.enabled());
+                    Assertions.assertEquals(List.of("http://localhost:8081", "http://localhost:8082"), properties.workerUrls());
+                    Assertions.assertEquals(5, properties.partitionSize());
+                    Assertions.assertEquals(2, properties.maxAttempts());
+                    Assertions.assertEquals("/tmp/candles", properties.candlesStoreDirectory());
+                });
+    }
+
+    @Test
+    void propertiesInitializedWithDefaultValues_whenNull() {
+        contextRunner
+                .withPropertyValues("back-test.distributed.candles-store-directory:")
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final DistributedBackTestProperties properties = context.getBean(DistributedBackTestProperties.class);
+
+                    Assertions.assertFalse(properties.enabled());
+                    Assertions.assertTrue(properties.workerUrls().isEmpty());
+                    Assertions.assertEquals(1, properties.partitionSize());
+                    Assertions.assertEquals(3, properties.maxAttempts());
+                    Assertions.assertNull(properties.candlesStoreDirectory());
+                });
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenPartitionSizeIsZero() {
+        contextRunner.withPropertyValues("back-test.distributed.partition-size: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("partitionSize must be positive"));
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenMaxAttemptsIsZero() {
+        contextRunner.withPropertyValues("back-test.distributed.max-attempts: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("maxAttempts must be positive"));
+    }
+
+    @EnableConfigurationProperties(DistributedBackTestProperties.class)
+    private static class EnableConfigurationPropertiesConfiguration {
+    }
+
+}
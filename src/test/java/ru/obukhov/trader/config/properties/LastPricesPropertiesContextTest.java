@@ -0,0 +1,61 @@
+package ru.obukhov.trader.config.properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.time.Duration;
+
+class LastPricesPropertiesContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EnableConfigurationPropertiesConfiguration.class);
+
+    @Test
+    void beanCreating_whenPropertiesFilled() {
+        contextRunner
+                .withPropertyValues(
+                        "last-prices.batch-window: 5ms",
+                        "last-prices.max-batch-size: 100",
+                        "last-prices.max-staleness: 10s"
+                )
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final LastPricesProperties properties = context.getBean(LastPricesProperties.class);
+
+                    Assertions.assertEquals(Duration.ofMillis(5), properties.batchWindow());
+                    Assertions.assertEquals(100, properties.maxBatchSize());
+                    Assertions.assertEquals(Duration.ofSeconds(10), properties.maxStaleness());
+                });
+    }
+
+    @Test
+    void propertiesInitializedWithDefaultValues_whenNull() {
+        contextRunner
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final LastPricesProperties properties = context.getBean(LastPricesProperties.class);
+
+                    Assertions.assertEquals(Duration.ofMillis(2), properties.batchWindow());
+                    Assertions.assertEquals(1000, properties.maxBatchSize());
+                    Assertions.assertEquals(Duration.ofSeconds(1), properties.maxStaleness());
+                });
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenMaxBatchSizeIsNotPositive() {
+        contextRunner.withPropertyValues("last-prices.max-batch-size: 0")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("maxBatchSize must be positive"));
+    }
+
+    @EnableConfigurationProperties(LastPricesProperties.class)
+    private static class EnableConfigurationPropertiesConfiguration {
+    }
+
+}
@@ -0,0 +1,44 @@
+package ru.obukhov.trader.config.properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+class MovingAveragePropertiesContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EnableConfigurationPropertiesConfiguration.class);
+
+    @Test
+    void beanCreated_andValuesInitialized_whenPropertiesFilled() {
+        contextRunner
+                .withInitializer(applicationContext -> applicationContext.getEnvironment().setActiveProfiles("test"))
+                .withInitializer(new ConfigDataApplicationContextInitializer())
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final MovingAverageProperties movingAverageProperties = context.getBean(MovingAverageProperties.class);
+
+                    Assertions.assertTrue(movingAverageProperties.validationEnabled());
+                });
+    }
+
+    @Test
+    void beanCreated_andValidationDisabled_whenPropertiesEmpty() {
+        contextRunner
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final MovingAverageProperties movingAverageProperties = context.getBean(MovingAverageProperties.class);
+
+                    Assertions.assertFalse(movingAverageProperties.validationEnabled());
+                });
+    }
+
+    @EnableConfigurationProperties(MovingAverageProperties.class)
+    private static class EnableConfigurationPropertiesConfiguration {
+    }
+
+}
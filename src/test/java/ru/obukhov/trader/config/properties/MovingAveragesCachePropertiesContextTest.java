@@ -0,0 +1,58 @@
+package ru.obukhov.trader.config.properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.obukhov.trader.test.utils.AssertUtils;
+
+import java.time.Duration;
+
+class MovingAveragesCachePropertiesContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(EnableConfigurationPropertiesConfiguration.class);
+
+    @Test
+    void beanCreating_whenPropertiesFilled() {
+        contextRunner
+                .withPropertyValues(
+                        "moving-average.cache.max-averages: 1000",
+                        "moving-average.cache.expire-after-access: 5m"
+                )
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final MovingAveragesCacheProperties properties = context.getBean(MovingAveragesCacheProperties.class);
+
+                    Assertions.assertEquals(1000, properties.maxAverages());
+                    Assertions.assertEquals(Duration.ofMinutes(5), properties.expireAfterAccess());
+                });
+    }
+
+    @Test
+    void propertiesInitializedWithDefaultValues_whenNull() {
+        contextRunner
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+
+                    final MovingAveragesCacheProperties properties = context.getBean(MovingAveragesCacheProperties.class);
+
+                    Assertions.assertEquals(2_000_000L, properties.maxAverages());
+                    Assertions.assertEquals(Duration.ofHours(3), properties.expireAfterAccess());
+                });
+    }
+
+    @Test
+    @SuppressWarnings("java:S2699")
+        // Sonar warning "Tests should include assertions"
+    void beanCreationFails_whenMaxAveragesIsNegative() {
+        contextRunner.withPropertyValues("moving-average.cache.max-averages: -1")
+                .run(AssertUtils.createBindValidationExceptionAssertConsumer("maxAverages can't be negative"));
+    }
+
+    @EnableConfigurationProperties(MovingAveragesCacheProperties.class)
+    private static class EnableConfigurationPropertiesConfiguration {
+    }
+
+}
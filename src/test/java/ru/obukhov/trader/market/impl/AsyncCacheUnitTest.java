@@ -0,0 +1,94 @@
+package ru.obukhov.trader.market.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AsyncCacheUnitTest {
+
+    @Test
+    void get_returnsCachedValue_withoutLoading() {
+        final Cache cache = new ConcurrentMapCache("test");
+        cache.put("key", "cached");
+        final AsyncCache asyncCache = new AsyncCache(cache);
+
+        final String result = asyncCache.get("key", () -> CompletableFuture.<String>failedFuture(new IllegalStateException())).join();
+
+        Assertions.assertEquals("cached", result);
+    }
+
+    @Test
+    void get_putsLoadedValueToCache() {
+        final Cache cache = new ConcurrentMapCache("test");
+        final AsyncCache asyncCache = new AsyncCache(cache);
+
+        final String result = asyncCache.get("key", () -> CompletableFuture.completedFuture("loaded")).join();
+
+        Assertions.assertEquals("loaded", result);
+        Assertions.assertEquals("loaded", cache.get("key", String.class));
+    }
+
+    @Test
+    void get_joinsConcurrentLoadsOfSameKey() {
+        final AsyncCache asyncCache = new AsyncCache(new ConcurrentMapCache("test"));
+        final CompletableFuture<String> load = new CompletableFuture<>();
+        final AtomicInteger loadsCount = new AtomicInteger();
+
+        final CompletableFuture<String> future1 = asyncCache.get("key", () -> {
+            loadsCount.incrementAndGet();
+            return load;
+        });
+        final CompletableFuture<String> future2 = asyncCache.get("key", () -> {
+            loadsCount.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        Assertions.assertFalse(future1.isDone());
+        Assertions.assertFalse(future2.isDone());
+        load.complete("loaded");
+        Assertions.assertEquals("loaded", future1.join());
+        Assertions.assertEquals("loaded", future2.join());
+        Assertions.assertEquals(1, loadsCount.get());
+    }
+
+    @Test
+    void get_doesNotCacheFailedLoad() {
+        final Cache cache = new ConcurrentMapCache("test");
+        final AsyncCache asyncCache = new AsyncCache(cache);
+        final IllegalStateException exception = new IllegalStateException("test");
+
+        final CompletableFuture<String> failed = asyncCache.get("key", () -> CompletableFuture.failedFuture(exception));
+        Assertions.assertTrue(failed.isCompletedExceptionally());
+        Assertions.assertNull(cache.get("key"));
+
+        final String result = asyncCache.get("key", () -> CompletableFuture.completedFuture("loaded")).join();
+        Assertions.assertEquals("loaded", result);
+    }
+
+    @Test
+    void get_completesExceptionally_whenLoaderThrowsException() {
+        final AsyncCache asyncCache = new AsyncCache(new ConcurrentMapCache("test"));
+
+        final CompletableFuture<String> result = asyncCache.get("key", () -> {
+            throw new IllegalStateException("test");
+        });
+
+        Assertions.assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void get_loadsEveryTime_whenCacheIsNull() {
+        final AsyncCache asyncCache = new AsyncCache(null);
+        final AtomicInteger loadsCount = new AtomicInteger();
+
+        asyncCache.get("key", () -> CompletableFuture.completedFuture(loadsCount.incrementAndGet())).join();
+        final int result = asyncCache.get("key", () -> CompletableFuture.completedFuture(loadsCount.incrementAndGet())).join();
+
+        Assertions.assertEquals(2, result);
+    }
+
+}
@@ -42,7 +42,12 @@ import ru.obukhov.trader.test.utils.model.trading_day.TestTradingDays;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @SpringBootTest
 class ExtInstrumentsServiceIntegrationTest extends IntegrationTest {
@@ -200,6 +205,39 @@ class ExtInstrumentsServiceIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(testInstrument.instrument(), actualResult2);
     }
 
+    // region getInstrumentAsync tests
+
+    @Test
+    @DirtiesContext
+    void getInstrumentAsync_returnsValueCachedByGetInstrument() {
+        final TestInstrument testInstrument = TestInstruments.SBER;
+        final String figi = testInstrument.getFigi();
+        Mocker.mockInstrument(instrumentsService, testInstrument);
+        extInstrumentsService.getInstrument(figi);
+
+        final Instrument result = extInstrumentsService.getInstrumentAsync(figi).join();
+
+        Assertions.assertEquals(testInstrument.instrument(), result);
+        Mockito.verify(instrumentsService, Mockito.never()).getInstrumentByFigi(figi);
+    }
+
+    @Test
+    @DirtiesContext
+    void getInstrumentAsync_cachesValueForGetInstrument() {
+        final TestInstrument testInstrument = TestInstruments.SBER;
+        final String figi = testInstrument.getFigi();
+        Mocker.mockInstrument(instrumentsService, testInstrument);
+
+        final Instrument asyncResult = extInstrumentsService.getInstrumentAsync(figi).join();
+        final Instrument result = extInstrumentsService.getInstrument(figi);
+
+        Assertions.assertEquals(testInstrument.instrument(), asyncResult);
+        Assertions.assertEquals(testInstrument.instrument(), result);
+        Mockito.verify(instrumentsService, Mockito.never()).getInstrumentByFigiSync(figi);
+    }
+
+    // endregion
+
     // region getShare tests
 
     @Test
@@ -231,6 +269,37 @@ class ExtInstrumentsServiceIntegrationTest extends IntegrationTest {
 
     // endregion
 
+    // region getShareAsync tests
+
+    @Test
+    @DirtiesContext
+    void getShareAsync_returnsShare() {
+        final TestShare testShare = TestShares.SBER;
+
+        Mocker.mockShare(instrumentsService, testShare);
+
+        final Share result = extInstrumentsService.getShareAsync(testShare.getFigi()).join();
+
+        Assertions.assertEquals(testShare.share(), result);
+    }
+
+    @Test
+    @DirtiesContext
+    void getShareAsync_returnsCachedShare() {
+        final TestShare testShare = TestShares.SBER;
+        final String figi = testShare.getFigi();
+
+        Mocker.mockShare(instrumentsService, testShare);
+        extInstrumentsService.getShareAsync(figi).join();
+
+        Mockito.when(instrumentsService.getShareByFigi(figi)).thenReturn(CompletableFuture.completedFuture(null));
+        final Share result = extInstrumentsService.getShareAsync(figi).join();
+
+        Assertions.assertEquals(testShare.share(), result);
+    }
+
+    // endregion
+
     @Test
     @DirtiesContext
     void getShares_returnsCachedValue() {
@@ -903,4 +972,51 @@ class ExtInstrumentsServiceIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(expectedResult, actualResult);
     }
 
+    @Test
+    void getDividendsAsync_forSeveralFigies() {
+        final TestShare share1 = TestShares.SBER;
+        final TestShare share2 = TestShares.APPLE;
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 1, 1);
+
+        final TestDividend testDividend1 = TestDividends.TEST_DIVIDEND1;
+        final TestDividend testDividend2 = TestDividends.TEST_DIVIDEND2;
+        Mockito.when(instrumentsService.getDividends(share1.getFigi(), share1.getFirst1DayCandleDate().toInstant(), to.toInstant()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(testDividend1.tDividend(), testDividend2.tDividend())));
+        Mockito.when(instrumentsService.getDividends(share2.getFigi(), share2.getFirst1DayCandleDate().toInstant(), to.toInstant()))
+                .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+        final Map<String, Interval> figiesToIntervals = new LinkedHashMap<>();
+        figiesToIntervals.put(share2.getFigi(), Interval.of(share2.getFirst1DayCandleDate(), to));
+        figiesToIntervals.put(share1.getFigi(), Interval.of(share1.getFirst1DayCandleDate(), to));
+
+        final SequencedMap<String, List<Dividend>> actualResult = extInstrumentsService.getDividendsAsync(figiesToIntervals).join();
+
+        Assertions.assertEquals(List.of(share2.getFigi(), share1.getFigi()), List.copyOf(actualResult.keySet()));
+        Assertions.assertEquals(Collections.emptyList(), actualResult.get(share2.getFigi()));
+        Assertions.assertEquals(List.of(testDividend1.dividend()), actualResult.get(share1.getFigi()));
+    }
+
+    @Test
+    void getDividendsAsync_completesExceptionally_whenAnyCallFailed() {
+        final TestShare share1 = TestShares.SBER;
+        final TestShare share2 = TestShares.APPLE;
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 1, 1);
+
+        final IllegalStateException exception = new IllegalStateException("test");
+        Mockito.when(instrumentsService.getDividends(share1.getFigi(), share1.getFirst1DayCandleDate().toInstant(), to.toInstant()))
+                .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+        Mockito.when(instrumentsService.getDividends(share2.getFigi(), share2.getFirst1DayCandleDate().toInstant(), to.toInstant()))
+                .thenReturn(CompletableFuture.failedFuture(exception));
+
+        final Map<String, Interval> figiesToIntervals = Map.of(
+                share1.getFigi(), Interval.of(share1.getFirst1DayCandleDate(), to),
+                share2.getFigi(), Interval.of(share2.getFirst1DayCandleDate(), to)
+        );
+
+        final CompletableFuture<SequencedMap<String, List<Dividend>>> future = extInstrumentsService.getDividendsAsync(figiesToIntervals);
+
+        final CompletionException actualException = Assertions.assertThrows(CompletionException.class, future::join);
+        Assertions.assertSame(exception, actualException.getCause());
+    }
+
 }
\ No newline at end of file
@@ -644,6 +644,73 @@ class ExtMarketDataServiceIntegrationTest extends IntegrationTest {
 
     // endregion
 
+    // region getCandlesAsync tests
+
+    @Test
+    @DirtiesContext
+    void getCandlesAsync_returnsSameCandlesAsGetCandles() {
+        final TestInstrument instrument = TestInstruments.APPLE;
+        final String figi = instrument.getFigi();
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2020, 1, 6, 10);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2020, 1, 8, 10);
+
+        Mocker.mockInstrument(instrumentsService, instrument);
+        new CandleMocker(marketDataService, figi, candleInterval)
+                .add(1, from.minusMinutes(1))
+                .add(2, from)
+                .add(3, DateTimeTestData.newDateTime(2020, 1, 7, 12))
+                .add(4, to.minusMinutes(1))
+                .add(5, to)
+                .mock();
+
+        try (@SuppressWarnings("unused") final MockedStatic<OffsetDateTime> offsetDateTimeStaticMock = Mocker.mockNow(to.plusDays(1))) {
+            final List<Candle> candles = extMarketDataService.getCandlesAsync(figi, Interval.of(from, to), candleInterval).join();
+
+            Assertions.assertEquals(3, candles.size());
+            AssertUtils.assertEquals(2, candles.getFirst().getClose());
+            AssertUtils.assertEquals(3, candles.get(1).getClose());
+            AssertUtils.assertEquals(4, candles.get(2).getClose());
+
+            // caching test: both methods use the same cache
+            Mocker.mockEmptyCandles(marketDataService, figi, candleInterval);
+            final List<Candle> cachedCandles = extMarketDataService.getCandles(figi, Interval.of(from, to), candleInterval);
+            Assertions.assertEquals(candles, cachedCandles);
+        }
+    }
+
+    @Test
+    @DirtiesContext
+    void getCandlesAsync_returnsCandlesOfAllFigies() {
+        final TestInstrument instrument1 = TestInstruments.APPLE;
+        final TestInstrument instrument2 = TestInstruments.SBER;
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_DAY;
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2020, 1, 6);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2020, 1, 10);
+
+        Mocker.mockInstrument(instrumentsService, instrument1);
+        Mocker.mockInstrument(instrumentsService, instrument2);
+        new CandleMocker(marketDataService, instrument1.getFigi(), candleInterval)
+                .add(1, from)
+                .add(2, from.plusDays(1))
+                .mock();
+        new CandleMocker(marketDataService, instrument2.getFigi(), candleInterval)
+                .add(10, from.plusDays(2))
+                .mock();
+
+        final List<String> figies = List.of(instrument2.getFigi(), instrument1.getFigi());
+        final SequencedMap<String, List<Candle>> result = extMarketDataService.getCandlesAsync(figies, Interval.of(from, to), candleInterval).join();
+
+        Assertions.assertEquals(figies, List.copyOf(result.keySet()));
+        Assertions.assertEquals(1, result.get(instrument2.getFigi()).size());
+        AssertUtils.assertEquals(10, result.get(instrument2.getFigi()).getFirst().getClose());
+        Assertions.assertEquals(2, result.get(instrument1.getFigi()).size());
+        AssertUtils.assertEquals(1, result.get(instrument1.getFigi()).getFirst().getClose());
+        AssertUtils.assertEquals(2, result.get(instrument1.getFigi()).get(1).getClose());
+    }
+
+    // endregion
+
     // region getPrice by figi test
 
     @Test
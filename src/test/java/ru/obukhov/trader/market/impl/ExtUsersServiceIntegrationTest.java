@@ -31,4 +31,17 @@ class ExtUsersServiceIntegrationTest extends IntegrationTest {
         Assertions.assertEquals(expectedResult, actualResult);
     }
 
+    @Test
+    void getAccountsAsync() {
+        final TestAccount testAccount1 = TestAccounts.IIS;
+        final TestAccount testAccount2 = TestAccounts.TINKOFF;
+
+        Mocker.mockAccounts(usersService, testAccount1, testAccount2);
+
+        final List<Account> actualResult = extUsersService.getAccountsAsync().join();
+
+        final List<Account> expectedResult = List.of(testAccount1.account(), testAccount2.account());
+        Assertions.assertEquals(expectedResult, actualResult);
+    }
+
 }
\ No newline at end of file
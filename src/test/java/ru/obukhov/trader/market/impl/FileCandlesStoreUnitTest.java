@@ -0,0 +1,130 @@
+package ru.obukhov.trader.market.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.DateUtils;
+import ru.obukhov.trader.config.properties.DistributedBackTestProperties;
+import ru.obukhov.trader.market.model.Candle;
+import ru.obukhov.trader.test.utils.model.CandleBuilder;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+class FileCandlesStoreUnitTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void get_returnsStoredCandles() {
+        final FileCandlesStore store = createStore(directory.toString());
+
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+        final List<Candle> candles = List.of(
+                new CandleBuilder().setOpen(100.1).setClose(100.2).setHigh(100.3).setLow(100.0).setTime(from.plusMinutes(1)).build(),
+                new CandleBuilder().setOpen(101.1).setClose(101.2).setHigh(101.3).setLow(101.0).setTime(from.plusMinutes(2)).build()
+        );
+
+        store.put(figi, interval, candleInterval, candles);
+
+        Assertions.assertTrue(store.isEnabled());
+        Assertions.assertEquals(candles, store.get(figi, interval, candleInterval));
+        Assertions.assertNull(store.get(figi, interval, CandleInterval.CANDLE_INTERVAL_DAY));
+        Assertions.assertNull(store.get(TestShares.SBER.getFigi(), interval, candleInterval));
+    }
+
+    @Test
+    void get_returnsStoredEmptyCandles() {
+        final FileCandlesStore store = createStore(directory.toString());
+
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+        store.put(figi, interval, candleInterval, List.of());
+
+        Assertions.assertEquals(List.of(), store.get(figi, interval, candleInterval));
+    }
+
+    @Test
+    void put_doesNotStoreCandles_whenIntervalIsNotEnded() {
+        final FileCandlesStore store = createStore(directory.toString());
+
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateUtils.now().minusHours(1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        final List<Candle> candles = List.of(new CandleBuilder().setOpen(100).setClose(100).setHigh(100).setLow(100).setTime(from).build());
+
+        store.put(figi, interval, candleInterval, candles);
+
+        Assertions.assertNull(store.get(figi, interval, candleInterval));
+    }
+
+    @Test
+    void put_doesNotThrowException_whenCandlesCanNotBeStored() throws IOException {
+        final Path file = Files.createFile(directory.resolve("file"));
+        final FileCandlesStore store = createStore(file.toString());
+
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+        Assertions.assertDoesNotThrow(() -> store.put(figi, interval, candleInterval, List.of()));
+
+        Assertions.assertNull(store.get(figi, interval, candleInterval));
+    }
+
+    @Test
+    void getAndPut_doNothing_whenDirectoryIsNull() {
+        final FileCandlesStore store = createStore(null);
+
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+        store.put(figi, interval, candleInterval, List.of());
+
+        Assertions.assertFalse(store.isEnabled());
+        Assertions.assertNull(store.get(figi, interval, candleInterval));
+        Assertions.assertFalse(store.contains(figi, interval, candleInterval));
+    }
+
+    @Test
+    void contains_returnsTrue_onlyForStoredCandles() {
+        final FileCandlesStore store = createStore(directory.toString());
+
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+        Assertions.assertFalse(store.contains(figi, interval, candleInterval));
+
+        store.put(figi, interval, candleInterval, List.of());
+
+        Assertions.assertTrue(store.contains(figi, interval, candleInterval));
+        Assertions.assertFalse(store.contains(figi, interval, CandleInterval.CANDLE_INTERVAL_DAY));
+        Assertions.assertFalse(store.contains(figi, Interval.of(from, from.plusDays(2)), candleInterval));
+    }
+
+    private static FileCandlesStore createStore(final String directory) {
+        return new FileCandlesStore(new DistributedBackTestProperties(true, null, null, null, directory));
+    }
+
+}
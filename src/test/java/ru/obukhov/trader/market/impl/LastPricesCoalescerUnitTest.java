@@ -0,0 +1,307 @@
+package ru.obukhov.trader.market.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.obukhov.trader.config.model.ApiCallPriority;
+import ru.obukhov.trader.config.model.ApiCallsTimer;
+import ru.obukhov.trader.config.properties.LastPricesProperties;
+import ru.obukhov.trader.test.utils.model.TestData;
+import ru.tinkoff.piapi.contract.v1.LastPrice;
+import ru.tinkoff.piapi.core.MarketDataService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+class LastPricesCoalescerUnitTest {
+
+    private static final String FIGI1 = "BBG000B9XRY4";
+    private static final String FIGI2 = "BBG004730N88";
+    private static final String FIGI3 = "BBG00JN4FXG8";
+
+    private static final Map<String, LastPrice> LAST_PRICES = Map.of(
+            FIGI1, TestData.newLastPrice(FIGI1, 100),
+            FIGI2, TestData.newLastPrice(FIGI2, 200),
+            FIGI3, TestData.newLastPrice(FIGI3, 300)
+    );
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Test
+    void getLastPrices_callsApiWithGivenFigies_whenNoConcurrentRequests() {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final List<String> figies = List.of(FIGI1, FIGI2);
+        Mockito.when(marketDataService.getLastPricesSync(figies))
+                .thenReturn(List.of(LAST_PRICES.get(FIGI2), LAST_PRICES.get(FIGI1)));
+
+        final List<LastPrice> result = coalescer.getLastPrices(figies);
+
+        Assertions.assertEquals(List.of(LAST_PRICES.get(FIGI1), LAST_PRICES.get(FIGI2)), result);
+    }
+
+    @Test
+    void getLastPrices_returnsNothingForFigi_whenApiReturnedNothing() {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final List<String> figies = List.of(FIGI1, FIGI2);
+        Mockito.when(marketDataService.getLastPricesSync(figies)).thenReturn(List.of(LAST_PRICES.get(FIGI2)));
+
+        final List<LastPrice> result = coalescer.getLastPrices(figies);
+
+        Assertions.assertEquals(List.of(LAST_PRICES.get(FIGI2)), result);
+    }
+
+    @Test
+    void getLastPrices_batchesRequestsComingDuringCall() throws Exception {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallReleased = new CountDownLatch(1);
+        final List<Set<String>> calls = mockBlockingFirstCall(firstCallStarted, firstCallReleased, new ArrayList<>());
+
+        final CompletableFuture<List<LastPrice>> first = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI1)));
+        Assertions.assertTrue(firstCallStarted.await(1, TimeUnit.SECONDS));
+        final CompletableFuture<List<LastPrice>> second = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI2)));
+        final CompletableFuture<List<LastPrice>> third = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI3, FIGI2)));
+        TimeUnit.MILLISECONDS.sleep(200);
+        firstCallReleased.countDown();
+
+        Assertions.assertEquals(List.of(LAST_PRICES.get(FIGI1)), first.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(LAST_PRICES.get(FIGI2)), second.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(LAST_PRICES.get(FIGI3), LAST_PRICES.get(FIGI2)), third.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(Set.of(FIGI1), Set.of(FIGI2, FIGI3)), calls);
+    }
+
+    @Test
+    void getLastPrices_makesBatchedCallWithHighestPriorityOfRequests() throws Exception {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallReleased = new CountDownLatch(1);
+        final List<ApiCallPriority> priorities = new ArrayList<>();
+        mockBlockingFirstCall(firstCallStarted, firstCallReleased, priorities);
+
+        final CompletableFuture<List<LastPrice>> first = CompletableFuture.supplyAsync(
+                () -> ApiCallPriority.BACKGROUND.get(() -> coalescer.getLastPrices(List.of(FIGI1)))
+        );
+        Assertions.assertTrue(firstCallStarted.await(1, TimeUnit.SECONDS));
+        final CompletableFuture<List<LastPrice>> second = CompletableFuture.supplyAsync(
+                () -> ApiCallPriority.BACKGROUND.get(() -> coalescer.getLastPrices(List.of(FIGI2)))
+        );
+        final CompletableFuture<List<LastPrice>> third = CompletableFuture.supplyAsync(
+                () -> ApiCallPriority.LIVE.get(() -> coalescer.getLastPrices(List.of(FIGI3)))
+        );
+        TimeUnit.MILLISECONDS.sleep(200);
+        firstCallReleased.countDown();
+        CompletableFuture.allOf(first, second, third).get(1, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of(ApiCallPriority.BACKGROUND, ApiCallPriority.LIVE), priorities);
+    }
+
+    @Test
+    void getLastPrices_doesNotBatchMoreThanMaxBatchSizeFigies() throws Exception {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 2, Duration.ZERO);
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallReleased = new CountDownLatch(1);
+        final List<Set<String>> calls = mockBlockingFirstCall(firstCallStarted, firstCallReleased, new ArrayList<>());
+
+        final CompletableFuture<List<LastPrice>> first = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI1)));
+        Assertions.assertTrue(firstCallStarted.await(1, TimeUnit.SECONDS));
+        final CompletableFuture<List<LastPrice>> second = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI1, FIGI2)));
+        TimeUnit.MILLISECONDS.sleep(100);
+        final CompletableFuture<List<LastPrice>> third = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI3)));
+        TimeUnit.MILLISECONDS.sleep(100);
+        firstCallReleased.countDown();
+        CompletableFuture.allOf(first, second, third).get(1, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of(Set.of(FIGI1), Set.of(FIGI1, FIGI2), Set.of(FIGI3)), calls);
+    }
+
+    @Test
+    void getLastPrices_throwsExceptionOfCall_toAllRequestsOfBatch() throws Exception {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallReleased = new CountDownLatch(1);
+        final IllegalStateException exception = new IllegalStateException("API is unavailable");
+        Mockito.when(marketDataService.getLastPricesSync(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            firstCallStarted.countDown();
+            firstCallReleased.await();
+            throw exception;
+        });
+
+        final CompletableFuture<List<LastPrice>> first = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI1)));
+        Assertions.assertTrue(firstCallStarted.await(1, TimeUnit.SECONDS));
+        final CompletableFuture<List<LastPrice>> second = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI2)));
+        final CompletableFuture<List<LastPrice>> third = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI3)));
+        TimeUnit.MILLISECONDS.sleep(200);
+        firstCallReleased.countDown();
+
+        for (final CompletableFuture<List<LastPrice>> future : List.of(first, second, third)) {
+            final Exception thrown = Assertions.assertThrows(Exception.class, () -> future.get(1, TimeUnit.SECONDS));
+            Assertions.assertSame(exception, thrown.getCause());
+        }
+        Mockito.verify(marketDataService, Mockito.times(2)).getLastPricesSync(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    void getLastPrices_throwsErrorOfCall_toAllRequestsOfBatch() throws Exception {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallReleased = new CountDownLatch(1);
+        final AssertionError error = new AssertionError("unexpected error");
+        Mockito.when(marketDataService.getLastPricesSync(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            firstCallStarted.countDown();
+            firstCallReleased.await();
+            throw error;
+        });
+
+        final CompletableFuture<List<LastPrice>> first = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI1)));
+        Assertions.assertTrue(firstCallStarted.await(1, TimeUnit.SECONDS));
+        final CompletableFuture<List<LastPrice>> second = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI2)));
+        final CompletableFuture<List<LastPrice>> third = CompletableFuture.supplyAsync(() -> coalescer.getLastPrices(List.of(FIGI3)));
+        TimeUnit.MILLISECONDS.sleep(200);
+        firstCallReleased.countDown();
+
+        for (final CompletableFuture<List<LastPrice>> future : List.of(first, second, third)) {
+            final Exception thrown = Assertions.assertThrows(Exception.class, () -> future.get(1, TimeUnit.SECONDS));
+            Assertions.assertSame(error, thrown.getCause());
+        }
+    }
+
+    @Test
+    void getLastPrices_addsTimeOfBatchedCall_toTimersOfAllRequestsOfBatch() throws Exception {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        final CountDownLatch firstCallStarted = new CountDownLatch(1);
+        final CountDownLatch firstCallReleased = new CountDownLatch(1);
+        final long callNanos = 1000;
+        Mockito.when(marketDataService.getLastPricesSync(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            // as throttling does
+            ApiCallsTimer.current().addCallNanos(callNanos);
+            if (firstCallStarted.getCount() > 0) {
+                firstCallStarted.countDown();
+                firstCallReleased.await();
+            }
+            final List<String> figies = invocation.getArgument(0);
+            return figies.stream().map(LAST_PRICES::get).toList();
+        });
+        final ApiCallsTimer firstTimer = new ApiCallsTimer();
+        final ApiCallsTimer secondTimer = new ApiCallsTimer();
+        final ApiCallsTimer thirdTimer = new ApiCallsTimer();
+
+        final CompletableFuture<List<LastPrice>> first = CompletableFuture.supplyAsync(
+                () -> firstTimer.get(() -> coalescer.getLastPrices(List.of(FIGI1)))
+        );
+        Assertions.assertTrue(firstCallStarted.await(1, TimeUnit.SECONDS));
+        final CompletableFuture<List<LastPrice>> second = CompletableFuture.supplyAsync(
+                () -> secondTimer.get(() -> coalescer.getLastPrices(List.of(FIGI2)))
+        );
+        final CompletableFuture<List<LastPrice>> third = CompletableFuture.supplyAsync(
+                () -> thirdTimer.get(() -> coalescer.getLastPrices(List.of(FIGI3)))
+        );
+        TimeUnit.MILLISECONDS.sleep(200);
+        firstCallReleased.countDown();
+        CompletableFuture.allOf(first, second, third).get(1, TimeUnit.SECONDS);
+
+        Mockito.verify(marketDataService, Mockito.times(2)).getLastPricesSync(ArgumentMatchers.anyList());
+        Assertions.assertEquals(callNanos, firstTimer.getCallsNanos());
+        Assertions.assertEquals(callNanos, secondTimer.getCallsNanos());
+        Assertions.assertEquals(callNanos, thirdTimer.getCallsNanos());
+    }
+
+    // region staleness tests
+
+    @Test
+    void getLastPrices_reusesLoadedPrices_withinMaxStaleness() {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ofMinutes(1));
+        Mockito.when(marketDataService.getLastPricesSync(List.of(FIGI1, FIGI2)))
+                .thenReturn(List.of(LAST_PRICES.get(FIGI1), LAST_PRICES.get(FIGI2)));
+        Mockito.when(marketDataService.getLastPricesSync(List.of(FIGI3))).thenReturn(List.of(LAST_PRICES.get(FIGI3)));
+
+        coalescer.getLastPrices(List.of(FIGI1, FIGI2));
+        final List<LastPrice> result = coalescer.getLastPrices(List.of(FIGI2, FIGI3, FIGI1));
+
+        Assertions.assertEquals(List.of(LAST_PRICES.get(FIGI2), LAST_PRICES.get(FIGI3), LAST_PRICES.get(FIGI1)), result);
+        Mockito.verify(marketDataService, Mockito.times(2)).getLastPricesSync(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    void getLastPrices_loadsPricesAgain_afterMaxStaleness() throws InterruptedException {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ofMillis(50));
+        Mockito.when(marketDataService.getLastPricesSync(List.of(FIGI1))).thenReturn(List.of(LAST_PRICES.get(FIGI1)));
+
+        coalescer.getLastPrices(List.of(FIGI1));
+        TimeUnit.MILLISECONDS.sleep(100);
+        coalescer.getLastPrices(List.of(FIGI1));
+
+        Mockito.verify(marketDataService, Mockito.times(2)).getLastPricesSync(List.of(FIGI1));
+    }
+
+    @Test
+    void getLastPrices_evictsStalePrices() throws InterruptedException {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ofMillis(50));
+        Mockito.when(marketDataService.getLastPricesSync(List.of(FIGI1, FIGI2)))
+                .thenReturn(List.of(LAST_PRICES.get(FIGI1), LAST_PRICES.get(FIGI2)));
+        Mockito.when(marketDataService.getLastPricesSync(List.of(FIGI3))).thenReturn(List.of(LAST_PRICES.get(FIGI3)));
+
+        coalescer.getLastPrices(List.of(FIGI1, FIGI2));
+        Assertions.assertEquals(2, coalescer.getLoadedPricesCount());
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        coalescer.getLastPrices(List.of(FIGI3));
+
+        Assertions.assertEquals(1, coalescer.getLoadedPricesCount());
+    }
+
+    @Test
+    void getLastPrices_loadsPricesEveryTime_whenMaxStalenessIsZero() {
+        final LastPricesCoalescer coalescer = newCoalescer(Duration.ZERO, 100, Duration.ZERO);
+        Mockito.when(marketDataService.getLastPricesSync(List.of(FIGI1))).thenReturn(List.of(LAST_PRICES.get(FIGI1)));
+
+        coalescer.getLastPrices(List.of(FIGI1));
+        coalescer.getLastPrices(List.of(FIGI1));
+
+        Mockito.verify(marketDataService, Mockito.times(2)).getLastPricesSync(List.of(FIGI1));
+    }
+
+    // endregion
+
+    private LastPricesCoalescer newCoalescer(final Duration batchWindow, final int maxBatchSize, final Duration maxStaleness) {
+        return new LastPricesCoalescer(marketDataService, new LastPricesProperties(batchWindow, maxBatchSize, maxStaleness));
+    }
+
+    /**
+     * Mocks calls of API returning {@link #LAST_PRICES} of requested FIGIs. The first call waits for {@code firstCallReleased}
+     *
+     * @return requested FIGIs of every call
+     */
+    private List<Set<String>> mockBlockingFirstCall(
+            final CountDownLatch firstCallStarted,
+            final CountDownLatch firstCallReleased,
+            final List<ApiCallPriority> priorities
+    ) {
+        final List<Set<String>> calls = new ArrayList<>();
+        Mockito.when(marketDataService.getLastPricesSync(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            final List<String> figies = invocation.getArgument(0);
+            synchronized (calls) {
+                calls.add(Set.copyOf(figies));
+                priorities.add(ApiCallPriority.current());
+            }
+            if (firstCallStarted.getCount() > 0) {
+                firstCallStarted.countDown();
+                firstCallReleased.await();
+            }
+            return figies.stream().map(LAST_PRICES::get).toList();
+        });
+        return calls;
+    }
+
+}
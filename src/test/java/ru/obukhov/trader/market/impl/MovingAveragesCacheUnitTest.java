@@ -0,0 +1,248 @@
+package ru.obukhov.trader.market.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import ru.obukhov.trader.common.service.impl.ExponentialMovingAverager;
+import ru.obukhov.trader.common.service.impl.MovingAverager;
+import ru.obukhov.trader.common.service.impl.SimpleMovingAverager;
+import ru.obukhov.trader.config.properties.MovingAveragesCacheProperties;
+import ru.obukhov.trader.market.model.Candle;
+import ru.obukhov.trader.market.model.MovingAveragesCacheStatistics;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.Mocker;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.TestData;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+class MovingAveragesCacheUnitTest {
+
+    private static final String FIGI = TestShares.APPLE.getFigi();
+    private static final CandleInterval CANDLE_INTERVAL = CandleInterval.CANDLE_INTERVAL_1_MIN;
+    private static final OffsetDateTime FROM = DateTimeTestData.newDateTime(2023, 9, 10, 10);
+    private static final List<Integer> PRICES = List.of(100, 102, 105, 103, 101, 99, 98, 100, 104, 107, 110, 108, 105, 103, 100);
+
+    private final MovingAverager averager = Mockito.spy(new ExponentialMovingAverager());
+
+    @Test
+    void getAverages_returnsEmptyList_whenCandlesAreEmpty() {
+        final MovingAveragesCache cache = newCache(1000);
+
+        final List<BigDecimal> averages = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, List.of(), 3, 1);
+
+        Assertions.assertTrue(averages.isEmpty());
+        Mockito.verifyNoInteractions(averager);
+    }
+
+    @Test
+    void getAverages_returnsSameAveragesAsAverager() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles = TestData.newCandles(PRICES, FROM);
+
+        final List<BigDecimal> averages = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles, 3, 2);
+
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles), 3, 2), averages);
+    }
+
+    @Test
+    void getAverages_reusesAverages_forSameCandles() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES, FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES, FROM);
+
+        final List<BigDecimal> averages1 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+        final List<BigDecimal> averages2 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 1);
+
+        AssertUtils.assertEquals(averages1, averages2);
+        Mockito.verify(averager, Mockito.times(1)).createAverage(3, 1);
+
+        final MovingAveragesCacheStatistics statistics = cache.getStatistics();
+        Assertions.assertEquals(1, statistics.series());
+        Assertions.assertEquals(PRICES.size(), statistics.cachedAverages());
+        Assertions.assertEquals(PRICES.size() * MovingAveragesCache.CANDLE_MEMORY, statistics.estimatedMemory());
+        Assertions.assertEquals(PRICES.size(), statistics.reusedAverages());
+        Assertions.assertEquals(PRICES.size(), statistics.calculatedAverages());
+        Assertions.assertEquals(0.5, statistics.hitRate());
+    }
+
+    @Test
+    void getAverages_calculatesAveragesOfNewCandlesOnly_whenCandlesContinueCachedOnes() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES.subList(0, 10), FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES, FROM);
+
+        cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+        final List<BigDecimal> averages = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 1);
+
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles2), 3, 1), averages);
+        Mockito.verify(averager, Mockito.times(1)).createAverage(3, 1);
+
+        final MovingAveragesCacheStatistics statistics = cache.getStatistics();
+        Assertions.assertEquals(10, statistics.reusedAverages());
+        Assertions.assertEquals(PRICES.size(), statistics.calculatedAverages());
+    }
+
+    @Test
+    void getAverages_returnsPrefixOfCachedAverages_whenCandlesArePrefixOfCachedOnes() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES, FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES.subList(0, 10), FROM);
+
+        cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+        final List<BigDecimal> averages = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 1);
+
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles2), 3, 1), averages);
+        Mockito.verify(averager, Mockito.times(1)).createAverage(3, 1);
+    }
+
+    @Test
+    void getAverages_recalculatesAverages_whenCandlesDifferFromCachedOnes() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES, FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES, FROM);
+        candles2.get(5).setOpen(BigDecimal.valueOf(200));
+
+        final List<BigDecimal> averages1 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+        final List<BigDecimal> averages2 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 1);
+
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles1), 3, 1), averages1);
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles2), 3, 1), averages2);
+        Mockito.verify(averager, Mockito.times(2)).createAverage(3, 1);
+    }
+
+    @Test
+    void getAverages_keepsSeparateSeries_forDifferentWindowsAndFirstCandles() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES, FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES.subList(5, 15), FROM.plusMinutes(5));
+
+        final List<BigDecimal> averages1 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+        final List<BigDecimal> averages2 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 5, 1);
+        final List<BigDecimal> averages3 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 1);
+
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles1), 3, 1), averages1);
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles1), 5, 1), averages2);
+        AssertUtils.assertEquals(averager.getAverages(getOpens(candles2), 3, 1), averages3);
+        Assertions.assertEquals(3, cache.getStatistics().series());
+    }
+
+    @Test
+    void getAverages_doesNotCacheAveragesOfNotClosedCandles() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES, FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES, FROM);
+        candles2.getLast().setOpen(BigDecimal.valueOf(200));
+
+        final OffsetDateTime mockedNow = FROM.plusMinutes(PRICES.size() - 1).plusSeconds(30);
+        try (@SuppressWarnings("unused") final MockedStatic<OffsetDateTime> offsetDateTimeStaticMock = Mocker.mockNow(mockedNow)) {
+            final List<BigDecimal> averages1 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 2);
+            final List<BigDecimal> averages2 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 2);
+
+            AssertUtils.assertEquals(averager.getAverages(getOpens(candles1), 3, 2), averages1);
+            AssertUtils.assertEquals(averager.getAverages(getOpens(candles2), 3, 2), averages2);
+        }
+
+        Mockito.verify(averager, Mockito.times(1)).createAverage(3, 2);
+        Assertions.assertEquals(PRICES.size() - 1, cache.getStatistics().cachedAverages());
+    }
+
+    @Test
+    void getAverages_returnsBatchAverages_whenHeadOfLiveCandlesSlides() {
+        final MovingAveragesCache cache = newCache(1000);
+        final int size = 5;
+
+        for (int from = 0; from + size <= PRICES.size(); from++) {
+            final List<Candle> candles = TestData.newCandles(PRICES.subList(from, from + size), FROM.plusMinutes(from));
+            final OffsetDateTime mockedNow = candles.getLast().getTime().plusSeconds(30);
+            try (@SuppressWarnings("unused") final MockedStatic<OffsetDateTime> offsetDateTimeStaticMock = Mocker.mockNow(mockedNow)) {
+                final List<BigDecimal> averages = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles, 3, 1);
+                final List<BigDecimal> repeatedAverages = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles, 3, 1);
+
+                AssertUtils.assertEquals(averager.getAverages(getOpens(candles), 3, 1), averages);
+                AssertUtils.assertEquals(averages, repeatedAverages);
+            }
+        }
+
+        Mockito.verify(averager, Mockito.times(PRICES.size() - size + 1)).createAverage(3, 1);
+    }
+
+    @Test
+    void getAverages_returnsBatchAverages_forOverlappingLiveCandlesWithDifferentFirstCandles() {
+        final MovingAveragesCache cache = newCache(1000);
+        final List<Candle> candles1 = TestData.newCandles(PRICES, FROM);
+        final List<Candle> candles2 = TestData.newCandles(PRICES.subList(5, 15), FROM.plusMinutes(5));
+
+        final OffsetDateTime mockedNow = FROM.plusMinutes(PRICES.size() - 1).plusSeconds(30);
+        try (@SuppressWarnings("unused") final MockedStatic<OffsetDateTime> offsetDateTimeStaticMock = Mocker.mockNow(mockedNow)) {
+            final List<BigDecimal> averages1 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+            final List<BigDecimal> averages2 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles2, 3, 1);
+            final List<BigDecimal> repeatedAverages1 = cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles1, 3, 1);
+
+            AssertUtils.assertEquals(averager.getAverages(getOpens(candles1), 3, 1), averages1);
+            AssertUtils.assertEquals(averager.getAverages(getOpens(candles2), 3, 1), averages2);
+            AssertUtils.assertEquals(averages1, repeatedAverages1);
+        }
+
+        Assertions.assertEquals(2, cache.getStatistics().series());
+    }
+
+    @Test
+    void getAverages_evictsSeries_whenMaxAveragesExceeded() {
+        final MovingAveragesCache cache = newCache(PRICES.size());
+        final List<Candle> candles = TestData.newCandles(PRICES, FROM);
+
+        cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles, 3, 1);
+        cache.getAverages(averager, FIGI, CANDLE_INTERVAL, candles, 5, 1);
+
+        final MovingAveragesCacheStatistics statistics = cache.getStatistics();
+        Assertions.assertEquals(1, statistics.series());
+        Assertions.assertEquals(PRICES.size(), statistics.cachedAverages());
+        Assertions.assertEquals(1, statistics.evictedSeries());
+    }
+
+    @Test
+    void getAverages_returnsSameAveragesAsAverager_whenCalledConcurrently() throws Exception {
+        final MovingAveragesCache cache = newCache(100_000);
+        final MovingAverager simpleAverager = new SimpleMovingAverager();
+        final List<Integer> prices = IntStream.range(0, 1000).map(i -> 100 + i % 17).boxed().toList();
+        final List<Candle> candles = TestData.newCandles(prices, FROM);
+        final List<BigDecimal> expectedAverages = simpleAverager.getAverages(getOpens(candles), 10, 1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<CompletableFuture<List<BigDecimal>>> futures = IntStream.range(0, 40)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(
+                            () -> cache.getAverages(simpleAverager, FIGI, CANDLE_INTERVAL, candles.subList(0, 100 + i * 20), 10, 1),
+                            executor
+                    ))
+                    .toList();
+
+            for (final CompletableFuture<List<BigDecimal>> future : futures) {
+                final List<BigDecimal> averages = future.get();
+                AssertUtils.assertEquals(expectedAverages.subList(0, averages.size()), averages);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static MovingAveragesCache newCache(final long maxAverages) {
+        return new MovingAveragesCache(new MovingAveragesCacheProperties(maxAverages, Duration.ofHours(1)));
+    }
+
+    private static List<BigDecimal> getOpens(final List<Candle> candles) {
+        return candles.stream().map(Candle::getOpen).toList();
+    }
+
+}
@@ -27,6 +27,7 @@ import ru.tinkoff.piapi.core.models.Position;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @ExtendWith(MockitoExtension.class)
 class RealExtOperationsServiceUnitTest {
@@ -59,6 +60,43 @@ class RealExtOperationsServiceUnitTest {
         Assertions.assertEquals(result, operations);
     }
 
+    @Test
+    void getOperationsAsync() {
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2022, 8, 10, 10);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2022, 8, 10, 19);
+
+        final List<Operation> operations = List.of(TestData.newOperation(OperationState.OPERATION_STATE_EXECUTED));
+        Mockito.when(operationsService.getAllOperations(accountId, from.toInstant(), to.toInstant(), figi))
+                .thenReturn(CompletableFuture.completedFuture(operations));
+
+        final List<Operation> result = extOperationsService.getOperationsAsync(accountId, Interval.of(from, to), figi).join();
+
+        Assertions.assertEquals(operations, result);
+    }
+
+    @Test
+    void getPositionsAsync() {
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final TestShare share = TestShares.APPLE;
+        final PortfolioPosition portfolioPosition = TestData.newPortfolioPosition(
+                share.getFigi(),
+                InstrumentType.INSTRUMENT_TYPE_SHARE,
+                10,
+                15,
+                50,
+                20,
+                share.getCurrency()
+        );
+        final Portfolio portfolio = TestData.newPortfolio(portfolioPosition);
+        Mockito.when(operationsService.getPortfolio(accountId)).thenReturn(CompletableFuture.completedFuture(portfolio));
+
+        final List<Position> positions = extOperationsService.getPositionsAsync(accountId).join();
+
+        AssertUtils.assertEquals(portfolio.getPositions(), positions);
+    }
+
     @Test
     void getPositions() {
         // arrange
@@ -24,6 +24,7 @@ import ru.tinkoff.piapi.core.OrdersService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @ExtendWith(MockitoExtension.class)
 class RealExtOrdersServiceUnitTest {
@@ -134,6 +135,39 @@ class RealExtOrdersServiceUnitTest {
     }
 
     @SuppressWarnings("SameParameterValue")
+    @Test
+    void getOrdersAsync_returnsOrders() {
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final List<TestOrderState> testOrderStates = List.of(TestOrderStates.ORDER_STATE1, TestOrderStates.ORDER_STATE2);
+
+        Mockito.when(ordersService.getOrders(accountId))
+                .thenReturn(CompletableFuture.completedFuture(testOrderStates.stream().map(TestOrderState::tOrderState).toList()));
+
+        final List<OrderState> result = realExtOrdersService.getOrdersAsync(accountId).join();
+
+        final List<OrderState> expectedOrderStates = testOrderStates.stream().map(TestOrderState::orderState).toList();
+        AssertUtils.assertEquals(expectedOrderStates, result);
+    }
+
+    @Test
+    void getOrdersAsync_filtersOrdersByFigi() {
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final String figi = TestShares.APPLE.getFigi();
+
+        final List<ru.tinkoff.piapi.contract.v1.OrderState> orderStates = List.of(
+                TestData.newOrderState("order0", figi),
+                TestData.newOrderState("order1", "figi2"),
+                TestData.newOrderState("order2", figi)
+        );
+        Mockito.when(ordersService.getOrders(accountId)).thenReturn(CompletableFuture.completedFuture(orderStates));
+
+        final List<OrderState> orders = realExtOrdersService.getOrdersAsync(accountId, figi).join();
+
+        Assertions.assertEquals(2, orders.size());
+        Assertions.assertEquals("order0", orders.getFirst().orderId());
+        Assertions.assertEquals("order2", orders.get(1).orderId());
+    }
+
     private void mockOrders(final String accountId, final ru.tinkoff.piapi.contract.v1.OrderState... orderStates) {
         Mockito.when(ordersService.getOrdersSync(accountId)).thenReturn(List.of(orderStates));
     }
@@ -0,0 +1,73 @@
+package ru.obukhov.trader.market.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.market.model.Candle;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.model.CandleBuilder;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class SharedClockMarketDataServiceUnitTest {
+
+    @Mock
+    private ExtMarketDataService delegate;
+
+    private SharedClockMarketDataService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SharedClockMarketDataService(delegate);
+    }
+
+    @Test
+    void getCandles_loadsCandlesOnce_forSameArguments() {
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+
+        final List<Candle> candles = List.of(new CandleBuilder().setClose(100).setTime(from).build());
+        Mockito.when(delegate.getCandles(figi, interval, candleInterval)).thenReturn(candles);
+
+        final List<Candle> actualCandles1 = service.getCandles(figi, interval, candleInterval);
+        service.nextTick();
+        final List<Candle> actualCandles2 = service.getCandles(figi, interval, candleInterval);
+
+        Assertions.assertSame(candles, actualCandles1);
+        Assertions.assertSame(candles, actualCandles2);
+        Mockito.verify(delegate, Mockito.times(1)).getCandles(figi, interval, candleInterval);
+    }
+
+    @Test
+    void getPrice_loadsPriceOncePerTick() {
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime dateTime = DateTimeTestData.newDateTime(2023, 1, 1, 10);
+
+        final BigDecimal price1 = DecimalUtils.setDefaultScale(100);
+        final BigDecimal price2 = DecimalUtils.setDefaultScale(200);
+        Mockito.when(delegate.getPrice(figi, dateTime)).thenReturn(price1, price2);
+
+        AssertUtils.assertEquals(price1, service.getPrice(figi, dateTime));
+        AssertUtils.assertEquals(price1, service.getPrice(figi, dateTime));
+
+        service.nextTick();
+
+        AssertUtils.assertEquals(price2, service.getPrice(figi, dateTime));
+        Mockito.verify(delegate, Mockito.times(2)).getPrice(figi, dateTime);
+    }
+
+}
@@ -13,6 +13,7 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CandleMocker {
     private final MarketDataService marketDataService;
@@ -89,6 +90,12 @@ public class CandleMocker {
                 Mockito.any(Instant.class),
                 Mockito.eq(candleInterval)
         )).then(answer);
+        Mockito.when(marketDataService.getCandles(
+                Mockito.eq(figi),
+                Mockito.any(Instant.class),
+                Mockito.any(Instant.class),
+                Mockito.eq(candleInterval)
+        )).then(invocation -> CompletableFuture.completedFuture(answer.answer(invocation)));
     }
 
 }
\ No newline at end of file
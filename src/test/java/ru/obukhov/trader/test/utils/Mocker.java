@@ -55,6 +55,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SequencedMap;
+import java.util.concurrent.CompletableFuture;
 
 @UtilityClass
 public class Mocker {
@@ -117,6 +118,7 @@ public class Mocker {
     public static void mockAccounts(final UsersService usersService, final TestAccount... accounts) {
         final List<ru.tinkoff.piapi.contract.v1.Account> tAccounts = Arrays.stream(accounts).map(TestAccount::tAccount).toList();
         Mockito.when(usersService.getAccountsSync()).thenReturn(tAccounts);
+        Mockito.when(usersService.getAccounts()).thenReturn(CompletableFuture.completedFuture(tAccounts));
     }
 
     public static void mockShares(final ExtInstrumentsService extInstrumentsService, final TestShare... testShares) {
@@ -134,10 +136,13 @@ public class Mocker {
 
     public static void mockInstrument(final InstrumentsService instrumentsService, final TestInstrument instrument) {
         Mockito.when(instrumentsService.getInstrumentByFigiSync(instrument.getFigi())).thenReturn(instrument.tInstrument());
+        Mockito.when(instrumentsService.getInstrumentByFigi(instrument.getFigi()))
+                .thenReturn(CompletableFuture.completedFuture(instrument.tInstrument()));
     }
 
     public static void mockInstrument(final InstrumentsService instrumentsService, final TestShare share) {
         Mockito.when(instrumentsService.getInstrumentByFigiSync(share.getFigi())).thenReturn(share.tInstrument());
+        Mockito.when(instrumentsService.getInstrumentByFigi(share.getFigi())).thenReturn(CompletableFuture.completedFuture(share.tInstrument()));
     }
 
     public static void mockInstrument(final InstrumentsService instrumentsService, final TestCurrency currency) {
@@ -161,6 +166,7 @@ public class Mocker {
 
     public static void mockShare(final InstrumentsService instrumentsService, final TestShare share) {
         Mockito.when(instrumentsService.getShareByFigiSync(share.getFigi())).thenReturn(share.tShare());
+        Mockito.when(instrumentsService.getShareByFigi(share.getFigi())).thenReturn(CompletableFuture.completedFuture(share.tShare()));
     }
 
     public void mockAllShares(
@@ -250,6 +256,8 @@ public class Mocker {
                 .toList();
         Mockito.when(instrumentsService.getDividendsSync(share.getFigi(), share.getFirst1DayCandleDate().toInstant(), to.toInstant()))
                 .thenReturn(tDividends);
+        Mockito.when(instrumentsService.getDividends(share.getFigi(), share.getFirst1DayCandleDate().toInstant(), to.toInstant()))
+                .thenReturn(CompletableFuture.completedFuture(tDividends));
     }
 
     public static void mockSecurity(final ExtOperationsService extOperationsService, final String accountId) {
@@ -0,0 +1,205 @@
+package ru.obukhov.trader.trading.backtest.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.AdaptiveRateLimit;
+import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.config.ApiCallsThrottling;
+import ru.obukhov.trader.config.properties.ApiProperties;
+import ru.obukhov.trader.market.impl.FileCandlesStore;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
+import ru.obukhov.trader.market.model.Instrument;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.account.TestAccounts;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.obukhov.trader.trading.model.BackTestCost;
+import ru.obukhov.trader.trading.model.BackTestCostEstimate;
+import ru.obukhov.trader.trading.model.StrategyType;
+import ru.obukhov.trader.web.model.BotConfig;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class BackTestCostEstimatorUnitTest {
+
+    private static final Interval INTERVAL = Interval.of(
+            DateTimeTestData.newDateTime(2023, 8, 1),
+            DateTimeTestData.newDateTime(2023, 8, 3)
+    );
+
+    private static final ApiProperties API_PROPERTIES = new ApiProperties(60000L, true, 2.0, null, 1);
+
+    @Mock
+    private FileCandlesStore fileCandlesStore;
+
+    private final ApiCallsThrottling apiCallsThrottling = new ApiCallsThrottling(API_PROPERTIES, new SimpleMeterRegistry());
+
+    // region estimate tests
+
+    @Test
+    void estimate_countsTicksOfEveryFigi_andCandlesOfDistinctFigies() {
+        final CacheManager cacheManager = newCacheManager();
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(cacheManager, fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+
+        final String figi1 = TestShares.APPLE.getFigi();
+        final String figi2 = TestShares.SBER.getFigi();
+        final List<BotConfig> botConfigs = List.of(
+                newBotConfig(List.of(figi1, figi2), CandleInterval.CANDLE_INTERVAL_1_MIN),
+                newBotConfig(List.of(figi1), CandleInterval.CANDLE_INTERVAL_1_MIN),
+                newBotConfig(List.of(figi1), CandleInterval.CANDLE_INTERVAL_HOUR)
+        );
+
+        final BackTestCost cost = estimator.estimate(botConfigs, INTERVAL);
+
+        final long minutes = 2 * 24 * 60;
+        Assertions.assertEquals(minutes * 4, cost.cpu());
+        Assertions.assertEquals(minutes * 2 + 2 * 24, cost.memory());
+    }
+
+    @Test
+    void estimate_doesNotCountCachedCandles() {
+        final CacheManager cacheManager = newCacheManager();
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(cacheManager, fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+
+        final String figi = TestShares.APPLE.getFigi();
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        putCandlesToCache(cacheManager, figi, Interval.of(INTERVAL.getFrom(), INTERVAL.getFrom().plusDays(1)), candleInterval);
+
+        final BackTestCost cost = estimator.estimate(List.of(newBotConfig(List.of(figi), candleInterval)), INTERVAL);
+
+        Assertions.assertEquals(2 * 24 * 60, cost.cpu());
+        Assertions.assertEquals(24 * 60, cost.memory());
+    }
+
+    @Test
+    void estimate_countsAllCandles_whenCacheIsAbsent() {
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(new ConcurrentMapCacheManager("otherCache"), fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.APPLE.getFigi()), CandleInterval.CANDLE_INTERVAL_1_MIN);
+        final BackTestCost cost = estimator.estimate(List.of(botConfig), INTERVAL);
+
+        Assertions.assertEquals(2 * 24 * 60, cost.memory());
+    }
+
+    // endregion
+
+    // region estimateBotConfigs tests
+
+    @Test
+    void estimateBotConfigs_splitsCallsBetweenCacheStoreAndApi() {
+        final CacheManager cacheManager = newCacheManager();
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(cacheManager, fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+
+        final String figi = TestShares.APPLE.getFigi();
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        final Interval interval = Interval.of(INTERVAL.getFrom(), INTERVAL.getFrom().plusDays(3));
+        final Interval cachedDay = Interval.of(interval.getFrom(), interval.getFrom().plusDays(1));
+        final Interval storedDay = Interval.of(cachedDay.getTo(), cachedDay.getTo().plusDays(1));
+        putCandlesToCache(cacheManager, figi, cachedDay, candleInterval);
+        Mockito.when(fileCandlesStore.contains(ArgumentMatchers.eq(figi), ArgumentMatchers.any(Interval.class), ArgumentMatchers.eq(candleInterval)))
+                .thenAnswer(invocation -> storedDay.equals(invocation.getArgument(1)));
+
+        final BotConfig botConfig = newBotConfig(List.of(figi), candleInterval);
+        final List<BackTestCostEstimate> estimates = estimator.estimateBotConfigs(List.of(botConfig), interval);
+
+        Assertions.assertEquals(1, estimates.size());
+        final BackTestCostEstimate estimate = estimates.getFirst();
+        Assertions.assertEquals(botConfig, estimate.botConfig());
+        Assertions.assertEquals(interval, estimate.interval());
+        Assertions.assertEquals(1, estimate.apiCalls());
+        Assertions.assertEquals(1, estimate.cachedCalls());
+        Assertions.assertEquals(1, estimate.storedCalls());
+        Assertions.assertEquals(Duration.ZERO, estimate.fetchDuration());
+        Assertions.assertEquals(3 * 24 * 60, estimate.ticks());
+        Assertions.assertEquals(3 * 24 * 60, estimate.candles());
+        Assertions.assertEquals(3 * 24 * 60 * MovingAveragesCache.CANDLE_MEMORY, estimate.memoryBytes());
+    }
+
+    @Test
+    void estimateBotConfigs_returnsFetchDurationByBackgroundBudget_whenApiCallsExceedIt() {
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(newCacheManager(), fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2022, 1, 1), DateTimeTestData.newDateTime(2023, 1, 1));
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.APPLE.getFigi(), TestShares.SBER.getFigi()), CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        final BackTestCostEstimate estimate = estimator.estimateBotConfigs(List.of(botConfig), interval).getFirst();
+
+        // 730 calls by 150 background calls per minute
+        Assertions.assertEquals(2 * 365, estimate.apiCalls());
+        Assertions.assertEquals(Duration.ofMinutes(4), estimate.fetchDuration());
+        Assertions.assertEquals(365 * 24 * 60, estimate.ticks());
+    }
+
+    @Test
+    void estimateBotConfigs_returnsFetchDurationByBackgroundBudgetOfAdaptedLimit() {
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(newCacheManager(), fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+        final AdaptiveRateLimit.Quota quota = new AdaptiveRateLimit.Quota(100, null, null);
+        apiCallsThrottling.onResponse("tinkoff.public.invest.api.contract.v1.MarketDataService/GetCandles", quota, false);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2022, 1, 1), DateTimeTestData.newDateTime(2023, 1, 1));
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.APPLE.getFigi(), TestShares.SBER.getFigi()), CandleInterval.CANDLE_INTERVAL_1_MIN);
+
+        final BackTestCostEstimate estimate = estimator.estimateBotConfigs(List.of(botConfig), interval).getFirst();
+
+        // 730 calls by 50 background calls per minute
+        Assertions.assertEquals(2 * 365, estimate.apiCalls());
+        Assertions.assertEquals(Duration.ofMinutes(14), estimate.fetchDuration());
+    }
+
+    @Test
+    void estimateBotConfigs_limitsIntervalByFirstCandleDate_whenInstrumentIsCached() {
+        final CacheManager cacheManager = newCacheManager();
+        final BackTestCostEstimator estimator = new BackTestCostEstimator(cacheManager, fileCandlesStore, API_PROPERTIES, apiCallsThrottling);
+
+        final Instrument instrument = TestShares.APPLE.instrument().withFirst1MinCandleDate(INTERVAL.getFrom().plusDays(1));
+        cacheManager.getCache(BackTestCostEstimator.INSTRUMENT_CACHE_NAME).put(instrument.figi(), instrument);
+
+        final BotConfig botConfig = newBotConfig(List.of(instrument.figi()), CandleInterval.CANDLE_INTERVAL_1_MIN);
+        final BackTestCostEstimate estimate = estimator.estimateBotConfigs(List.of(botConfig), INTERVAL).getFirst();
+
+        Assertions.assertEquals(Interval.of(INTERVAL.getFrom().plusDays(1), INTERVAL.getTo()), estimate.interval());
+        Assertions.assertEquals(1, estimate.apiCalls());
+        Assertions.assertEquals(24 * 60, estimate.ticks());
+    }
+
+    // endregion
+
+    private static CacheManager newCacheManager() {
+        return new ConcurrentMapCacheManager(BackTestCostEstimator.MARKET_CANDLES_CACHE_NAME, BackTestCostEstimator.INSTRUMENT_CACHE_NAME);
+    }
+
+    private static void putCandlesToCache(
+            final CacheManager cacheManager,
+            final String figi,
+            final Interval interval,
+            final CandleInterval candleInterval
+    ) {
+        cacheManager.getCache(BackTestCostEstimator.MARKET_CANDLES_CACHE_NAME)
+                .put(new SimpleKey(figi, interval, candleInterval), Collections.emptyList());
+    }
+
+    private static BotConfig newBotConfig(final List<String> figies, final CandleInterval candleInterval) {
+        return new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                figies,
+                candleInterval,
+                DecimalUtils.setDefaultScale(0.001),
+                StrategyType.CONSERVATIVE,
+                Collections.emptyMap()
+        );
+    }
+
+}
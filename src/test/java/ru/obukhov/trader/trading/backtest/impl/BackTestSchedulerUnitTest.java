@@ -0,0 +1,287 @@
+package ru.obukhov.trader.trading.backtest.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.obukhov.trader.common.exception.BackTestRejectedException;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.config.properties.BackTestSchedulerProperties;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.obukhov.trader.trading.backtest.interfaces.BackTester;
+import ru.obukhov.trader.trading.model.BackTestCost;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
+import ru.obukhov.trader.trading.model.BackTestRejectionReason;
+import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestSchedulerStatistics;
+import ru.obukhov.trader.web.model.BalanceConfig;
+import ru.obukhov.trader.web.model.BotConfig;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+@ExtendWith(MockitoExtension.class)
+class BackTestSchedulerUnitTest {
+
+    private static final Interval INTERVAL = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 2));
+    private static final BalanceConfig BALANCE_CONFIG = new BalanceConfig(Map.of(), Map.of(), null);
+
+    @Mock
+    private BackTester backTester;
+    @Mock
+    private BackTestCostEstimator costEstimator;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // accountId of first bot config of back test to latch, released when back test must finish
+    private final Map<String, CountDownLatch> finishLatches = new ConcurrentHashMap<>();
+    // accountIds of first bot configs of back tests in order of their start
+    private final List<String> startedBackTests = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        finishLatches.values().forEach(CountDownLatch::countDown);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void test_runsBackTest_whenCostFitsBudget() {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 1, Duration.ofSeconds(10));
+        final List<BotConfig> botConfigs = newBotConfigs("account");
+        final List<BackTestResult> results = List.of();
+
+        Mockito.when(costEstimator.estimate(botConfigs, INTERVAL)).thenReturn(new BackTestCost(10, 10));
+        Mockito.when(backTester.test(botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY)).thenReturn(results);
+
+        final List<BackTestResult> actualResults =
+                scheduler.test("caller", botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY);
+
+        Assertions.assertSame(results, actualResults);
+
+        final BackTestSchedulerStatistics statistics = scheduler.getStatistics();
+        Assertions.assertEquals(BackTestCost.ZERO, statistics.usedBudget());
+        Assertions.assertEquals(0, statistics.runningJobs());
+        Assertions.assertEquals(0, statistics.queuedJobs());
+        Assertions.assertEquals(1, statistics.admittedJobs());
+    }
+
+    @Test
+    void test_releasesBudget_whenBackTestThrowsException() {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 1, Duration.ofSeconds(10));
+        final List<BotConfig> botConfigs = newBotConfigs("account");
+
+        Mockito.when(costEstimator.estimate(botConfigs, INTERVAL)).thenReturn(new BackTestCost(10, 10));
+        Mockito.when(backTester.test(botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY))
+                .thenThrow(new IllegalArgumentException());
+
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> scheduler.test("caller", botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY)
+        );
+
+        Assertions.assertEquals(BackTestCost.ZERO, scheduler.getStatistics().usedBudget());
+        Assertions.assertEquals(0, scheduler.getStatistics().runningJobs());
+    }
+
+    @Test
+    void test_throwsBackTestRejectedException_whenCostExceedsBudget() {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 1, Duration.ofSeconds(10));
+        final List<BotConfig> botConfigs = newBotConfigs("account");
+
+        Mockito.when(costEstimator.estimate(botConfigs, INTERVAL)).thenReturn(new BackTestCost(10, 11));
+
+        final BackTestRejectedException exception = Assertions.assertThrows(
+                BackTestRejectedException.class,
+                () -> scheduler.test("caller", botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY)
+        );
+
+        Assertions.assertEquals(BackTestRejectionReason.COST_EXCEEDS_BUDGET, exception.getReason());
+        Assertions.assertEquals(
+                "Back test cost BackTestCost[cpu=10, memory=11] exceeds budget BackTestCost[cpu=10, memory=10]",
+                exception.getMessage()
+        );
+        Assertions.assertEquals(1, scheduler.getStatistics().rejectedJobs().get(BackTestRejectionReason.COST_EXCEEDS_BUDGET));
+        Mockito.verifyNoInteractions(backTester);
+    }
+
+    @Test
+    void test_throwsBackTestRejectedException_whenQueueIsFull() throws Exception {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 0, Duration.ofSeconds(10));
+        mockBlockingBackTests();
+
+        final CompletableFuture<List<BackTestResult>> runningFuture = startBackTest(scheduler, "caller1", "running", 10);
+        awaitStatistics(scheduler, statistics -> statistics.runningJobs() == 1);
+
+        final List<BotConfig> botConfigs = newBotConfigs("rejected");
+        Mockito.when(costEstimator.estimate(botConfigs, INTERVAL)).thenReturn(new BackTestCost(1, 1));
+
+        final BackTestRejectedException exception = Assertions.assertThrows(
+                BackTestRejectedException.class,
+                () -> scheduler.test("caller2", botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY)
+        );
+        Assertions.assertEquals(BackTestRejectionReason.QUEUE_IS_FULL, exception.getReason());
+
+        finish("running");
+        runningFuture.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void test_throwsBackTestRejectedException_whenBudgetIsNotReleasedWithinMaxWaitTime() throws Exception {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 1, Duration.ofMillis(100));
+        mockBlockingBackTests();
+
+        final CompletableFuture<List<BackTestResult>> runningFuture = startBackTest(scheduler, "caller1", "running", 10);
+        awaitStatistics(scheduler, statistics -> statistics.runningJobs() == 1);
+
+        final List<BotConfig> botConfigs = newBotConfigs("rejected");
+        Mockito.when(costEstimator.estimate(botConfigs, INTERVAL)).thenReturn(new BackTestCost(10, 10));
+
+        final BackTestRejectedException exception = Assertions.assertThrows(
+                BackTestRejectedException.class,
+                () -> scheduler.test("caller2", botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY)
+        );
+        Assertions.assertEquals(BackTestRejectionReason.WAIT_TIMEOUT, exception.getReason());
+        Assertions.assertEquals(0, scheduler.getStatistics().queuedJobs());
+
+        finish("running");
+        runningFuture.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("running"), startedBackTests);
+    }
+
+    @Test
+    void test_startsSmallBackTestBeforeQueuedLargeOne_whenSmallOneFitsLeftBudget() throws Exception {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 10, Duration.ofSeconds(10));
+        mockBlockingBackTests();
+
+        final CompletableFuture<List<BackTestResult>> runningFuture = startBackTest(scheduler, "caller1", "running", 6);
+        awaitStatistics(scheduler, statistics -> statistics.runningJobs() == 1);
+        final CompletableFuture<List<BackTestResult>> largeFuture = startBackTest(scheduler, "caller2", "large", 10);
+        awaitStatistics(scheduler, statistics -> statistics.queuedJobs() == 1);
+        final CompletableFuture<List<BackTestResult>> smallFuture = startBackTest(scheduler, "caller3", "small", 4);
+        awaitStarted("small");
+
+        Assertions.assertEquals(List.of("running", "small"), startedBackTests);
+
+        finish("small");
+        smallFuture.get(5, TimeUnit.SECONDS);
+        finish("running");
+        runningFuture.get(5, TimeUnit.SECONDS);
+        finish("large");
+        largeFuture.get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of("running", "small", "large"), startedBackTests);
+    }
+
+    @Test
+    void test_startsQueuedBackTestsOfCallersInRoundRobinOrder() throws Exception {
+        final BackTestScheduler scheduler = newScheduler(10, 10, 10, Duration.ofSeconds(10));
+        mockBlockingBackTests();
+
+        final List<CompletableFuture<List<BackTestResult>>> futures = new ArrayList<>();
+        futures.add(startBackTest(scheduler, "caller0", "running", 10));
+        awaitStatistics(scheduler, statistics -> statistics.runningJobs() == 1);
+        futures.add(startBackTest(scheduler, "caller1", "caller1-1", 10));
+        awaitStatistics(scheduler, statistics -> statistics.queuedJobs() == 1);
+        futures.add(startBackTest(scheduler, "caller1", "caller1-2", 10));
+        awaitStatistics(scheduler, statistics -> statistics.queuedJobs() == 2);
+        futures.add(startBackTest(scheduler, "caller2", "caller2-1", 10));
+        awaitStatistics(scheduler, statistics -> statistics.queuedJobs() == 3);
+
+        for (final String accountId : List.of("running", "caller1-1", "caller2-1", "caller1-2")) {
+            awaitStarted(accountId);
+            finish(accountId);
+        }
+        for (final CompletableFuture<List<BackTestResult>> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        Assertions.assertEquals(List.of("running", "caller1-1", "caller2-1", "caller1-2"), startedBackTests);
+    }
+
+    private BackTestScheduler newScheduler(final long cpuBudget, final long memoryBudget, final int maxQueuedJobs, final Duration maxWaitTime) {
+        final BackTestSchedulerProperties properties = new BackTestSchedulerProperties(cpuBudget, memoryBudget, maxQueuedJobs, maxWaitTime);
+        return new BackTestScheduler(backTester, costEstimator, properties);
+    }
+
+    private static List<BotConfig> newBotConfigs(final String accountId) {
+        final BotConfig botConfig = new BotConfig(
+                accountId,
+                List.of(TestShares.APPLE.getFigi()),
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                DecimalUtils.ZERO,
+                null,
+                null
+        );
+        return List.of(botConfig);
+    }
+
+    private void mockBlockingBackTests() {
+        Mockito.when(backTester.test(Mockito.anyList(), Mockito.eq(BALANCE_CONFIG), Mockito.eq(INTERVAL), Mockito.eq(false), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    final List<BotConfig> botConfigs = invocation.getArgument(0);
+                    final String accountId = botConfigs.getFirst().accountId();
+                    startedBackTests.add(accountId);
+                    Assertions.assertTrue(getFinishLatch(accountId).await(5, TimeUnit.SECONDS));
+                    return List.of();
+                });
+    }
+
+    private CompletableFuture<List<BackTestResult>> startBackTest(
+            final BackTestScheduler scheduler,
+            final String callerId,
+            final String accountId,
+            final long cost
+    ) {
+        final List<BotConfig> botConfigs = newBotConfigs(accountId);
+        Mockito.when(costEstimator.estimate(botConfigs, INTERVAL)).thenReturn(new BackTestCost(cost, cost));
+        return CompletableFuture.supplyAsync(
+                () -> scheduler.test(callerId, botConfigs, BALANCE_CONFIG, INTERVAL, false, BackTestDetailLevel.SUMMARY),
+                executor
+        );
+    }
+
+    private CountDownLatch getFinishLatch(final String accountId) {
+        return finishLatches.computeIfAbsent(accountId, key -> new CountDownLatch(1));
+    }
+
+    private void finish(final String accountId) {
+        getFinishLatch(accountId).countDown();
+    }
+
+    private void awaitStarted(final String accountId) throws InterruptedException {
+        await(() -> startedBackTests.contains(accountId));
+    }
+
+    private static void awaitStatistics(
+            final BackTestScheduler scheduler,
+            final Predicate<BackTestSchedulerStatistics> condition
+    ) throws InterruptedException {
+        await(() -> condition.test(scheduler.getStatistics()));
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Condition is not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -5,17 +5,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import ru.obukhov.trader.common.model.CronHits;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.service.interfaces.ExcelService;
 import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.common.util.DecimalUtils;
 import ru.obukhov.trader.common.util.TimestampUtils;
+import ru.obukhov.trader.config.ApiCallsThrottling;
+import ru.obukhov.trader.config.model.ApiCallPriority;
 import ru.obukhov.trader.config.properties.BackTestProperties;
 import ru.obukhov.trader.market.impl.ExtInstrumentsService;
 import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.SharedClockMarketDataService;
 import ru.obukhov.trader.market.model.Candle;
 import ru.obukhov.trader.market.model.Currencies;
 import ru.obukhov.trader.market.model.PositionBuilder;
@@ -29,7 +36,9 @@ import ru.obukhov.trader.test.utils.model.share.TestShare;
 import ru.obukhov.trader.test.utils.model.share.TestShares;
 import ru.obukhov.trader.trading.bots.FakeBot;
 import ru.obukhov.trader.trading.bots.FakeBotFactory;
+import ru.obukhov.trader.trading.model.BackTestDetailLevel;
 import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.BackTestTimes;
 import ru.obukhov.trader.trading.model.Balances;
 import ru.obukhov.trader.trading.model.Profits;
 import ru.obukhov.trader.trading.model.StrategyType;
@@ -41,7 +50,9 @@ import ru.tinkoff.piapi.contract.v1.OperationType;
 import ru.tinkoff.piapi.core.models.Position;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -51,6 +62,8 @@ import java.util.Map;
 import java.util.SequencedMap;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @ExtendWith(MockitoExtension.class)
 class BackTesterImplUnitTest {
@@ -58,7 +71,8 @@ class BackTesterImplUnitTest {
     private static final String DATE_TIME_REGEX_PATTERN = "[\\d\\-\\+\\.:T]+";
 
     private static final String BALANCE_INCREMENT_CRON = "0 0 * * * ?";
-    private static final BackTestProperties BACK_TEST_PROPERTIES = new BackTestProperties(2);
+    private static final BackTestProperties BACK_TEST_PROPERTIES = new BackTestProperties(2, false, 2, 4);
+    private static final BackTestProperties SHARED_CLOCK_BACK_TEST_PROPERTIES = new BackTestProperties(2, true, 2, 4);
 
     @Mock
     private ExcelService excelService;
@@ -183,6 +197,7 @@ class BackTesterImplUnitTest {
                 accountId, figi, candleInterval, commission, strategyType, exceptionMessage
         );
         AssertUtils.assertMatchesRegex(backTestResult.error(), expectedErrorPattern);
+        Assertions.assertNotNull(backTestResult.times());
     }
 
     @Test
@@ -322,6 +337,12 @@ class BackTesterImplUnitTest {
         AssertUtils.assertEquals(expectedAbsoluteProfit, profits.absolute());
         AssertUtils.assertEquals(expectedRelativeProfit, profits.relative());
         AssertUtils.assertEquals(expectedAnnualProfit, profits.relativeAnnual());
+
+        // services are mocked here, so there are no throttled API calls
+        final BackTestTimes times = backTestResult.times();
+        Assertions.assertEquals(0, times.throttlingMillis());
+        Assertions.assertEquals(0, times.apiCallsMillis());
+        Assertions.assertTrue(times.simulationMillis() >= 0);
     }
 
     @Test
@@ -428,6 +449,61 @@ class BackTesterImplUnitTest {
                 );
     }
 
+    @Test
+    void test_appliesOnlyBalanceIncrements_whenBotIsAlwaysWaiting() {
+        // arrange
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2021, 1, 2);
+        final Interval interval = Interval.of(from, to);
+
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final TestShare share = TestShares.APPLE;
+        final String figi = share.getFigi();
+        final String currency = share.getCurrency();
+        final BigDecimal commission = DecimalUtils.setDefaultScale(0.003);
+
+        final BigDecimal initialInvestment = DecimalUtils.setDefaultScale(10000);
+        final BigDecimal balanceIncrement = DecimalUtils.setDefaultScale(1000);
+        final Map<String, BigDecimal> initialBalances = Map.of(currency, initialInvestment);
+        final Map<String, BigDecimal> balanceIncrements = Map.of(currency, balanceIncrement);
+        final BalanceConfig balanceConfig = new BalanceConfig(initialBalances, balanceIncrements, BALANCE_INCREMENT_CRON);
+
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        final BotConfig botConfig = new BotConfig(accountId, List.of(figi), candleInterval, commission, null, null);
+
+        final SequencedMap<OffsetDateTime, Double> prices = new LinkedHashMap<>();
+        prices.put(from.plusMinutes(10), 100.0);
+
+        final FakeBot fakeBot = mockFakeBot(botConfig, balanceConfig, from);
+        Mockito.when(fakeBot.isAlwaysWaiting(Mockito.eq(botConfig), Mockito.any(Interval.class))).thenReturn(true);
+        Mockito.when(fakeBot.getCurrentDateTime()).thenReturn(from);
+
+        Mocker.mockInstrument(extInstrumentsService, share);
+        Mocker.mockShares(extInstrumentsService, share);
+        mockMarketCandles(false, figi, prices);
+        mockInvestments(fakeBot, accountId, from, currency, initialInvestment);
+        Mockito.when(fakeBot.getCurrentBalance(accountId, currency)).thenReturn(initialInvestment);
+
+        // act
+
+        final List<BackTestResult> backTestResults = backTester.test(List.of(botConfig), balanceConfig, interval, false);
+
+        // assert
+
+        Assertions.assertEquals(1, backTestResults.size());
+        Assertions.assertNull(backTestResults.getFirst().error());
+
+        Mockito.verify(fakeBot, Mockito.never()).processBotConfig(Mockito.any(BotConfig.class), Mockito.any(Interval.class));
+        Mockito.verify(fakeBot, Mockito.never()).nextScheduleMinute(Mockito.anyList());
+        Mockito.verify(fakeBot, Mockito.times(24))
+                .addInvestments(
+                        Mockito.eq(accountId),
+                        Mockito.any(OffsetDateTime.class),
+                        Mockito.eq(balanceIncrements)
+                );
+    }
+
     @Test
     void test_fillsPositions() {
         // arrange
@@ -975,7 +1051,8 @@ class BackTesterImplUnitTest {
         Assertions.assertNull(backTestResults.getFirst().error());
         Assertions.assertNull(backTestResults.get(1).error());
 
-        Mockito.verify(excelService, Mockito.only()).saveBackTestResults(Mockito.anyCollection());
+        Mockito.verify(excelService, Mockito.times(2))
+                .saveBackTestResults(Mockito.argThat((Collection<BackTestResult> results) -> results.size() == 1));
     }
 
     @Test
@@ -1174,10 +1251,8 @@ class BackTesterImplUnitTest {
 
         final BotConfig botConfig1 = new BotConfig(accountId1, List.of(figi1), candleInterval1, commission1, strategyType1, Collections.emptyMap());
 
-        mockFakeBot(botConfig1, balanceConfig, from);
-
         final String mockedExceptionMessage1 = "mocked exception 1";
-        Mockito.when(fakeBotFactory.createBot(botConfig1, balanceConfig, from))
+        Mockito.when(fakeBotFactory.createBot(Mockito.eq(botConfig1), Mockito.eq(balanceConfig), Mockito.eq(from), Mockito.any(CronHits.class)))
                 .thenThrow(new IllegalArgumentException(mockedExceptionMessage1));
 
         final String accountId2 = TestAccounts.IIS.getId();
@@ -1188,10 +1263,8 @@ class BackTesterImplUnitTest {
 
         final BotConfig botConfig2 = new BotConfig(accountId2, List.of(figi2), candleInterval2, commission2, strategyType2, Collections.emptyMap());
 
-        mockFakeBot(botConfig2, balanceConfig, from);
-
         final String mockedExceptionMessage2 = "mocked exception 2";
-        Mockito.when(fakeBotFactory.createBot(botConfig2, balanceConfig, from))
+        Mockito.when(fakeBotFactory.createBot(Mockito.eq(botConfig2), Mockito.eq(balanceConfig), Mockito.eq(from), Mockito.any(CronHits.class)))
                 .thenThrow(new IllegalArgumentException(mockedExceptionMessage2));
 
         final List<BotConfig> botConfigs = List.of(botConfig1, botConfig2);
@@ -1300,6 +1373,389 @@ class BackTesterImplUnitTest {
         Assertions.assertNull(backTestResults.get(1).error());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void test_savesFullResultToFile_andReturnsOnlySummary_whenDetailLevelIsSummary() {
+        // arrange
+
+        final TestShare share = TestShares.APPLE;
+        final String currency = share.getCurrency();
+
+        Mocker.mockInstrument(extInstrumentsService, share);
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2021, 1, 2);
+        final Interval interval = Interval.of(from, to);
+
+        final BigDecimal initialInvestment = DecimalUtils.setDefaultScale(10000);
+        final BigDecimal balanceIncrement = DecimalUtils.setDefaultScale(1000);
+        final Map<String, BigDecimal> initialBalances = Map.of(currency, initialInvestment);
+        final Map<String, BigDecimal> balanceIncrements = Map.of(currency, balanceIncrement);
+        final BalanceConfig balanceConfig = new BalanceConfig(initialBalances, balanceIncrements, BALANCE_INCREMENT_CRON);
+
+        final Operation operation = TestData.newOperation(
+                from.plusMinutes(2),
+                OperationType.OPERATION_TYPE_BUY,
+                100,
+                2,
+                share.getFigi()
+        );
+        final BotConfig botConfig = arrangeBackTest(
+                TestAccounts.TINKOFF.getId(),
+                share,
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                0.003,
+                balanceConfig,
+                interval,
+                DecimalUtils.ZERO,
+                2,
+                new LinkedHashMap<>(Map.of(from.plusMinutes(1), 100.0)),
+                100,
+                operation
+        );
+
+        // act
+
+        final List<BackTestResult> backTestResults =
+                backTester.test(List.of(botConfig), balanceConfig, interval, true, BackTestDetailLevel.SUMMARY);
+
+        // assert
+
+        final ArgumentCaptor<Collection<BackTestResult>> savedResultsCaptor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(excelService).saveBackTestResults(savedResultsCaptor.capture());
+        final BackTestResult savedResult = savedResultsCaptor.getValue().iterator().next();
+        Assertions.assertFalse(savedResult.positions().isEmpty());
+        Assertions.assertFalse(savedResult.operations().get(share.getFigi()).isEmpty());
+        Assertions.assertFalse(savedResult.candles().get(share.getFigi()).isEmpty());
+
+        Assertions.assertEquals(1, backTestResults.size());
+        final BackTestResult backTestResult = backTestResults.getFirst();
+        Assertions.assertNull(backTestResult.error());
+        Assertions.assertEquals(savedResult.balances(), backTestResult.balances());
+        Assertions.assertEquals(savedResult.profits(), backTestResult.profits());
+        Assertions.assertTrue(backTestResult.positions().isEmpty());
+        Assertions.assertTrue(backTestResult.operations().isEmpty());
+        Assertions.assertTrue(backTestResult.candles().isEmpty());
+    }
+
+    @Test
+    void test_sharesCandlesBetweenResults_whenBotConfigsHaveSameFigi() {
+        // arrange
+
+        // single loading permit makes candles loaded once regardless of order of bot configs processing
+        final BackTesterImpl backTester = new BackTesterImpl(
+                excelService, extInstrumentsService, extMarketDataService, fakeBotFactory, new BackTestProperties(1, false, 1, 4)
+        );
+
+        final TestShare share = TestShares.APPLE;
+        final String figi = share.getFigi();
+        final String currency = share.getCurrency();
+
+        Mocker.mockInstrument(extInstrumentsService, share);
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2021, 1, 2);
+        final Interval interval = Interval.of(from, to);
+
+        final BigDecimal initialInvestment = DecimalUtils.setDefaultScale(10000);
+        final BigDecimal balanceIncrement = DecimalUtils.setDefaultScale(1000);
+        final Map<String, BigDecimal> initialBalances = Map.of(currency, initialInvestment);
+        final Map<String, BigDecimal> balanceIncrements = Map.of(currency, balanceIncrement);
+        final BalanceConfig balanceConfig = new BalanceConfig(initialBalances, balanceIncrements, BALANCE_INCREMENT_CRON);
+
+        final SequencedMap<OffsetDateTime, Double> prices = new LinkedHashMap<>(Map.of(from.plusMinutes(1), 100.0));
+        final BotConfig botConfig1 = arrangeBackTest(
+                TestAccounts.TINKOFF.getId(),
+                share,
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                0.003,
+                balanceConfig,
+                interval,
+                DecimalUtils.ZERO,
+                null,
+                prices,
+                100,
+                null
+        );
+
+        // candles of second bot config are not mocked, because they are taken from the first one
+        final String accountId2 = TestAccounts.IIS.getId();
+        final BigDecimal commission2 = DecimalUtils.setDefaultScale(0.001);
+        final BotConfig botConfig2 = new BotConfig(accountId2, List.of(figi), CandleInterval.CANDLE_INTERVAL_1_MIN, commission2, null, null);
+        final FakeBot fakeBot2 = mockFakeBot(botConfig2, balanceConfig, from);
+        mockPlusMinuteScheduled(fakeBot2, from);
+        mockInvestments(fakeBot2, accountId2, from, currency, initialInvestment);
+        Mockito.when(fakeBot2.getCurrentBalance(accountId2, currency)).thenReturn(DecimalUtils.ZERO);
+        Mocker.mockTOperations(fakeBot2, accountId2, figi, interval);
+
+        // act
+
+        final List<BackTestResult> backTestResults =
+                backTester.test(List.of(botConfig1, botConfig2), balanceConfig, interval, false, BackTestDetailLevel.FULL);
+
+        // assert
+
+        Assertions.assertEquals(2, backTestResults.size());
+        Assertions.assertNull(backTestResults.getFirst().error());
+        Assertions.assertNull(backTestResults.get(1).error());
+
+        final List<Candle> candles1 = backTestResults.getFirst().candles().get(figi);
+        final List<Candle> candles2 = backTestResults.get(1).candles().get(figi);
+        Assertions.assertEquals(1, candles1.size());
+        Assertions.assertSame(candles1, candles2);
+    }
+
+    @Test
+    void test_loadsCandlesBeforeSimulation_whenCandlesAreNotNeededInResult() {
+        // arrange
+
+        final TestShare share = TestShares.APPLE;
+        final String figi = share.getFigi();
+        final String currency = share.getCurrency();
+
+        Mocker.mockInstrument(extInstrumentsService, share);
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2021, 1, 2);
+        final Interval interval = Interval.of(from, to);
+
+        final BigDecimal initialInvestment = DecimalUtils.setDefaultScale(10000);
+        final BigDecimal balanceIncrement = DecimalUtils.setDefaultScale(1000);
+        final Map<String, BigDecimal> initialBalances = Map.of(currency, initialInvestment);
+        final Map<String, BigDecimal> balanceIncrements = Map.of(currency, balanceIncrement);
+        final BalanceConfig balanceConfig = new BalanceConfig(initialBalances, balanceIncrements, BALANCE_INCREMENT_CRON);
+
+        final BotConfig botConfig = arrangeBackTest(
+                TestAccounts.TINKOFF.getId(),
+                share,
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                0.003,
+                balanceConfig,
+                interval,
+                DecimalUtils.ZERO,
+                null,
+                new LinkedHashMap<>(Map.of(from.plusMinutes(1), 100.0)),
+                100,
+                null
+        );
+        final FakeBot fakeBot = fakeBotFactory.createBot(botConfig, balanceConfig, from, CronHits.EMPTY);
+
+        // act
+
+        final List<BackTestResult> backTestResults =
+                backTester.test(List.of(botConfig), balanceConfig, interval, false, BackTestDetailLevel.SUMMARY);
+
+        // assert
+
+        Assertions.assertEquals(1, backTestResults.size());
+        Assertions.assertNull(backTestResults.getFirst().error());
+
+        final InOrder inOrder = Mockito.inOrder(extMarketDataService, fakeBot);
+        inOrder.verify(extMarketDataService).getCandles(Mockito.eq(figi), Mockito.any(Interval.class), Mockito.any(CandleInterval.class));
+        inOrder.verify(fakeBot, Mockito.atLeastOnce()).processBotConfig(Mockito.eq(botConfig), Mockito.any(Interval.class));
+    }
+
+    @Test
+    void test_throwsRejectedExecutionException_afterDestroy() {
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2021, 1, 2);
+        final Interval interval = Interval.of(from, to);
+
+        final BalanceConfig balanceConfig = new BalanceConfig(Map.of(), Map.of(), BALANCE_INCREMENT_CRON);
+        final BotConfig botConfig = new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                List.of(TestShares.APPLE.getFigi()),
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                DecimalUtils.ZERO,
+                null,
+                null
+        );
+
+        backTester.destroy();
+
+        final List<BotConfig> botConfigs = List.of(botConfig);
+        Assertions.assertThrows(RejectedExecutionException.class, () -> backTester.test(botConfigs, balanceConfig, interval, false));
+    }
+
+    @Test
+    void test_releasesPlaceInQueue_whenLoadingFails() {
+        // single place in queue makes the second back test wait forever if the first one doesn't release it
+        final BackTesterImpl backTester = new BackTesterImpl(
+                excelService, extInstrumentsService, extMarketDataService, fakeBotFactory, new BackTestProperties(1, false, 1, 1)
+        );
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = DateTimeTestData.newDateTime(2021, 1, 2);
+        final Interval interval = Interval.of(from, to);
+
+        final BalanceConfig balanceConfig = new BalanceConfig(Map.of(), Map.of(), BALANCE_INCREMENT_CRON);
+        final String figi = TestShares.APPLE.getFigi();
+        final BotConfig botConfig = new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                List.of(figi),
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                DecimalUtils.ZERO,
+                null,
+                null
+        );
+        Mockito.when(extInstrumentsService.getInstrument(figi)).thenThrow(new AssertionError("loading failed"));
+
+        final List<BotConfig> botConfigs = List.of(botConfig);
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Assertions.assertThrows(CompletionException.class, () -> backTester.test(botConfigs, balanceConfig, interval, false));
+            Assertions.assertThrows(CompletionException.class, () -> backTester.test(botConfigs, balanceConfig, interval, false));
+        });
+
+        backTester.destroy();
+    }
+
+    @Test
+    void getLoadingConcurrency_returnsBudgetOfBackgroundCalls_whenLoadingConcurrencyIsNotConfigured() {
+        final int budget = ApiCallsThrottling.getMarketDataServiceBudget(ApiCallPriority.BACKGROUND);
+
+        Assertions.assertEquals(budget, BackTesterImpl.getLoadingConcurrency(new BackTestProperties(1, false, null, 1)));
+    }
+
+    @Test
+    void getLoadingConcurrency_limitsConfiguredValueByBudgetOfBackgroundCalls() {
+        final int budget = ApiCallsThrottling.getMarketDataServiceBudget(ApiCallPriority.BACKGROUND);
+
+        Assertions.assertEquals(3, BackTesterImpl.getLoadingConcurrency(new BackTestProperties(1, false, 3, 1)));
+        Assertions.assertEquals(budget, BackTesterImpl.getLoadingConcurrency(new BackTestProperties(1, false, budget + 1, 1)));
+    }
+
+    // region shared clock tests
+
+    @Test
+    void test_withSharedClock_returnsResultsInSameOrder_andLoadsCandlesAndScheduleOncePerGroup() {
+        // arrange
+
+        final BackTesterImpl sharedClockBackTester = new BackTesterImpl(
+                excelService, extInstrumentsService, extMarketDataService, fakeBotFactory, SHARED_CLOCK_BACK_TEST_PROPERTIES
+        );
+
+        final TestShare share1 = TestShares.APPLE;
+        final TestShare share2 = TestShares.SBER;
+
+        Mocker.mockInstrument(extInstrumentsService, share1);
+        Mocker.mockInstrument(extInstrumentsService, share2);
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = from.plusDays(1);
+        final Interval interval = Interval.of(from, to);
+
+        final BigDecimal initialInvestment = DecimalUtils.setDefaultScale(10000);
+        final Map<String, BigDecimal> initialBalances = Map.of(share1.getCurrency(), initialInvestment, share2.getCurrency(), initialInvestment);
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(initialBalances, Collections.emptyMap());
+
+        final SequencedMap<OffsetDateTime, Double> prices1 = new LinkedHashMap<>();
+        prices1.put(from.plusMinutes(10), 1000.0);
+        final SequencedMap<OffsetDateTime, Double> prices2 = new LinkedHashMap<>();
+        prices2.put(from.plusMinutes(10), 100.0);
+
+        final BigDecimal currentBalance = DecimalUtils.setDefaultScale(100);
+        final BotConfig botConfig1 = arrangeBackTest(
+                true, TestAccounts.TINKOFF.getId(), share1, CandleInterval.CANDLE_INTERVAL_1_MIN, 0.003,
+                balanceConfig, interval, currentBalance, 1, prices1, 1000, null
+        );
+        final BotConfig botConfig2 = arrangeBackTest(
+                true, TestAccounts.TINKOFF.getId(), share2, CandleInterval.CANDLE_INTERVAL_1_MIN, 0.001,
+                balanceConfig, interval, currentBalance, 1, prices2, 100, null
+        );
+        final BotConfig botConfig3 = arrangeBackTest(
+                true, TestAccounts.IIS.getId(), share1, CandleInterval.CANDLE_INTERVAL_1_MIN, 0.002,
+                balanceConfig, interval, currentBalance, 1, prices1, 1000, null
+        );
+
+        final List<BotConfig> botConfigs = List.of(botConfig1, botConfig2, botConfig3);
+
+        // act
+
+        final List<BackTestResult> backTestResults = sharedClockBackTester.test(botConfigs, balanceConfig, interval, false);
+
+        // assert
+
+        Assertions.assertEquals(3, backTestResults.size());
+        for (int i = 0; i < botConfigs.size(); i++) {
+            Assertions.assertEquals(botConfigs.get(i), backTestResults.get(i).botConfig());
+            Assertions.assertNull(backTestResults.get(i).error());
+        }
+
+        Mockito.verify(extMarketDataService, Mockito.times(1))
+                .getCandles(Mockito.eq(share1.getFigi()), Mockito.any(Interval.class), Mockito.any(CandleInterval.class));
+        Mockito.verify(extMarketDataService, Mockito.times(1))
+                .getCandles(Mockito.eq(share2.getFigi()), Mockito.any(Interval.class), Mockito.any(CandleInterval.class));
+
+        final int minutesCount = (int) interval.toDuration().toMinutes();
+        Mockito.verify(extInstrumentsService, Mockito.times(minutesCount))
+                .getTradingScheduleByFigies(Mockito.eq(List.of(share1.getFigi())), Mockito.any(Interval.class));
+        Mockito.verify(extInstrumentsService, Mockito.times(minutesCount))
+                .getTradingScheduleByFigies(Mockito.eq(List.of(share2.getFigi())), Mockito.any(Interval.class));
+    }
+
+    @Test
+    void test_withSharedClock_returnsFailedResultOnlyForFailedBot() {
+        // arrange
+
+        final BackTesterImpl sharedClockBackTester = new BackTesterImpl(
+                excelService, extInstrumentsService, extMarketDataService, fakeBotFactory, SHARED_CLOCK_BACK_TEST_PROPERTIES
+        );
+
+        final TestShare share = TestShares.APPLE;
+        Mocker.mockInstrument(extInstrumentsService, share);
+
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2021, 1, 1);
+        final OffsetDateTime to = from.plusDays(1);
+        final Interval interval = Interval.of(from, to);
+
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(share.getCurrency(), 10000.0, null);
+
+        final SequencedMap<OffsetDateTime, Double> prices = new LinkedHashMap<>();
+        prices.put(from.plusMinutes(10), 1000.0);
+
+        final BotConfig botConfig1 = arrangeBackTest(
+                true, TestAccounts.TINKOFF.getId(), share, CandleInterval.CANDLE_INTERVAL_1_MIN, 0.003,
+                balanceConfig, interval, DecimalUtils.setDefaultScale(100), 1, prices, 1000, null
+        );
+
+        final String accountId2 = TestAccounts.IIS.getId();
+        final BigDecimal commission2 = DecimalUtils.setDefaultScale(0.001);
+        final BotConfig botConfig2 = new BotConfig(
+                accountId2, List.of(share.getFigi()), CandleInterval.CANDLE_INTERVAL_1_MIN, commission2, null, null
+        );
+        final FakeBot fakeBot2 = mockFakeBot(true, botConfig2, balanceConfig, from);
+        final String exceptionMessage = "exception message";
+        Mockito.doThrow(new IllegalArgumentException(exceptionMessage))
+                .when(fakeBot2).processBotConfig(Mockito.eq(botConfig2), Mockito.any(Interval.class));
+
+        final List<BotConfig> botConfigs = List.of(botConfig1, botConfig2);
+
+        // act
+
+        final List<BackTestResult> backTestResults = sharedClockBackTester.test(botConfigs, balanceConfig, interval, false);
+
+        // assert
+
+        Assertions.assertEquals(2, backTestResults.size());
+
+        Assertions.assertEquals(botConfig1, backTestResults.getFirst().botConfig());
+        Assertions.assertNull(backTestResults.getFirst().error());
+
+        Assertions.assertEquals(botConfig2, backTestResults.get(1).botConfig());
+        final String expectedErrorPattern = String.format(
+                Locale.US,
+                "^Back test for 'BotConfig\\{accountId=%s, figies=\\[%s\\], candleInterval=%s, commission=%s, strategyType=null, " +
+                        "strategyParams=null\\}' failed within 00:00:00.\\d\\d\\d with error: %s$",
+                accountId2, share.getFigi(), CandleInterval.CANDLE_INTERVAL_1_MIN, commission2, exceptionMessage
+        );
+        AssertUtils.assertMatchesRegex(backTestResults.get(1).error(), expectedErrorPattern);
+
+        Mockito.verify(fakeBot2, Mockito.times(1)).processBotConfig(Mockito.eq(botConfig2), Mockito.any(Interval.class));
+        Mockito.verify(fakeBot2, Mockito.never()).nextScheduleMinute(Mockito.anyList());
+    }
+
+    // endregion
+
     private BotConfig arrangeBackTest(
             final String accountId,
             final TestShare share,
@@ -1312,6 +1768,26 @@ class BackTesterImplUnitTest {
             final SequencedMap<OffsetDateTime, Double> prices,
             final double currentPrice,
             final Operation operation
+    ) {
+        return arrangeBackTest(
+                false, accountId, share, candleInterval, commission, balanceConfig, interval,
+                currentBalance, quantity, prices, currentPrice, operation
+        );
+    }
+
+    private BotConfig arrangeBackTest(
+            final boolean sharedClock,
+            final String accountId,
+            final TestShare share,
+            final CandleInterval candleInterval,
+            final double commission,
+            final BalanceConfig balanceConfig,
+            final Interval interval,
+            final BigDecimal currentBalance,
+            final Integer quantity,
+            final SequencedMap<OffsetDateTime, Double> prices,
+            final double currentPrice,
+            final Operation operation
     ) {
         final String figi = share.getFigi();
         final String currency = share.getCurrency();
@@ -1319,10 +1795,10 @@ class BackTesterImplUnitTest {
         final BigDecimal decimalCommission = DecimalUtils.setDefaultScale(commission);
         final BotConfig botConfig = new BotConfig(accountId, List.of(figi), candleInterval, decimalCommission, null, null);
 
-        final FakeBot fakeBot = mockFakeBot(botConfig, balanceConfig, interval.getFrom());
+        final FakeBot fakeBot = mockFakeBot(sharedClock, botConfig, balanceConfig, interval.getFrom());
 
         Mocker.mockShares(extInstrumentsService, share);
-        mockMarketCandles(figi, prices);
+        mockMarketCandles(sharedClock, figi, prices);
         mockPlusMinuteScheduled(fakeBot, interval.getFrom());
         mockInvestments(fakeBot, accountId, interval.getFrom(), currency, balanceConfig.getInitialBalances().get(currency));
         Mockito.when(fakeBot.getCurrentBalance(accountId, currency)).thenReturn(currentBalance);
@@ -1345,9 +1821,31 @@ class BackTesterImplUnitTest {
     }
 
     private FakeBot mockFakeBot(final BotConfig botConfig, final BalanceConfig balanceConfig, final OffsetDateTime currentDateTime) {
-        final FakeBot fakeBot = Mockito.mock(FakeBot.class);
-        Mockito.when(fakeBotFactory.createBot(botConfig, balanceConfig, currentDateTime)).thenReturn(fakeBot);
-        return fakeBot;
+        return mockFakeBot(false, botConfig, balanceConfig, currentDateTime);
+    }
+
+    private FakeBot mockFakeBot(
+            final boolean sharedClock,
+            final BotConfig botConfig,
+            final BalanceConfig balanceConfig,
+            final OffsetDateTime currentDateTime
+    ) {
+        if (sharedClock) {
+            // clock of bots with shared clock is read only from the first bot of group
+            final FakeBot fakeBot = Mockito.mock(FakeBot.class, Mockito.withSettings().strictness(Strictness.LENIENT));
+            Mockito.when(fakeBotFactory.createBot(
+                    Mockito.eq(botConfig),
+                    Mockito.eq(balanceConfig),
+                    Mockito.eq(currentDateTime),
+                    Mockito.any(CronHits.class),
+                    Mockito.any(SharedClockMarketDataService.class)
+            )).thenReturn(fakeBot);
+            return fakeBot;
+        } else {
+            final FakeBot fakeBot = Mockito.mock(FakeBot.class);
+            Mockito.when(fakeBotFactory.createBot(Mockito.eq(botConfig), Mockito.eq(balanceConfig), Mockito.eq(currentDateTime), Mockito.any(CronHits.class))).thenReturn(fakeBot);
+            return fakeBot;
+        }
     }
 
     private void mockBotCandles(final BotConfig botConfig, final FakeBot fakeBot, final Map<OffsetDateTime, Double> prices) {
@@ -1363,12 +1861,19 @@ class BackTesterImplUnitTest {
         }).when(fakeBot).processBotConfig(Mockito.eq(botConfig), Mockito.any(Interval.class));
     }
 
-    private void mockMarketCandles(final String figi, final Map<OffsetDateTime, Double> prices) {
+    private void mockMarketCandles(final boolean sharedClock, final String figi, final Map<OffsetDateTime, Double> prices) {
         final List<Candle> candles = prices.entrySet().stream()
                 .map(entry -> new CandleBuilder().setOpen(entry.getValue()).setTime(entry.getKey()).build())
                 .toList();
-        Mockito.when(extMarketDataService.getCandles(Mockito.eq(figi), Mockito.any(Interval.class), Mockito.nullable(CandleInterval.class)))
-                .thenReturn(candles);
+        if (sharedClock) {
+            // bots with shared clock may have same FIGI, so candles are loaded once for several stubbings
+            Mockito.lenient()
+                    .when(extMarketDataService.getCandles(Mockito.eq(figi), Mockito.any(Interval.class), Mockito.nullable(CandleInterval.class)))
+                    .thenReturn(candles);
+        } else {
+            Mockito.when(extMarketDataService.getCandles(Mockito.eq(figi), Mockito.any(Interval.class), Mockito.nullable(CandleInterval.class)))
+                    .thenReturn(candles);
+        }
     }
 
     private void mockPlusMinuteScheduled(final FakeBot fakeBot, final OffsetDateTime from) {
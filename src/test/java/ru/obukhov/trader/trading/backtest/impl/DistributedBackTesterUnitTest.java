@@ -0,0 +1,306 @@
+package ru.obukhov.trader.trading.backtest.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestClient;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.util.DecimalUtils;
+import ru.obukhov.trader.config.properties.DistributedBackTestProperties;
+import ru.obukhov.trader.market.impl.ExtInstrumentsService;
+import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.FileCandlesStore;
+import ru.obukhov.trader.market.model.Currencies;
+import ru.obukhov.trader.market.model.Instrument;
+import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.TestUtils;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.TestData;
+import ru.obukhov.trader.test.utils.model.account.TestAccounts;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.obukhov.trader.trading.model.BackTestResult;
+import ru.obukhov.trader.trading.model.StrategyType;
+import ru.obukhov.trader.web.model.BalanceConfig;
+import ru.obukhov.trader.web.model.BotConfig;
+import ru.tinkoff.piapi.contract.v1.CandleInterval;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+class DistributedBackTesterUnitTest {
+
+    private static final String WORKER_URL_1 = "http://localhost:8081";
+    private static final String WORKER_URL_2 = "http://localhost:8082";
+
+    @Mock
+    private ExtInstrumentsService extInstrumentsService;
+    @Mock
+    private ExtMarketDataService extMarketDataService;
+    @Mock
+    private FileCandlesStore fileCandlesStore;
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenWorkerUrlsAreEmpty() {
+        final DistributedBackTestProperties properties = new DistributedBackTestProperties(true, null, null, null, null);
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+
+        AssertUtils.assertThrowsWithMessage(
+                IllegalArgumentException.class,
+                () -> new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties),
+                "workerUrls are mandatory for distributed back test"
+        );
+    }
+
+    @Test
+    void test_mergesResultsOfPartitions_inOrderOfBotConfigs() throws Exception {
+        // arrange
+
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+        final MockRestServiceServer server = MockRestServiceServer.bindTo(restClientBuilder).ignoreExpectOrder(true).build();
+        final DistributedBackTestProperties properties =
+                new DistributedBackTestProperties(true, List.of(WORKER_URL_1, WORKER_URL_2), 2, 1, null);
+        final DistributedBackTester backTester = new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 3));
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(Currencies.USD, 1000.0, null);
+
+        final BotConfig botConfig1 = newBotConfig(0.001);
+        final BotConfig botConfig2 = newBotConfig(0.002);
+        final BotConfig botConfig3 = newBotConfig(0.003);
+
+        expectPartition(server, List.of(botConfig1, botConfig2), interval);
+        expectPartition(server, List.of(botConfig3), interval);
+
+        // act
+
+        final List<BackTestResult> results = backTester.test(List.of(botConfig1, botConfig2, botConfig3), balanceConfig, interval, false);
+
+        // assert
+
+        server.verify();
+
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertEquals(botConfig1, results.get(0).botConfig());
+        Assertions.assertEquals(botConfig2, results.get(1).botConfig());
+        Assertions.assertEquals(botConfig3, results.get(2).botConfig());
+        for (final BackTestResult result : results) {
+            Assertions.assertNull(result.error());
+            Assertions.assertEquals(interval, result.interval());
+        }
+        Mockito.verifyNoInteractions(extMarketDataService);
+    }
+
+    @Test
+    void test_retriesFailedPartition_onNextWorker() throws Exception {
+        // arrange
+
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+        final MockRestServiceServer server = MockRestServiceServer.bindTo(restClientBuilder).build();
+        final DistributedBackTestProperties properties =
+                new DistributedBackTestProperties(true, List.of(WORKER_URL_1, WORKER_URL_2), 1, 2, null);
+        final DistributedBackTester backTester = new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 3));
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(Currencies.USD, 1000.0, null);
+        final BotConfig botConfig = newBotConfig(0.001);
+
+        server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo(WORKER_URL_1 + DistributedBackTester.PARTITION_PATH))
+                .andRespond(MockRestResponseCreators.withServerError());
+        final String responseBody = TestUtils.OBJECT_MAPPER.writeValueAsString(List.of(newBackTestResult(botConfig, interval)));
+        server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo(WORKER_URL_2 + DistributedBackTester.PARTITION_PATH))
+                .andRespond(MockRestResponseCreators.withSuccess(responseBody, MediaType.APPLICATION_JSON));
+
+        // act
+
+        final List<BackTestResult> results = backTester.test(List.of(botConfig), balanceConfig, interval, false);
+
+        // assert
+
+        server.verify();
+
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(botConfig, results.getFirst().botConfig());
+        Assertions.assertNull(results.getFirst().error());
+    }
+
+    @Test
+    void test_returnsFailedResults_whenAllAttemptsFailed() {
+        // arrange
+
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+        final MockRestServiceServer server = MockRestServiceServer.bindTo(restClientBuilder).build();
+        final DistributedBackTestProperties properties =
+                new DistributedBackTestProperties(true, List.of(WORKER_URL_1), 2, 2, null);
+        final DistributedBackTester backTester = new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 3));
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(Currencies.USD, 1000.0, null);
+        final BotConfig botConfig1 = newBotConfig(0.001);
+        final BotConfig botConfig2 = newBotConfig(0.002);
+
+        server.expect(ExpectedCount.times(2), MockRestRequestMatchers.requestTo(WORKER_URL_1 + DistributedBackTester.PARTITION_PATH))
+                .andRespond(MockRestResponseCreators.withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // act
+
+        final List<BackTestResult> results = backTester.test(List.of(botConfig1, botConfig2), balanceConfig, interval, false);
+
+        // assert
+
+        server.verify();
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(botConfig1, results.get(0).botConfig());
+        Assertions.assertEquals(botConfig2, results.get(1).botConfig());
+        for (final BackTestResult result : results) {
+            AssertUtils.assertMatchesRegex(result.error(), "^Back test for 'BotConfig\\{.*\\}' failed within 2 attempts with error: 503.*$");
+            AssertUtils.assertEquals(1000, result.balances().get(Currencies.USD).initialInvestment());
+        }
+    }
+
+    @Test
+    void test_throwsRejectedExecutionException_afterDestroy() {
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+        final DistributedBackTestProperties properties =
+                new DistributedBackTestProperties(true, List.of(WORKER_URL_1), 2, 2, null);
+        final DistributedBackTester backTester = new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 3));
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(Currencies.USD, 1000.0, null);
+        final List<BotConfig> botConfigs = List.of(newBotConfig(0.001));
+
+        backTester.destroy();
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> backTester.test(botConfigs, balanceConfig, interval, false));
+    }
+
+    @Test
+    void test_retriesFailedPartition_onAnotherWorker_whileItIsBusy() throws Exception {
+        // arrange
+
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+        final MockRestServiceServer server = MockRestServiceServer.bindTo(restClientBuilder).ignoreExpectOrder(true).build();
+        final DistributedBackTestProperties properties =
+                new DistributedBackTestProperties(true, List.of(WORKER_URL_1, WORKER_URL_2), 1, 2, null);
+        final DistributedBackTester backTester = new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 3));
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(Currencies.USD, 1000.0, null);
+        final BotConfig botConfig1 = newBotConfig(0.001);
+        final BotConfig botConfig2 = newBotConfig(0.002);
+
+        server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo(WORKER_URL_1 + DistributedBackTester.PARTITION_PATH))
+                .andRespond(delayed(100, MockRestResponseCreators.withServerError()));
+        final String responseBody = TestUtils.OBJECT_MAPPER.writeValueAsString(List.of(newBackTestResult(botConfig1, interval)));
+        server.expect(ExpectedCount.twice(), MockRestRequestMatchers.requestTo(WORKER_URL_2 + DistributedBackTester.PARTITION_PATH))
+                .andRespond(delayed(300, MockRestResponseCreators.withSuccess(responseBody, MediaType.APPLICATION_JSON)));
+
+        // act
+
+        final List<BackTestResult> results = backTester.test(List.of(botConfig1, botConfig2), balanceConfig, interval, false);
+
+        // assert
+
+        server.verify();
+
+        Assertions.assertEquals(2, results.size());
+        for (final BackTestResult result : results) {
+            Assertions.assertNull(result.error());
+        }
+    }
+
+    @Test
+    void test_loadsCandlesOfAllFigies_whenCandlesStoreIsEnabled() throws Exception {
+        // arrange
+
+        final RestClient.Builder restClientBuilder = RestClient.builder();
+        final MockRestServiceServer server = MockRestServiceServer.bindTo(restClientBuilder).build();
+        final DistributedBackTestProperties properties =
+                new DistributedBackTestProperties(true, List.of(WORKER_URL_1), 2, 1, "candles");
+        final DistributedBackTester backTester = new DistributedBackTester(extInstrumentsService, extMarketDataService, fileCandlesStore, restClientBuilder, properties);
+
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 1, 1), DateTimeTestData.newDateTime(2023, 1, 3));
+        final BalanceConfig balanceConfig = TestData.newBalanceConfig(Currencies.USD, 1000.0, null);
+        final BotConfig botConfig1 = newBotConfig(0.001);
+        final BotConfig botConfig2 = newBotConfig(0.002);
+
+        Mockito.when(fileCandlesStore.isEnabled()).thenReturn(true);
+        final Instrument instrument = TestShares.APPLE.instrument().withFirst1MinCandleDate(interval.getFrom().plusDays(1));
+        Mockito.when(extInstrumentsService.getInstrument(TestShares.APPLE.getFigi())).thenReturn(instrument);
+        expectPartition(server, List.of(botConfig1, botConfig2), interval);
+
+        // act
+
+        backTester.test(List.of(botConfig1, botConfig2), balanceConfig, interval, false);
+
+        // assert
+
+        final Interval effectiveInterval = Interval.of(interval.getFrom().plusDays(1), interval.getTo());
+        Mockito.verify(extMarketDataService, Mockito.times(1))
+                .getCandles(TestShares.APPLE.getFigi(), effectiveInterval, CandleInterval.CANDLE_INTERVAL_1_MIN);
+        Mockito.verifyNoMoreInteractions(extMarketDataService);
+    }
+
+    private static ResponseCreator delayed(final long delayMillis, final ResponseCreator responseCreator) {
+        return request -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return responseCreator.createResponse(request);
+        };
+    }
+
+    private static void expectPartition(final MockRestServiceServer server, final List<BotConfig> botConfigs, final Interval interval)
+            throws Exception {
+        final List<BackTestResult> results = botConfigs.stream().map(botConfig -> newBackTestResult(botConfig, interval)).toList();
+        final String responseBody = TestUtils.OBJECT_MAPPER.writeValueAsString(results);
+        final String requestBotConfigs = TestUtils.OBJECT_MAPPER.writeValueAsString(Map.of("botConfigs", botConfigs));
+        server.expect(ExpectedCount.once(), MockRestRequestMatchers.method(HttpMethod.POST))
+                .andExpect(MockRestRequestMatchers.content().json(requestBotConfigs))
+                .andRespond(MockRestResponseCreators.withSuccess(responseBody, MediaType.APPLICATION_JSON));
+    }
+
+    private static BotConfig newBotConfig(final double commission) {
+        return new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                List.of(TestShares.APPLE.getFigi()),
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                DecimalUtils.setDefaultScale(commission),
+                StrategyType.CONSERVATIVE,
+                Collections.emptyMap()
+        );
+    }
+
+    private static BackTestResult newBackTestResult(final BotConfig botConfig, final Interval interval) {
+        return new BackTestResult(
+                botConfig,
+                interval,
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+    }
+
+}
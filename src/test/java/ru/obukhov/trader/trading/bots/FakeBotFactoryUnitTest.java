@@ -13,6 +13,8 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
 import ru.obukhov.trader.common.exception.InstrumentNotFoundException;
+import ru.obukhov.trader.common.model.CronHits;
+import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.util.DateUtils;
 import ru.obukhov.trader.common.util.DecimalUtils;
 import ru.obukhov.trader.market.impl.ExtInstrumentsService;
@@ -109,7 +111,7 @@ class FakeBotFactoryUnitTest {
         mockFakeContext();
         Mocker.mockTradingSchedules(extInstrumentsService, figies, START_TIME, END_TIME);
 
-        final FakeBot bot = factory.createBot(botConfig, balanceConfig, currentDateTime);
+        final FakeBot bot = factory.createBot(botConfig, balanceConfig, currentDateTime, CronHits.EMPTY);
 
         Assertions.assertEquals(expectedCurrentDateTime, bot.getCurrentDateTime());
     }
@@ -182,7 +184,9 @@ class FakeBotFactoryUnitTest {
         mockFakeContext();
         Mocker.mockTradingSchedules(extInstrumentsService, figies, START_TIME, END_TIME);
 
-        final FakeBot bot = factory.createBot(botConfig, balanceConfig, currentDateTime);
+        final Interval interval = Interval.of(currentDateTime, currentDateTime.plusDays(10));
+        final CronHits balanceIncrementTimes = CronHits.of(balanceConfig.getBalanceIncrementCron(), interval);
+        final FakeBot bot = factory.createBot(botConfig, balanceConfig, currentDateTime, balanceIncrementTimes);
 
         AssertUtils.assertEquals(expectedBalances.get(currency1), bot.getCurrentBalance(botConfig.accountId(), currency1));
         AssertUtils.assertEquals(expectedBalances.get(currency2), bot.getCurrentBalance(botConfig.accountId(), currency2));
@@ -206,7 +210,7 @@ class FakeBotFactoryUnitTest {
         Mocker.mockTradingSchedules(extInstrumentsService, figies, START_TIME, END_TIME);
         Mockito.when(extInstrumentsService.getShares(figies)).thenReturn(List.of(share1));
 
-        final Executable executable = () -> factory.createBot(botConfig, balanceConfig, currentDateTime);
+        final Executable executable = () -> factory.createBot(botConfig, balanceConfig, currentDateTime, CronHits.EMPTY);
         final String expectedMessage = "Instruments not found for ids [" + share2.figi() + "]";
         AssertUtils.assertThrowsWithMessage(InstrumentNotFoundException.class, executable, expectedMessage);
     }
@@ -0,0 +1,98 @@
+package ru.obukhov.trader.trading.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.market.model.Candle;
+import ru.obukhov.trader.market.model.PositionBuilder;
+import ru.obukhov.trader.test.utils.model.CandleBuilder;
+import ru.obukhov.trader.test.utils.model.DateTimeTestData;
+import ru.obukhov.trader.test.utils.model.TestData;
+import ru.obukhov.trader.test.utils.model.share.TestShares;
+import ru.tinkoff.piapi.contract.v1.Operation;
+import ru.tinkoff.piapi.contract.v1.OperationType;
+import ru.tinkoff.piapi.core.models.Position;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+class BackTestResultUnitTest {
+
+    @Test
+    void withDetailLevel_keepsOnlySummary_whenSummary() {
+        final BackTestResult result = newBackTestResult();
+
+        final BackTestResult actualResult = result.withDetailLevel(BackTestDetailLevel.SUMMARY);
+
+        Assertions.assertSame(result.botConfig(), actualResult.botConfig());
+        Assertions.assertSame(result.interval(), actualResult.interval());
+        Assertions.assertSame(result.balances(), actualResult.balances());
+        Assertions.assertSame(result.profits(), actualResult.profits());
+        Assertions.assertTrue(actualResult.positions().isEmpty());
+        Assertions.assertTrue(actualResult.operations().isEmpty());
+        Assertions.assertTrue(actualResult.candles().isEmpty());
+        Assertions.assertSame(result.times(), actualResult.times());
+        Assertions.assertEquals(result.error(), actualResult.error());
+    }
+
+    @Test
+    void withDetailLevel_keepsPositionsAndOperations_whenTrades() {
+        final BackTestResult result = newBackTestResult();
+
+        final BackTestResult actualResult = result.withDetailLevel(BackTestDetailLevel.TRADES);
+
+        Assertions.assertSame(result.balances(), actualResult.balances());
+        Assertions.assertSame(result.profits(), actualResult.profits());
+        Assertions.assertSame(result.positions(), actualResult.positions());
+        Assertions.assertSame(result.operations(), actualResult.operations());
+        Assertions.assertTrue(actualResult.candles().isEmpty());
+    }
+
+    @Test
+    void withDetailLevel_returnsSameResult_whenFull() {
+        final BackTestResult result = newBackTestResult();
+
+        final BackTestResult actualResult = result.withDetailLevel(BackTestDetailLevel.FULL);
+
+        Assertions.assertSame(result, actualResult);
+    }
+
+    @Test
+    void withTimes_replacesOnlyTimes() {
+        final BackTestResult result = newBackTestResult();
+        final BackTestTimes times = new BackTestTimes(10, 20, 30);
+
+        final BackTestResult actualResult = result.withTimes(times);
+
+        Assertions.assertSame(times, actualResult.times());
+        Assertions.assertSame(result.interval(), actualResult.interval());
+        Assertions.assertSame(result.positions(), actualResult.positions());
+        Assertions.assertSame(result.operations(), actualResult.operations());
+        Assertions.assertSame(result.candles(), actualResult.candles());
+        Assertions.assertEquals(result.error(), actualResult.error());
+    }
+
+    private static BackTestResult newBackTestResult() {
+        final String figi = TestShares.APPLE.getFigi();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 1, 1);
+        final Interval interval = Interval.of(from, from.plusDays(1));
+
+        final Position position = new PositionBuilder().setFigi(figi).setQuantity(1).build();
+        final Operation operation = TestData.newOperation(from.plusMinutes(1), OperationType.OPERATION_TYPE_BUY, 100, 1, figi);
+        final Candle candle = new CandleBuilder().setClose(100).setTime(from).build();
+
+        return new BackTestResult(
+                null,
+                interval,
+                Map.of(),
+                Map.of(),
+                List.of(position),
+                Map.of(figi, List.of(operation)),
+                Map.of(figi, List.of(candle)),
+                new BackTestTimes(1, 2, 3),
+                null
+        );
+    }
+
+}
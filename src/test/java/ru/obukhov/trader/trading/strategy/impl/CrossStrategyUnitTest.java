@@ -6,18 +6,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.Mock;
+import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.obukhov.trader.common.model.Interval;
+import ru.obukhov.trader.common.service.impl.ExponentialMovingAverager;
 import ru.obukhov.trader.common.service.impl.MovingAverager;
+import ru.obukhov.trader.common.service.impl.SimpleMovingAverager;
+import ru.obukhov.trader.common.util.CrossoverDetector;
 import ru.obukhov.trader.common.util.DecimalUtils;
 import ru.obukhov.trader.common.util.TrendUtils;
+import ru.obukhov.trader.config.properties.MovingAveragesCacheProperties;
 import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
 import ru.obukhov.trader.market.model.Candle;
 import ru.obukhov.trader.market.model.PositionBuilder;
 import ru.obukhov.trader.market.model.Share;
 import ru.obukhov.trader.test.utils.AssertUtils;
+import ru.obukhov.trader.test.utils.Mocker;
 import ru.obukhov.trader.test.utils.model.DateTimeTestData;
 import ru.obukhov.trader.test.utils.model.TestData;
 import ru.obukhov.trader.test.utils.model.account.TestAccounts;
@@ -38,6 +47,7 @@ import ru.tinkoff.piapi.core.models.Position;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -47,8 +57,11 @@ class CrossStrategyUnitTest {
 
     @Mock
     private ExtMarketDataService extMarketDataService;
-    @Mock
-    private MovingAverager averager;
+    @Spy
+    private MovingAverager averager = new SimpleMovingAverager();
+
+    @Spy
+    private MovingAveragesCache movingAveragesCache = new MovingAveragesCache(new MovingAveragesCacheProperties(null, null));
 
     // region decide tests
 
@@ -67,7 +80,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.getFigi());
@@ -96,7 +109,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.getFigi());
@@ -134,7 +147,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.figi());
@@ -170,9 +183,9 @@ class CrossStrategyUnitTest {
                 false,
                 3,
                 5);
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
-        try (final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.NONE)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.NONE)) {
             final String accountId = TestAccounts.TINKOFF.getId();
             final List<String> figies = List.of(share.figi());
             final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
@@ -209,7 +222,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.figi());
@@ -219,7 +232,7 @@ class CrossStrategyUnitTest {
         final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 9, 11);
         final Interval interval = Interval.of(from, to);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.BELOW)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.BELOW)) {
             final Map<String, Decision> decisions = strategy.decide(decisionsData, botConfig, interval);
 
             Assertions.assertEquals(1, decisions.size());
@@ -246,9 +259,9 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.BELOW)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.BELOW)) {
             final String accountId = TestAccounts.TINKOFF.getId();
             final List<String> figies = List.of(share.figi());
             final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
@@ -290,7 +303,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.figi());
@@ -300,11 +313,14 @@ class CrossStrategyUnitTest {
         final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 9, 11);
         final Interval interval = Interval.of(from, to);
 
-        final Candle candle = new Candle().setClose(DecimalUtils.setDefaultScale(120));
+        final Candle candle = new Candle()
+                .setOpen(DecimalUtils.setDefaultScale(120))
+                .setClose(DecimalUtils.setDefaultScale(120))
+                .setTime(from);
         final List<Candle> candles = List.of(candle);
         Mockito.when(extMarketDataService.getCandles(share.figi(), interval, candleInterval)).thenReturn(candles);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.ABOVE)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.ABOVE)) {
             final Map<String, Decision> decisions = strategy.decide(decisionsData, botConfig, interval);
 
             Assertions.assertEquals(1, decisions.size());
@@ -338,7 +354,7 @@ class CrossStrategyUnitTest {
                 5
         );
 
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final List<String> figies = List.of(share.figi());
         final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
@@ -349,11 +365,11 @@ class CrossStrategyUnitTest {
         final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 9, 11);
         final Interval interval = Interval.of(from, to);
 
-        final Candle candle = new Candle().setClose(BigDecimal.ZERO);
+        final Candle candle = new Candle().setOpen(BigDecimal.ZERO).setClose(BigDecimal.ZERO).setTime(from);
         final List<Candle> candles = List.of(candle);
         Mockito.when(extMarketDataService.getCandles(share.figi(), interval, candleInterval)).thenReturn(candles);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.ABOVE)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.ABOVE)) {
             final Map<String, Decision> decisions = strategy.decide(decisionsData, botConfig, interval);
 
             Assertions.assertEquals(1, decisions.size());
@@ -386,7 +402,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.figi());
@@ -396,11 +412,11 @@ class CrossStrategyUnitTest {
         final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 9, 11);
         final Interval interval = Interval.of(from, to);
 
-        final Candle candle = new Candle().setClose(BigDecimal.ZERO);
+        final Candle candle = new Candle().setOpen(BigDecimal.ZERO).setClose(BigDecimal.ZERO).setTime(from);
         final List<Candle> candles = List.of(candle);
         Mockito.when(extMarketDataService.getCandles(share.figi(), interval, candleInterval)).thenReturn(candles);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.ABOVE)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.ABOVE)) {
             final Map<String, Decision> decisions = strategy.decide(decisionsData, botConfig, interval);
 
             Assertions.assertEquals(1, decisions.size());
@@ -433,7 +449,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final String accountId = TestAccounts.TINKOFF.getId();
         final List<String> figies = List.of(share.figi());
@@ -443,11 +459,11 @@ class CrossStrategyUnitTest {
         final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 9, 11);
         final Interval interval = Interval.of(from, to);
 
-        final Candle candle = new Candle().setClose(BigDecimal.ZERO);
+        final Candle candle = new Candle().setOpen(BigDecimal.ZERO).setClose(BigDecimal.ZERO).setTime(from);
         final List<Candle> candles = List.of(candle);
         Mockito.when(extMarketDataService.getCandles(share.figi(), interval, candleInterval)).thenReturn(candles);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.ABOVE)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.ABOVE)) {
             final Map<String, Decision> decisions = strategy.decide(decisionsData, botConfig, interval);
 
             Assertions.assertEquals(1, decisions.size());
@@ -481,7 +497,7 @@ class CrossStrategyUnitTest {
                 3,
                 5
         );
-        final CrossStrategy strategy = new CrossStrategy(strategyName, strategyParams, extMarketDataService, averager);
+        final CrossStrategy strategy = new CrossStrategy(strategyName, strategyParams, extMarketDataService, averager, movingAveragesCache);
 
         final List<String> figies = List.of(share.figi());
         final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
@@ -494,7 +510,7 @@ class CrossStrategyUnitTest {
         final OffsetDateTime to = DateTimeTestData.newDateTime(2023, 9, 11);
         final Interval interval = Interval.of(from, to);
 
-        try (@SuppressWarnings("unused") final MockedStatic<TrendUtils> trendUtilsStaticMock = mock_TrendUtils_getCrossoverIfLast(Crossover.ABOVE)) {
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.ABOVE)) {
             final Map<String, Decision> decisions = strategy.decide(decisionsData, botConfig, interval);
 
             Assertions.assertEquals(1, decisions.size());
@@ -503,17 +519,292 @@ class CrossStrategyUnitTest {
         }
     }
 
+    @Test
+    void decide_calculatesSignalOnce_whenCalledWithSameInterval() {
+        final Share share = TestShares.SBER.share();
+
+        final DecisionData decisionData = TestData.newDecisionData1(share, 9L);
+
+        final DecisionsData decisionsData = new DecisionsData();
+        decisionsData.setCommission(DecimalUtils.setDefaultScale(0.003));
+        decisionsData.setDecisionDatas(List.of(decisionData));
+
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
+
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final List<String> figies = List.of(share.figi());
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        final BotConfig botConfig = new BotConfig(accountId, figies, candleInterval, DecimalUtils.ZERO, StrategyType.CROSS, Map.of());
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 9, 10);
+        final Interval interval1 = Interval.of(from, DateTimeTestData.newDateTime(2023, 9, 11));
+        final Interval interval2 = Interval.of(from, DateTimeTestData.newDateTime(2023, 9, 12));
+
+        try (final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.BELOW)) {
+            strategy.decide(decisionsData, botConfig, interval1);
+            strategy.decide(decisionsData, botConfig, interval1);
+            strategy.decide(decisionsData, botConfig, interval2);
+
+            final long crossoverChecks = detectorConstruction.constructed().stream()
+                    .flatMap(detector -> Mockito.mockingDetails(detector).getInvocations().stream())
+                    .filter(invocation -> invocation.getMethod().getName().equals("getCrossoverIfLast"))
+                    .count();
+            Assertions.assertEquals(2, crossoverChecks);
+        }
+
+        Mockito.verify(extMarketDataService, Mockito.times(1)).getCandles(share.figi(), interval1, candleInterval);
+        Mockito.verify(extMarketDataService, Mockito.times(1)).getCandles(share.figi(), interval2, candleInterval);
+        Mockito.verifyNoInteractions(averager);
+    }
+
+    @Test
+    void decide_calculatesAveragesOfNewCandlesOnly_whenCandlesContinuePreviousOnes() {
+        final List<Integer> prices = List.of(100, 102, 105, 103, 101, 99, 98, 100, 104, 107, 110, 108, 105, 103, 100);
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 9, 10);
+        final List<Candle> candles1 = TestData.newCandles(prices.subList(0, 10), from);
+        final List<Candle> candles2 = TestData.newCandles(prices, from);
+
+        final List<List<BigDecimal>> actualAverages = new ArrayList<>();
+        final List<Crossover> actualCrossovers = new ArrayList<>();
+        decideTwice(candles1, candles2, actualAverages, actualCrossovers);
+
+        final List<BigDecimal> values = candles2.stream().map(Candle::getOpen).toList();
+        AssertUtils.assertEquals(averager.getAverages(values, 3), actualAverages.get(2));
+        AssertUtils.assertEquals(averager.getAverages(values, 5), actualAverages.get(3));
+        assertCrossovers(actualAverages, actualCrossovers, candles1.size(), candles2.size());
+        Mockito.verify(averager, Mockito.times(1)).createAverage(3, 1);
+        Mockito.verify(averager, Mockito.times(1)).createAverage(5, 1);
+    }
+
+    @Test
+    void decide_recalculatesAverages_whenCandlesDoNotContinuePreviousOnes() {
+        final List<Integer> prices = List.of(100, 102, 105, 103, 101, 99, 98, 100, 104, 107, 110, 108, 105, 103, 100);
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 9, 10);
+        final List<Candle> candles1 = TestData.newCandles(prices.subList(0, 10), from);
+        final List<Candle> candles2 = TestData.newCandles(prices.subList(5, 15), from.plusMinutes(5));
+
+        final List<List<BigDecimal>> actualAverages = new ArrayList<>();
+        final List<Crossover> actualCrossovers = new ArrayList<>();
+        decideTwice(candles1, candles2, actualAverages, actualCrossovers);
+
+        final List<BigDecimal> values = candles2.stream().map(Candle::getOpen).toList();
+        AssertUtils.assertEquals(averager.getAverages(values, 3), actualAverages.get(2));
+        AssertUtils.assertEquals(averager.getAverages(values, 5), actualAverages.get(3));
+        assertCrossovers(actualAverages, actualCrossovers, candles1.size(), candles2.size());
+        Mockito.verify(averager, Mockito.times(2)).createAverage(3, 1);
+        Mockito.verify(averager, Mockito.times(2)).createAverage(5, 1);
+    }
+
+    @Test
+    void decide_calculatesBatchAveragesAndDetectsCrossovers_whenHeadOfLiveCandlesSlides() {
+        final List<Integer> prices = List.of(100, 102, 105, 103, 101, 99, 98, 100, 104, 107, 110, 108, 105, 103, 100);
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 9, 10);
+        final List<Candle> candles1 = TestData.newCandles(prices.subList(0, 10), from);
+        final List<Candle> candles2 = TestData.newCandles(prices.subList(2, 12), from.plusMinutes(2));
+
+        final List<List<BigDecimal>> actualAverages = new ArrayList<>();
+        final List<Crossover> actualCrossovers = new ArrayList<>();
+        final OffsetDateTime mockedNow = candles1.getLast().getTime().plusSeconds(30);
+        try (@SuppressWarnings("unused") final MockedStatic<OffsetDateTime> offsetDateTimeStaticMock = Mocker.mockNow(mockedNow)) {
+            decideTwice(candles1, candles2, actualAverages, actualCrossovers);
+        }
+
+        final List<BigDecimal> values = candles2.stream().map(Candle::getOpen).toList();
+        AssertUtils.assertEquals(averager.getAverages(values, 3), actualAverages.get(2));
+        AssertUtils.assertEquals(averager.getAverages(values, 5), actualAverages.get(3));
+        assertCrossovers(actualAverages, actualCrossovers, candles1.size(), candles2.size());
+        Mockito.verify(averager, Mockito.times(2)).createAverage(3, 1);
+        Mockito.verify(averager, Mockito.times(2)).createAverage(5, 1);
+    }
+
+    @Test
+    void decide_detectsSameCrossoversAsBatchAverages_whenHeadOfLiveCandlesSlides() {
+        final MovingAverager exponentialAverager = new ExponentialMovingAverager();
+        final List<Integer> prices = List.of(100, 102, 105, 103, 101, 99, 98, 100, 104, 107, 110, 108, 105, 103, 100, 97, 99, 102, 106, 104);
+        final Share share = TestShares.SBER.share();
+
+        final DecisionsData decisionsData = new DecisionsData();
+        decisionsData.setCommission(DecimalUtils.setDefaultScale(0.003));
+        decisionsData.setDecisionDatas(List.of(TestData.newDecisionData1(share, 9L)));
+
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy =
+                new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, exponentialAverager, movingAveragesCache);
+        final BotConfig botConfig = newBotConfig(List.of(share.figi()));
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 9, 10);
+        final int size = 10;
+        final int index = (int) (0.6f * (size - 1));
+
+        final List<Crossover> expectedCrossovers = new ArrayList<>();
+        final List<Crossover> actualCrossovers = new ArrayList<>();
+        for (int start = 0; start + size <= prices.size(); start++) {
+            final List<Candle> candles = TestData.newCandles(prices.subList(start, start + size), from.plusMinutes(start));
+            final Interval interval = Interval.of(candles.getFirst().getTime(), candles.getLast().getTime().plusMinutes(1));
+            Mockito.when(extMarketDataService.getCandles(share.figi(), interval, botConfig.candleInterval())).thenReturn(candles);
+
+            final OffsetDateTime mockedNow = candles.getLast().getTime().plusSeconds(30);
+            try (@SuppressWarnings("unused") final MockedStatic<OffsetDateTime> offsetDateTimeStaticMock = Mocker.mockNow(mockedNow)) {
+                strategy.decide(decisionsData, botConfig, interval);
+            }
+
+            final List<BigDecimal> values = candles.stream().map(Candle::getOpen).toList();
+            final List<BigDecimal> shortAverages = exponentialAverager.getAverages(values, 3, 1);
+            final List<BigDecimal> longAverages = exponentialAverager.getAverages(values, 5, 1);
+            expectedCrossovers.add(TrendUtils.getCrossoverIfLast(shortAverages, longAverages, index));
+            actualCrossovers.add(getLastCrossover(strategy));
+        }
+
+        Assertions.assertEquals(expectedCrossovers, actualCrossovers);
+        Assertions.assertTrue(expectedCrossovers.stream().anyMatch(crossover -> crossover != Crossover.NONE), expectedCrossovers.toString());
+    }
+
+    /**
+     * Calls {@link CrossStrategy#decide} with intervals, for which {@code candles1} and then {@code candles2} are returned,
+     * adds copies of averages returned by {@link MovingAveragesCache} to {@code actualAverages}
+     * and crossovers of signals calculated by strategy to {@code actualCrossovers}
+     */
+    @SuppressWarnings("unchecked")
+    private void decideTwice(
+            final List<Candle> candles1,
+            final List<Candle> candles2,
+            final List<List<BigDecimal>> actualAverages,
+            final List<Crossover> actualCrossovers
+    ) {
+        final Share share = TestShares.SBER.share();
+
+        final DecisionsData decisionsData = new DecisionsData();
+        decisionsData.setCommission(DecimalUtils.setDefaultScale(0.003));
+        decisionsData.setDecisionDatas(List.of(TestData.newDecisionData1(share, 9L)));
+
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
+
+        final BotConfig botConfig = newBotConfig(List.of(share.figi()));
+        final CandleInterval candleInterval = botConfig.candleInterval();
+        final OffsetDateTime from = DateTimeTestData.newDateTime(2023, 9, 10);
+        final Interval interval1 = Interval.of(from, DateTimeTestData.newDateTime(2023, 9, 11));
+        final Interval interval2 = Interval.of(from, DateTimeTestData.newDateTime(2023, 9, 12));
+        Mockito.when(extMarketDataService.getCandles(share.figi(), interval1, candleInterval)).thenReturn(candles1);
+        Mockito.when(extMarketDataService.getCandles(share.figi(), interval2, candleInterval)).thenReturn(candles2);
+
+        Mockito.doAnswer(invocation -> {
+            final List<BigDecimal> averages = (List<BigDecimal>) invocation.callRealMethod();
+            actualAverages.add(new ArrayList<>(averages));
+            return averages;
+        }).when(movingAveragesCache).getAverages(
+                Mockito.any(MovingAverager.class),
+                Mockito.anyString(),
+                Mockito.any(CandleInterval.class),
+                Mockito.anyList(),
+                Mockito.anyInt(),
+                Mockito.anyInt()
+        );
+
+        strategy.decide(decisionsData, botConfig, interval1);
+        actualCrossovers.add(getLastCrossover(strategy));
+        strategy.decide(decisionsData, botConfig, interval2);
+        actualCrossovers.add(getLastCrossover(strategy));
+    }
+
+    private static Crossover getLastCrossover(final CrossStrategy strategy) {
+        final Object lastSignal = ReflectionTestUtils.getField(strategy, "lastSignal");
+        Assertions.assertNotNull(lastSignal);
+        return ReflectionTestUtils.invokeMethod(lastSignal, "crossover");
+    }
+
     // endregion
 
-    private static MockedStatic<TrendUtils> mock_TrendUtils_getCrossoverIfLast(final Crossover crossover) {
-        final MockedStatic<TrendUtils> trendUtilsStaticMock =
-                Mockito.mockStatic(TrendUtils.class, Mockito.CALLS_REAL_METHODS);
+    // region isAlwaysWaiting tests
+
+    @Test
+    void isAlwaysWaiting_returnsTrue_whenCrossoverIsNone() {
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
+
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.SBER.getFigi()));
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 9, 10), DateTimeTestData.newDateTime(2023, 9, 11));
+
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.NONE)) {
+            Assertions.assertTrue(strategy.isAlwaysWaiting(botConfig, interval));
+        }
+    }
+
+    @Test
+    void isAlwaysWaiting_returnsFalse_whenCrossoverIsBelow() {
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
+
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.SBER.getFigi()));
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 9, 10), DateTimeTestData.newDateTime(2023, 9, 11));
 
-        trendUtilsStaticMock.when(
-                () -> TrendUtils.getCrossoverIfLast(Mockito.anyList(), Mockito.anyList(), Mockito.anyInt())
-        ).thenReturn(crossover);
+        try (@SuppressWarnings("unused") final MockedConstruction<CrossoverDetector> detectorConstruction = mockCrossoverDetector(Crossover.BELOW)) {
+            Assertions.assertFalse(strategy.isAlwaysWaiting(botConfig, interval));
+        }
+    }
+
+    @Test
+    void isAlwaysWaiting_returnsFalse_whenMultipleFigies() {
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
+
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.SBER.getFigi(), TestShares.APPLE.getFigi()));
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 9, 10), DateTimeTestData.newDateTime(2023, 9, 11));
+
+        Assertions.assertFalse(strategy.isAlwaysWaiting(botConfig, interval));
+        Mockito.verifyNoInteractions(extMarketDataService, averager);
+    }
+
+    @Test
+    void isAlwaysWaiting_returnsFalse_whenSignalCalculationFails() {
+        final CrossStrategyParams strategyParams = new CrossStrategyParams(0.1f, 1, 0.6f, false, 3, 5);
+        final CrossStrategy strategy = new CrossStrategy(StringUtils.EMPTY, strategyParams, extMarketDataService, averager, movingAveragesCache);
+
+        final BotConfig botConfig = newBotConfig(List.of(TestShares.SBER.getFigi()));
+        final Interval interval = Interval.of(DateTimeTestData.newDateTime(2023, 9, 10), DateTimeTestData.newDateTime(2023, 9, 11));
+
+        Mockito.when(extMarketDataService.getCandles(Mockito.anyString(), Mockito.any(Interval.class), Mockito.any(CandleInterval.class)))
+                .thenThrow(new IllegalArgumentException());
 
-        return trendUtilsStaticMock;
+        Assertions.assertFalse(strategy.isAlwaysWaiting(botConfig, interval));
+    }
+
+    private static BotConfig newBotConfig(final List<String> figies) {
+        final String accountId = TestAccounts.TINKOFF.getId();
+        final CandleInterval candleInterval = CandleInterval.CANDLE_INTERVAL_1_MIN;
+        return new BotConfig(accountId, figies, candleInterval, DecimalUtils.ZERO, StrategyType.CROSS, Map.of());
+    }
+
+    // endregion
+
+    /**
+     * Asserts that crossovers returned for every call of {@link #decideTwice} are equal to crossovers found by full rescan
+     * of averages of that call
+     */
+    private static void assertCrossovers(
+            final List<List<BigDecimal>> actualAverages,
+            final List<Crossover> actualCrossovers,
+            final int size1,
+            final int size2
+    ) {
+        final int index1 = (int) (0.6f * (size1 - 1));
+        final int index2 = (int) (0.6f * (size2 - 1));
+        final Crossover expectedCrossover1 = TrendUtils.getCrossoverIfLast(actualAverages.get(0), actualAverages.get(1), index1);
+        final Crossover expectedCrossover2 = TrendUtils.getCrossoverIfLast(actualAverages.get(2), actualAverages.get(3), index2);
+        Assertions.assertEquals(List.of(expectedCrossover1, expectedCrossover2), actualCrossovers);
+    }
+
+    /**
+     * Makes every {@link CrossoverDetector} created within returned scope find given {@code crossover}
+     */
+    private static MockedConstruction<CrossoverDetector> mockCrossoverDetector(final Crossover crossover) {
+        return Mockito.mockConstruction(
+                CrossoverDetector.class,
+                Mockito.withSettings().defaultAnswer(invocation -> switch (invocation.getMethod().getName()) {
+                    case "copy" -> invocation.getMock();
+                    case "getCrossoverIfLast" -> crossover;
+                    default -> Mockito.RETURNS_DEFAULTS.answer(invocation);
+                })
+        );
     }
 
-}
\ No newline at end of file
+}
@@ -15,6 +15,7 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
 import ru.obukhov.trader.common.service.impl.MovingAverager;
 import ru.obukhov.trader.market.impl.ExtMarketDataService;
+import ru.obukhov.trader.market.impl.MovingAveragesCache;
 import ru.obukhov.trader.market.model.MovingAverageType;
 import ru.obukhov.trader.test.utils.AssertUtils;
 import ru.obukhov.trader.trading.model.StrategyType;
@@ -32,6 +33,8 @@ class TradingStrategyFactoryUnitTest {
     private ApplicationContext applicationContext;
     @Mock
     private ExtMarketDataService extMarketDataService;
+    @Mock
+    private MovingAveragesCache movingAveragesCache;
     @InjectMocks
     private TradingStrategyFactory factory;
 
@@ -81,6 +84,19 @@ class TradingStrategyFactoryUnitTest {
                                 "bigWindow", 20
                         ),
                         "CROSS EWMA [minimumProfit=0.2, order=1, indexCoefficient=0.5, greedy=false, smallWindow=10, bigWindow=20]"
+                ),
+                Arguments.of(
+                        StrategyType.CROSS,
+                        Map.of(
+                                "minimumProfit", 0.2,
+                                "movingAverageType", MovingAverageType.SIMPLE_DOUBLE.getValue(),
+                                "order", 1,
+                                "indexCoefficient", 0.5,
+                                "greedy", false,
+                                "smallWindow", 10,
+                                "bigWindow", 20
+                        ),
+                        "CROSS SMA_DOUBLE [minimumProfit=0.2, order=1, indexCoefficient=0.5, greedy=false, smallWindow=10, bigWindow=20]"
                 )
         );
     }
@@ -310,7 +326,7 @@ class TradingStrategyFactoryUnitTest {
         final String averagerName = MovingAverageType.SIMPLE.getAveragerName();
         Mockito.when(applicationContext.getBean(averagerName, MovingAverager.class))
                 .thenThrow(new NoSuchBeanDefinitionException(MovingAverager.class));
-        factory = new TradingStrategyFactory(applicationContext, extMarketDataService);
+        factory = new TradingStrategyFactory(applicationContext, extMarketDataService, movingAveragesCache);
 
         final String expectedMessage = "No qualifying bean of type 'ru.obukhov.trader.common.service.impl.MovingAverager' available";
 
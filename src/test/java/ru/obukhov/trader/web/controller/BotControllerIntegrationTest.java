@@ -1,5 +1,7 @@
 package ru.obukhov.trader.web.controller;
 
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -292,6 +294,7 @@ class BotControllerIntegrationTest extends ControllerIntegrationTest {
                 Collections.emptyList(),
                 Map.of(currency, List.of(operation)),
                 Map.of(currency, List.of(candle)),
+                null,
                 null
         );
 
@@ -318,14 +321,117 @@ class BotControllerIntegrationTest extends ControllerIntegrationTest {
                 List.of(backTestPosition2),
                 Map.of(currency, Collections.emptyList()),
                 Map.of(currency, Collections.emptyList()),
+                null,
                 null
         );
 
         final List<BackTestResult> backTestResults = List.of(backTestResult1, backTestResult2);
+        // times depend on speed of test execution, so they are not checked
+        final ArrayNode expectedResponse = TestUtils.OBJECT_MAPPER.valueToTree(backTestResults);
+        expectedResponse.forEach(result -> ((ObjectNode) result).remove("times"));
 
         // action & assertion
 
-        assertResponse(requestBuilder, backTestResults);
+        assertResponse(requestBuilder, expectedResponse.toString());
+    }
+
+    @Test
+    void backTest_returnsBadRequestWithReason_whenCostExceedsBudget() throws Exception {
+        final TestShare share = TestShares.APPLE;
+
+        final BackTestRequest request = new BackTestRequest();
+        request.setFrom(DateTimeTestData.newDateTime(1990, 1, 1));
+        request.setTo(DateTimeTestData.newDateTime(2020, 1, 1));
+        request.setBalanceConfig(TestData.newBalanceConfig(share.getCurrency(), 1000.0, 100.0, "0 0 0 1 * ?"));
+        request.setSaveToFiles(false);
+
+        final BotConfig botConfig = new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                List.of(share.getFigi()),
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                DecimalUtils.setDefaultScale(0.001),
+                StrategyType.CONSERVATIVE,
+                Map.of("minimumProfit", 0.01)
+        );
+        request.setBotConfigs(Collections.nCopies(10, botConfig));
+
+        final MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/trader/bot/back-test")
+                .content(TestUtils.OBJECT_MAPPER.writeValueAsString(request))
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.reason").value("COST_EXCEEDS_BUDGET"))
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    @Test
+    void backTestDryRun_returnsEstimatesOfBotConfigs() throws Exception {
+        final TestShare share = TestShares.APPLE;
+
+        final BackTestRequest request = new BackTestRequest();
+        request.setFrom(DateTimeTestData.newDateTime(2022, 1, 1));
+        request.setTo(DateTimeTestData.newDateTime(2022, 1, 3));
+        request.setBalanceConfig(TestData.newBalanceConfig(share.getCurrency(), 1000.0, null));
+        request.setSaveToFiles(false);
+
+        final BotConfig botConfig1 = new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                List.of(share.getFigi()),
+                CandleInterval.CANDLE_INTERVAL_1_MIN,
+                DecimalUtils.setDefaultScale(0.001),
+                StrategyType.CONSERVATIVE,
+                Collections.emptyMap()
+        );
+        final BotConfig botConfig2 = new BotConfig(
+                TestAccounts.TINKOFF.getId(),
+                List.of(share.getFigi()),
+                CandleInterval.CANDLE_INTERVAL_HOUR,
+                DecimalUtils.setDefaultScale(0.001),
+                StrategyType.CONSERVATIVE,
+                Collections.emptyMap()
+        );
+        request.setBotConfigs(List.of(botConfig1, botConfig2));
+
+        final MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/trader/bot/back-test/dry-run")
+                .content(TestUtils.OBJECT_MAPPER.writeValueAsString(request))
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].apiCalls").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].ticks").value(2 * 24 * 60))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].candles").value(2 * 24 * 60))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].apiCalls").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].candles").value(2 * 24))
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    @Test
+    void getBackTestSchedulerStatistics_returnsBudget() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trader/bot/back-test/scheduler"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.budget.cpu").value(100000000))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.budget.memory").value(5000000))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.runningJobs").value(0))
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    // endregion
+
+    // region backTestPartition tests
+
+    @Test
+    void backTestPartition_returnsBadRequest_whenBotsConfigsIsEmpty() throws Exception {
+        final BackTestRequest request = new BackTestRequest();
+        request.setFrom(DateTimeTestData.newDateTime(2021, 1, 1, 10));
+        request.setTo(null);
+        request.setBalanceConfig(TestData.newBalanceConfig(Currencies.RUB, 1000.0, 100.0, "0 0 0 1 * ?"));
+        request.setSaveToFiles(false);
+        request.setBotConfigs(Collections.emptyList());
+
+        assertPostBadRequestError("/trader/bot/back-test/partition", request, "botConfigs is mandatory");
     }
 
     // endregion
@@ -13,6 +13,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.obukhov.trader.common.model.Interval;
 import ru.obukhov.trader.common.service.interfaces.ExcelService;
 import ru.obukhov.trader.common.util.DateUtils;
@@ -343,6 +344,66 @@ class StatisticsControllerIntegrationTest extends ControllerIntegrationTest {
 
     // endregion
 
+    @Test
+    void getMovingAveragesCacheStatistics_returnsStatistics() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trader/statistics/moving-averages-cache"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.series").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.cachedAverages").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hitRate").isNumber())
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    @Test
+    void getApiCallsQueuesStatistics_returnsStatisticsOfEveryTargetAndPriority() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trader/statistics/api-calls-queues"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(27))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].target").value("InstrumentService"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].priority").value("LIVE"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].priority").value("BACKGROUND"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].averageWaitMillis").isNumber())
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    @Test
+    void getApiCallsMetrics_returnsMetricsOfEveryTarget() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trader/statistics/api-calls"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(9))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].target").value("InstrumentService"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].limit").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].target").value("OperationsService.getBrokerReport*"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].limit").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].waitTimeHistogram['+Inf']").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].resourceExhaustedErrors").isNumber())
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    @Test
+    void getApiChannelsMetrics_returnsMetricsOfEveryChannel() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trader/statistics/api-channels"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].channel").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].channel").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].state").isString())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].activeCalls").value(0))
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
+    @Test
+    void getApiRetriesMetrics_returnsMetricsOfEveryTarget() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/trader/statistics/api-retries"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].target").value("InstrumentService"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].target").value("MarketDataService.getCandles*"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].retries").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].hedges").isNumber())
+                .andExpect(JSON_CONTENT_MATCHER);
+    }
+
     @Test
     @DirtiesContext
     void getIndexWeights() throws Exception {
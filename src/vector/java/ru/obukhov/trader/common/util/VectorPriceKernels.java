@@ -0,0 +1,41 @@
+package ru.obukhov.trader.common.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PriceKernels} vectorized by Vector API with preferred species of the platform.
+ * Only combining of block sums of simple moving average is vectorized, see {@code src/jmh/results/PriceKernelsBenchmark.txt}.
+ * Prefix sums of blocks are left to scalar loops of {@link ScalarPriceKernels}: in-register scan carries the sum
+ * between vectors serially and measured slower than plain loop. Vectorized combining of linear weighted sums
+ * measured not faster than scalar one, so it is left to scalar loop too. Tails shorter than vector are processed by scalar loops.<br/>
+ * Compiled only with {@code vector} Maven profile and loaded by {@link PriceKernels#getInstance()}
+ */
+class VectorPriceKernels extends ScalarPriceKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+
+    @Override
+    protected void combineSimpleSums(
+            final double[] sums,
+            final int window,
+            final int blockStart,
+            final int blockEnd,
+            final double[] averages
+    ) {
+        final double previousBlockSum = sums[blockStart - 1];
+        int i = blockStart;
+        for (; i + LENGTH <= blockEnd; i += LENGTH) {
+            DoubleVector.fromArray(SPECIES, sums, i)
+                    .add(previousBlockSum)
+                    .sub(DoubleVector.fromArray(SPECIES, sums, i - window))
+                    .div(window)
+                    .intoArray(averages, i);
+        }
+        for (; i < blockEnd; i++) {
+            averages[i] = (sums[i] + previousBlockSum - sums[i - window]) / window;
+        }
+    }
+
+}